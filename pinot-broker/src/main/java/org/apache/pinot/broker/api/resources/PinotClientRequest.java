@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.broker.api.resources;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.swagger.annotations.Api;
@@ -25,6 +26,7 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.util.concurrent.CompletionException;
 import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -36,6 +38,7 @@ import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.requesthandler.BrokerRequestHandler;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -43,7 +46,6 @@ import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.common.utils.CommonConstants.Broker.Request;
 import org.apache.pinot.spi.utils.JsonUtils;
-import org.glassfish.jersey.server.ManagedAsync;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +54,7 @@ import org.slf4j.LoggerFactory;
 @Path("/")
 public class PinotClientRequest {
   private static final Logger LOGGER = LoggerFactory.getLogger(PinotClientRequest.class);
+  private static final String STREAM_RESPONSE = "streamResponse";
 
   @Inject
   private BrokerRequestHandler requestHandler;
@@ -60,7 +63,6 @@ public class PinotClientRequest {
   private BrokerMetrics brokerMetrics;
 
   @GET
-  @ManagedAsync
   @Produces(MediaType.APPLICATION_JSON)
   @Path("query")
   @ApiOperation(value = "Querying pinot")
@@ -70,6 +72,7 @@ public class PinotClientRequest {
       @ApiParam(value = "Query", required = true) @QueryParam("bql") String query,
       @ApiParam(value = "Trace enabled") @QueryParam(Request.TRACE) String traceEnabled,
       @ApiParam(value = "Debug options") @QueryParam(Request.DEBUG_OPTIONS) String debugOptions,
+      @ApiParam(value = "Stream the response") @QueryParam(STREAM_RESPONSE) boolean streamResponse,
       @Suspended AsyncResponse asyncResponse) {
     try {
       ObjectNode requestJson = JsonUtils.newObjectNode();
@@ -80,35 +83,29 @@ public class PinotClientRequest {
       if (debugOptions != null) {
         requestJson.put(Request.DEBUG_OPTIONS, debugOptions);
       }
-      BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, null, new RequestStatistics());
-      asyncResponse.resume(brokerResponse.toJsonString());
+      processQueryAsync(requestJson, streamResponse, false, asyncResponse);
     } catch (Exception e) {
-      LOGGER.error("Caught exception while processing GET request", e);
-      brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_GET_EXCEPTIONS, 1L);
-      asyncResponse.resume(new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR));
+      handleException(e, false, asyncResponse);
     }
   }
 
   @POST
-  @ManagedAsync
   @Produces(MediaType.APPLICATION_JSON)
   @Path("query")
   @ApiOperation(value = "Querying pinot")
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Query response"), @ApiResponse(code = 500, message = "Internal Server Error")})
-  public void processQueryPost(String query, @Suspended AsyncResponse asyncResponse) {
+  public void processQueryPost(String query,
+      @ApiParam(value = "Stream the response") @QueryParam(STREAM_RESPONSE) boolean streamResponse,
+      @Suspended AsyncResponse asyncResponse) {
     try {
       JsonNode requestJson = JsonUtils.stringToJsonNode(query);
-      BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, null, new RequestStatistics());
-      asyncResponse.resume(brokerResponse);
+      processQueryAsync(requestJson, streamResponse, true, asyncResponse);
     } catch (Exception e) {
-      LOGGER.error("Caught exception while processing POST request", e);
-      brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_POST_EXCEPTIONS, 1L);
-      throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+      handleException(e, true, asyncResponse);
     }
   }
 
   @GET
-  @ManagedAsync
   @Produces(MediaType.APPLICATION_JSON)
   @Path("query/sql")
   @ApiOperation(value = "Querying pinot using sql")
@@ -116,6 +113,7 @@ public class PinotClientRequest {
   public void processSqlQueryGet(@ApiParam(value = "Query", required = true) @QueryParam("sql") String query,
       @ApiParam(value = "Trace enabled") @QueryParam(Request.TRACE) String traceEnabled,
       @ApiParam(value = "Debug options") @QueryParam(Request.DEBUG_OPTIONS) String debugOptions,
+      @ApiParam(value = "Stream the response") @QueryParam(STREAM_RESPONSE) boolean streamResponse,
       @Suspended AsyncResponse asyncResponse) {
     try {
       ObjectNode requestJson = JsonUtils.newObjectNode();
@@ -128,22 +126,20 @@ public class PinotClientRequest {
       if (debugOptions != null) {
         requestJson.put(Request.DEBUG_OPTIONS, debugOptions);
       }
-      BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, null, new RequestStatistics());
-      asyncResponse.resume(brokerResponse.toJsonString());
+      processQueryAsync(requestJson, streamResponse, false, asyncResponse);
     } catch (Exception e) {
-      LOGGER.error("Caught exception while processing GET request", e);
-      brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_GET_EXCEPTIONS, 1L);
-      asyncResponse.resume(new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR));
+      handleException(e, false, asyncResponse);
     }
   }
 
   @POST
-  @ManagedAsync
   @Produces(MediaType.APPLICATION_JSON)
   @Path("query/sql")
   @ApiOperation(value = "Querying pinot using sql")
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Query response"), @ApiResponse(code = 500, message = "Internal Server Error")})
-  public void processSqlQueryPost(String query, @Suspended AsyncResponse asyncResponse) {
+  public void processSqlQueryPost(String query,
+      @ApiParam(value = "Stream the response") @QueryParam(STREAM_RESPONSE) boolean streamResponse,
+      @Suspended AsyncResponse asyncResponse) {
     try {
       JsonNode requestJson = JsonUtils.stringToJsonNode(query);
       if (!requestJson.has(Request.SQL)) {
@@ -152,13 +148,51 @@ public class PinotClientRequest {
       String queryOptions = constructSqlQueryOptions();
       // the only query options as of now are sql related. do not allow any custom query options in sql endpoint
       ObjectNode sqlRequestJson = ((ObjectNode) requestJson).put(Request.QUERY_OPTIONS, queryOptions);
-      BrokerResponse brokerResponse = requestHandler.handleRequest(sqlRequestJson, null, new RequestStatistics());
-      asyncResponse.resume(brokerResponse.toJsonString());
+      processQueryAsync(sqlRequestJson, streamResponse, true, asyncResponse);
     } catch (Exception e) {
-      LOGGER.error("Caught exception while processing POST request", e);
+      handleException(e, true, asyncResponse);
+    }
+  }
+
+  /**
+   * Handles the request without blocking the request thread while waiting for the servers' responses, and resumes the
+   * async response when the broker response is ready.
+   * <p>When {@code streamResponse} is set, the broker response is serialized directly into the response output stream
+   * instead of being materialized as a string first, which reduces the memory footprint for large selection results.
+   */
+  private void processQueryAsync(JsonNode requestJson, boolean streamResponse, boolean isPost,
+      AsyncResponse asyncResponse) {
+    requestHandler.handleRequestAsync(requestJson, null, new RequestStatistics())
+        .whenComplete((brokerResponse, throwable) -> {
+          if (throwable != null) {
+            handleException(throwable, isPost, asyncResponse);
+            return;
+          }
+          try {
+            if (streamResponse) {
+              asyncResponse.resume((StreamingOutput) outputStream -> JsonUtils.DEFAULT_WRITER
+                  .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(outputStream, brokerResponse));
+            } else {
+              asyncResponse.resume(brokerResponse.toJsonString());
+            }
+          } catch (Exception e) {
+            handleException(e, isPost, asyncResponse);
+          }
+        });
+  }
+
+  private void handleException(Throwable t, boolean isPost, AsyncResponse asyncResponse) {
+    if (t instanceof CompletionException && t.getCause() != null) {
+      t = t.getCause();
+    }
+    if (isPost) {
+      LOGGER.error("Caught exception while processing POST request", t);
       brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_POST_EXCEPTIONS, 1L);
-      asyncResponse.resume(new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR));
+    } else {
+      LOGGER.error("Caught exception while processing GET request", t);
+      brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_GET_EXCEPTIONS, 1L);
     }
+    asyncResponse.resume(new WebApplicationException(t, Response.Status.INTERNAL_SERVER_ERROR));
   }
 
   private String constructSqlQueryOptions() {
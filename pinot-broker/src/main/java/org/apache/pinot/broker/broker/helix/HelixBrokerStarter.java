@@ -59,6 +59,7 @@ import org.apache.pinot.common.utils.CommonConstants.Helix;
 import org.apache.pinot.common.utils.NetUtil;
 import org.apache.pinot.common.utils.ServiceStatus;
 import org.apache.pinot.common.utils.config.TagNameUtils;
+import org.apache.pinot.core.transport.ServerLatencyTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -186,7 +187,15 @@ public class HelixBrokerStarter {
         !_brokerConf.getBoolean(Broker.CONFIG_OF_ENABLE_TABLE_LEVEL_METRICS, !Broker.DEFAULT_METRICS_GLOBAL_ENABLED));
     _brokerMetrics.initializeGlobalMeters();
     // Set up request handling classes
-    _routingManager = new RoutingManager(_brokerMetrics);
+    ServerLatencyTracker serverLatencyTracker = null;
+    if (_brokerConf.getBoolean(Broker.CONFIG_OF_ENABLE_LATENCY_AWARE_INSTANCE_SELECTION,
+        Broker.DEFAULT_ENABLE_LATENCY_AWARE_INSTANCE_SELECTION)) {
+      double ewmaAlpha = _brokerConf.getDouble(Broker.CONFIG_OF_LATENCY_AWARE_INSTANCE_SELECTION_EWMA_ALPHA,
+          ServerLatencyTracker.DEFAULT_EWMA_ALPHA);
+      LOGGER.info("Enabling latency-aware instance selection with EWMA alpha: {}", ewmaAlpha);
+      serverLatencyTracker = new ServerLatencyTracker(ewmaAlpha);
+    }
+    _routingManager = new RoutingManager(_brokerMetrics, serverLatencyTracker);
     _routingManager.init(_spectatorHelixManager);
     _accessControlFactory = AccessControlFactory.loadFactory(_brokerConf.subset(Broker.ACCESS_CONTROL_CONFIG_PREFIX));
     HelixExternalViewBasedQueryQuotaManager queryQuotaManager =
@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -103,6 +104,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   private final boolean _enableCaseInsensitivePql;
   private final boolean _enableQueryLimitOverride;
   private final TableCache _tableCache;
+  // Only cache the queries on OFFLINE tables, null if the result cache is disabled
+  private final BrokerResultCache _resultCache;
 
   public BaseBrokerRequestHandler(Configuration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, BrokerMetrics brokerMetrics,
@@ -131,6 +134,14 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         Broker.DEFAULT_BROKER_QUERY_LOG_MAX_RATE_PER_SECOND));
     _numDroppedLog = new AtomicInteger(0);
     _numDroppedLogRateLimiter = RateLimiter.create(1.0);
+    long resultCacheMaxSizeInBytes = config.getLong(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES);
+    if (resultCacheMaxSizeInBytes > 0) {
+      LOGGER.info("Enabling broker result cache with max size: {} bytes", resultCacheMaxSizeInBytes);
+      _resultCache = new BrokerResultCache(resultCacheMaxSizeInBytes);
+    } else {
+      _resultCache = null;
+    }
 
     LOGGER
         .info("Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps",
@@ -146,11 +157,35 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     }
   }
 
-  @SuppressWarnings("Duplicates")
   @Override
   public BrokerResponse handleRequest(JsonNode request, @Nullable RequesterIdentity requesterIdentity,
       RequestStatistics requestStatistics)
       throws Exception {
+    // The future is always completed when processing the request synchronously
+    return handleRequestInternal(request, requesterIdentity, requestStatistics, false).get();
+  }
+
+  @Override
+  public CompletableFuture<BrokerResponse> handleRequestAsync(JsonNode request,
+      @Nullable RequesterIdentity requesterIdentity, RequestStatistics requestStatistics) {
+    try {
+      return handleRequestInternal(request, requesterIdentity, requestStatistics, true);
+    } catch (Exception e) {
+      CompletableFuture<BrokerResponse> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+  }
+
+  /**
+   * Handles the request. When {@code async} is {@code true}, the returned future is completed after the servers
+   * respond without blocking the caller thread, otherwise the request is processed synchronously and the returned
+   * future is already completed.
+   */
+  @SuppressWarnings("Duplicates")
+  private CompletableFuture<BrokerResponse> handleRequestInternal(JsonNode request,
+      @Nullable RequesterIdentity requesterIdentity, RequestStatistics requestStatistics, boolean async)
+      throws Exception {
     long requestId = _requestIdGenerator.incrementAndGet();
     requestStatistics.setBrokerId(_brokerId);
     requestStatistics.setRequestId(requestId);
@@ -182,7 +217,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       LOGGER.info("Caught exception while compiling request {}: {}, {}", requestId, query, e.getMessage());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1);
       requestStatistics.setErrorCode(QueryException.PQL_PARSING_ERROR_CODE);
-      return new BrokerResponseNative(QueryException.getException(QueryException.PQL_PARSING_ERROR, e));
+      return CompletableFuture.completedFuture(
+          new BrokerResponseNative(QueryException.getException(QueryException.PQL_PARSING_ERROR, e)));
     }
     String tableName = brokerRequest.getQuerySource().getTableName();
     String rawTableName = TableNameBuilder.extractRawTableName(tableName);
@@ -198,7 +234,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       _brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.REQUEST_DROPPED_DUE_TO_ACCESS_ERROR, 1);
       LOGGER.info("Access denied for requestId {}, table {}", requestId, tableName);
       requestStatistics.setErrorCode(QueryException.ACCESS_DENIED_ERROR_CODE);
-      return new BrokerResponseNative(QueryException.ACCESS_DENIED_ERROR);
+      return CompletableFuture.completedFuture(new BrokerResponseNative(QueryException.ACCESS_DENIED_ERROR));
     }
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.AUTHORIZATION, System.nanoTime() - compilationEndTimeNs);
@@ -233,7 +269,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       LOGGER.info("No table matches for request {}: {}", requestId, query);
       requestStatistics.setErrorCode(QueryException.BROKER_RESOURCE_MISSING_ERROR_CODE);
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESOURCE_MISSING_EXCEPTIONS, 1);
-      return BrokerResponseNative.NO_TABLE_RESULT;
+      return CompletableFuture.completedFuture(BrokerResponseNative.NO_TABLE_RESULT);
     }
 
     // Validate QPS quota
@@ -243,7 +279,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       LOGGER.info(errorMessage);
       requestStatistics.setErrorCode(QueryException.TOO_MANY_REQUESTS_ERROR_CODE);
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_QUOTA_EXCEEDED, 1);
-      return new BrokerResponseNative(QueryException.getException(QueryException.QUOTA_EXCEEDED_ERROR, errorMessage));
+      return CompletableFuture.completedFuture(
+          new BrokerResponseNative(QueryException.getException(QueryException.QUOTA_EXCEEDED_ERROR, errorMessage)));
     }
 
     // Validate the request
@@ -253,7 +290,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       LOGGER.info("Caught exception while validating request {}: {}, {}", requestId, query, e.getMessage());
       requestStatistics.setErrorCode(QueryException.QUERY_VALIDATION_ERROR_CODE);
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_VALIDATION_EXCEPTIONS, 1);
-      return new BrokerResponseNative(QueryException.getException(QueryException.QUERY_VALIDATION_ERROR, e));
+      return CompletableFuture.completedFuture(
+          new BrokerResponseNative(QueryException.getException(QueryException.QUERY_VALIDATION_ERROR, e)));
     }
 
     // Set extra settings into broker request
@@ -282,6 +320,27 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       requestStatistics.setFanoutType(RequestStatistics.FanoutType.REALTIME);
     }
 
+    // Check the result cache for queries on OFFLINE table only
+    // NOTE: Read the routing version before calculating the routing table so that the response is not cached with a
+    //       newer routing version
+    BrokerResultCache.CacheKey resultCacheKey = null;
+    if (_resultCache != null && realtimeBrokerRequest == null && !brokerRequest.isEnableTrace()) {
+      Long routingVersion = _routingManager.getRoutingVersion(offlineTableName);
+      if (routingVersion != null) {
+        resultCacheKey = new BrokerResultCache.CacheKey(offlineBrokerRequest, routingVersion);
+        BrokerResponseNative cachedBrokerResponse = _resultCache.get(resultCacheKey);
+        if (cachedBrokerResponse != null) {
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+          long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compilationStartTimeNs);
+          cachedBrokerResponse.setTimeUsedMs(totalTimeMs);
+          requestStatistics.setQueryProcessingTime(totalTimeMs);
+          requestStatistics.setStatistics(cachedBrokerResponse);
+          LOGGER.debug("Found cached response for request {}: {}", requestId, query);
+          return CompletableFuture.completedFuture(cachedBrokerResponse);
+        }
+      }
+    }
+
     // Calculate routing table for the query
     long routingStartTimeNs = System.nanoTime();
     Map<ServerInstance, List<String>> offlineRoutingTable = null;
@@ -322,7 +381,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     if (offlineBrokerRequest == null && realtimeBrokerRequest == null) {
       LOGGER.info("No server found for request {}: {}", requestId, query);
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NO_SERVER_FOUND_EXCEPTIONS, 1);
-      return BrokerResponseNative.EMPTY_RESULT;
+      return CompletableFuture.completedFuture(BrokerResponseNative.EMPTY_RESULT);
     }
     long routingEndTimeNs = System.nanoTime();
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_ROUTING, routingEndTimeNs - routingStartTimeNs);
@@ -348,14 +407,37 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       String errorMessage = e.getMessage();
       LOGGER.info("{} {}: {}", errorMessage, requestId, query);
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_TIMEOUT_BEFORE_SCATTERED_EXCEPTIONS, 1);
-      return new BrokerResponseNative(QueryException.getException(QueryException.BROKER_TIMEOUT_ERROR, errorMessage));
+      return CompletableFuture.completedFuture(
+          new BrokerResponseNative(QueryException.getException(QueryException.BROKER_TIMEOUT_ERROR, errorMessage)));
     }
 
     // Execute the query
     ServerStats serverStats = new ServerStats();
-    BrokerResponse brokerResponse =
-        processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
+    if (async) {
+      BrokerResultCache.CacheKey finalResultCacheKey = resultCacheKey;
+      int finalNumUnavailableSegments = numUnavailableSegments;
+      return processBrokerRequestAsync(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable,
+          realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics).thenApply(
+          brokerResponse -> finishRequest(requestId, query, brokerRequest, rawTableName, brokerResponse,
+              compilationStartTimeNs, routingEndTimeNs, finalResultCacheKey, finalNumUnavailableSegments, serverStats,
+              requestStatistics));
+    } else {
+      BrokerResponse brokerResponse =
+          processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable,
+              realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
+      return CompletableFuture.completedFuture(
+          finishRequest(requestId, query, brokerRequest, rawTableName, brokerResponse, compilationStartTimeNs,
+              routingEndTimeNs, resultCacheKey, numUnavailableSegments, serverStats, requestStatistics));
+    }
+  }
+
+  /**
+   * Sets the statistics into the broker response, caches and logs the response after the query is executed.
+   */
+  private BrokerResponse finishRequest(long requestId, String query, BrokerRequest brokerRequest, String rawTableName,
+      BrokerResponse brokerResponse, long compilationStartTimeNs, long routingEndTimeNs,
+      @Nullable BrokerResultCache.CacheKey resultCacheKey, int numUnavailableSegments, ServerStats serverStats,
+      RequestStatistics requestStatistics) {
     long executionEndTimeNs = System.nanoTime();
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION, executionEndTimeNs - routingEndTimeNs);
@@ -373,6 +455,16 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
     LOGGER.debug("Broker Response: {}", brokerResponse);
 
+    // Only cache the complete responses
+    if (resultCacheKey != null && numUnavailableSegments == 0 && brokerResponse.getExceptionsSize() == 0
+        && brokerResponse.getNumServersResponded() == brokerResponse.getNumServersQueried()) {
+      try {
+        _resultCache.put(resultCacheKey, brokerResponse);
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while caching response for request {}: {}", requestId, query, e);
+      }
+    }
+
     if (_queryLogRateLimiter.tryAcquire() || forceLog(brokerResponse, totalTimeMs)) {
       // Table name might have been changed (with suffix _OFFLINE/_REALTIME appended)
       LOGGER.info("RequestId:{}, table:{}, timeMs:{}, docs:{}/{}, entries:{}/{},"
@@ -826,6 +918,23 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       long timeoutMs, ServerStats serverStats, RequestStatistics requestStatistics)
       throws Exception;
 
+  /**
+   * Processes the optimized broker requests for both OFFLINE and REALTIME table asynchronously, and returns a future
+   * which is completed with the broker response.
+   * <p>Sub-class should override this to avoid blocking the caller thread while waiting for the servers' responses.
+   * The default implementation processes the requests synchronously.
+   */
+  protected CompletableFuture<BrokerResponse> processBrokerRequestAsync(long requestId,
+      BrokerRequest originalBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
+      @Nullable Map<ServerInstance, List<String>> offlineRoutingTable, @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics)
+      throws Exception {
+    return CompletableFuture.completedFuture(
+        processBrokerRequest(requestId, originalBrokerRequest, offlineBrokerRequest, offlineRoutingTable,
+            realtimeBrokerRequest, realtimeRoutingTable, timeoutMs, serverStats, requestStatistics));
+  }
+
   /**
    * Helper class to pass the per server statistics.
    */
@@ -19,6 +19,7 @@
 package org.apache.pinot.broker.requesthandler;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.broker.api.RequestStatistics;
@@ -36,4 +37,20 @@ public interface BrokerRequestHandler {
   BrokerResponse handleRequest(JsonNode request, @Nullable RequesterIdentity requesterIdentity,
       RequestStatistics requestStatistics)
       throws Exception;
+
+  /**
+   * Handles the request asynchronously, and returns a future which is completed with the broker response. The caller
+   * thread is not blocked while waiting for the servers' responses if the handler supports it.
+   * <p>The default implementation handles the request synchronously in the caller thread.
+   */
+  default CompletableFuture<BrokerResponse> handleRequestAsync(JsonNode request,
+      @Nullable RequesterIdentity requesterIdentity, RequestStatistics requestStatistics) {
+    CompletableFuture<BrokerResponse> future = new CompletableFuture<>();
+    try {
+      future.complete(handleRequest(request, requesterIdentity, requestStatistics));
+    } catch (Exception e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
 }
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.broker.routing.RoutingManager;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.BrokerResponse;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+
+
+/**
+ * The {@code BrokerResultCache} caches the broker responses so that repeated queries can be answered without
+ * scattering the query to the servers.
+ * <p>The cache key is the optimized broker request (with the table name with type) plus the routing version of the
+ * table from the {@link RoutingManager}. The routing version changes whenever the routing of the table changes (e.g.
+ * external view change, segment refresh, routing rebuild), so a cached response is never returned after the segments
+ * of the table change. When a newer routing version is seen for a table, the responses cached with the older versions
+ * are removed. The responses are stored as JSON strings, and are evicted in LRU order once the total size exceeds the
+ * max size.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private final long _maxSizeInBytes;
+  private final LinkedHashMap<CacheKey, String> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Long> _tableRoutingVersionMap = new HashMap<>();
+  private long _sizeInBytes;
+
+  public BrokerResultCache(long maxSizeInBytes) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size must be positive, got: %s", maxSizeInBytes);
+    _maxSizeInBytes = maxSizeInBytes;
+  }
+
+  /**
+   * Returns a copy of the cached response for the given key, or {@code null} if it is not cached.
+   */
+  @Nullable
+  public BrokerResponseNative get(CacheKey key)
+      throws IOException {
+    String responseJson;
+    synchronized (this) {
+      responseJson = _cache.get(key);
+    }
+    return responseJson != null ? BrokerResponseNative.fromJsonString(responseJson) : null;
+  }
+
+  /**
+   * Caches the response for the given key.
+   */
+  public void put(CacheKey key, BrokerResponse brokerResponse)
+      throws Exception {
+    String responseJson = brokerResponse.toJsonString();
+    long size = getSizeInBytes(responseJson);
+    if (size > _maxSizeInBytes) {
+      return;
+    }
+
+    synchronized (this) {
+      String tableNameWithType = key.getTableNameWithType();
+      Long currentRoutingVersion = _tableRoutingVersionMap.get(tableNameWithType);
+      if (currentRoutingVersion != null) {
+        if (key._routingVersion < currentRoutingVersion) {
+          // Routing already changed
+          return;
+        }
+        if (key._routingVersion > currentRoutingVersion) {
+          removeTable(tableNameWithType);
+        }
+      }
+      _tableRoutingVersionMap.put(tableNameWithType, key._routingVersion);
+
+      String oldResponseJson = _cache.put(key, responseJson);
+      if (oldResponseJson != null) {
+        _sizeInBytes -= getSizeInBytes(oldResponseJson);
+      }
+      _sizeInBytes += size;
+
+      // Evict the least recently used responses
+      Iterator<Map.Entry<CacheKey, String>> iterator = _cache.entrySet().iterator();
+      while (_sizeInBytes > _maxSizeInBytes) {
+        Map.Entry<CacheKey, String> entry = iterator.next();
+        _sizeInBytes -= getSizeInBytes(entry.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Removes all the cached responses for the given table.
+   */
+  public synchronized void invalidate(String tableNameWithType) {
+    removeTable(tableNameWithType);
+    _tableRoutingVersionMap.remove(tableNameWithType);
+  }
+
+  public synchronized int size() {
+    return _cache.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  private void removeTable(String tableNameWithType) {
+    Iterator<Map.Entry<CacheKey, String>> iterator = _cache.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<CacheKey, String> entry = iterator.next();
+      if (entry.getKey().getTableNameWithType().equals(tableNameWithType)) {
+        _sizeInBytes -= getSizeInBytes(entry.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  private static long getSizeInBytes(String responseJson) {
+    return (long) responseJson.length() * Character.BYTES;
+  }
+
+  /**
+   * Key of the cache. The broker request is copied so that later changes to the request (e.g. setting the query
+   * timeout) do not affect the key.
+   */
+  public static class CacheKey {
+    private final BrokerRequest _brokerRequest;
+    private final long _routingVersion;
+
+    public CacheKey(BrokerRequest brokerRequest, long routingVersion) {
+      _brokerRequest = new BrokerRequest(brokerRequest);
+      _routingVersion = routingVersion;
+    }
+
+    String getTableNameWithType() {
+      return _brokerRequest.getQuerySource().getTableName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey cacheKey = (CacheKey) o;
+      return _routingVersion == cacheKey._routingVersion && _brokerRequest.equals(cacheKey._brokerRequest);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * _brokerRequest.hashCode() + Long.hashCode(_routingVersion);
+    }
+  }
+}
@@ -21,6 +21,9 @@ package org.apache.pinot.broker.requesthandler;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.configuration.Configuration;
@@ -37,7 +40,9 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
 import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
 import org.apache.pinot.core.transport.ServerInstance;
@@ -53,12 +58,17 @@ import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 @ThreadSafe
 public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandler {
   private final QueryRouter _queryRouter;
+  // Reduces the server responses for the asynchronous requests off the network threads
+  private final ExecutorService _reduceExecutor;
 
   public SingleConnectionBrokerRequestHandler(Configuration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, BrokerMetrics brokerMetrics,
       ZkHelixPropertyStore<ZNRecord> propertyStore) {
     super(config, routingManager, accessControlFactory, queryQuotaManager, brokerMetrics, propertyStore);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics);
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, routingManager.getServerLatencyTracker());
+    _reduceExecutor = Executors.newFixedThreadPool(
+        config.getInt(Broker.CONFIG_OF_BROKER_ASYNC_REDUCE_THREADS, Runtime.getRuntime().availableProcessors()),
+        new NamedThreadFactory("broker-reduce"));
   }
 
   @Override
@@ -68,6 +78,7 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
   @Override
   public synchronized void shutDown() {
     _queryRouter.shutDown();
+    _reduceExecutor.shutdownNow();
   }
 
   @Override
@@ -88,7 +99,33 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
         .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
     // TODO Use scatterGatherStats as serverStats
     serverStats.setServerStats(asyncQueryResponse.getStats());
+    return reduce(rawTableName, originalBrokerRequest, response, requestStatistics);
+  }
+
+  @Override
+  protected CompletableFuture<BrokerResponse> processBrokerRequestAsync(long requestId,
+      BrokerRequest originalBrokerRequest, @Nullable BrokerRequest offlineBrokerRequest,
+      @Nullable Map<ServerInstance, List<String>> offlineRoutingTable, @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics) {
+    assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
+
+    String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
+    long scatterGatherStartTimeNs = System.nanoTime();
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+            realtimeRoutingTable, timeoutMs);
+    // The response future might be completed on the network thread, reduce with the reduce executor
+    return asyncQueryResponse.getResponseFuture().thenApplyAsync(response -> {
+      _brokerMetrics
+          .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
+      serverStats.setServerStats(asyncQueryResponse.getStats());
+      return reduce(rawTableName, originalBrokerRequest, response, requestStatistics);
+    }, _reduceExecutor);
+  }
 
+  private BrokerResponse reduce(String rawTableName, BrokerRequest originalBrokerRequest,
+      Map<ServerRoutingInstance, ServerResponse> response, RequestStatistics requestStatistics) {
     int numServersQueried = response.size();
     long totalResponseSize = 0;
     Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>(HashUtil.getHashMapCapacity(numServersQueried));
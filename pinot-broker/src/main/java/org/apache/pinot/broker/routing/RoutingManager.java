@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.helix.AccessOption;
 import org.apache.helix.BaseDataAccessor;
@@ -54,6 +55,7 @@ import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.RealtimeSegmentOnlineOfflineStateModel;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerLatencyTracker;
 import org.apache.pinot.spi.config.table.QueryConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
@@ -74,6 +76,7 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #getRoutingTable(BrokerRequest)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
+ *   <li>{@link #getRoutingVersion(String)}: Returns the version of the routing for a table</li>
  * </ul>
  *
  * TODO: Expose RoutingEntry class to get a consistent view in the broker request handler and save the redundant map
@@ -83,8 +86,11 @@ public class RoutingManager implements ClusterChangeHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(RoutingManager.class);
 
   private final BrokerMetrics _brokerMetrics;
+  private final ServerLatencyTracker _serverLatencyTracker;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
   private final Map<String, ServerInstance> _enabledServerInstanceMap = new ConcurrentHashMap<>();
+  // Generates the routing versions, which are unique across tables and routing rebuilds
+  private final AtomicLong _routingVersionGenerator = new AtomicLong();
 
   private BaseDataAccessor<ZNRecord> _zkDataAccessor;
   private String _externalViewPathPrefix;
@@ -93,7 +99,24 @@ public class RoutingManager implements ClusterChangeHandler {
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
 
   public RoutingManager(BrokerMetrics brokerMetrics) {
+    this(brokerMetrics, null);
+  }
+
+  /**
+   * @param serverLatencyTracker Tracker of the server latencies for the latency-aware instance selection, or
+   *                             {@code null} to disable the latency-aware instance selection
+   */
+  public RoutingManager(BrokerMetrics brokerMetrics, @Nullable ServerLatencyTracker serverLatencyTracker) {
     _brokerMetrics = brokerMetrics;
+    _serverLatencyTracker = serverLatencyTracker;
+  }
+
+  /**
+   * Returns the tracker of the server latencies, or {@code null} if the latency-aware instance selection is disabled.
+   */
+  @Nullable
+  public ServerLatencyTracker getServerLatencyTracker() {
+    return _serverLatencyTracker;
   }
 
   @Override
@@ -159,6 +182,7 @@ public class RoutingManager implements ClusterChangeHandler {
               continue;
             }
             routingEntry.onExternalViewChange(externalView, onlineSegments);
+            routingEntry.setVersion(_routingVersionGenerator.incrementAndGet());
           } catch (Exception e) {
             LOGGER
                 .error("Caught unexpected exception while updating routing entry on external view change for table: {}",
@@ -254,6 +278,7 @@ public class RoutingManager implements ClusterChangeHandler {
     for (RoutingEntry routingEntry : _routingEntryMap.values()) {
       try {
         routingEntry.onInstancesChange(enabledInstances, changedInstances);
+        routingEntry.setVersion(_routingVersionGenerator.incrementAndGet());
       } catch (Exception e) {
         LOGGER.error("Caught unexpected exception while updating routing entry on instances change for table: {}",
             routingEntry.getTableNameWithType(), e);
@@ -318,7 +343,8 @@ public class RoutingManager implements ClusterChangeHandler {
     for (SegmentPruner segmentPruner : segmentPruners) {
       segmentPruner.init(externalView, onlineSegments);
     }
-    InstanceSelector instanceSelector = InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics);
+    InstanceSelector instanceSelector =
+        InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics, _serverLatencyTracker);
     instanceSelector.init(enabledInstances, externalView, onlineSegments);
 
     // Add time boundary manager if both offline and real-time part exist for a hybrid table
@@ -356,6 +382,7 @@ public class RoutingManager implements ClusterChangeHandler {
             new TimeBoundaryManager(offlineTableConfig, _propertyStore);
         offlineTableTimeBoundaryManager.init(offlineTableExternalView, offlineTableOnlineSegments);
         offlineTableRoutingEntry.setTimeBoundaryManager(offlineTableTimeBoundaryManager);
+        offlineTableRoutingEntry.setVersion(_routingVersionGenerator.incrementAndGet());
       }
     }
 
@@ -364,7 +391,7 @@ public class RoutingManager implements ClusterChangeHandler {
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, segmentSelector, segmentPruners, instanceSelector, externalViewVersion,
-            timeBoundaryManager, queryTimeoutMs);
+            timeBoundaryManager, queryTimeoutMs, _routingVersionGenerator.incrementAndGet());
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -388,6 +415,7 @@ public class RoutingManager implements ClusterChangeHandler {
         RoutingEntry routingEntry = _routingEntryMap.get(offlineTableName);
         if (routingEntry != null) {
           routingEntry.setTimeBoundaryManager(null);
+          routingEntry.setVersion(_routingVersionGenerator.incrementAndGet());
           LOGGER.info("Removed time boundary manager for table: {}", offlineTableName);
         }
       }
@@ -404,6 +432,7 @@ public class RoutingManager implements ClusterChangeHandler {
     RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
     if (routingEntry != null) {
       routingEntry.refreshSegment(segment);
+      routingEntry.setVersion(_routingVersionGenerator.incrementAndGet());
       LOGGER.info("Refreshed segment: {} for table: {}", segment, tableNameWithType);
     } else {
       LOGGER.warn("Routing does not exist for table: {}, skipping refreshing segment", tableNameWithType);
@@ -469,6 +498,17 @@ public class RoutingManager implements ClusterChangeHandler {
     return routingEntry != null ? routingEntry.getQueryTimeoutMs() : null;
   }
 
+  /**
+   * Returns the routing version for the given table, or {@code null} if the routing does not exist. The routing
+   * version changes whenever the routing for the table changes (e.g. external view change, segment refresh), and is
+   * never reused for the same table.
+   */
+  @Nullable
+  public Long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getVersion() : null;
+  }
+
   private static class RoutingEntry {
     final String _tableNameWithType;
     final SegmentSelector _segmentSelector;
@@ -480,10 +520,12 @@ public class RoutingManager implements ClusterChangeHandler {
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Routing version, updated after each change to the routing entry
+    volatile long _version;
 
     RoutingEntry(String tableNameWithType, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
         InstanceSelector instanceSelector, int lastUpdateExternalViewVersion,
-        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs) {
+        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs, long version) {
       _tableNameWithType = tableNameWithType;
       _segmentSelector = segmentSelector;
       _segmentPruners = segmentPruners;
@@ -491,6 +533,7 @@ public class RoutingManager implements ClusterChangeHandler {
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _queryTimeoutMs = queryTimeoutMs;
+      _version = version;
     }
 
     String getTableNameWithType() {
@@ -514,6 +557,14 @@ public class RoutingManager implements ClusterChangeHandler {
       return _queryTimeoutMs;
     }
 
+    long getVersion() {
+      return _version;
+    }
+
+    void setVersion(long version) {
+      _version = version;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
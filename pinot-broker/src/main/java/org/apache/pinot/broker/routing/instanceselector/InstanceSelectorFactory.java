@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.broker.routing.instanceselector;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.core.transport.ServerLatencyTracker;
 import org.apache.pinot.spi.config.table.RoutingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
@@ -36,6 +38,16 @@ public class InstanceSelectorFactory {
   public static final String LEGACY_REPLICA_GROUP_REALTIME_ROUTING = "PartitionAwareRealtime";
 
   public static InstanceSelector getInstanceSelector(TableConfig tableConfig, BrokerMetrics brokerMetrics) {
+    return getInstanceSelector(tableConfig, brokerMetrics, null);
+  }
+
+  /**
+   * Returns the instance selector for the table. When the server latency tracker is provided, the balanced instance
+   * selection is replaced with the latency-aware instance selection. Tables with replica-group instance selection keep
+   * using the {@link ReplicaGroupInstanceSelector} to limit the number of servers queried.
+   */
+  public static InstanceSelector getInstanceSelector(TableConfig tableConfig, BrokerMetrics brokerMetrics,
+      @Nullable ServerLatencyTracker serverLatencyTracker) {
     String tableNameWithType = tableConfig.getTableName();
     RoutingConfig routingConfig = tableConfig.getRoutingConfig();
     if (routingConfig != null && (
@@ -47,6 +59,10 @@ public class InstanceSelectorFactory {
       LOGGER.info("Using ReplicaGroupInstanceSelector for table: {}", tableNameWithType);
       return new ReplicaGroupInstanceSelector(tableNameWithType, brokerMetrics);
     }
+    if (serverLatencyTracker != null) {
+      LOGGER.info("Using LatencyAwareInstanceSelector for table: {}", tableNameWithType);
+      return new LatencyAwareInstanceSelector(tableNameWithType, brokerMetrics, serverLatencyTracker);
+    }
     return new BalancedInstanceSelector(tableNameWithType, brokerMetrics);
   }
 }
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.instanceselector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.transport.ServerLatencyTracker;
+
+
+/**
+ * Instance selector to route the queries to the fastest replicas based on the server latencies and in-flight queries
+ * tracked by the {@link ServerLatencyTracker}.
+ * <p>The selection algorithm picks the replica with the lowest cost for each segment, where the cost of a server is
+ * its score from the tracker multiplied by the number of segments already assigned to it (plus 1) within the query.
+ * This way the segments are distributed among the replicas inversely proportional to the server scores, i.e. the
+ * slower or busier servers get fewer segments, and the selection is the same as {@link BalancedInstanceSelector} when
+ * all the servers have the same score (e.g. no stats collected yet). Ties are broken by the request id to rotate the
+ * traffic among the replicas.
+ * <p>Servers without stats (e.g. just restarted) are scored with the median score of the other servers serving the
+ * query, so that the traffic is not herded onto them before their latency is known.
+ */
+public class LatencyAwareInstanceSelector extends BaseInstanceSelector {
+  private final ServerLatencyTracker _serverLatencyTracker;
+
+  public LatencyAwareInstanceSelector(String tableNameWithType, BrokerMetrics brokerMetrics,
+      ServerLatencyTracker serverLatencyTracker) {
+    super(tableNameWithType, brokerMetrics);
+    _serverLatencyTracker = serverLatencyTracker;
+  }
+
+  @Override
+  Map<String, String> select(List<String> segments, int requestId,
+      Map<String, List<String>> segmentToEnabledInstancesMap) {
+    Map<String, String> segmentToSelectedInstanceMap = new HashMap<>(HashUtil.getHashMapCapacity(segments.size()));
+    // Cache the scores so that they are consistent within the query, and track the segments assigned to each instance
+    Map<String, Double> instanceToScoreMap = getInstanceToScoreMap(segments, segmentToEnabledInstancesMap);
+    Map<String, Integer> instanceToNumSegmentsMap = new HashMap<>();
+    for (String segment : segments) {
+      List<String> enabledInstances = segmentToEnabledInstancesMap.get(segment);
+      // NOTE: enabledInstances can be null when there is no enabled instances for the segment, or the instance selector
+      // has not been updated (we update all components for routing in sequence)
+      if (enabledInstances != null) {
+        int numEnabledInstances = enabledInstances.size();
+        int startIndex = requestId++ % numEnabledInstances;
+        String selectedInstance = null;
+        double minCost = Double.MAX_VALUE;
+        for (int i = 0; i < numEnabledInstances; i++) {
+          String instance = enabledInstances.get((startIndex + i) % numEnabledInstances);
+          double cost = instanceToScoreMap.get(instance) * (instanceToNumSegmentsMap.getOrDefault(instance, 0) + 1);
+          if (cost < minCost) {
+            selectedInstance = instance;
+            minCost = cost;
+          }
+        }
+        segmentToSelectedInstanceMap.put(segment, selectedInstance);
+        instanceToNumSegmentsMap.merge(selectedInstance, 1, Integer::sum);
+      }
+    }
+    return segmentToSelectedInstanceMap;
+  }
+
+  /**
+   * Returns the scores of the enabled instances for the given segments, where the instances without stats are scored
+   * with the median score of the instances with stats (or the same score if no instance has stats).
+   */
+  private Map<String, Double> getInstanceToScoreMap(List<String> segments,
+      Map<String, List<String>> segmentToEnabledInstancesMap) {
+    Map<String, Double> instanceToScoreMap = new HashMap<>();
+    for (String segment : segments) {
+      List<String> enabledInstances = segmentToEnabledInstancesMap.get(segment);
+      if (enabledInstances != null) {
+        for (String instance : enabledInstances) {
+          instanceToScoreMap.computeIfAbsent(instance, _serverLatencyTracker::getScore);
+        }
+      }
+    }
+    List<Double> knownScores = new ArrayList<>(instanceToScoreMap.size());
+    for (double score : instanceToScoreMap.values()) {
+      if (!Double.isNaN(score)) {
+        knownScores.add(score);
+      }
+    }
+    int numKnownScores = knownScores.size();
+    if (numKnownScores == instanceToScoreMap.size()) {
+      return instanceToScoreMap;
+    }
+    double defaultScore;
+    if (numKnownScores == 0) {
+      defaultScore = 1;
+    } else {
+      Collections.sort(knownScores);
+      defaultScore = (knownScores.get((numKnownScores - 1) / 2) + knownScores.get(numKnownScores / 2)) / 2;
+    }
+    instanceToScoreMap.replaceAll((instance, score) -> Double.isNaN(score) ? defaultScore : score);
+    return instanceToScoreMap;
+  }
+}
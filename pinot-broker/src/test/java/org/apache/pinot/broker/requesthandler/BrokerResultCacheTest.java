@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class BrokerResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+
+  @Test
+  public void testCache()
+      throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024);
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE");
+    BrokerResultCache.CacheKey cacheKey = new BrokerResultCache.CacheKey(brokerRequest, 1L);
+    assertNull(resultCache.get(cacheKey));
+
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setNumDocsScanned(123L);
+    resultCache.put(cacheKey, brokerResponse);
+    assertEquals(resultCache.size(), 1);
+
+    // Changes to the broker request after creating the key should not affect the key
+    brokerRequest.setEnableTrace(true);
+    BrokerResultCache.CacheKey sameCacheKey =
+        new BrokerResultCache.CacheKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE"), 1L);
+    BrokerResponseNative cachedBrokerResponse = resultCache.get(sameCacheKey);
+    assertNotNull(cachedBrokerResponse);
+    assertEquals(cachedBrokerResponse.getNumDocsScanned(), 123L);
+
+    // Different query
+    assertNull(resultCache.get(new BrokerResultCache.CacheKey(
+        COMPILER.compileToBrokerRequest("SELECT MAX(foo) FROM myTable_OFFLINE"), 1L)));
+
+    // Newer routing version should not hit the cache, and should remove the responses cached with older versions
+    BrokerResultCache.CacheKey newCacheKey =
+        new BrokerResultCache.CacheKey(COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE"), 2L);
+    assertNull(resultCache.get(newCacheKey));
+    resultCache.put(newCacheKey, brokerResponse);
+    assertEquals(resultCache.size(), 1);
+    assertNull(resultCache.get(sameCacheKey));
+    assertNotNull(resultCache.get(newCacheKey));
+
+    // Response with older routing version should not be cached
+    resultCache.put(cacheKey, brokerResponse);
+    assertEquals(resultCache.size(), 1);
+    assertNull(resultCache.get(cacheKey));
+
+    resultCache.invalidate("myTable_OFFLINE");
+    assertEquals(resultCache.size(), 0);
+    assertEquals(resultCache.getSizeInBytes(), 0L);
+  }
+
+  @Test
+  public void testEviction()
+      throws Exception {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    long responseSize = brokerResponse.toJsonString().length() * Character.BYTES;
+    BrokerResultCache resultCache = new BrokerResultCache(2 * responseSize);
+
+    BrokerResultCache.CacheKey[] cacheKeys = new BrokerResultCache.CacheKey[3];
+    for (int i = 0; i < 3; i++) {
+      cacheKeys[i] = new BrokerResultCache.CacheKey(
+          COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE WHERE foo = " + i), 1L);
+    }
+    resultCache.put(cacheKeys[0], brokerResponse);
+    resultCache.put(cacheKeys[1], brokerResponse);
+    assertEquals(resultCache.size(), 2);
+
+    // Access the first key so that the second key becomes the least recently used one
+    assertNotNull(resultCache.get(cacheKeys[0]));
+    resultCache.put(cacheKeys[2], brokerResponse);
+    assertEquals(resultCache.size(), 2);
+    assertEquals(resultCache.getSizeInBytes(), 2 * responseSize);
+    assertNotNull(resultCache.get(cacheKeys[0]));
+    assertNull(resultCache.get(cacheKeys[1]));
+    assertNotNull(resultCache.get(cacheKeys[2]));
+  }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.broker.routing.instanceselector;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,6 +30,7 @@ import java.util.TreeMap;
 import org.apache.helix.model.ExternalView;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.transport.ServerLatencyTracker;
 import org.apache.pinot.spi.config.table.RoutingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
@@ -41,6 +43,7 @@ import static org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.Rea
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 
@@ -55,6 +58,11 @@ public class InstanceSelectorTest {
     assertTrue(
         InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics) instanceof BalancedInstanceSelector);
 
+    // Latency-aware instance selector should be returned when the server latency tracker is provided
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+    assertTrue(InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics,
+        serverLatencyTracker) instanceof LatencyAwareInstanceSelector);
+
     // Instance selector type is not configured
     RoutingConfig routingConfig = mock(RoutingConfig.class);
     when(tableConfig.getRoutingConfig()).thenReturn(routingConfig);
@@ -65,6 +73,8 @@ public class InstanceSelectorTest {
     when(routingConfig.getInstanceSelectorType()).thenReturn(RoutingConfig.REPLICA_GROUP_INSTANCE_SELECTOR_TYPE);
     assertTrue(InstanceSelectorFactory
         .getInstanceSelector(tableConfig, brokerMetrics) instanceof ReplicaGroupInstanceSelector);
+    assertTrue(InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics,
+        serverLatencyTracker) instanceof ReplicaGroupInstanceSelector);
 
     // Should be backward-compatible with legacy config
     when(routingConfig.getInstanceSelectorType()).thenReturn(null);
@@ -561,4 +571,109 @@ public class InstanceSelectorTest {
       assertEquals(selectionResult.getUnavailableSegments(), Collections.singletonList(segment));
     }
   }
+
+  @Test
+  public void testLatencyAwareInstanceSelector() {
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+    LatencyAwareInstanceSelector instanceSelector =
+        new LatencyAwareInstanceSelector("testTable_OFFLINE", mock(BrokerMetrics.class), serverLatencyTracker);
+
+    // 10 segments served by 'instance0' and 'instance1'
+    String instance0 = "instance0";
+    String instance1 = "instance1";
+    int numSegments = 10;
+    List<String> segments = new ArrayList<>(numSegments);
+    Map<String, List<String>> segmentToEnabledInstancesMap = new HashMap<>();
+    for (int i = 0; i < numSegments; i++) {
+      String segment = "segment" + i;
+      segments.add(segment);
+      segmentToEnabledInstancesMap.put(segment, Arrays.asList(instance0, instance1));
+    }
+
+    // Without stats, segments should be balanced among the instances
+    Map<String, Integer> numSegmentsMap =
+        getNumSegmentsMap(instanceSelector.select(segments, 0, segmentToEnabledInstancesMap));
+    assertEquals((int) numSegmentsMap.get(instance0), numSegments / 2);
+    assertEquals((int) numSegmentsMap.get(instance1), numSegments / 2);
+
+    // Same latency, segments should still be balanced
+    serverLatencyTracker.recordQuerySubmitted(instance0);
+    serverLatencyTracker.recordQueryCompleted(instance0, 10);
+    serverLatencyTracker.recordQuerySubmitted(instance1);
+    serverLatencyTracker.recordQueryCompleted(instance1, 10);
+    numSegmentsMap = getNumSegmentsMap(instanceSelector.select(segments, 1, segmentToEnabledInstancesMap));
+    assertEquals((int) numSegmentsMap.get(instance0), numSegments / 2);
+    assertEquals((int) numSegmentsMap.get(instance1), numSegments / 2);
+
+    // More queries in-flight on 'instance0', more segments should be routed to 'instance1'
+    serverLatencyTracker.recordQuerySubmitted(instance0);
+    numSegmentsMap = getNumSegmentsMap(instanceSelector.select(segments, 0, segmentToEnabledInstancesMap));
+    assertTrue(numSegmentsMap.get(instance0) < numSegmentsMap.get(instance1));
+    serverLatencyTracker.recordQueryAborted(instance0);
+    assertEquals(serverLatencyTracker.getNumInFlightQueries(instance0), 0);
+
+    // 'instance1' is much slower, all segments should be routed to 'instance0'
+    serverLatencyTracker.recordQuerySubmitted(instance1);
+    serverLatencyTracker.recordQueryCompleted(instance1, 10_000);
+    numSegmentsMap = getNumSegmentsMap(instanceSelector.select(segments, 0, segmentToEnabledInstancesMap));
+    assertEquals((int) numSegmentsMap.get(instance0), numSegments);
+    assertTrue(serverLatencyTracker.getScore(instance1) > serverLatencyTracker.getScore(instance0));
+  }
+
+  @Test
+  public void testLatencyAwareInstanceSelectorWithUnknownInstance() {
+    ServerLatencyTracker serverLatencyTracker = new ServerLatencyTracker();
+    LatencyAwareInstanceSelector instanceSelector =
+        new LatencyAwareInstanceSelector("testTable_OFFLINE", mock(BrokerMetrics.class), serverLatencyTracker);
+
+    // 30 segments served by 'instance0', 'instance1' and 'instance2'
+    String instance0 = "instance0";
+    String instance1 = "instance1";
+    String instance2 = "instance2";
+    int numSegments = 30;
+    List<String> segments = new ArrayList<>(numSegments);
+    Map<String, List<String>> segmentToEnabledInstancesMap = new HashMap<>();
+    for (int i = 0; i < numSegments; i++) {
+      String segment = "segment" + i;
+      segments.add(segment);
+      segmentToEnabledInstancesMap.put(segment, Arrays.asList(instance0, instance1, instance2));
+    }
+
+    // 'instance0' and 'instance1' have stats, 'instance2' just restarted and has no stats (even with a query in-flight)
+    serverLatencyTracker.recordQuerySubmitted(instance0);
+    serverLatencyTracker.recordQueryCompleted(instance0, 10);
+    serverLatencyTracker.recordQuerySubmitted(instance1);
+    serverLatencyTracker.recordQueryCompleted(instance1, 10);
+    serverLatencyTracker.recordQuerySubmitted(instance2);
+    assertTrue(Double.isNaN(serverLatencyTracker.getScore(instance2)));
+
+    // Segments should be spread among all the instances instead of being herded onto 'instance2'
+    for (int requestId = 0; requestId < 3; requestId++) {
+      Map<String, Integer> numSegmentsMap =
+          getNumSegmentsMap(instanceSelector.select(segments, requestId, segmentToEnabledInstancesMap));
+      assertEquals((int) numSegmentsMap.get(instance0), numSegments / 3);
+      assertEquals((int) numSegmentsMap.get(instance1), numSegments / 3);
+      assertEquals((int) numSegmentsMap.get(instance2), numSegments / 3);
+    }
+
+    // 'instance1' is slower, 'instance2' should get no more segments than the fastest instance
+    serverLatencyTracker.recordQuerySubmitted(instance1);
+    serverLatencyTracker.recordQueryCompleted(instance1, 1000);
+    Map<String, Integer> numSegmentsMap =
+        getNumSegmentsMap(instanceSelector.select(segments, 0, segmentToEnabledInstancesMap));
+    assertTrue(numSegmentsMap.get(instance2) <= numSegmentsMap.get(instance0));
+    assertTrue(numSegmentsMap.get(instance2) < numSegments / 2);
+
+    // Once 'instance2' has stats, it is scored by its own latency
+    serverLatencyTracker.recordQueryCompleted(instance2, 10);
+    assertFalse(Double.isNaN(serverLatencyTracker.getScore(instance2)));
+  }
+
+  private static Map<String, Integer> getNumSegmentsMap(Map<String, String> segmentToInstanceMap) {
+    Map<String, Integer> numSegmentsMap = new HashMap<>();
+    for (String instance : segmentToInstanceMap.values()) {
+      numSegmentsMap.merge(instance, 1, Integer::sum);
+    }
+    return numSegmentsMap;
+  }
 }
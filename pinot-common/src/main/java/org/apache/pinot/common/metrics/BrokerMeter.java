@@ -30,6 +30,8 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   HEALTHCHECK_BAD_CALLS("healthcheck", true),
   HEALTHCHECK_OK_CALLS("healthcheck", true),
   QUERIES("queries", false),
+  // Queries answered from the broker result cache without scattering to the servers
+  RESULT_CACHE_HITS("queries", false),
 
   // These metrics track the exceptions caught during query execution in broker side.
   // PQL compile phase.
@@ -134,6 +134,15 @@ public class CommonConstants {
     public static final double DEFAULT_BROKER_QUERY_LOG_MAX_RATE_PER_SECOND = 10_000d;
     public static final String CONFIG_OF_BROKER_TIMEOUT_MS = "pinot.broker.timeoutMs";
     public static final long DEFAULT_BROKER_TIMEOUT_MS = 10_000L;
+    // Number of threads to reduce the server responses for the asynchronous requests (default: number of processors)
+    public static final String CONFIG_OF_BROKER_ASYNC_REDUCE_THREADS = "pinot.broker.asyncReduceThreads";
+    // Whether to route the queries to the replicas based on the server latencies instead of balancing the segments
+    public static final String CONFIG_OF_ENABLE_LATENCY_AWARE_INSTANCE_SELECTION =
+        "pinot.broker.latencyAwareInstanceSelection.enabled";
+    public static final boolean DEFAULT_ENABLE_LATENCY_AWARE_INSTANCE_SELECTION = false;
+    // Weight of the latest server latency in the moving average for the latency-aware instance selection
+    public static final String CONFIG_OF_LATENCY_AWARE_INSTANCE_SELECTION_EWMA_ALPHA =
+        "pinot.broker.latencyAwareInstanceSelection.ewmaAlpha";
     public static final String CONFIG_OF_BROKER_ID = "pinot.broker.id";
     // Configuration to consider the broker ServiceStatus as being STARTED if the percent of resources (tables) that
     // are ONLINE for this this broker has crossed the threshold percentage of the total number of tables
@@ -142,6 +151,10 @@ public class CommonConstants {
         "pinot.broker.startup.minResourcePercent";
     public static final double DEFAULT_BROKER_MIN_RESOURCE_PERCENT_FOR_START = 100.0;
     public static final String CONFIG_OF_ENABLE_QUERY_LIMIT_OVERRIDE = "pinot.broker.enable.query.limit.override";
+    // Max total size of the responses cached in the broker result cache. Non-positive value disables the cache.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES =
+        "pinot.broker.result.cache.maxSizeInBytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES = 0L;
 
     public static class Request {
       public static final String PQL = "pql";
@@ -211,6 +224,9 @@ public class CommonConstants {
     public static final String DEFAULT_REQUEST_HANDLER_FACTORY_CLASS =
         "org.apache.pinot.server.request.SimpleRequestHandlerFactory";
     public static final String PREFIX_OF_CONFIG_OF_SEGMENT_FETCHER_FACTORY = "pinot.server.segment.fetcher";
+    // Whether to untar the segment on the fly while downloading instead of writing the tar.gz file to disk first
+    public static final String CONFIG_OF_SEGMENT_STREAM_DOWNLOAD_UNTAR = "pinot.server.segment.streamDownloadUntar";
+    public static final boolean DEFAULT_SEGMENT_STREAM_DOWNLOAD_UNTAR = false;
 
     // Configs for server starter startup/shutdown checks
     // Startup: timeout for the startup checks
@@ -223,6 +239,14 @@ public class CommonConstants {
     public static final String CONFIG_OF_STARTUP_SERVICE_STATUS_CHECK_INTERVAL_MS =
         "pinot.server.startup.serviceStatusCheckIntervalMs";
     public static final long DEFAULT_STARTUP_SERVICE_STATUS_CHECK_INTERVAL_MS = 10_000L;
+    // Startup: number of threads used to preload the local segments before receiving state transitions (0 to disable)
+    public static final String CONFIG_OF_STARTUP_SEGMENT_PRELOAD_PARALLELISM =
+        "pinot.server.startup.segmentPreloadParallelism";
+    public static final int DEFAULT_STARTUP_SEGMENT_PRELOAD_PARALLELISM = 0;
+    // Startup: timeout for preloading the local segments, the remaining segments are loaded by the state transitions
+    public static final String CONFIG_OF_STARTUP_SEGMENT_PRELOAD_TIMEOUT_MS =
+        "pinot.server.startup.segmentPreloadTimeoutMs";
+    public static final long DEFAULT_STARTUP_SEGMENT_PRELOAD_TIMEOUT_MS = 300_000L;
     // Shutdown: timeout for the shutdown checks
     public static final String CONFIG_OF_SHUTDOWN_TIMEOUT_MS = "pinot.server.shutdown.timeoutMs";
     public static final long DEFAULT_SHUTDOWN_TIMEOUT_MS = 600_000L;
@@ -241,6 +265,27 @@ public class CommonConstants {
         "pinot.server.shutdown.resourceCheckIntervalMs";
     public static final long DEFAULT_SHUTDOWN_RESOURCE_CHECK_INTERVAL_MS = 10_000L;
 
+    // Configs for serving the cold OFFLINE segments directly from the deep store
+    // Base URI of the untarred segments, where segment directory is <dirUri>/<tableNameWithType>/<segmentName>
+    public static final String CONFIG_OF_REMOTE_SEGMENT_DIR_URI = "pinot.server.remoteSegment.dirUri";
+    // Segments with end time older than this age are served remotely (non-positive to disable)
+    public static final String CONFIG_OF_REMOTE_SEGMENT_MIN_AGE_MS = "pinot.server.remoteSegment.minAgeMs";
+    public static final long DEFAULT_REMOTE_SEGMENT_MIN_AGE_MS = -1L;
+    public static final String CONFIG_OF_REMOTE_SEGMENT_BLOCK_SIZE_BYTES = "pinot.server.remoteSegment.blockSizeBytes";
+    public static final int DEFAULT_REMOTE_SEGMENT_BLOCK_SIZE_BYTES = 1024 * 1024;
+    public static final String CONFIG_OF_REMOTE_SEGMENT_CACHE_MEMORY_BYTES =
+        "pinot.server.remoteSegment.cache.memoryBytes";
+    public static final long DEFAULT_REMOTE_SEGMENT_CACHE_MEMORY_BYTES = 256L * 1024 * 1024;
+    public static final String CONFIG_OF_REMOTE_SEGMENT_CACHE_DISK_BYTES = "pinot.server.remoteSegment.cache.diskBytes";
+    public static final long DEFAULT_REMOTE_SEGMENT_CACHE_DISK_BYTES = 10L * 1024 * 1024 * 1024;
+    public static final String CONFIG_OF_REMOTE_SEGMENT_CACHE_DIR = "pinot.server.remoteSegment.cache.dir";
+    public static final String DEFAULT_REMOTE_SEGMENT_CACHE_DIR =
+        DEFAULT_INSTANCE_BASE_DIR + File.separator + "blockCache";
+    // Number of blocks to read ahead on sequential access of the remote segments (non-positive to disable)
+    public static final String CONFIG_OF_REMOTE_SEGMENT_READ_AHEAD_BLOCKS =
+        "pinot.server.remoteSegment.readAheadBlocks";
+    public static final int DEFAULT_REMOTE_SEGMENT_READ_AHEAD_BLOCKS = 4;
+
     public static final String DEFAULT_COLUMN_MIN_MAX_VALUE_GENERATOR_MODE = "TIME";
 
     public static class SegmentCompletionProtocol {
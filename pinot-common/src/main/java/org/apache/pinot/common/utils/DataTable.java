@@ -19,6 +19,7 @@
 package org.apache.pinot.common.utils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.spi.utils.ByteArray;
@@ -42,6 +43,8 @@ public interface DataTable {
   String TIME_USED_MS_METADATA_KEY = "timeUsedMs";
   String TRACE_INFO_METADATA_KEY = "traceInfo";
   String REQUEST_ID_METADATA_KEY = "requestId";
+  // Set when the selection order-by rows are sorted in the order of the query, so that the broker can merge them
+  String SORTED_ROWS_METADATA_KEY = "sortedRows";
 
   void addException(ProcessingException processingException);
 
@@ -68,6 +71,12 @@ public interface DataTable {
 
   <T> T getObject(int rowId, int colId);
 
+  /**
+   * Returns the serialized object (without the object type) as a {@link ByteBuffer}, which can be used to merge the
+   * object without de-serializing it.
+   */
+  ByteBuffer getSerializedObject(int rowId, int colId);
+
   int[] getIntArray(int rowId, int colId);
 
   long[] getLongArray(int rowId, int colId);
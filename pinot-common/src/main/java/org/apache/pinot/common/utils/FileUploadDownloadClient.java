@@ -19,6 +19,7 @@
 package org.apache.pinot.common.utils;
 
 import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
@@ -33,7 +34,10 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
+import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -688,6 +692,64 @@ public class FileUploadDownloadClient implements Closeable {
     return downloadFile(uri, DEFAULT_SOCKET_TIMEOUT_MS, dest);
   }
 
+  /**
+   * Download a tar.gz file and untar it on the fly into the destination directory, without writing the tar.gz file to
+   * disk. The gzip CRC and the content length (if known) are verified while streaming.
+   *
+   * @param uri URI
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @param destDir Destination directory
+   * @return Response status code
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   * @throws ArchiveException
+   */
+  public int downloadUntarFileStreamed(URI uri, int socketTimeoutMs, File destDir)
+      throws IOException, HttpErrorStatusException, ArchiveException {
+    HttpUriRequest request = getDownloadFileRequest(uri, socketTimeoutMs);
+    try (CloseableHttpResponse response = _httpClient.execute(request)) {
+      StatusLine statusLine = response.getStatusLine();
+      int statusCode = statusLine.getStatusCode();
+      if (statusCode >= 300) {
+        throw new HttpErrorStatusException(getErrorMessage(request, response), statusCode);
+      }
+
+      HttpEntity entity = response.getEntity();
+      long numBytesRead;
+      try (CountingInputStream inputStream = new CountingInputStream(entity.getContent())) {
+        TarGzCompressionUtils.unTar(new BufferedInputStream(inputStream), destDir);
+        // Consume the remaining data (if any) before verifying the content length
+        IOUtils.copyLarge(inputStream, NullOutputStream.NULL_OUTPUT_STREAM);
+        numBytesRead = inputStream.getByteCount();
+      }
+
+      // Verify content length if known
+      long contentLength = entity.getContentLength();
+      if (contentLength >= 0L) {
+        Preconditions.checkState(numBytesRead == contentLength, String
+            .format("While downloading file with uri: %s, bytes read: %d does not match content length: %d", uri,
+                numBytesRead, contentLength));
+      }
+
+      return statusCode;
+    }
+  }
+
+  /**
+   * Download a tar.gz file and untar it on the fly into the destination directory.
+   *
+   * @param uri URI
+   * @param destDir Destination directory
+   * @return Response status code
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   * @throws ArchiveException
+   */
+  public int downloadUntarFileStreamed(URI uri, File destDir)
+      throws IOException, HttpErrorStatusException, ArchiveException {
+    return downloadUntarFileStreamed(uri, DEFAULT_SOCKET_TIMEOUT_MS, destDir);
+  }
+
   @Override
   public void close()
       throws IOException {
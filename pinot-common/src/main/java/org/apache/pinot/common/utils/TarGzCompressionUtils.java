@@ -41,6 +41,8 @@ import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.pinot.common.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -155,15 +157,29 @@ public class TarGzCompressionUtils {
    */
   public static List<File> unTar(final File inputFile, final File outputDir)
       throws IOException, ArchiveException {
+    LOGGER.debug("Untaring {} to dir {}.", inputFile.getAbsolutePath(), outputDir.getAbsolutePath());
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(inputFile))) {
+      return unTar(inputStream, outputDir);
+    }
+  }
+
+  /**
+   * Untars a tar.gz input stream into the output directory on the fly, without writing the compressed data to disk.
+   * <p>The input stream is fully consumed (including the gzip trailer) so that the gzip CRC of the decompressed data
+   * is verified, but not closed.
+   *
+   * @param tarGzInputStream the input tar.gz stream
+   * @param outputDir the output directory file
+   * @return The {@link List} of {@link File}s with the untared content.
+   */
+  public static List<File> unTar(InputStream tarGzInputStream, final File outputDir)
+      throws IOException, ArchiveException {
 
     String outputDirectoryPath = outputDir.getCanonicalPath();
-    LOGGER.debug("Untaring {} to dir {}.", inputFile.getAbsolutePath(), outputDirectoryPath);
-    TarArchiveInputStream debInputStream = null;
-    InputStream is = null;
     final List<File> untaredFiles = new LinkedList<File>();
-    try {
-      is = new GzipCompressorInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
-      debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", is);
+    try (InputStream is = new GzipCompressorInputStream(new CloseShieldInputStream(tarGzInputStream));
+        TarArchiveInputStream debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory()
+            .createArchiveInputStream("tar", is)) {
       TarArchiveEntry entry = null;
       while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
         final File outputFile = new File(outputDir, entry.getName());
@@ -211,9 +227,8 @@ public class TarGzCompressionUtils {
         }
         untaredFiles.add(outputFile);
       }
-    } finally {
-      IOUtils.closeQuietly(debInputStream);
-      IOUtils.closeQuietly(is);
+      // Consume the remaining data (tar padding and gzip trailer), where the gzip CRC is verified on reaching the end
+      IOUtils.copyLarge(is, NullOutputStream.NULL_OUTPUT_STREAM);
     }
     return untaredFiles;
   }
@@ -21,6 +21,8 @@ package org.apache.pinot.common.utils.fetcher;
 import java.io.File;
 import java.net.URI;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.spi.utils.retry.RetryPolicies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,6 +77,39 @@ public abstract class BaseSegmentFetcher implements SegmentFetcher {
     });
   }
 
+  @Override
+  public void fetchUntarSegmentToLocalStreamed(URI uri, File destDir)
+      throws Exception {
+    RetryPolicies.exponentialBackoffRetryPolicy(_retryCount, _retryWaitMs, _retryDelayScaleFactor).attempt(() -> {
+      try {
+        // Clean up the partially untarred files from the previous attempt
+        FileUtils.deleteQuietly(destDir);
+        FileUtils.forceMkdir(destDir);
+        fetchUntarSegmentToLocalStreamedWithoutRetry(uri, destDir);
+        _logger.info("Fetched and untarred segment from: {} to: {}", uri, destDir);
+        return true;
+      } catch (Exception e) {
+        _logger.warn("Caught exception while fetching and untarring segment from: {} to: {}", uri, destDir, e);
+        return false;
+      }
+    });
+  }
+
+  /**
+   * Fetches a tar.gz segment from URI location and untars it into the local destination directory without retry.
+   * Sub-class should override this to untar the segment on the fly from the input stream.
+   */
+  protected void fetchUntarSegmentToLocalStreamedWithoutRetry(URI uri, File destDir)
+      throws Exception {
+    File tarFile = new File(destDir.getParentFile(), destDir.getName() + TarGzCompressionUtils.TAR_GZ_FILE_EXTENSION);
+    try {
+      fetchSegmentToLocalWithoutRetry(uri, tarFile);
+      TarGzCompressionUtils.unTar(tarFile, destDir);
+    } finally {
+      FileUtils.deleteQuietly(tarFile);
+    }
+  }
+
   /**
    * Fetches a segment from URI location to local without retry. Sub-class should override this or
    * {@link #fetchSegmentToLocal(URI, File)}.
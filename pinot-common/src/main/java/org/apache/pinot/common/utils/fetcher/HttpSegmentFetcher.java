@@ -21,6 +21,7 @@ package org.apache.pinot.common.utils.fetcher;
 import java.io.File;
 import java.net.URI;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.exception.HttpErrorStatusException;
 import org.apache.pinot.common.utils.FileUploadDownloadClient;
 import org.apache.pinot.spi.utils.retry.RetryPolicies;
@@ -63,4 +64,36 @@ public class HttpSegmentFetcher extends BaseSegmentFetcher {
       }
     });
   }
+
+  @Override
+  public void fetchUntarSegmentToLocalStreamed(URI uri, File destDir)
+      throws Exception {
+    RetryPolicies.exponentialBackoffRetryPolicy(_retryCount, _retryWaitMs, _retryDelayScaleFactor).attempt(() -> {
+      try {
+        // Clean up the partially untarred files from the previous attempt
+        FileUtils.deleteQuietly(destDir);
+        FileUtils.forceMkdir(destDir);
+        int statusCode = _httpClient.downloadUntarFileStreamed(uri, destDir);
+        _logger.info("Downloaded and untarred segment from: {} to: {}; Response status code: {}", uri, destDir,
+            statusCode);
+        return true;
+      } catch (HttpErrorStatusException e) {
+        int statusCode = e.getStatusCode();
+        if (statusCode >= 500) {
+          // Temporary exception
+          _logger.warn("Got temporary error status code: {} while downloading segment from: {} to: {}", statusCode, uri,
+              destDir, e);
+          return false;
+        } else {
+          // Permanent exception
+          _logger.error("Got permanent error status code: {} while downloading segment from: {} to: {}, won't retry",
+              statusCode, uri, destDir, e);
+          throw e;
+        }
+      } catch (Exception e) {
+        _logger.warn("Caught exception while downloading and untarring segment from: {} to: {}", uri, destDir, e);
+        return false;
+      }
+    });
+  }
 }
@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.common.utils.fetcher;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.net.URI;
+import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.spi.filesystem.PinotFSFactory;
 
 
@@ -30,4 +33,12 @@ public class PinotFSSegmentFetcher extends BaseSegmentFetcher {
       throws Exception {
     PinotFSFactory.create(uri.getScheme()).copyToLocalFile(uri, dest);
   }
+
+  @Override
+  protected void fetchUntarSegmentToLocalStreamedWithoutRetry(URI uri, File destDir)
+      throws Exception {
+    try (InputStream inputStream = new BufferedInputStream(PinotFSFactory.create(uri.getScheme()).open(uri))) {
+      TarGzCompressionUtils.unTar(inputStream, destDir);
+    }
+  }
 }
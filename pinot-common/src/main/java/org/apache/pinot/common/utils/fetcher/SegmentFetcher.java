@@ -21,6 +21,8 @@ package org.apache.pinot.common.utils.fetcher;
 import java.io.File;
 import java.net.URI;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.TarGzCompressionUtils;
 
 
 public interface SegmentFetcher {
@@ -35,4 +37,19 @@ public interface SegmentFetcher {
    */
   void fetchSegmentToLocal(URI uri, File dest)
       throws Exception;
+
+  /**
+   * Fetches a tar.gz segment from URI location and untars it into the local destination directory. Sub-class should
+   * override this to untar the segment on the fly from the input stream without writing the tar.gz file to disk.
+   */
+  default void fetchUntarSegmentToLocalStreamed(URI uri, File destDir)
+      throws Exception {
+    File tarFile = new File(destDir.getParentFile(), destDir.getName() + TarGzCompressionUtils.TAR_GZ_FILE_EXTENSION);
+    try {
+      fetchSegmentToLocal(uri, tarFile);
+      TarGzCompressionUtils.unTar(tarFile, destDir);
+    } finally {
+      FileUtils.deleteQuietly(tarFile);
+    }
+  }
 }
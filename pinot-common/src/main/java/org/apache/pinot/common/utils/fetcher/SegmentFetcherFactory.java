@@ -115,4 +115,13 @@ public class SegmentFetcherFactory {
       throws Exception {
     fetchSegmentToLocal(new URI(uri), dest);
   }
+
+  /**
+   * Fetches a tar.gz segment from URI location and untars it on the fly into the local destination directory.
+   */
+  public static void fetchUntarSegmentToLocalStreamed(String uri, File destDir)
+      throws Exception {
+    URI segmentUri = new URI(uri);
+    getSegmentFetcher(segmentUri.getScheme()).fetchUntarSegmentToLocalStreamed(segmentUri, destDir);
+  }
 }
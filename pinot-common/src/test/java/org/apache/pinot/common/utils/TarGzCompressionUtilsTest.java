@@ -19,10 +19,12 @@
 package org.apache.pinot.common.utils;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
@@ -128,6 +130,40 @@ public class TarGzCompressionUtilsTest {
     Assert.assertEquals(segmentFiles.length, 0);
   }
 
+  @Test
+  public void testUnTarStreamed()
+      throws IOException, ArchiveException {
+    File metaFile = new File(segmentDir, "metadata.properties");
+    FileUtils.writeStringToFile(metaFile, "segment.name = " + SEGMENT_NAME);
+    File tarGzPath = new File(tarDir, SEGMENT_NAME + ".tar.gz");
+    TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getPath(), tarGzPath.getPath());
+    try (InputStream inputStream = new FileInputStream(tarGzPath)) {
+      TarGzCompressionUtils.unTar(inputStream, untarDir);
+      // The input stream should be fully consumed
+      Assert.assertEquals(inputStream.read(), -1);
+    }
+    File untarredMetaFile = new File(new File(untarDir, SEGMENT_NAME), "metadata.properties");
+    Assert.assertEquals(FileUtils.readFileToString(untarredMetaFile), "segment.name = " + SEGMENT_NAME);
+  }
+
+  @Test
+  public void testUnTarStreamedCorrupted()
+      throws IOException {
+    FileUtils.writeStringToFile(new File(segmentDir, "metadata.properties"), "segment.name = " + SEGMENT_NAME);
+    File tarGzPath = new File(tarDir, SEGMENT_NAME + ".tar.gz");
+    TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getPath(), tarGzPath.getPath());
+
+    // Corrupt the CRC in the gzip trailer (last 8 bytes are CRC32 and size of the uncompressed data)
+    byte[] bytes = FileUtils.readFileToByteArray(tarGzPath);
+    bytes[bytes.length - 8] ^= 0xFF;
+    try {
+      TarGzCompressionUtils.unTar(new ByteArrayInputStream(bytes), untarDir);
+      Assert.fail("Did not get exception!!");
+    } catch (Exception e) {
+      Assert.assertTrue(e instanceof IOException);
+    }
+  }
+
   @Test
   public void testBadFilePath()
       throws Exception {
@@ -25,6 +25,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
 
 
 /**
@@ -54,6 +55,12 @@ public abstract class DataSource extends BaseOperator {
   @Nullable
   public abstract InvertedIndexReader getInvertedIndex();
 
+  /**
+   * Returns the range index for the column if exists, or {@code null} if not.
+   */
+  @Nullable
+  public abstract RangeIndexReader getRangeIndex();
+
   /**
    * Returns the bloom filter for the column if exists, or {@code null} if not.
    */
@@ -19,6 +19,8 @@
 package org.apache.pinot.core.common;
 
 import com.clearspring.analytics.stream.cardinality.HyperLogLog;
+import com.clearspring.analytics.stream.cardinality.RegisterSet;
+import com.google.common.base.Preconditions;
 import com.google.common.primitives.Longs;
 import com.tdunning.math.stats.MergingDigest;
 import com.tdunning.math.stats.TDigest;
@@ -44,6 +46,14 @@ import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDig
  * The {@code ObjectSerDeUtils} class provides the utility methods to serialize/de-serialize objects.
  */
 public class ObjectSerDeUtils {
+  // Constants for the HyperLogLog formats, where each int word holds 6 registers of 5 bits (same as the RegisterSet)
+  private static final int SPARSE_HLL_MARKER = -1;
+  private static final int HLL_REGISTER_BITS = 5;
+  private static final int HLL_REGISTER_MASK = (1 << HLL_REGISTER_BITS) - 1;
+  private static final int HLL_REGISTERS_PER_WORD = 6;
+  private static final int HLL_MAX_LOG2M_FOR_SHORT_ENTRY = Short.SIZE - HLL_REGISTER_BITS;
+  private static final int HLL_MAX_LOG2M_FOR_SPARSE = Integer.SIZE - 1 - HLL_REGISTER_BITS;
+
   private ObjectSerDeUtils() {
   }
 
@@ -249,6 +259,12 @@ public class ObjectSerDeUtils {
     }
   };
 
+  /**
+   * Serializer/De-serializer for HyperLogLog, which serializes the HyperLogLog in the dense format (all the registers,
+   * same as {@link HyperLogLog#getBytes()}). Used for the serialized HyperLogLog stored in the segments and returned
+   * to the users.
+   * <p>Both the dense format and the sparse format (see {@link #SPARSE_HYPER_LOG_LOG_SER_DE}) can be de-serialized.
+   */
   public static final ObjectSerDe<HyperLogLog> HYPER_LOG_LOG_SER_DE = new ObjectSerDe<HyperLogLog>() {
 
     @Override
@@ -262,22 +278,81 @@ public class ObjectSerDeUtils {
 
     @Override
     public HyperLogLog deserialize(byte[] bytes) {
-      try {
-        return HyperLogLog.Builder.build(bytes);
-      } catch (IOException e) {
-        throw new RuntimeException("Caught exception while de-serializing HyperLogLog", e);
-      }
+      return deserializeHyperLogLog(ByteBuffer.wrap(bytes));
     }
 
     @Override
     public HyperLogLog deserialize(ByteBuffer byteBuffer) {
-      byte[] bytes = new byte[byteBuffer.remaining()];
-      byteBuffer.get(bytes);
-      try {
-        return HyperLogLog.Builder.build(bytes);
-      } catch (IOException e) {
-        throw new RuntimeException("Caught exception while de-serializing HyperLogLog", e);
+      return deserializeHyperLogLog(byteBuffer);
+    }
+  };
+
+  /**
+   * Serializer/De-serializer for HyperLogLog, which serializes the HyperLogLog in the sparse format (only the non-zero
+   * registers) when it is smaller than the dense format. Used for the HyperLogLog in the DataTable, where most of the
+   * HyperLogLogs (e.g. for group-by queries with small groups) have few non-zero registers.
+   * <p>Sparse format: marker (-1), log2m, number of entries, then an entry ({@code registerIndex << 5 | registerValue})
+   * for each non-zero register, stored as short when log2m is at most 11, or int otherwise.
+   * The marker can never be the first value of the dense format, which is the log2m.
+   * <p>Both the dense format and the sparse format can be de-serialized.
+   */
+  public static final ObjectSerDe<HyperLogLog> SPARSE_HYPER_LOG_LOG_SER_DE = new ObjectSerDe<HyperLogLog>() {
+
+    @Override
+    public byte[] serialize(HyperLogLog hyperLogLog) {
+      byte[] denseBytes = HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog);
+      ByteBuffer denseByteBuffer = ByteBuffer.wrap(denseBytes);
+      int log2m = denseByteBuffer.getInt();
+      if (log2m > HLL_MAX_LOG2M_FOR_SPARSE) {
+        return denseBytes;
+      }
+      int numWords = denseByteBuffer.getInt() / Integer.BYTES;
+      int numNonZeroRegisters = 0;
+      for (int i = 0; i < numWords; i++) {
+        int word = denseByteBuffer.getInt();
+        for (int j = 0; j < HLL_REGISTERS_PER_WORD; j++) {
+          if ((word >>> (j * HLL_REGISTER_BITS) & HLL_REGISTER_MASK) != 0) {
+            numNonZeroRegisters++;
+          }
+        }
+      }
+      boolean shortEntry = log2m <= HLL_MAX_LOG2M_FOR_SHORT_ENTRY;
+      int sparseByteSize = 3 * Integer.BYTES + numNonZeroRegisters * (shortEntry ? Short.BYTES : Integer.BYTES);
+      if (sparseByteSize >= denseBytes.length) {
+        return denseBytes;
+      }
+
+      byte[] sparseBytes = new byte[sparseByteSize];
+      ByteBuffer sparseByteBuffer = ByteBuffer.wrap(sparseBytes);
+      sparseByteBuffer.putInt(SPARSE_HLL_MARKER);
+      sparseByteBuffer.putInt(log2m);
+      sparseByteBuffer.putInt(numNonZeroRegisters);
+      denseByteBuffer.position(2 * Integer.BYTES);
+      for (int i = 0; i < numWords; i++) {
+        int word = denseByteBuffer.getInt();
+        for (int j = 0; j < HLL_REGISTERS_PER_WORD; j++) {
+          int value = word >>> (j * HLL_REGISTER_BITS) & HLL_REGISTER_MASK;
+          if (value != 0) {
+            int entry = (i * HLL_REGISTERS_PER_WORD + j) << HLL_REGISTER_BITS | value;
+            if (shortEntry) {
+              sparseByteBuffer.putShort((short) entry);
+            } else {
+              sparseByteBuffer.putInt(entry);
+            }
+          }
+        }
       }
+      return sparseBytes;
+    }
+
+    @Override
+    public HyperLogLog deserialize(byte[] bytes) {
+      return deserializeHyperLogLog(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public HyperLogLog deserialize(ByteBuffer byteBuffer) {
+      return deserializeHyperLogLog(byteBuffer);
     }
   };
 
@@ -329,6 +404,28 @@ public class ObjectSerDeUtils {
     }
   };
 
+  /**
+   * Serializer/De-serializer for QuantileDigest, which serializes the QuantileDigest in the compact format (see
+   * {@link QuantileDigest#toCompactBytes()}). Used for the QuantileDigest in the DataTable.
+   */
+  public static final ObjectSerDe<QuantileDigest> COMPACT_QUANTILE_DIGEST_SER_DE = new ObjectSerDe<QuantileDigest>() {
+
+    @Override
+    public byte[] serialize(QuantileDigest quantileDigest) {
+      return quantileDigest.toCompactBytes();
+    }
+
+    @Override
+    public QuantileDigest deserialize(byte[] bytes) {
+      return QuantileDigest.fromBytes(bytes);
+    }
+
+    @Override
+    public QuantileDigest deserialize(ByteBuffer byteBuffer) {
+      return QuantileDigest.fromByteBuffer(byteBuffer);
+    }
+  };
+
   public static final ObjectSerDe<Map<Object, Object>> MAP_SER_DE = new ObjectSerDe<Map<Object, Object>>() {
 
     @Override
@@ -476,6 +573,40 @@ public class ObjectSerDeUtils {
   };
   //@formatter:on
 
+  // Same as SER_DES except that HyperLogLog and QuantileDigest are serialized in the compact formats
+  //@formatter:off
+  private static final ObjectSerDe[] COMPACT_SER_DES = {
+      STRING_SER_DE,
+      LONG_SER_DE,
+      DOUBLE_SER_DE,
+      DOUBLE_ARRAY_LIST_SER_DE,
+      AVG_PAIR_SER_DE,
+      MIN_MAX_RANGE_PAIR_SER_DE,
+      SPARSE_HYPER_LOG_LOG_SER_DE,
+      COMPACT_QUANTILE_DIGEST_SER_DE,
+      MAP_SER_DE,
+      INT_SET_SER_DE,
+      TDIGEST_SER_DE,
+      DISTINCT_TABLE_SER_DE
+  };
+  //@formatter:on
+
+  // Ser-des used for serialization. The legacy formats are used by default because the compact formats cannot be
+  // de-serialized by the older brokers. All the ser-des can de-serialize both formats.
+  private static volatile ObjectSerDe[] _serializers = SER_DES;
+
+  /**
+   * Sets whether to serialize the HyperLogLog and QuantileDigest in the compact formats. Should only be enabled after
+   * all the brokers are able to de-serialize the compact formats.
+   */
+  public static void setCompactSerDeEnabled(boolean enabled) {
+    _serializers = enabled ? COMPACT_SER_DES : SER_DES;
+  }
+
+  public static boolean isCompactSerDeEnabled() {
+    return _serializers == COMPACT_SER_DES;
+  }
+
   public static byte[] serialize(Object value) {
     return serialize(value, ObjectType.getObjectType(value)._value);
   }
@@ -486,7 +617,7 @@ public class ObjectSerDeUtils {
 
   @SuppressWarnings("unchecked")
   public static byte[] serialize(Object value, int objectTypeValue) {
-    return SER_DES[objectTypeValue].serialize(value);
+    return _serializers[objectTypeValue].serialize(value);
   }
 
   public static <T> T deserialize(byte[] bytes, ObjectType objectType) {
@@ -506,4 +637,109 @@ public class ObjectSerDeUtils {
   public static <T> T deserialize(ByteBuffer byteBuffer, int objectTypeValue) {
     return (T) SER_DES[objectTypeValue].deserialize(byteBuffer);
   }
+
+  /**
+   * Merges the serialized HyperLogLog (in either the dense or the sparse format) into the given HyperLogLog, without
+   * de-serializing it into an intermediate HyperLogLog object. The HyperLogLogs must have the same log2m.
+   */
+  public static void mergeHyperLogLog(HyperLogLog hyperLogLog, byte[] bytes) {
+    mergeHyperLogLog(hyperLogLog, ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Merges the serialized HyperLogLog (in either the dense or the sparse format) into the given HyperLogLog, without
+   * de-serializing it into an intermediate HyperLogLog object. The HyperLogLogs must have the same log2m.
+   */
+  public static void mergeHyperLogLog(HyperLogLog hyperLogLog, ByteBuffer byteBuffer) {
+    int firstValue = byteBuffer.getInt();
+    if (firstValue != SPARSE_HLL_MARKER) {
+      // Dense format
+      int log2m = firstValue;
+      checkHyperLogLogSize(hyperLogLog, log2m);
+      int numWords = byteBuffer.getInt() / Integer.BYTES;
+      for (int i = 0; i < numWords; i++) {
+        int word = byteBuffer.getInt();
+        if (word != 0) {
+          for (int j = 0; j < HLL_REGISTERS_PER_WORD; j++) {
+            int value = word >>> (j * HLL_REGISTER_BITS) & HLL_REGISTER_MASK;
+            if (value != 0) {
+              updateRegister(hyperLogLog, log2m, i * HLL_REGISTERS_PER_WORD + j, value);
+            }
+          }
+        }
+      }
+    } else {
+      // Sparse format
+      int log2m = byteBuffer.getInt();
+      checkHyperLogLogSize(hyperLogLog, log2m);
+      int numEntries = byteBuffer.getInt();
+      boolean shortEntry = log2m <= HLL_MAX_LOG2M_FOR_SHORT_ENTRY;
+      for (int i = 0; i < numEntries; i++) {
+        int entry = shortEntry ? byteBuffer.getShort() & 0xFFFF : byteBuffer.getInt();
+        updateRegister(hyperLogLog, log2m, entry >>> HLL_REGISTER_BITS, entry & HLL_REGISTER_MASK);
+      }
+    }
+  }
+
+  /**
+   * Returns whether the serialized HyperLogLog (in either the dense or the sparse format) has the same size as the
+   * given HyperLogLog, so that it can be merged with {@link #mergeHyperLogLog(HyperLogLog, ByteBuffer)}. The position
+   * of the buffer is not changed.
+   */
+  public static boolean canMergeHyperLogLog(HyperLogLog hyperLogLog, ByteBuffer byteBuffer) {
+    int position = byteBuffer.position();
+    int firstValue = byteBuffer.getInt(position);
+    int log2m = firstValue != SPARSE_HLL_MARKER ? firstValue : byteBuffer.getInt(position + Integer.BYTES);
+    return hasSameSize(hyperLogLog, log2m);
+  }
+
+  private static void checkHyperLogLogSize(HyperLogLog hyperLogLog, int log2m) {
+    Preconditions.checkState(hasSameSize(hyperLogLog, log2m), "Cannot merge HyperLogLogs of different sizes");
+  }
+
+  private static boolean hasSameSize(HyperLogLog hyperLogLog, int log2m) {
+    return hyperLogLog.sizeof() == RegisterSet.getSizeForCount(1 << log2m) * Integer.BYTES;
+  }
+
+  /**
+   * Updates the register of the HyperLogLog to the given value if it is larger than the current value, by offering a
+   * hash that maps to the register and has the value as the rank (number of leading zeros + 1 of the bits after the
+   * register index).
+   */
+  private static void updateRegister(HyperLogLog hyperLogLog, int log2m, int index, int value) {
+    int numRankBits = Integer.SIZE - log2m;
+    Preconditions.checkState(value <= numRankBits + 1, "Illegal HyperLogLog register value: %s", value);
+    int hash = index << numRankBits;
+    if (value <= numRankBits) {
+      hash |= 1 << (numRankBits - value);
+    }
+    hyperLogLog.offerHashed(hash);
+  }
+
+  private static HyperLogLog deserializeHyperLogLog(ByteBuffer byteBuffer) {
+    int firstValue = byteBuffer.getInt();
+    int[] words;
+    int log2m;
+    if (firstValue != SPARSE_HLL_MARKER) {
+      // Dense format
+      log2m = firstValue;
+      words = new int[byteBuffer.getInt() / Integer.BYTES];
+      for (int i = 0; i < words.length; i++) {
+        words[i] = byteBuffer.getInt();
+      }
+    } else {
+      // Sparse format
+      log2m = byteBuffer.getInt();
+      words = new int[RegisterSet.getSizeForCount(1 << log2m)];
+      int numEntries = byteBuffer.getInt();
+      boolean shortEntry = log2m <= HLL_MAX_LOG2M_FOR_SHORT_ENTRY;
+      for (int i = 0; i < numEntries; i++) {
+        int entry = shortEntry ? byteBuffer.getShort() & 0xFFFF : byteBuffer.getInt();
+        int index = entry >>> HLL_REGISTER_BITS;
+        words[index / HLL_REGISTERS_PER_WORD] |=
+            (entry & HLL_REGISTER_MASK) << (index % HLL_REGISTERS_PER_WORD * HLL_REGISTER_BITS);
+      }
+    }
+    return new HyperLogLog(log2m, new RegisterSet(1 << log2m, words));
+  }
 }
@@ -405,6 +405,16 @@ public class DataTableImplV2 implements DataTable {
     return ObjectSerDeUtils.deserialize(byteBuffer, objectTypeValue);
   }
 
+  @Override
+  public ByteBuffer getSerializedObject(int rowId, int colId) {
+    int size = positionCursorInVariableBuffer(rowId, colId);
+    // Skip the object type
+    _variableSizeData.getInt();
+    ByteBuffer byteBuffer = _variableSizeData.slice();
+    byteBuffer.limit(size);
+    return byteBuffer;
+  }
+
   @Override
   public int[] getIntArray(int rowId, int colId) {
     int length = positionCursorInVariableBuffer(rowId, colId);
@@ -33,6 +33,7 @@ import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.slf4j.Logger;
@@ -53,6 +54,7 @@ public abstract class BaseTableDataManager implements TableDataManager {
   protected String _tableDataDir;
   protected File _indexDir;
   protected Logger _logger;
+  protected SegmentResultCache _segmentResultCache;
 
   @Override
   public void init(TableDataManagerConfig tableDataManagerConfig, String instanceId,
@@ -80,6 +82,14 @@ public abstract class BaseTableDataManager implements TableDataManager {
 
   protected abstract void doInit();
 
+  /**
+   * Sets the cache for the per-segment query results shared by all the tables. Should be called before
+   * {@link #init(TableDataManagerConfig, String, ZkHelixPropertyStore, ServerMetrics)}.
+   */
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+  }
+
   @Override
   public void start() {
     _logger.info("Starting table data manager for table: {}", _tableNameWithType);
@@ -204,6 +214,9 @@ public abstract class BaseTableDataManager implements TableDataManager {
     _serverMetrics.addValueToTableGauge(_tableNameWithType, ServerGauge.DOCUMENT_COUNT,
         -segmentDataManager.getSegment().getSegmentMetadata().getTotalDocs());
     segmentDataManager.destroy();
+    if (_segmentResultCache != null) {
+      _segmentResultCache.invalidate(_tableNameWithType, segmentName);
+    }
     _logger.info("Closed segment: {} of table: {}", segmentName, _tableNameWithType);
   }
 
@@ -216,4 +229,10 @@ public abstract class BaseTableDataManager implements TableDataManager {
   public File getTableDataDir() {
     return _indexDir;
   }
+
+  @Nullable
+  @Override
+  public SegmentResultCache getSegmentResultCache() {
+    return _segmentResultCache;
+  }
 }
@@ -27,6 +27,7 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 
@@ -122,4 +123,10 @@ public interface TableDataManager {
    * @return
    */
   File getTableDataDir();
+
+  /**
+   * Returns the cache for the per-segment query results, or {@code null} if the cache is not enabled.
+   */
+  @Nullable
+  SegmentResultCache getSegmentResultCache();
 }
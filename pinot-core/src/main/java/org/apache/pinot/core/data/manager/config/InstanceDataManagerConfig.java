@@ -50,4 +50,10 @@ public interface InstanceDataManagerConfig {
   boolean isDirectRealtimeOffheapAllocation();
 
   int getMaxParallelSegmentBuilds();
+
+  long getSegmentResultCacheMaxSizeInBytes();
+
+  boolean isLazyLoadIndexes();
+
+  long getLazyIndexIdleTimeoutMs();
 }
@@ -23,10 +23,12 @@ import javax.annotation.Nonnull;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.data.manager.BaseTableDataManager;
 import org.apache.pinot.core.data.manager.TableDataManager;
 import org.apache.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.data.manager.realtime.RealtimeTableDataManager;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.spi.config.table.TableType;
 
 
@@ -35,6 +37,7 @@ import org.apache.pinot.spi.config.table.TableType;
  */
 public class TableDataManagerProvider {
   private static Semaphore _segmentBuildSemaphore;
+  private static SegmentResultCache _segmentResultCache;
 
   private TableDataManagerProvider() {
   }
@@ -44,12 +47,16 @@ public class TableDataManagerProvider {
     if (maxParallelBuilds > 0) {
       _segmentBuildSemaphore = new Semaphore(maxParallelBuilds, true);
     }
+    long segmentResultCacheMaxSizeInBytes = instanceDataManagerConfig.getSegmentResultCacheMaxSizeInBytes();
+    if (segmentResultCacheMaxSizeInBytes > 0) {
+      _segmentResultCache = new SegmentResultCache(segmentResultCacheMaxSizeInBytes);
+    }
   }
 
   public static TableDataManager getTableDataManager(@Nonnull TableDataManagerConfig tableDataManagerConfig,
       @Nonnull String instanceId, @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore,
       @Nonnull ServerMetrics serverMetrics) {
-    TableDataManager tableDataManager;
+    BaseTableDataManager tableDataManager;
     switch (TableType.valueOf(tableDataManagerConfig.getTableDataManagerType())) {
       case OFFLINE:
         tableDataManager = new OfflineTableDataManager();
@@ -60,6 +67,7 @@ public class TableDataManagerProvider {
       default:
         throw new IllegalStateException();
     }
+    tableDataManager.setSegmentResultCache(_segmentResultCache);
     tableDataManager.init(tableDataManagerConfig, instanceId, propertyStore, serverMetrics);
     return tableDataManager;
   }
@@ -197,6 +197,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private static final int MSG_COUNT_THRESHOLD_FOR_LOG = 100000;
   private static final int BUILD_TIME_LEASE_SECONDS = 30;
   private static final int MAX_CONSECUTIVE_ERROR_COUNT = 5;
+  // Max number of decoded records buffered before indexing them into the segment in a batch
+  private static final int MAX_ROWS_PER_INDEXING_BATCH = 1000;
 
   private final LLCRealtimeSegmentZKMetadata _segmentZKMetadata;
   private final TableConfig _tableConfig;
@@ -245,6 +247,12 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   final String _clientId;
   private final LLCSegmentName _llcSegmentName;
   private final RecordTransformer _recordTransformer;
+  // Reusable buffers for indexing the records in a batch (only accessed by the consumer thread)
+  private final GenericRow[] _reusableRows = new GenericRow[MAX_ROWS_PER_INDEXING_BATCH];
+  private final GenericRow[] _rowBuffer = new GenericRow[MAX_ROWS_PER_INDEXING_BATCH];
+  private final RowMetadata[] _rowMetadataBuffer = new RowMetadata[MAX_ROWS_PER_INDEXING_BATCH];
+  // Decodes and transforms the messages on separate threads when multiple decoder threads are configured
+  private final PipelinedMessageDecoder _pipelinedMessageDecoder;
   private PartitionLevelConsumer _partitionLevelConsumer = null;
   private StreamMetadataProvider _streamMetadataProvider = null;
   private final File _resourceTmpDir;
@@ -425,72 +433,85 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     int indexedMessageCount = 0;
     int streamMessageCount = 0;
-    boolean canTakeMore = true;
+    int numBufferedRows = 0;
 
-    GenericRow reuse = new GenericRow();
-    for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
-      if (_shouldStop || endCriteriaReached()) {
-        break;
-      }
-      if (!canTakeMore) {
-        // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
-        // rows. This can happen in one of two conditions:
-        // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to consume
-        //    for this row. Something is seriously wrong, because endCriteriaReached() should have returned true when
-        //    we hit the row limit.
-        //    Throw an exception.
-        //
-        // 2. We are in CATCHING_UP state, and we legally hit this error due to unclean leader election where
-        //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
-        //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
-        //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
-        //    is a rare case, and we really don't know how to handle this at this time.
-        //    Throw an exception.
-        //
-        segmentLogger
-            .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
-                _segmentMaxRowCount);
-        throw new RuntimeException("Realtime segment full");
-      }
-
-      // Index each message
-      reuse.clear();
-      // retrieve metadata from the message batch if available
-      // this can be overridden by the decoder if there is a better indicator in the message payload
-      RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
-
-      GenericRow decodedRow = _messageDecoder
-          .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
-              messagesAndOffsets.getMessageLengthAtIndex(index), reuse);
-      if (decodedRow != null) {
-        try {
-          GenericRow transformedRow = _recordTransformer.transform(decodedRow);
+    if (_pipelinedMessageDecoder != null) {
+      _pipelinedMessageDecoder.start(messagesAndOffsets);
+    }
+    try {
+      for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
+        if (_shouldStop || endCriteriaReached()) {
+          break;
+        }
 
-          if (transformedRow != null) {
-            realtimeRowsConsumedMeter = _serverMetrics
-                .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
-            indexedMessageCount++;
+        // retrieve metadata from the message batch if available
+        // this can be overridden by the decoder if there is a better indicator in the message payload
+        RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
+
+        // Decode and transform each message, and buffer the record to be indexed in a batch
+        GenericRow transformedRow = null;
+        boolean errored = false;
+        if (_pipelinedMessageDecoder != null) {
+          // The records of the previous chunk are reused after accessing the next chunk, so index them first
+          if (_pipelinedMessageDecoder.isChunkStart(index)) {
+            indexBufferedRows(numBufferedRows);
+            numBufferedRows = 0;
+          }
+          transformedRow = _pipelinedMessageDecoder.getTransformedRow(index);
+          errored = transformedRow == null && _pipelinedMessageDecoder.isErrored(index);
+        } else {
+          GenericRow reuse = _reusableRows[numBufferedRows];
+          if (reuse == null) {
+            reuse = new GenericRow();
+            _reusableRows[numBufferedRows] = reuse;
           } else {
-            realtimeRowsDroppedMeter = _serverMetrics
-                .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
-                    realtimeRowsDroppedMeter);
+            reuse.clear();
+          }
+          GenericRow decodedRow = _messageDecoder
+              .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
+                  messagesAndOffsets.getMessageLengthAtIndex(index), reuse);
+          if (decodedRow != null) {
+            try {
+              transformedRow = _recordTransformer.transform(decodedRow);
+            } catch (Exception e) {
+              segmentLogger.error("Caught exception while transforming the record: {}", decodedRow, e);
+              errored = true;
+            }
           }
+        }
 
-          canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
-        } catch (Exception e) {
-          segmentLogger.error("Caught exception while transforming the record: {}", decodedRow, e);
+        if (transformedRow != null) {
+          realtimeRowsConsumedMeter = _serverMetrics
+              .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
+          indexedMessageCount++;
+          _rowBuffer[numBufferedRows] = transformedRow;
+          _rowMetadataBuffer[numBufferedRows] = msgMetadata;
+          numBufferedRows++;
+        } else if (errored) {
           _numRowsErrored++;
+        } else {
+          realtimeRowsDroppedMeter = _serverMetrics
+              .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
+                  realtimeRowsDroppedMeter);
         }
-      } else {
-        realtimeRowsDroppedMeter = _serverMetrics
-            .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
-                realtimeRowsDroppedMeter);
-      }
 
-      _currentOffset = messagesAndOffsets.getNextStreamMessageOffsetAtIndex(index);
-      _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
-      _numRowsConsumed++;
-      streamMessageCount++;
+        _currentOffset = messagesAndOffsets.getNextStreamMessageOffsetAtIndex(index);
+        _numRowsConsumed++;
+        streamMessageCount++;
+
+        // Index the buffered records when the buffer is full, or when the buffered records might reach the row limit
+        // so that the end criteria is always checked against the actual number of indexed records
+        if (numBufferedRows == MAX_ROWS_PER_INDEXING_BATCH
+            || _numRowsIndexed + numBufferedRows >= _segmentMaxRowCount) {
+          indexBufferedRows(numBufferedRows);
+          numBufferedRows = 0;
+        }
+      }
+      indexBufferedRows(numBufferedRows);
+    } finally {
+      if (_pipelinedMessageDecoder != null) {
+        _pipelinedMessageDecoder.finish();
+      }
     }
     updateCurrentDocumentCountMetrics();
     if (streamMessageCount != 0) {
@@ -502,6 +523,58 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
   }
 
+  /**
+   * Indexes the buffered records into the realtime segment in a batch. If the batch cannot be indexed because of some
+   * invalid records, falls back to index the records one by one so that only the invalid records are skipped.
+   */
+  private void indexBufferedRows(int numBufferedRows) {
+    if (numBufferedRows == 0) {
+      return;
+    }
+
+    int numRowsIndexed;
+    try {
+      numRowsIndexed = _realtimeSegment.index(_rowBuffer, _rowMetadataBuffer, numBufferedRows);
+    } catch (Exception e) {
+      segmentLogger.debug("Caught exception while indexing {} records in a batch, indexing them one by one",
+          numBufferedRows, e);
+      numRowsIndexed = 0;
+      boolean canTakeMore = true;
+      while (canTakeMore && numRowsIndexed < numBufferedRows) {
+        GenericRow row = _rowBuffer[numRowsIndexed];
+        try {
+          canTakeMore = _realtimeSegment.index(row, _rowMetadataBuffer[numRowsIndexed]);
+        } catch (Exception e1) {
+          segmentLogger.error("Caught exception while indexing the record: {}", row, e1);
+          _numRowsErrored++;
+        }
+        numRowsIndexed++;
+      }
+    }
+    _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
+
+    if (numRowsIndexed < numBufferedRows) {
+      // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
+      // rows. This can happen in one of two conditions:
+      // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to consume
+      //    for this row. Something is seriously wrong, because endCriteriaReached() should have returned true when
+      //    we hit the row limit.
+      //    Throw an exception.
+      //
+      // 2. We are in CATCHING_UP state, and we legally hit this error due to unclean leader election where
+      //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
+      //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
+      //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
+      //    is a rare case, and we really don't know how to handle this at this time.
+      //    Throw an exception.
+      //
+      segmentLogger
+          .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
+              _segmentMaxRowCount);
+      throw new RuntimeException("Realtime segment full");
+    }
+  }
+
   public class PartitionConsumer implements Runnable {
     public void run() {
       long initialConsumptionEnd = 0L;
@@ -1027,6 +1100,11 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
     _realtimeSegment.destroy();
     closeKafkaConsumers();
+    // NOTE: the pipelined message decoder is not closed with the stream consumers because the consumption can resume
+    // after building the segment (e.g. catching up after a failed commit)
+    if (_pipelinedMessageDecoder != null) {
+      _pipelinedMessageDecoder.close();
+    }
   }
 
   protected void start() {
@@ -1148,8 +1226,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setInvertedIndexColumns(invertedIndexColumns).setTextIndexColumns(textIndexColumns)
             .setRealtimeSegmentZKMetadata(segmentZKMetadata).setOffHeap(_isOffHeap).setMemoryManager(_memoryManager)
             .setStatsHistory(realtimeTableDataManager.getStatsHistory())
-            .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setNullHandlingEnabled(_nullHandlingEnabled)
-            .setConsumerDir(consumerDir);
+            .setAggregateMetrics(indexingConfig.isAggregateMetrics())
+            .setMetricAggregationFunctions(indexingConfig.getMetricAggregationFunctions())
+            .setNullHandlingEnabled(_nullHandlingEnabled).setConsumerDir(consumerDir)
+            .setStarTreeIndexConfigs(indexingConfig.getStarTreeIndexConfigs());
 
     // Create message decoder
     _messageDecoder =
@@ -1159,6 +1239,19 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     // Create record transformer
     _recordTransformer = CompositeTransformer.getDefaultTransformer(schema);
 
+    // Create pipelined message decoder, where each decoder thread has its own message decoder and record transformer
+    int decoderNumThreads = _partitionLevelStreamConfig.getDecoderNumThreads();
+    if (decoderNumThreads > 1) {
+      PartitionLevelStreamConfig partitionLevelStreamConfig = _partitionLevelStreamConfig;
+      Set<String> fieldsToRead = SchemaUtils.extractSourceFields(_schema);
+      _pipelinedMessageDecoder = new PipelinedMessageDecoder(decoderNumThreads,
+          () -> StreamDecoderProvider.create(partitionLevelStreamConfig, fieldsToRead),
+          () -> CompositeTransformer.getDefaultTransformer(schema), _segmentNameStr + "-decoder", segmentLogger);
+      segmentLogger.info("Decoding messages with {} threads", decoderNumThreads);
+    } else {
+      _pipelinedMessageDecoder = null;
+    }
+
     // Acquire semaphore to create Kafka consumers
     try {
       _partitionConsumerSemaphore.acquire();
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.Closeable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.slf4j.Logger;
+
+
+/**
+ * Decodes and transforms the messages of a {@link MessageBatch} on a pool of decoder threads, ahead of the consumer
+ * thread which indexes the records.
+ * <p>The messages are split into chunks of consecutive messages. At most {@code 2 * numThreads} chunks are decoded
+ * ahead of the consumer thread, bounded by the reusable chunk buffers. The consumer thread reads the results in the
+ * message order with {@link #getTransformedRow(int)}, so the messages (and the stream offsets) are still processed in
+ * order. The records of a chunk are reused once a message of a following chunk is accessed, so they must be indexed
+ * before that (see {@link #isChunkStart(int)}).
+ * <p>Each decoder thread uses its own {@link StreamMessageDecoder} and {@link RecordTransformer} as they are not
+ * required to be thread-safe.
+ * <p>This class is not thread-safe, and should only be accessed by the consumer thread.
+ */
+public class PipelinedMessageDecoder implements Closeable {
+  private static final int CHUNK_SIZE = 256;
+
+  private final ExecutorService _executorService;
+  private final ThreadLocal<StreamMessageDecoder> _decoders;
+  private final ThreadLocal<RecordTransformer> _recordTransformers;
+  private final Logger _logger;
+  private final Chunk[] _chunks;
+
+  private MessageBatch _messageBatch;
+  private int _numMessages;
+  private int _numChunks;
+  private int _currentChunkId;
+  private int _nextChunkIdToSubmit;
+  private volatile boolean _aborted;
+
+  public PipelinedMessageDecoder(int numThreads, Supplier<StreamMessageDecoder> decoderSupplier,
+      Supplier<RecordTransformer> recordTransformerSupplier, String threadNamePrefix, Logger logger) {
+    Preconditions.checkArgument(numThreads > 0, "Number of decoder threads must be positive, got: %s", numThreads);
+    _executorService = Executors.newFixedThreadPool(numThreads, new NamedThreadFactory(threadNamePrefix));
+    _decoders = ThreadLocal.withInitial(decoderSupplier);
+    _recordTransformers = ThreadLocal.withInitial(recordTransformerSupplier);
+    _logger = logger;
+    _chunks = new Chunk[2 * numThreads];
+    for (int i = 0; i < _chunks.length; i++) {
+      _chunks[i] = new Chunk();
+    }
+  }
+
+  /**
+   * Starts decoding the messages of the given message batch. The previous message batch must be finished with
+   * {@link #finish()}.
+   */
+  public void start(MessageBatch messageBatch) {
+    _messageBatch = messageBatch;
+    _numMessages = messageBatch.getMessageCount();
+    _numChunks = (_numMessages + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    _currentChunkId = -1;
+    _nextChunkIdToSubmit = 0;
+    _aborted = false;
+    int numChunksToSubmit = Math.min(_numChunks, _chunks.length);
+    while (_nextChunkIdToSubmit < numChunksToSubmit) {
+      submitNextChunk();
+    }
+  }
+
+  /**
+   * Returns whether the message at the given index is the first message of a chunk, in which case the records of the
+   * previous chunk will be reused after accessing the message.
+   */
+  public boolean isChunkStart(int index) {
+    return index % CHUNK_SIZE == 0;
+  }
+
+  /**
+   * Returns the transformed record of the message at the given index, or {@code null} if the message is dropped or
+   * failed to be transformed (see {@link #isErrored(int)}). Blocks until the message is decoded.
+   * <p>The messages must be accessed in order.
+   */
+  public GenericRow getTransformedRow(int index) {
+    int chunkId = index / CHUNK_SIZE;
+    Chunk chunk = _chunks[chunkId % _chunks.length];
+    if (chunkId != _currentChunkId) {
+      Preconditions.checkState(chunkId == _currentChunkId + 1, "Messages must be accessed in order");
+      if (_currentChunkId >= 0 && _nextChunkIdToSubmit < _numChunks) {
+        // The buffer of the previous chunk is released, reuse it for the next chunk
+        submitNextChunk();
+      }
+      _currentChunkId = chunkId;
+      waitForChunk(chunk);
+    }
+    int indexInChunk = index - chunk._startIndex;
+    if (indexInChunk == chunk._exceptionIndex) {
+      throw new RuntimeException("Caught exception while decoding the message at index: " + index, chunk._exception);
+    }
+    return chunk._transformedRows[indexInChunk];
+  }
+
+  /**
+   * Returns whether the message at the given index failed to be transformed. Should be called after
+   * {@link #getTransformedRow(int)} for the same message.
+   */
+  public boolean isErrored(int index) {
+    Chunk chunk = _chunks[(index / CHUNK_SIZE) % _chunks.length];
+    return chunk._errored[index - chunk._startIndex];
+  }
+
+  /**
+   * Finishes the current message batch by stopping decoding the remaining messages and waiting for the decoder threads
+   * to release the chunk buffers.
+   */
+  public void finish() {
+    _aborted = true;
+    for (Chunk chunk : _chunks) {
+      waitForChunk(chunk);
+    }
+    _messageBatch = null;
+  }
+
+  @Override
+  public void close() {
+    _aborted = true;
+    _executorService.shutdownNow();
+  }
+
+  private void submitNextChunk() {
+    Chunk chunk = _chunks[_nextChunkIdToSubmit % _chunks.length];
+    int startIndex = _nextChunkIdToSubmit * CHUNK_SIZE;
+    chunk._startIndex = startIndex;
+    chunk._numMessages = Math.min(CHUNK_SIZE, _numMessages - startIndex);
+    chunk._exceptionIndex = -1;
+    chunk._exception = null;
+    MessageBatch messageBatch = _messageBatch;
+    chunk._future = _executorService.submit(() -> decodeChunk(chunk, messageBatch));
+    _nextChunkIdToSubmit++;
+  }
+
+  private void waitForChunk(Chunk chunk) {
+    if (chunk._future != null) {
+      try {
+        Uninterruptibles.getUninterruptibly(chunk._future);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Caught exception while decoding messages", e);
+      } finally {
+        chunk._future = null;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void decodeChunk(Chunk chunk, MessageBatch messageBatch) {
+    StreamMessageDecoder decoder = _decoders.get();
+    RecordTransformer recordTransformer = _recordTransformers.get();
+    for (int i = 0; i < chunk._numMessages && !_aborted; i++) {
+      int index = chunk._startIndex + i;
+      GenericRow reuse = chunk._reusableRows[i];
+      if (reuse == null) {
+        reuse = new GenericRow();
+        chunk._reusableRows[i] = reuse;
+      } else {
+        reuse.clear();
+      }
+      chunk._transformedRows[i] = null;
+      chunk._errored[i] = false;
+
+      GenericRow decodedRow;
+      try {
+        decodedRow = decoder.decode(messageBatch.getMessageAtIndex(index), messageBatch.getMessageOffsetAtIndex(index),
+            messageBatch.getMessageLengthAtIndex(index), reuse);
+      } catch (Exception e) {
+        // Rethrow the exception when the consumer thread reaches the message
+        chunk._exceptionIndex = i;
+        chunk._exception = e;
+        return;
+      }
+      if (decodedRow != null) {
+        try {
+          chunk._transformedRows[i] = recordTransformer.transform(decodedRow);
+        } catch (Exception e) {
+          _logger.error("Caught exception while transforming the record: {}", decodedRow, e);
+          chunk._errored[i] = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Buffers for a chunk of messages, written by a decoder thread and then read by the consumer thread.
+   */
+  private static class Chunk {
+    final GenericRow[] _reusableRows = new GenericRow[CHUNK_SIZE];
+    final GenericRow[] _transformedRows = new GenericRow[CHUNK_SIZE];
+    final boolean[] _errored = new boolean[CHUNK_SIZE];
+
+    int _startIndex;
+    int _numMessages;
+    int _exceptionIndex;
+    Exception _exception;
+    Future<?> _future;
+  }
+}
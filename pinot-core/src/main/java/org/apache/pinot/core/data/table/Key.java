@@ -38,9 +38,12 @@ import java.util.Arrays;
  */
 public class Key {
   private final Object[] _values;
+  // Cache the hash code as the key is looked up multiple times (e.g. to pick the partition, then to probe the map)
+  private final int _hashCode;
 
   public Key(Object[] values) {
     _values = values;
+    _hashCode = Arrays.hashCode(values);
   }
 
   // NOTE: Not check class for performance concern
@@ -52,6 +55,6 @@ public class Key {
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(_values);
+    return _hashCode;
   }
 }
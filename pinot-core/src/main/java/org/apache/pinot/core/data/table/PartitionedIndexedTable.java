@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.request.AggregationInfo;
+import org.apache.pinot.common.request.SelectionSort;
+import org.apache.pinot.common.utils.DataSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Thread safe {@link Table} implementation for aggregating Records based on combination of keys, which splits the
+ * records into partitions by the hash of the key.
+ * <p>Each partition is an open-addressing map guarded by its own lock, so concurrent upserts only contend when they
+ * hit the same partition. Unlike {@link ConcurrentIndexedTable}, there is no global lock: when a partition reaches its
+ * share of the max capacity, only that partition is trimmed to its share of the capacity, while the other partitions
+ * keep accepting upserts. The records are spread among the partitions by the key hash, so the total number of records
+ * is bounded by the max capacity of the table, and each partition holds its share of the global top records.
+ * <p>The partitions are merged and trimmed to the capacity of the table when {@link #finish(boolean)} is called.
+ */
+@ThreadSafe
+public class PartitionedIndexedTable extends IndexedTable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedIndexedTable.class);
+
+  public static final int DEFAULT_NUM_PARTITIONS = Runtime.getRuntime().availableProcessors();
+  private static final int MAX_NUM_PARTITIONS = 1 << 10;
+  // Min number of records kept in each partition after trimming, so that small tables are not trimmed too often
+  private static final int MIN_PARTITION_CAPACITY = 100;
+  // Golden ratio multiplier to spread the key hash before picking the partition from the high bits
+  private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+  private final Partition[] _partitions;
+  private final int _partitionShift;
+  private final int _partitionCapacity;
+  private final int _partitionMaxCapacity;
+
+  // Only tracked when there is no order by, in which case new records are rejected after reaching the capacity
+  private final AtomicInteger _numRecords = new AtomicInteger();
+  private volatile boolean _noMoreNewRecords = false;
+
+  private final AtomicInteger _numResizes = new AtomicInteger();
+  private final AtomicLong _resizeTime = new AtomicLong();
+
+  // Set when finish() is called
+  private Map<Key, Record> _mergedRecordsMap;
+  private Iterator<Record> _iterator;
+
+  /**
+   * Initializes the data structures needed for this Table, with the default number of partitions
+   * @param dataSchema data schema of the record's keys and values
+   * @param aggregationInfos aggregation infos for the aggregations in record's values
+   * @param orderBy list of {@link SelectionSort} defining the order by
+   * @param capacity the capacity of the table
+   */
+  public PartitionedIndexedTable(DataSchema dataSchema, List<AggregationInfo> aggregationInfos,
+      List<SelectionSort> orderBy, int capacity) {
+    this(dataSchema, aggregationInfos, orderBy, capacity, DEFAULT_NUM_PARTITIONS);
+  }
+
+  /**
+   * Initializes the data structures needed for this Table
+   * @param dataSchema data schema of the record's keys and values
+   * @param aggregationInfos aggregation infos for the aggregations in record's values
+   * @param orderBy list of {@link SelectionSort} defining the order by
+   * @param capacity the capacity of the table
+   * @param numPartitions number of partitions, rounded up to the next power of 2
+   */
+  public PartitionedIndexedTable(DataSchema dataSchema, List<AggregationInfo> aggregationInfos,
+      List<SelectionSort> orderBy, int capacity, int numPartitions) {
+    super(dataSchema, aggregationInfos, orderBy, capacity);
+
+    Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be positive, got: %s", numPartitions);
+    numPartitions = Math.min(numPartitions, MAX_NUM_PARTITIONS);
+    int numPartitionBits = 32 - Integer.numberOfLeadingZeros(numPartitions - 1);
+    numPartitions = 1 << numPartitionBits;
+    _partitionShift = 32 - numPartitionBits;
+
+    // Split the capacity and the max capacity among the partitions so that the total number of records across the
+    // partitions is bounded by the max capacity of the table
+    _partitionCapacity = Math.max(_capacity / numPartitions, MIN_PARTITION_CAPACITY);
+    _partitionMaxCapacity = Math.max(_maxCapacity / numPartitions, (int) (_partitionCapacity * 1.2));
+
+    _partitions = new Partition[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      _partitions[i] = new Partition();
+    }
+  }
+
+  /**
+   * Thread safe implementation of upsert for inserting {@link Record} into {@link Table}
+   */
+  @Override
+  public boolean upsert(Key key, Record newRecord) {
+    Preconditions.checkNotNull(key, "Cannot upsert record with null keys");
+
+    _partitions[getPartitionId(key.hashCode())].upsert(key, newRecord);
+    return true;
+  }
+
+  private int getPartitionId(int hash) {
+    // NOTE: Shift of 32 bits is a no-op in Java, so handle single partition separately
+    return _partitionShift == 32 ? 0 : (hash * HASH_MULTIPLIER) >>> _partitionShift;
+  }
+
+  private void aggregate(Record existingRecord, Record newRecord) {
+    Object[] existingValues = existingRecord.getValues();
+    Object[] newValues = newRecord.getValues();
+    int aggNum = 0;
+    for (int i = _numKeyColumns; i < _numColumns; i++) {
+      existingValues[i] = _aggregationFunctions[aggNum++].merge(existingValues[i], newValues[i]);
+    }
+  }
+
+  @Override
+  public int size() {
+    if (_mergedRecordsMap != null) {
+      return _mergedRecordsMap.size();
+    }
+    int size = 0;
+    for (Partition partition : _partitions) {
+      size += partition.size();
+    }
+    return size;
+  }
+
+  @Override
+  public Iterator<Record> iterator() {
+    return _iterator;
+  }
+
+  private void resize(Map<Key, Record> recordsMap, int trimToSize) {
+
+    long startTime = System.currentTimeMillis();
+
+    _tableResizer.resizeRecordsMap(recordsMap, trimToSize);
+
+    long endTime = System.currentTimeMillis();
+    long timeElapsed = endTime - startTime;
+
+    _numResizes.incrementAndGet();
+    _resizeTime.addAndGet(timeElapsed);
+  }
+
+  private List<Record> resizeAndSort(Map<Key, Record> recordsMap, int trimToSize) {
+
+    long startTime = System.currentTimeMillis();
+
+    List<Record> sortedRecords = _tableResizer.resizeAndSortRecordsMap(recordsMap, trimToSize);
+
+    long endTime = System.currentTimeMillis();
+    long timeElapsed = endTime - startTime;
+
+    _numResizes.incrementAndGet();
+    _resizeTime.addAndGet(timeElapsed);
+
+    return sortedRecords;
+  }
+
+  /**
+   * Merges the partitions into a single map. Should be called after all the upserts are done.
+   */
+  @Override
+  public void finish(boolean sort) {
+    Map<Key, Record> mergedRecordsMap = new Object2ObjectOpenHashMap<>(size());
+    for (Partition partition : _partitions) {
+      // Partitions are disjoint on keys, so records can be put without merging
+      mergedRecordsMap.putAll(partition._recordsMap);
+    }
+    _mergedRecordsMap = mergedRecordsMap;
+
+    if (_isOrderBy) {
+
+      if (sort) {
+        List<Record> sortedRecords = resizeAndSort(mergedRecordsMap, _capacity);
+        _iterator = sortedRecords.iterator();
+      } else {
+        resize(mergedRecordsMap, _capacity);
+      }
+      int numResizes = _numResizes.get();
+      long resizeTime = _resizeTime.get();
+      LOGGER.debug("Num partitions : {}, Num resizes : {}, Total time spent in resizing : {}, Avg resize time : {}",
+          _partitions.length, numResizes, resizeTime, numResizes == 0 ? 0 : resizeTime / numResizes);
+    }
+
+    if (_iterator == null) {
+      _iterator = mergedRecordsMap.values().iterator();
+    }
+  }
+
+  /**
+   * A partition of the table, which contains all the records whose key hashes into the partition.
+   */
+  private class Partition {
+    final Map<Key, Record> _recordsMap = new Object2ObjectOpenHashMap<>();
+
+    synchronized void upsert(Key key, Record newRecord) {
+      if (_noMoreNewRecords) { // allow only existing record updates
+        Record existingRecord = _recordsMap.get(key);
+        if (existingRecord != null) {
+          aggregate(existingRecord, newRecord);
+        }
+        return;
+      }
+
+      Record existingRecord = _recordsMap.putIfAbsent(key, newRecord);
+      if (existingRecord != null) {
+        aggregate(existingRecord, newRecord);
+        return;
+      }
+
+      if (_isOrderBy) {
+        // reached partition max capacity, resize this partition only
+        if (_recordsMap.size() >= _partitionMaxCapacity) {
+          resize(_recordsMap, _partitionCapacity);
+        }
+      } else {
+        // reached capacity and no order by. No more new records will be accepted
+        if (_numRecords.incrementAndGet() >= _maxCapacity) {
+          _noMoreNewRecords = true;
+        }
+      }
+    }
+
+    synchronized int size() {
+      return _recordsMap.size();
+    }
+  }
+}
@@ -70,6 +70,7 @@ public class SegmentGeneratorConfig {
   private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
   private List<String> _textIndexCreationColumns = new ArrayList<>();
+  private List<String> _rangeIndexCreationColumns = new ArrayList<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
   private String _inputFilePath = null;
@@ -98,6 +99,8 @@ public class SegmentGeneratorConfig {
   private boolean _onHeap = false;
   private boolean _skipTimeValueCheck = false;
   private boolean _nullHandlingEnabled = false;
+  // Number of threads used to build the dictionaries and indexes of the columns in parallel (1 means sequential)
+  private int _numIndexCreationThreads = 1;
 
   @Deprecated
   public SegmentGeneratorConfig() {
@@ -171,6 +174,11 @@ public class SegmentGeneratorConfig {
 
       extractTextIndexColumnsFromTableConfig(tableConfig);
 
+      List<String> rangeIndexColumns = indexingConfig.getRangeIndexColumns();
+      if (rangeIndexColumns != null) {
+        _rangeIndexCreationColumns.addAll(rangeIndexColumns);
+      }
+
       _nullHandlingEnabled = indexingConfig.isNullHandlingEnabled();
     }
   }
@@ -282,6 +290,15 @@ public class SegmentGeneratorConfig {
     return _textIndexCreationColumns;
   }
 
+  /**
+   * Used by {@link org.apache.pinot.core.segment.creator.impl.SegmentColumnarIndexCreator}
+   * to get the list of range index columns.
+   * @return list of range index columns.
+   */
+  public List<String> getRangeIndexCreationColumns() {
+    return _rangeIndexCreationColumns;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -309,6 +326,12 @@ public class SegmentGeneratorConfig {
     }
   }
 
+  public void setRangeIndexCreationColumns(List<String> rangeIndexCreationColumns) {
+    if (rangeIndexCreationColumns != null) {
+      _rangeIndexCreationColumns.addAll(rangeIndexCreationColumns);
+    }
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
@@ -606,4 +629,14 @@ public class SegmentGeneratorConfig {
   public void setNullHandlingEnabled(boolean nullHandlingEnabled) {
     _nullHandlingEnabled = nullHandlingEnabled;
   }
+
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    Preconditions.checkArgument(numIndexCreationThreads > 0,
+        "Number of index creation threads must be positive, got: %s", numIndexCreationThreads);
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
 }
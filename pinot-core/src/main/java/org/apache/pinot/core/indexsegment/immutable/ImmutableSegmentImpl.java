@@ -106,29 +106,11 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   @Override
   public void destroy() {
     LOGGER.info("Trying to destroy segment : {}", this.getSegmentName());
-    for (String column : _indexContainerMap.keySet()) {
-      ColumnIndexContainer columnIndexContainer = _indexContainerMap.get(column);
-
-      try {
-        Dictionary dictionary = columnIndexContainer.getDictionary();
-        if (dictionary != null) {
-          dictionary.close();
-        }
-      } catch (Exception e) {
-        LOGGER.error("Error when close dictionary index for column : " + column, e);
-      }
-      try {
-        columnIndexContainer.getForwardIndex().close();
-      } catch (Exception e) {
-        LOGGER.error("Error when close forward index for column : " + column, e);
-      }
+    for (Map.Entry<String, ColumnIndexContainer> entry : _indexContainerMap.entrySet()) {
       try {
-        InvertedIndexReader invertedIndex = columnIndexContainer.getInvertedIndex();
-        if (invertedIndex != null) {
-          invertedIndex.close();
-        }
+        entry.getValue().close();
       } catch (Exception e) {
-        LOGGER.error("Error when close inverted index for column : " + column, e);
+        LOGGER.error("Error when close indexes for column : " + entry.getKey(), e);
       }
     }
     try {
@@ -26,6 +26,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexContainer;
 import org.apache.pinot.core.segment.index.column.PhysicalColumnIndexContainer;
 import org.apache.pinot.core.segment.index.converter.SegmentFormatConverter;
 import org.apache.pinot.core.segment.index.converter.SegmentFormatConverterFactory;
@@ -33,6 +34,7 @@ import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.loader.SegmentPreProcessor;
 import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.store.RemoteSegmentUtils;
 import org.apache.pinot.core.segment.store.SegmentDirectory;
 import org.apache.pinot.core.segment.store.SegmentDirectoryPaths;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnContext;
@@ -74,29 +76,34 @@ public class ImmutableSegmentLoader {
     Preconditions
         .checkArgument(indexDir.isDirectory(), "Index directory: %s does not exist or is not a directory", indexDir);
 
-    // Convert segment version if necessary
-    // NOTE: this step may modify the segment metadata
     String segmentName = indexDir.getName();
-    SegmentVersion segmentVersionToLoad = indexLoadingConfig.getSegmentVersion();
-    if (segmentVersionToLoad != null && !SegmentDirectoryPaths.segmentDirectoryFor(indexDir, segmentVersionToLoad)
-        .isDirectory()) {
-      SegmentVersion segmentVersionOnDisk = new SegmentMetadataImpl(indexDir).getSegmentVersion();
-      if (segmentVersionOnDisk != segmentVersionToLoad) {
-        LOGGER.info("Segment: {} needs to be converted from version: {} to {}", segmentName, segmentVersionOnDisk,
-            segmentVersionToLoad);
-        SegmentFormatConverter converter =
-            SegmentFormatConverterFactory.getConverter(segmentVersionOnDisk, segmentVersionToLoad);
-        LOGGER.info("Using converter: {} to up-convert segment: {}", converter.getClass().getName(), segmentName);
-        converter.convert(indexDir);
-        LOGGER.info("Successfully up-converted segment: {} from version: {} to {}", segmentName, segmentVersionOnDisk,
-            segmentVersionToLoad);
+    if (RemoteSegmentUtils.isRemoteSegment(indexDir)) {
+      // Remote segment is read-only
+      LOGGER.info("Skipping format conversion and pre-processing for remote segment: {}", segmentName);
+    } else {
+      // Convert segment version if necessary
+      // NOTE: this step may modify the segment metadata
+      SegmentVersion segmentVersionToLoad = indexLoadingConfig.getSegmentVersion();
+      if (segmentVersionToLoad != null && !SegmentDirectoryPaths.segmentDirectoryFor(indexDir, segmentVersionToLoad)
+          .isDirectory()) {
+        SegmentVersion segmentVersionOnDisk = new SegmentMetadataImpl(indexDir).getSegmentVersion();
+        if (segmentVersionOnDisk != segmentVersionToLoad) {
+          LOGGER.info("Segment: {} needs to be converted from version: {} to {}", segmentName, segmentVersionOnDisk,
+              segmentVersionToLoad);
+          SegmentFormatConverter converter =
+              SegmentFormatConverterFactory.getConverter(segmentVersionOnDisk, segmentVersionToLoad);
+          LOGGER.info("Using converter: {} to up-convert segment: {}", converter.getClass().getName(), segmentName);
+          converter.convert(indexDir);
+          LOGGER.info("Successfully up-converted segment: {} from version: {} to {}", segmentName, segmentVersionOnDisk,
+              segmentVersionToLoad);
+        }
       }
-    }
 
-    // Pre-process the segment
-    // NOTE: this step may modify the segment metadata
-    try (SegmentPreProcessor preProcessor = new SegmentPreProcessor(indexDir, indexLoadingConfig, schema)) {
-      preProcessor.process();
+      // Pre-process the segment
+      // NOTE: this step may modify the segment metadata
+      try (SegmentPreProcessor preProcessor = new SegmentPreProcessor(indexDir, indexLoadingConfig, schema)) {
+        preProcessor.process();
+      }
     }
 
     // Load the metadata again since converter and pre-processor may have changed it
@@ -107,9 +114,15 @@ public class ImmutableSegmentLoader {
     SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(indexDir, segmentMetadata, readMode);
     SegmentDirectory.Reader segmentReader = segmentDirectory.createReader();
     Map<String, ColumnIndexContainer> indexContainerMap = new HashMap<>();
+    boolean lazyLoadIndexes = indexLoadingConfig.isLazyLoadIndexes();
     for (Map.Entry<String, ColumnMetadata> entry : segmentMetadata.getColumnMetadataMap().entrySet()) {
-      indexContainerMap.put(entry.getKey(),
-          new PhysicalColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig, indexDir));
+      if (lazyLoadIndexes) {
+        indexContainerMap.put(entry.getKey(),
+            new LazyColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig, indexDir));
+      } else {
+        indexContainerMap.put(entry.getKey(),
+            new PhysicalColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig, indexDir));
+      }
     }
 
     if (schema == null) {
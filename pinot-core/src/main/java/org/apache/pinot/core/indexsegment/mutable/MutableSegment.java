@@ -35,6 +35,19 @@ public interface MutableSegment extends IndexSegment {
    */
   boolean index(GenericRow row, @Nullable RowMetadata rowMetadata);
 
+  /**
+   * Indexes the first {@code numRows} records into the segment in a batch, which is equivalent to indexing the records
+   * one by one with {@link #index(GenericRow, RowMetadata)} and stopping once the segment is full.
+   * <p>If an exception is thrown, none of the records is indexed, and the caller can fall back to index the records one
+   * by one to skip the invalid ones.
+   *
+   * @param rows Records represented as {@link GenericRow}s
+   * @param rowMetadata Optional metadata associated with the records (same index as the records)
+   * @param numRows Number of records to index
+   * @return Number of records indexed, which is smaller than {@code numRows} if the segment becomes full
+   */
+  int index(GenericRow[] rows, @Nullable RowMetadata[] rowMetadata, int numRows);
+
   /**
    * Returns the number of records already indexed into the segment.
    *
@@ -34,6 +34,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.indexsegment.IndexSegmentUtils;
@@ -53,6 +54,7 @@ import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefr
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneTextIndexReader;
 import org.apache.pinot.core.realtime.impl.nullvalue.RealtimeNullValueVectorReaderWriter;
+import org.apache.pinot.core.realtime.impl.startree.MutableStarTreeV2;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
 import org.apache.pinot.core.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.core.segment.index.datasource.MutableDataSource;
@@ -70,6 +72,7 @@ import org.apache.pinot.core.util.FixedIntArrayOffHeapIdMap;
 import org.apache.pinot.core.util.IdMap;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.MetricFieldSpec;
@@ -86,6 +89,7 @@ public class MutableSegmentImpl implements MutableSegment {
   // Maximum number of multi-values per row. We assert on this.
   private static final int MAX_MULTI_VALUES_PER_ROW = 1000;
   private static final String RECORD_ID_MAP = "__recordIdMap__";
+  private static final String STAR_TREE = "__starTree__";
   private static final int EXPECTED_COMPRESSION = 1000;
   private static final int MIN_ROWS_TO_INDEX = 1000_000; // Min size of recordIdMap for updatable metrics.
   private static final int MIN_RECORD_ID_MAP_CACHE_SIZE = 10000; // Min overflow map size for updatable metrics.
@@ -116,7 +120,13 @@ public class MutableSegmentImpl implements MutableSegment {
   private final Map<String, BloomFilterReader> _bloomFilterMap = new HashMap<>();
   private final Map<String, RealtimeNullValueVectorReaderWriter> _nullValueVectorMap = new HashMap<>();
   private final IdMap<FixedIntArray> _recordIdMap;
+  // Reusable column buffers for batch indexing (only accessed by the consuming thread)
+  private final Map<String, ColumnBuffer> _columnBufferMap = new HashMap<>();
+  // Pre-aggregated star-trees maintained while consuming
+  private final List<MutableStarTreeV2> _mutableStarTrees = new ArrayList<>();
   private boolean _aggregateMetrics;
+  // Aggregation function for the metrics when aggregating metrics, SUM if not configured
+  private final Map<String, AggregationFunctionType> _metricAggregationFunctionTypeMap = new HashMap<>();
 
   private volatile int _numDocsIndexed = 0;
 
@@ -315,6 +325,19 @@ public class MutableSegmentImpl implements MutableSegment {
     // Metric aggregation can be enabled only if config is specified, and all dimensions have dictionary,
     // and no metrics have dictionary. If not enabled, the map returned is null.
     _recordIdMap = enableMetricsAggregationIfPossible(config, noDictionaryColumns);
+
+    List<StarTreeIndexConfig> starTreeIndexConfigs = config.getStarTreeIndexConfigs();
+    if (starTreeIndexConfigs != null) {
+      for (int i = 0; i < starTreeIndexConfigs.size(); i++) {
+        MutableStarTreeV2 mutableStarTree = MutableStarTreeV2
+            .create(starTreeIndexConfigs.get(i), _schema, _dictionaryMap, _capacity, _memoryManager,
+                buildAllocationContext(_segmentName, STAR_TREE + i, ""));
+        if (mutableStarTree != null) {
+          _logger.info("Maintaining star-tree with dimensions: {} while consuming", mutableStarTree.getDimensions());
+          _mutableStarTrees.add(mutableStarTree);
+        }
+      }
+    }
   }
 
   /**
@@ -391,6 +414,10 @@ public class MutableSegmentImpl implements MutableSegment {
       canTakeMore = aggregateMetrics(row, docId);
     }
 
+    if (!_mutableStarTrees.isEmpty()) {
+      updateStarTrees(row, dictIdMap);
+    }
+
     _lastIndexedTimeMs = System.currentTimeMillis();
 
     if (rowMetadata != null && rowMetadata.getIngestionTimeMs() != Long.MIN_VALUE) {
@@ -399,6 +426,168 @@ public class MutableSegmentImpl implements MutableSegment {
     return canTakeMore;
   }
 
+  @Override
+  public int index(GenericRow[] rows, @Nullable RowMetadata[] rowMetadata, int numRows) {
+    if (_aggregateMetrics) {
+      // With metrics aggregation, the doc id of a record depends on the records indexed before it, so index the records
+      // one by one after validating all of them with the batch dictionary update
+      updateDictionary(rows, numRows);
+      int numRowsIndexed = 0;
+      boolean canTakeMore = true;
+      while (canTakeMore && numRowsIndexed < numRows) {
+        canTakeMore = index(rows[numRowsIndexed], rowMetadata != null ? rowMetadata[numRowsIndexed] : null);
+        numRowsIndexed++;
+      }
+      return numRowsIndexed;
+    }
+
+    int numDocs = _numDocsIndexed;
+    // Same as indexing the records one by one, where the record that reaches the capacity is still indexed
+    int numRowsToIndex = Math.min(numRows, Math.max(_capacity - numDocs, 0) + 1);
+    if (numRowsToIndex <= 0) {
+      return 0;
+    }
+
+    // Update dictionaries and gather the values column by column, then add the documents to the indices
+    updateDictionary(rows, numRowsToIndex);
+    addForwardIndex(numDocs, numRowsToIndex);
+    addInvertedIndex(rows, numDocs, numRowsToIndex);
+    if (_nullHandlingEnabled) {
+      for (int i = 0; i < numRowsToIndex; i++) {
+        handleNullValues(rows[i], numDocs + i);
+      }
+    }
+    // Update number of document indexed at last to make the latest records queryable
+    _numDocsIndexed = numDocs + numRowsToIndex;
+
+    // Update the star-trees after the records are queryable so that the star-trees never contain records that are not
+    // visible to the other queries
+    if (!_mutableStarTrees.isEmpty()) {
+      updateStarTrees(rows, numRowsToIndex);
+    }
+
+    _lastIndexedTimeMs = System.currentTimeMillis();
+
+    if (rowMetadata != null) {
+      long latestIngestionTimeMs = _latestIngestionTimeMs;
+      for (int i = 0; i < numRowsToIndex; i++) {
+        RowMetadata metadata = rowMetadata[i];
+        if (metadata != null && metadata.getIngestionTimeMs() != Long.MIN_VALUE) {
+          latestIngestionTimeMs = Math.max(latestIngestionTimeMs, metadata.getIngestionTimeMs());
+        }
+      }
+      _latestIngestionTimeMs = latestIngestionTimeMs;
+    }
+    return numRowsToIndex;
+  }
+
+  /**
+   * Batch version of {@link #updateDictionary(GenericRow)}, which stores the dictionary ids (or the raw values for
+   * no-dictionary columns) of the records into the reusable column buffers.
+   */
+  private void updateDictionary(GenericRow[] rows, int numRows) {
+    for (FieldSpec fieldSpec : _physicalFieldSpecs) {
+      String column = fieldSpec.getName();
+      ColumnBuffer columnBuffer = _columnBufferMap.computeIfAbsent(column, k -> new ColumnBuffer());
+
+      BaseMutableDictionary dictionary = _dictionaryMap.get(column);
+      if (dictionary != null) {
+        if (fieldSpec.isSingleValueField()) {
+          int[] dictIds = columnBuffer.getIntValues(numRows);
+          for (int i = 0; i < numRows; i++) {
+            dictIds[i] = dictionary.index(rows[i].getValue(column));
+          }
+        } else {
+          int[][] multiValueDictIds = columnBuffer.getMultiValueDictIds(numRows);
+          for (int i = 0; i < numRows; i++) {
+            multiValueDictIds[i] = dictionary.index((Object[]) rows[i].getValue(column));
+          }
+
+          // No need to update min/max time value as time column cannot be multi-valued
+          continue;
+        }
+      } else {
+        FieldSpec.DataType dataType = fieldSpec.getDataType();
+        switch (dataType) {
+          case INT:
+            int[] intValues = columnBuffer.getIntValues(numRows);
+            for (int i = 0; i < numRows; i++) {
+              intValues[i] = (Integer) rows[i].getValue(column);
+            }
+            break;
+          case LONG:
+            long[] longValues = columnBuffer.getLongValues(numRows);
+            for (int i = 0; i < numRows; i++) {
+              longValues[i] = (Long) rows[i].getValue(column);
+            }
+            break;
+          case FLOAT:
+            float[] floatValues = columnBuffer.getFloatValues(numRows);
+            for (int i = 0; i < numRows; i++) {
+              floatValues[i] = (Float) rows[i].getValue(column);
+            }
+            break;
+          case DOUBLE:
+            double[] doubleValues = columnBuffer.getDoubleValues(numRows);
+            for (int i = 0; i < numRows; i++) {
+              doubleValues[i] = (Double) rows[i].getValue(column);
+            }
+            break;
+          case STRING:
+          case BYTES:
+            Object[] objectValues = columnBuffer.getObjectValues(numRows);
+            for (int i = 0; i < numRows; i++) {
+              objectValues[i] = rows[i].getValue(column);
+            }
+            break;
+          default:
+            throw new UnsupportedOperationException(
+                "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+        }
+      }
+
+      // Update min/max value for time column
+      if (isTimeField(fieldSpec)) {
+        for (int i = 0; i < numRows; i++) {
+          updateMinMaxTime(rows[i].getValue(column));
+        }
+      }
+    }
+  }
+
+  private void updateStarTrees(GenericRow row, Map<String, Object> dictIdMap) {
+    for (MutableStarTreeV2 mutableStarTree : _mutableStarTrees) {
+      List<String> dimensions = mutableStarTree.getDimensions();
+      int numDimensions = dimensions.size();
+      int[] dictIds = new int[numDimensions];
+      for (int i = 0; i < numDimensions; i++) {
+        dictIds[i] = (Integer) dictIdMap.get(dimensions.get(i));
+      }
+      mutableStarTree.index(row, dictIds);
+    }
+  }
+
+  /**
+   * Batch version of {@link #updateStarTrees(GenericRow, Map)}, which reads the dictionary ids from the column buffers.
+   */
+  private void updateStarTrees(GenericRow[] rows, int numRows) {
+    for (MutableStarTreeV2 mutableStarTree : _mutableStarTrees) {
+      List<String> dimensions = mutableStarTree.getDimensions();
+      int numDimensions = dimensions.size();
+      int[][] dictIdsPerDimension = new int[numDimensions][];
+      for (int i = 0; i < numDimensions; i++) {
+        dictIdsPerDimension[i] = _columnBufferMap.get(dimensions.get(i))._intValues;
+      }
+      for (int i = 0; i < numRows; i++) {
+        int[] dictIds = new int[numDimensions];
+        for (int j = 0; j < numDimensions; j++) {
+          dictIds[j] = dictIdsPerDimension[j][i];
+        }
+        mutableStarTree.index(rows[i], dictIds);
+      }
+    }
+  }
+
   private Map<String, Object> updateDictionary(GenericRow row) {
     Map<String, Object> dictIdMap = new HashMap<>();
     for (FieldSpec fieldSpec : _physicalFieldSpecs) {
@@ -419,26 +608,34 @@ public class MutableSegmentImpl implements MutableSegment {
       }
 
       // Update min/max value for time column
-      FieldSpec.FieldType fieldType = fieldSpec.getFieldType();
-      if (fieldType.equals(FieldSpec.FieldType.TIME) || fieldType.equals(FieldSpec.FieldType.DATE_TIME)) {
-        long timeValue;
-        if (value instanceof Number) {
-          timeValue = ((Number) value).longValue();
-          _minTime = Math.min(_minTime, timeValue);
-          _maxTime = Math.max(_maxTime, timeValue);
-        } else {
-          String stringValue = value.toString();
-          if (StringUtils.isNumeric(stringValue)) {
-            timeValue = Long.parseLong(stringValue);
-            _minTime = Math.min(_minTime, timeValue);
-            _maxTime = Math.max(_maxTime, timeValue);
-          }
-        }
+      if (isTimeField(fieldSpec)) {
+        updateMinMaxTime(value);
       }
     }
     return dictIdMap;
   }
 
+  private static boolean isTimeField(FieldSpec fieldSpec) {
+    FieldSpec.FieldType fieldType = fieldSpec.getFieldType();
+    return fieldType.equals(FieldSpec.FieldType.TIME) || fieldType.equals(FieldSpec.FieldType.DATE_TIME);
+  }
+
+  private void updateMinMaxTime(Object value) {
+    long timeValue;
+    if (value instanceof Number) {
+      timeValue = ((Number) value).longValue();
+      _minTime = Math.min(_minTime, timeValue);
+      _maxTime = Math.max(_maxTime, timeValue);
+    } else {
+      String stringValue = value.toString();
+      if (StringUtils.isNumeric(stringValue)) {
+        timeValue = Long.parseLong(stringValue);
+        _minTime = Math.min(_minTime, timeValue);
+        _maxTime = Math.max(_maxTime, timeValue);
+      }
+    }
+  }
+
   private void addForwardIndex(GenericRow row, int docId, Map<String, Object> dictIdMap) {
     // Store dictionary Id(s) for columns with dictionary
     for (FieldSpec fieldSpec : _physicalFieldSpecs) {
@@ -492,6 +689,79 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  /**
+   * Batch version of {@link #addForwardIndex(GenericRow, int, Map)}, which adds the values stored in the column buffers
+   * to the forward indices starting from the given doc id.
+   */
+  private void addForwardIndex(int startDocId, int numRows) {
+    for (FieldSpec fieldSpec : _physicalFieldSpecs) {
+      String column = fieldSpec.getName();
+      ColumnBuffer columnBuffer = _columnBufferMap.get(column);
+      NumValuesInfo numValuesInfo = _numValuesInfoMap.get(column);
+      if (fieldSpec.isSingleValueField()) {
+        // SV column
+        BaseSingleColumnSingleValueReaderWriter indexReaderWriter =
+            (BaseSingleColumnSingleValueReaderWriter) _indexReaderWriterMap.get(column);
+        // Dictionary ids for SV column with dictionary share the buffer with the values of no-dictionary INT column
+        FieldSpec.DataType dataType =
+            _dictionaryMap.containsKey(column) ? FieldSpec.DataType.INT : fieldSpec.getDataType();
+        switch (dataType) {
+          case INT:
+            int[] intValues = columnBuffer._intValues;
+            for (int i = 0; i < numRows; i++) {
+              indexReaderWriter.setInt(startDocId + i, intValues[i]);
+            }
+            break;
+          case LONG:
+            long[] longValues = columnBuffer._longValues;
+            for (int i = 0; i < numRows; i++) {
+              indexReaderWriter.setLong(startDocId + i, longValues[i]);
+            }
+            break;
+          case FLOAT:
+            float[] floatValues = columnBuffer._floatValues;
+            for (int i = 0; i < numRows; i++) {
+              indexReaderWriter.setFloat(startDocId + i, floatValues[i]);
+            }
+            break;
+          case DOUBLE:
+            double[] doubleValues = columnBuffer._doubleValues;
+            for (int i = 0; i < numRows; i++) {
+              indexReaderWriter.setDouble(startDocId + i, doubleValues[i]);
+            }
+            break;
+          case STRING:
+            Object[] stringValues = columnBuffer._objectValues;
+            for (int i = 0; i < numRows; i++) {
+              indexReaderWriter.setString(startDocId + i, (String) stringValues[i]);
+            }
+            break;
+          case BYTES:
+            Object[] bytesValues = columnBuffer._objectValues;
+            for (int i = 0; i < numRows; i++) {
+              indexReaderWriter.setBytes(startDocId + i, (byte[]) bytesValues[i]);
+            }
+            break;
+          default:
+            throw new UnsupportedOperationException(
+                "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+        }
+
+        numValuesInfo.updateSVEntries(numRows);
+      } else {
+        // MV column: always dictionary encoded
+        FixedByteSingleColumnMultiValueReaderWriter indexReaderWriter =
+            (FixedByteSingleColumnMultiValueReaderWriter) _indexReaderWriterMap.get(column);
+        int[][] multiValueDictIds = columnBuffer._multiValueDictIds;
+        for (int i = 0; i < numRows; i++) {
+          int[] dictIds = multiValueDictIds[i];
+          indexReaderWriter.setIntArray(startDocId + i, dictIds);
+          numValuesInfo.updateMVEntry(dictIds.length);
+        }
+      }
+    }
+  }
+
   private void addInvertedIndex(GenericRow row, int docId, Map<String, Object> dictIdMap) {
     // Update inverted index at last
     // NOTE: inverted index have to be updated at last because once it gets updated, the latest record will become
@@ -517,6 +787,40 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  /**
+   * Batch version of {@link #addInvertedIndex(GenericRow, int, Map)}.
+   */
+  private void addInvertedIndex(GenericRow[] rows, int startDocId, int numRows) {
+    for (FieldSpec fieldSpec : _physicalFieldSpecs) {
+      String column = fieldSpec.getName();
+      InvertedIndexReader invertedIndex = _invertedIndexMap.get(column);
+      if (invertedIndex != null) {
+        if (invertedIndex instanceof RealtimeLuceneTextIndexReader) {
+          RealtimeLuceneTextIndexReader textIndexReader = (RealtimeLuceneTextIndexReader) invertedIndex;
+          for (int i = 0; i < numRows; i++) {
+            textIndexReader.addDoc(rows[i].getValue(column), startDocId + i);
+          }
+        } else {
+          RealtimeInvertedIndexReader realtimeInvertedIndexReader = (RealtimeInvertedIndexReader) invertedIndex;
+          ColumnBuffer columnBuffer = _columnBufferMap.get(column);
+          if (fieldSpec.isSingleValueField()) {
+            int[] dictIds = columnBuffer._intValues;
+            for (int i = 0; i < numRows; i++) {
+              realtimeInvertedIndexReader.add(dictIds[i], startDocId + i);
+            }
+          } else {
+            int[][] multiValueDictIds = columnBuffer._multiValueDictIds;
+            for (int i = 0; i < numRows; i++) {
+              for (int dictId : multiValueDictIds[i]) {
+                realtimeInvertedIndexReader.add(dictId, startDocId + i);
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Check if the row has any null fields and update the
    * column null value vectors accordingly
@@ -539,20 +843,24 @@ public class MutableSegmentImpl implements MutableSegment {
       Object value = row.getValue(column);
       FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter =
           (FixedByteSingleColumnSingleValueReaderWriter) _indexReaderWriterMap.get(column);
+      AggregationFunctionType functionType =
+          _metricAggregationFunctionTypeMap.getOrDefault(column, AggregationFunctionType.SUM);
 
       FieldSpec.DataType dataType = metricFieldSpec.getDataType();
       switch (dataType) {
         case INT:
-          indexReaderWriter.setInt(docId, (Integer) value + indexReaderWriter.getInt(docId));
+          indexReaderWriter.setInt(docId, aggregate(functionType, indexReaderWriter.getInt(docId), (Integer) value));
           break;
         case LONG:
-          indexReaderWriter.setLong(docId, (Long) value + indexReaderWriter.getLong(docId));
+          indexReaderWriter.setLong(docId, aggregate(functionType, indexReaderWriter.getLong(docId), (Long) value));
           break;
         case FLOAT:
-          indexReaderWriter.setFloat(docId, (Float) value + indexReaderWriter.getFloat(docId));
+          indexReaderWriter
+              .setFloat(docId, aggregate(functionType, indexReaderWriter.getFloat(docId), (Float) value));
           break;
         case DOUBLE:
-          indexReaderWriter.setDouble(docId, (Double) value + indexReaderWriter.getDouble(docId));
+          indexReaderWriter
+              .setDouble(docId, aggregate(functionType, indexReaderWriter.getDouble(docId), (Double) value));
           break;
         default:
           throw new UnsupportedOperationException(
@@ -562,6 +870,53 @@ public class MutableSegmentImpl implements MutableSegment {
     return true;
   }
 
+  // NOTE: Aggregate the values in their stored type instead of using the value aggregators, which aggregate values as
+  //       double and could lose precision for LONG values.
+
+  private static int aggregate(AggregationFunctionType functionType, int value, int rawValue) {
+    switch (functionType) {
+      case MIN:
+        return Math.min(value, rawValue);
+      case MAX:
+        return Math.max(value, rawValue);
+      default:
+        return value + rawValue;
+    }
+  }
+
+  private static long aggregate(AggregationFunctionType functionType, long value, long rawValue) {
+    switch (functionType) {
+      case MIN:
+        return Math.min(value, rawValue);
+      case MAX:
+        return Math.max(value, rawValue);
+      default:
+        return value + rawValue;
+    }
+  }
+
+  private static float aggregate(AggregationFunctionType functionType, float value, float rawValue) {
+    switch (functionType) {
+      case MIN:
+        return Math.min(value, rawValue);
+      case MAX:
+        return Math.max(value, rawValue);
+      default:
+        return value + rawValue;
+    }
+  }
+
+  private static double aggregate(AggregationFunctionType functionType, double value, double rawValue) {
+    switch (functionType) {
+      case MIN:
+        return Math.min(value, rawValue);
+      case MAX:
+        return Math.max(value, rawValue);
+      default:
+        return value + rawValue;
+    }
+  }
+
   @Override
   public int getNumDocsIndexed() {
     return _numDocsIndexed;
@@ -630,7 +985,17 @@ public class MutableSegmentImpl implements MutableSegment {
 
   @Override
   public List<StarTreeV2> getStarTrees() {
-    return null;
+    if (_mutableStarTrees.isEmpty()) {
+      return null;
+    }
+    List<StarTreeV2> starTrees = new ArrayList<>(_mutableStarTrees.size());
+    for (MutableStarTreeV2 mutableStarTree : _mutableStarTrees) {
+      StarTreeV2 starTree = mutableStarTree.getSnapshot();
+      if (starTree != null) {
+        starTrees.add(starTree);
+      }
+    }
+    return starTrees.isEmpty() ? null : starTrees;
   }
 
   /**
@@ -730,6 +1095,16 @@ public class MutableSegmentImpl implements MutableSegment {
       }
     }
     _invertedIndexMap.clear();
+
+    for (MutableStarTreeV2 mutableStarTree : _mutableStarTrees) {
+      try {
+        mutableStarTree.close();
+      } catch (IOException e) {
+        _logger.error("Could not close star-tree with dimensions: {}", mutableStarTree.getDimensions(), e);
+      }
+    }
+    _mutableStarTrees.clear();
+
     _segmentMetadata.close();
     try {
       _memoryManager.close();
@@ -881,6 +1256,30 @@ public class MutableSegmentImpl implements MutableSegment {
       }
     }
 
+    // Metrics can only be aggregated with SUM, MIN or MAX.
+    Map<String, String> metricAggregationFunctions = config.getMetricAggregationFunctions();
+    if (_aggregateMetrics && metricAggregationFunctions != null) {
+      for (Map.Entry<String, String> entry : metricAggregationFunctions.entrySet()) {
+        String metric = entry.getKey();
+        String functionName = entry.getValue();
+        FieldSpec fieldSpec = _schema.getFieldSpecFor(metric);
+        if (fieldSpec == null || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC) {
+          _logger.warn("Metrics aggregation cannot be turned ON with aggregation function configured for non-metric "
+              + "column: {}", metric);
+          _aggregateMetrics = false;
+          break;
+        }
+        AggregationFunctionType functionType = getMetricAggregationFunctionType(functionName);
+        if (functionType == null) {
+          _logger.warn("Metrics aggregation cannot be turned ON with unsupported aggregation function: {} for "
+              + "metric: {}", functionName, metric);
+          _aggregateMetrics = false;
+          break;
+        }
+        _metricAggregationFunctionTypeMap.put(metric, functionType);
+      }
+    }
+
     if (!_aggregateMetrics) {
       return null;
     }
@@ -903,6 +1302,24 @@ public class MutableSegmentImpl implements MutableSegment {
         RECORD_ID_MAP);
   }
 
+  @Nullable
+  private static AggregationFunctionType getMetricAggregationFunctionType(String functionName) {
+    AggregationFunctionType functionType;
+    try {
+      functionType = AggregationFunctionType.valueOf(functionName.toUpperCase());
+    } catch (Exception e) {
+      return null;
+    }
+    switch (functionType) {
+      case SUM:
+      case MIN:
+      case MAX:
+        return functionType;
+      default:
+        return null;
+    }
+  }
+
   // NOTE: Okay for single-writer
   @SuppressWarnings("NonAtomicOperationOnVolatileField")
   private static class NumValuesInfo {
@@ -913,6 +1330,10 @@ public class MutableSegmentImpl implements MutableSegment {
       _numValues++;
     }
 
+    void updateSVEntries(int numSVEntries) {
+      _numValues += numSVEntries;
+    }
+
     void updateMVEntry(int numValuesInMVEntry) {
       _numValues += numValuesInMVEntry;
       _maxNumValuesPerMVEntry = Math.max(_maxNumValuesPerMVEntry, numValuesInMVEntry);
@@ -926,4 +1347,59 @@ public class MutableSegmentImpl implements MutableSegment {
       return _maxNumValuesPerMVEntry;
     }
   }
+
+  /**
+   * Reusable per-column buffers for the batch indexing. Dictionary ids of the SV columns with dictionary are stored in
+   * the int values.
+   */
+  private static class ColumnBuffer {
+    int[] _intValues = new int[0];
+    long[] _longValues = new long[0];
+    float[] _floatValues = new float[0];
+    double[] _doubleValues = new double[0];
+    Object[] _objectValues = new Object[0];
+    int[][] _multiValueDictIds = new int[0][];
+
+    int[] getIntValues(int numRows) {
+      if (_intValues.length < numRows) {
+        _intValues = new int[numRows];
+      }
+      return _intValues;
+    }
+
+    long[] getLongValues(int numRows) {
+      if (_longValues.length < numRows) {
+        _longValues = new long[numRows];
+      }
+      return _longValues;
+    }
+
+    float[] getFloatValues(int numRows) {
+      if (_floatValues.length < numRows) {
+        _floatValues = new float[numRows];
+      }
+      return _floatValues;
+    }
+
+    double[] getDoubleValues(int numRows) {
+      if (_doubleValues.length < numRows) {
+        _doubleValues = new double[numRows];
+      }
+      return _doubleValues;
+    }
+
+    Object[] getObjectValues(int numRows) {
+      if (_objectValues.length < numRows) {
+        _objectValues = new Object[numRows];
+      }
+      return _objectValues;
+    }
+
+    int[][] getMultiValueDictIds(int numRows) {
+      if (_multiValueDictIds.length < numRows) {
+        _multiValueDictIds = new int[numRows][];
+      }
+      return _multiValueDictIds;
+    }
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.pinot.core.io.reader.impl.v1;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import org.apache.pinot.core.io.reader.impl.ChunkReaderContext;
 import org.apache.pinot.core.io.writer.impl.v1.FixedByteChunkSingleValueWriter;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
@@ -135,6 +136,95 @@ public class FixedByteChunkSingleValueReader extends BaseChunkSingleValueReader
     return bytes;
   }
 
+  /**
+   * Bulk reads the int values for the contiguous rows [startRow, startRow + numRows) into the given array.
+   * <p>Each chunk is decompressed at most once (cached in the reader context), and the values within a chunk are copied
+   * with a single bulk get instead of one buffer access per row.
+   *
+   * @param startRow First row to read
+   * @param numRows Number of rows to read
+   * @param context Reader context
+   * @param values Array to store the values, starting at index 0
+   */
+  public void readIntValues(int startRow, int numRows, ChunkReaderContext context, int[] values) {
+    assert _lengthOfLongestEntry == Integer.BYTES;
+    int endRow = startRow + numRows;
+    int outPos = 0;
+    for (int row = startRow; row < endRow; ) {
+      int chunkRowId = row % _numDocsPerChunk;
+      int numRowsInChunk = Math.min(_numDocsPerChunk - chunkRowId, endRow - row);
+      getChunkView(row, chunkRowId * Integer.BYTES, context).asIntBuffer().get(values, outPos, numRowsInChunk);
+      outPos += numRowsInChunk;
+      row += numRowsInChunk;
+    }
+  }
+
+  /**
+   * Bulk reads the long values for the contiguous rows [startRow, startRow + numRows) into the given array.
+   *
+   * @see #readIntValues(int, int, ChunkReaderContext, int[])
+   */
+  public void readLongValues(int startRow, int numRows, ChunkReaderContext context, long[] values) {
+    assert _lengthOfLongestEntry == Long.BYTES;
+    int endRow = startRow + numRows;
+    int outPos = 0;
+    for (int row = startRow; row < endRow; ) {
+      int chunkRowId = row % _numDocsPerChunk;
+      int numRowsInChunk = Math.min(_numDocsPerChunk - chunkRowId, endRow - row);
+      getChunkView(row, chunkRowId * Long.BYTES, context).asLongBuffer().get(values, outPos, numRowsInChunk);
+      outPos += numRowsInChunk;
+      row += numRowsInChunk;
+    }
+  }
+
+  /**
+   * Bulk reads the float values for the contiguous rows [startRow, startRow + numRows) into the given array.
+   *
+   * @see #readIntValues(int, int, ChunkReaderContext, int[])
+   */
+  public void readFloatValues(int startRow, int numRows, ChunkReaderContext context, float[] values) {
+    assert _lengthOfLongestEntry == Float.BYTES;
+    int endRow = startRow + numRows;
+    int outPos = 0;
+    for (int row = startRow; row < endRow; ) {
+      int chunkRowId = row % _numDocsPerChunk;
+      int numRowsInChunk = Math.min(_numDocsPerChunk - chunkRowId, endRow - row);
+      getChunkView(row, chunkRowId * Float.BYTES, context).asFloatBuffer().get(values, outPos, numRowsInChunk);
+      outPos += numRowsInChunk;
+      row += numRowsInChunk;
+    }
+  }
+
+  /**
+   * Bulk reads the double values for the contiguous rows [startRow, startRow + numRows) into the given array.
+   *
+   * @see #readIntValues(int, int, ChunkReaderContext, int[])
+   */
+  public void readDoubleValues(int startRow, int numRows, ChunkReaderContext context, double[] values) {
+    assert _lengthOfLongestEntry == Double.BYTES;
+    int endRow = startRow + numRows;
+    int outPos = 0;
+    for (int row = startRow; row < endRow; ) {
+      int chunkRowId = row % _numDocsPerChunk;
+      int numRowsInChunk = Math.min(_numDocsPerChunk - chunkRowId, endRow - row);
+      getChunkView(row, chunkRowId * Double.BYTES, context).asDoubleBuffer().get(values, outPos, numRowsInChunk);
+      outPos += numRowsInChunk;
+      row += numRowsInChunk;
+    }
+  }
+
+  /**
+   * Helper method to get a view of the chunk for the given row, positioned at the given offset within the chunk. The
+   * view shares content with the chunk buffer in the reader context, but has its own position and limit.
+   */
+  private ByteBuffer getChunkView(int row, int offsetInChunk, ChunkReaderContext context) {
+    ByteBuffer chunkBuffer = getChunkForRow(row, context);
+    ByteOrder byteOrder = chunkBuffer.order();
+    ByteBuffer chunkView = chunkBuffer.duplicate().order(byteOrder);
+    chunkView.limit(chunkView.capacity()).position(offsetInChunk);
+    return chunkView;
+  }
+
   @Override
   public ChunkReaderContext createContext() {
     return new ChunkReaderContext(_chunkSize);
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.writer.impl;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Memory manager that allocates direct memory for the short-lived buffers used during query execution.
+ * <p>Unlike {@link DirectMemoryManager}, it is not tied to a consuming segment and does not report the realtime
+ * off-heap memory metrics. Closing the memory manager releases all the buffers allocated by it.
+ * <p>This class is not thread-safe.
+ */
+public class DirectBufferMemoryManager implements PinotDataBufferMemoryManager {
+  private final List<PinotDataBuffer> _buffers = new ArrayList<>();
+  private long _totalAllocatedBytes;
+
+  @Override
+  public PinotDataBuffer allocate(long size, String allocationContext) {
+    Preconditions.checkArgument(size > 0, "Illegal memory allocation: %s for: %s", size, allocationContext);
+    PinotDataBuffer buffer = PinotDataBuffer.allocateDirect(size, PinotDataBuffer.NATIVE_ORDER, allocationContext);
+    _buffers.add(buffer);
+    _totalAllocatedBytes += size;
+    return buffer;
+  }
+
+  @Override
+  public long getTotalAllocatedBytes() {
+    return _totalAllocatedBytes;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (PinotDataBuffer buffer : _buffers) {
+      buffer.close();
+    }
+    _buffers.clear();
+    _totalAllocatedBytes = 0;
+  }
+}
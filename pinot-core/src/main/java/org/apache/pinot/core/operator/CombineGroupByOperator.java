@@ -155,26 +155,31 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
             // Merge aggregation group-by result.
             AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
             if (aggregationGroupByResult != null) {
-              // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                resultsMap.compute(groupKey._stringKey, (key, value) -> {
-                  if (value == null) {
-                    if (numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
-                      value = new Object[numAggregationFunctions];
+              try {
+                // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
+                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+                while (groupKeyIterator.hasNext()) {
+                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+                  resultsMap.compute(groupKey._stringKey, (key, value) -> {
+                    if (value == null) {
+                      if (numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
+                        value = new Object[numAggregationFunctions];
+                        for (int i = 0; i < numAggregationFunctions; i++) {
+                          value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                        }
+                      }
+                    } else {
                       for (int i = 0; i < numAggregationFunctions; i++) {
-                        value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                        value[i] = aggregationFunctions[i]
+                            .merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
                       }
                     }
-                  } else {
-                    for (int i = 0; i < numAggregationFunctions; i++) {
-                      value[i] = aggregationFunctions[i]
-                          .merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
-                    }
-                  }
-                  return value;
-                });
+                    return value;
+                  });
+                }
+              } finally {
+                // Release the off-heap result holders (if any) even if the merge fails
+                aggregationGroupByResult.close();
               }
             }
           } catch (EarlyTerminationException e) {
@@ -37,8 +37,9 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Operator;
-import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
+import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
@@ -68,7 +69,7 @@ public class CombineGroupByOrderByOperator extends BaseOperator<IntermediateResu
   private final int _indexedTableCapacity;
   private Lock _initLock;
   private DataSchema _dataSchema;
-  private ConcurrentIndexedTable _indexedTable;
+  private IndexedTable _indexedTable;
 
   public CombineGroupByOrderByOperator(List<Operator> operators, BrokerRequest brokerRequest,
       ExecutorService executorService, long timeOutMs) {
@@ -137,7 +138,7 @@ public class CombineGroupByOrderByOperator extends BaseOperator<IntermediateResu
             try {
               if (_dataSchema == null) {
                 _dataSchema = intermediateResultsBlock.getDataSchema();
-                _indexedTable = new ConcurrentIndexedTable(_dataSchema, _brokerRequest.getAggregationsInfo(),
+                _indexedTable = new PartitionedIndexedTable(_dataSchema, _brokerRequest.getAggregationsInfo(),
                     _brokerRequest.getOrderBy(), _indexedTableCapacity);
               }
             } finally {
@@ -153,33 +154,38 @@ public class CombineGroupByOrderByOperator extends BaseOperator<IntermediateResu
             // Merge aggregation group-by result.
             AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
             if (aggregationGroupByResult != null) {
-              // Get converter functions
-              Function[] converterFunctions = new Function[numGroupBy];
-              for (int i = 0; i < numGroupBy; i++) {
-                converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
-              }
-
-              // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                Object[] columns = new Object[numColumns];
-                int columnIndex = 0;
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                String[] stringKey = groupKey._stringKey.split(GroupKeyGenerator.DELIMITER);
-                Object[] objectKey = new Object[numGroupBy];
-                for (int i = 0; i < stringKey.length; i++) {
-                  Object convertedKey = converterFunctions[i].apply(stringKey[i]);
-                  objectKey[columnIndex] = convertedKey;
-                  columns[columnIndex] = convertedKey;
-                  columnIndex++;
+              try {
+                // Get converter functions
+                Function[] converterFunctions = new Function[numGroupBy];
+                for (int i = 0; i < numGroupBy; i++) {
+                  converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
                 }
-                for (int i = 0; i < numAggregationFunctions; i++) {
-                  columns[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                  columnIndex++;
+
+                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable.
+                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+                while (groupKeyIterator.hasNext()) {
+                  Object[] columns = new Object[numColumns];
+                  int columnIndex = 0;
+                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+                  String[] stringKey = groupKey._stringKey.split(GroupKeyGenerator.DELIMITER);
+                  Object[] objectKey = new Object[numGroupBy];
+                  for (int i = 0; i < stringKey.length; i++) {
+                    Object convertedKey = converterFunctions[i].apply(stringKey[i]);
+                    objectKey[columnIndex] = convertedKey;
+                    columns[columnIndex] = convertedKey;
+                    columnIndex++;
+                  }
+                  for (int i = 0; i < numAggregationFunctions; i++) {
+                    columns[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                    columnIndex++;
+                  }
+                  Key key = new Key(objectKey);
+                  Record record = new Record(columns);
+                  _indexedTable.upsert(key, record);
                 }
-                Key key = new Key(objectKey);
-                Record record = new Record(columns);
-                _indexedTable.upsert(key, record);
+              } finally {
+                // Release the off-heap result holders (if any) even if the merge fails
+                aggregationGroupByResult.close();
               }
             }
           } catch (EarlyTerminationException e) {
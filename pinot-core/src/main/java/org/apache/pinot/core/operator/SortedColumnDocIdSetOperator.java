@@ -0,0 +1,243 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.io.reader.impl.v1.SortedIndexReader;
+import org.apache.pinot.core.operator.blocks.DocIdSetBlock;
+import org.apache.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+
+
+/**
+ * The <code>SortedColumnDocIdSetOperator</code> takes a filter operator and returns blocks with only the matched
+ * document Ids that can be in the top N for a selection order-by query whose first order-by expression is a sorted
+ * column.
+ * <p>Because the document Ids are in the order of the sorted column, the top N documents are the first N (ascending
+ * order) or the last N (descending order) matched documents. When there are more order-by expressions, all the
+ * documents with the same sorted column value as the N-th document are also returned so that the ties can be resolved
+ * with the other order-by expressions. Only the returned documents are projected, instead of all the matched ones.
+ * <p>For ascending order, the filter iteration stops as soon as the top N documents are collected. For descending
+ * order, the matched document Ids are iterated (without projecting any value) to find the last N, except when the
+ * filter matches all the documents, where the document Ids are directly computed.
+ */
+public class SortedColumnDocIdSetOperator extends BaseOperator<DocIdSetBlock> {
+  private static final String OPERATOR_NAME = "SortedColumnDocIdSetOperator";
+
+  private final BaseFilterOperator _filterOperator;
+  private final SortedIndexReader<?> _sortedIndexReader;
+  private final int _numDocs;
+  private final boolean _ascending;
+  private final int _numDocsToKeep;
+  private final boolean _keepTies;
+  private final int _maxSizeOfDocIdSet;
+
+  private FilterBlockDocIdSet _filterBlockDocIdSet;
+  private int[] _docIds;
+  private int _numDocIds;
+  private int _nextIndex;
+  private int[] _blockDocIds;
+
+  /**
+   * @param filterOperator Filter operator
+   * @param sortedIndexReader Sorted index of the first order-by column
+   * @param numDocs Number of documents in the segment
+   * @param ascending Whether the first order-by column is in ascending order
+   * @param numDocsToKeep Number of top documents to keep (offset + limit)
+   * @param keepTies Whether to keep the documents with the same value as the N-th document (when there are more
+   *                 order-by expressions)
+   * @param maxSizeOfDocIdSet Max number of document Ids in each block
+   */
+  public SortedColumnDocIdSetOperator(BaseFilterOperator filterOperator, SortedIndexReader<?> sortedIndexReader,
+      int numDocs, boolean ascending, int numDocsToKeep, boolean keepTies, int maxSizeOfDocIdSet) {
+    Preconditions.checkArgument(numDocsToKeep > 0);
+    Preconditions.checkArgument(maxSizeOfDocIdSet > 0 && maxSizeOfDocIdSet <= DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    _filterOperator = filterOperator;
+    _sortedIndexReader = sortedIndexReader;
+    _numDocs = numDocs;
+    _ascending = ascending;
+    _numDocsToKeep = numDocsToKeep;
+    _keepTies = keepTies;
+    _maxSizeOfDocIdSet = maxSizeOfDocIdSet;
+  }
+
+  @Override
+  protected DocIdSetBlock getNextBlock() {
+    if (_docIds == null) {
+      if (_filterOperator.isResultMatchingAll()) {
+        collectDocIdsForMatchingAll();
+      } else {
+        _filterBlockDocIdSet = _filterOperator.nextBlock().getBlockDocIdSet();
+        if (_ascending) {
+          collectFirstDocIds(_filterBlockDocIdSet.iterator());
+        } else {
+          collectLastDocIds(_filterBlockDocIdSet.iterator());
+        }
+      }
+    }
+
+    if (_nextIndex == _numDocIds) {
+      return null;
+    }
+    int numDocIdsInBlock = Math.min(_numDocIds - _nextIndex, _maxSizeOfDocIdSet);
+    if (_nextIndex == 0 && numDocIdsInBlock == _numDocIds) {
+      _nextIndex = _numDocIds;
+      return new DocIdSetBlock(_docIds, _numDocIds);
+    }
+    if (_blockDocIds == null) {
+      _blockDocIds = new int[_maxSizeOfDocIdSet];
+    }
+    System.arraycopy(_docIds, _nextIndex, _blockDocIds, 0, numDocIdsInBlock);
+    _nextIndex += numDocIdsInBlock;
+    return new DocIdSetBlock(_blockDocIds, numDocIdsInBlock);
+  }
+
+  /**
+   * Returns the first document Id with the same sorted column value as the given document.
+   */
+  private int getValueStartDocId(int docId) {
+    return _sortedIndexReader.getDocIds(_sortedIndexReader.getInt(docId)).getLeft();
+  }
+
+  /**
+   * Returns the last document Id with the same sorted column value as the given document.
+   */
+  private int getValueEndDocId(int docId) {
+    return _sortedIndexReader.getDocIds(_sortedIndexReader.getInt(docId)).getRight();
+  }
+
+  private void collectDocIdsForMatchingAll() {
+    int startDocId;
+    int endDocId;
+    if (_numDocs <= _numDocsToKeep) {
+      startDocId = 0;
+      endDocId = _numDocs;
+    } else if (_ascending) {
+      startDocId = 0;
+      endDocId = _keepTies ? getValueEndDocId(_numDocsToKeep - 1) + 1 : _numDocsToKeep;
+    } else {
+      startDocId = _keepTies ? getValueStartDocId(_numDocs - _numDocsToKeep) : _numDocs - _numDocsToKeep;
+      endDocId = _numDocs;
+    }
+    _numDocIds = endDocId - startDocId;
+    _docIds = new int[_numDocIds];
+    for (int i = 0; i < _numDocIds; i++) {
+      _docIds[i] = startDocId + i;
+    }
+  }
+
+  private void collectFirstDocIds(BlockDocIdIterator docIdIterator) {
+    IntArrayList docIds = new IntArrayList(Math.min(_numDocsToKeep, _numDocs));
+    // Last document Id with the same value as the N-th document
+    int boundaryEndDocId = Integer.MAX_VALUE;
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      int numDocIds = docIds.size();
+      if (numDocIds >= _numDocsToKeep && docId > boundaryEndDocId) {
+        break;
+      }
+      docIds.add(docId);
+      if (numDocIds + 1 == _numDocsToKeep) {
+        if (!_keepTies) {
+          break;
+        }
+        boundaryEndDocId = getValueEndDocId(docId);
+      }
+    }
+    _docIds = docIds.elements();
+    _numDocIds = docIds.size();
+  }
+
+  private void collectLastDocIds(BlockDocIdIterator docIdIterator) {
+    if (!_keepTies) {
+      // Keep the last N document Ids in a circular buffer
+      int[] buffer = new int[Math.min(_numDocsToKeep, _numDocs)];
+      long numMatchedDocs = 0;
+      int docId;
+      while ((docId = docIdIterator.next()) != Constants.EOF) {
+        buffer[(int) (numMatchedDocs++ % _numDocsToKeep)] = docId;
+      }
+      _numDocIds = (int) Math.min(numMatchedDocs, _numDocsToKeep);
+      _docIds = new int[_numDocIds];
+      int startIndex = (int) (numMatchedDocs % _numDocsToKeep);
+      for (int i = 0; i < _numDocIds; i++) {
+        _docIds[i] = numMatchedDocs > _numDocsToKeep ? buffer[(startIndex + i) % _numDocsToKeep] : buffer[i];
+      }
+      return;
+    }
+
+    // Keep the matched document Ids grouped by the sorted column value, and drop the first group when the other
+    // groups already have at least N documents
+    IntArrayList docIds = new IntArrayList();
+    IntArrayList groupStartIndices = new IntArrayList();
+    int firstDocIndex = 0;
+    int firstGroupIndex = 0;
+    int groupEndDocId = -1;
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      if (docId > groupEndDocId) {
+        // New group
+        groupEndDocId = getValueEndDocId(docId);
+        groupStartIndices.add(docIds.size());
+        while (groupStartIndices.size() - firstGroupIndex > 1
+            && docIds.size() - groupStartIndices.getInt(firstGroupIndex + 1) >= _numDocsToKeep) {
+          firstGroupIndex++;
+          firstDocIndex = groupStartIndices.getInt(firstGroupIndex);
+        }
+        // Compact the lists to bound the memory usage
+        if (firstDocIndex > _numDocsToKeep && firstDocIndex > docIds.size() / 2) {
+          docIds.removeElements(0, firstDocIndex);
+          groupStartIndices.removeElements(0, firstGroupIndex);
+          for (int i = 0; i < groupStartIndices.size(); i++) {
+            groupStartIndices.set(i, groupStartIndices.getInt(i) - firstDocIndex);
+          }
+          firstDocIndex = 0;
+          firstGroupIndex = 0;
+        }
+      }
+      docIds.add(docId);
+    }
+    // The last group might make the first group droppable
+    int numGroups = groupStartIndices.size();
+    while (numGroups - firstGroupIndex > 1
+        && docIds.size() - groupStartIndices.getInt(firstGroupIndex + 1) >= _numDocsToKeep) {
+      firstGroupIndex++;
+      firstDocIndex = groupStartIndices.getInt(firstGroupIndex);
+    }
+    _numDocIds = docIds.size() - firstDocIndex;
+    _docIds = new int[_numDocIds];
+    docIds.getElements(firstDocIndex, _docIds, 0, _numDocIds);
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    long numEntriesScannedInFilter =
+        _filterBlockDocIdSet != null ? _filterBlockDocIdSet.getNumEntriesScannedInFilter() : 0;
+    return new ExecutionStatistics(0, numEntriesScannedInFilter, 0, 0);
+  }
+}
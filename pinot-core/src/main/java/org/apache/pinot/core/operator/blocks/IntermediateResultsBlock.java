@@ -21,9 +21,11 @@ package org.apache.pinot.core.operator.blocks;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
@@ -317,6 +319,18 @@ public class IntermediateResultsBlock implements Block {
 
   private DataTable getSelectionResultDataTable()
       throws Exception {
+    if (_selectionResult instanceof PriorityQueue) {
+      // For selection order-by, send the rows in the order of the query so that the broker can merge the sorted rows
+      // from all the servers without re-sorting them
+      PriorityQueue<Object[]> rows = (PriorityQueue<Object[]>) _selectionResult;
+      List<Object[]> sortedRows = new ArrayList<>(rows);
+      // NOTE: The comparator of the priority queue puts the last row at the head
+      Comparator<? super Object[]> comparator = rows.comparator();
+      sortedRows.sort((o1, o2) -> comparator.compare(o2, o1));
+      DataTable dataTable = SelectionOperatorUtils.getDataTableFromRows(sortedRows, _dataSchema);
+      dataTable.getMetadata().put(DataTable.SORTED_ROWS_METADATA_KEY, "true");
+      return attachMetadataToDataTable(dataTable);
+    }
     return attachMetadataToDataTable(SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _dataSchema));
   }
 
@@ -22,13 +22,27 @@ import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockSingleValIterator;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.impl.ChunkReaderContext;
+import org.apache.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
+import org.apache.pinot.core.operator.docvalsets.SingleValueSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
+/**
+ * Scan based doc id iterator for single-value columns.
+ * <p>For raw (no-dictionary) numeric columns stored in {@link FixedByteChunkSingleValueReader}, the predicate is
+ * evaluated block-at-a-time: the values for a block of documents are bulk read into a primitive array, and the
+ * predicate evaluator compacts the matching document ids for the block in one tight loop. For other columns, the
+ * predicate is evaluated one document at a time through the {@link BlockSingleValIterator}.
+ */
 public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  // Number of documents to evaluate in one batch
+  private static final int BATCH_SIZE = 1024;
+
   private int _currentDocId = -1;
   private final BlockSingleValIterator _valueIterator;
   private int _startDocId;
@@ -38,11 +52,20 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
 
+  // For batch evaluation only
+  private final BatchValueMatcher _batchValueMatcher;
+  private final int[] _matchingDocIds;
+  private int _numMatchingDocIds;
+  private int _matchingDocIdIndex;
+  private int _nextBatchStartDocId;
+
   public SVScanDocIdIterator(String operatorName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
     _operatorName = operatorName;
     _evaluator = evaluator;
     _valueIterator = (BlockSingleValIterator) blockValSet.iterator();
+    _batchValueMatcher = getBatchValueMatcher(blockValSet, blockMetadata.getDataType(), evaluator);
+    _matchingDocIds = _batchValueMatcher != null ? new int[BATCH_SIZE] : null;
 
     if (evaluator.isAlwaysFalse()) {
       _currentDocId = Constants.EOF;
@@ -70,6 +93,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _currentDocId = startDocId - 1;
     _valueIterator.skipTo(startDocId);
     _startDocId = startDocId;
+    resetBatch(startDocId);
   }
 
   /**
@@ -106,7 +130,18 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       return _currentDocId;
     } else {
       _currentDocId = targetDocId - 1;
-      _valueIterator.skipTo(targetDocId);
+      if (_batchValueMatcher != null) {
+        if (targetDocId >= _nextBatchStartDocId) {
+          resetBatch(targetDocId);
+        } else {
+          // Documents before the next batch have already been evaluated, skip the buffered matches before the target
+          while (_matchingDocIdIndex < _numMatchingDocIds && _matchingDocIds[_matchingDocIdIndex] < targetDocId) {
+            _matchingDocIdIndex++;
+          }
+        }
+      } else {
+        _valueIterator.skipTo(targetDocId);
+      }
       return next();
     }
   }
@@ -116,6 +151,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_currentDocId == Constants.EOF) {
       return Constants.EOF;
     }
+    if (_batchValueMatcher != null) {
+      return nextInBatch();
+    }
     while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
       _currentDocId = _currentDocId + 1;
       _numEntriesScanned++;
@@ -127,6 +165,32 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return Constants.EOF;
   }
 
+  /**
+   * Returns the next matching document from the buffered batch, and evaluates the next batches when the buffered
+   * matches are exhausted.
+   */
+  private int nextInBatch() {
+    while (_matchingDocIdIndex == _numMatchingDocIds) {
+      if (_nextBatchStartDocId > _endDocId) {
+        _currentDocId = Constants.EOF;
+        return Constants.EOF;
+      }
+      int numDocs = Math.min(BATCH_SIZE, _endDocId - _nextBatchStartDocId + 1);
+      _numMatchingDocIds = _batchValueMatcher.matchDocIds(_nextBatchStartDocId, numDocs, _matchingDocIds);
+      _matchingDocIdIndex = 0;
+      _nextBatchStartDocId += numDocs;
+      _numEntriesScanned += numDocs;
+    }
+    _currentDocId = _matchingDocIds[_matchingDocIdIndex++];
+    return _currentDocId;
+  }
+
+  private void resetBatch(int nextBatchStartDocId) {
+    _numMatchingDocIds = 0;
+    _matchingDocIdIndex = 0;
+    _nextBatchStartDocId = nextBatchStartDocId;
+  }
+
   @Override
   public int currentDocId() {
     return _currentDocId;
@@ -144,6 +208,10 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       return result;
     }
     IntIterator intIterator = answer.getIntIterator();
+    if (_batchValueMatcher != null) {
+      applyAndInBatch(intIterator, result);
+      return result;
+    }
     int docId = -1;
     while (intIterator.hasNext() && docId < _endDocId) {
       docId = intIterator.next();
@@ -158,6 +226,35 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return result;
   }
 
+  private void applyAndInBatch(IntIterator intIterator, MutableRoaringBitmap result) {
+    int[] docIds = new int[BATCH_SIZE];
+    int numDocs = 0;
+    while (intIterator.hasNext()) {
+      int docId = intIterator.next();
+      if (docId > _endDocId) {
+        break;
+      }
+      if (docId >= _startDocId) {
+        docIds[numDocs++] = docId;
+        if (numDocs == BATCH_SIZE) {
+          addMatchingDocIds(docIds, numDocs, result);
+          numDocs = 0;
+        }
+      }
+    }
+    if (numDocs > 0) {
+      addMatchingDocIds(docIds, numDocs, result);
+    }
+  }
+
+  private void addMatchingDocIds(int[] docIds, int numDocs, MutableRoaringBitmap result) {
+    _numEntriesScanned += numDocs;
+    int numMatchingDocIds = _batchValueMatcher.matchDocIds(docIds, numDocs);
+    for (int i = 0; i < numMatchingDocIds; i++) {
+      result.add(docIds[i]);
+    }
+  }
+
   @Override
   public int getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -194,6 +291,34 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     }
   }
 
+  /**
+   * Helper method to get the batch value matcher for the given block value set, or {@code null} if batch evaluation is
+   * not supported for it.
+   */
+  private static BatchValueMatcher getBatchValueMatcher(BlockValSet blockValSet, FieldSpec.DataType dataType,
+      PredicateEvaluator evaluator) {
+    if (evaluator.isDictionaryBased() || evaluator.isAlwaysFalse() || !(blockValSet instanceof SingleValueSet)) {
+      return null;
+    }
+    SingleColumnSingleValueReader reader = ((SingleValueSet) blockValSet).getReader();
+    if (!(reader instanceof FixedByteChunkSingleValueReader)) {
+      return null;
+    }
+    FixedByteChunkSingleValueReader chunkReader = (FixedByteChunkSingleValueReader) reader;
+    switch (dataType) {
+      case INT:
+        return new IntBatchMatcher(chunkReader, evaluator);
+      case LONG:
+        return new LongBatchMatcher(chunkReader, evaluator);
+      case FLOAT:
+        return new FloatBatchMatcher(chunkReader, evaluator);
+      case DOUBLE:
+        return new DoubleBatchMatcher(chunkReader, evaluator);
+      default:
+        return null;
+    }
+  }
+
   private static abstract class ValueMatcher {
     protected PredicateEvaluator _evaluator;
 
@@ -251,4 +376,126 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       return _evaluator.applySV(valueIterator.nextBytesVal());
     }
   }
+
+  private static abstract class BatchValueMatcher {
+    protected final FixedByteChunkSingleValueReader _reader;
+    protected final ChunkReaderContext _readerContext;
+    protected final PredicateEvaluator _evaluator;
+
+    BatchValueMatcher(FixedByteChunkSingleValueReader reader, PredicateEvaluator evaluator) {
+      _reader = reader;
+      _readerContext = reader.createContext();
+      _evaluator = evaluator;
+    }
+
+    /**
+     * Evaluates the contiguous documents [startDocId, startDocId + numDocs), and writes the matching document ids into
+     * the given array. Returns the number of matching documents.
+     */
+    abstract int matchDocIds(int startDocId, int numDocs, int[] matchingDocIds);
+
+    /**
+     * Evaluates the first numDocs documents in the given array, and compacts the matching document ids to the front of
+     * the array. Returns the number of matching documents.
+     */
+    abstract int matchDocIds(int[] docIds, int numDocs);
+
+    static void fillDocIds(int startDocId, int numDocs, int[] docIds) {
+      for (int i = 0; i < numDocs; i++) {
+        docIds[i] = startDocId + i;
+      }
+    }
+  }
+
+  private static class IntBatchMatcher extends BatchValueMatcher {
+    private final int[] _values = new int[BATCH_SIZE];
+
+    IntBatchMatcher(FixedByteChunkSingleValueReader reader, PredicateEvaluator evaluator) {
+      super(reader, evaluator);
+    }
+
+    @Override
+    int matchDocIds(int startDocId, int numDocs, int[] matchingDocIds) {
+      _reader.readIntValues(startDocId, numDocs, _readerContext, _values);
+      fillDocIds(startDocId, numDocs, matchingDocIds);
+      return _evaluator.applySV(numDocs, matchingDocIds, _values);
+    }
+
+    @Override
+    int matchDocIds(int[] docIds, int numDocs) {
+      for (int i = 0; i < numDocs; i++) {
+        _values[i] = _reader.getInt(docIds[i], _readerContext);
+      }
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
+  }
+
+  private static class LongBatchMatcher extends BatchValueMatcher {
+    private final long[] _values = new long[BATCH_SIZE];
+
+    LongBatchMatcher(FixedByteChunkSingleValueReader reader, PredicateEvaluator evaluator) {
+      super(reader, evaluator);
+    }
+
+    @Override
+    int matchDocIds(int startDocId, int numDocs, int[] matchingDocIds) {
+      _reader.readLongValues(startDocId, numDocs, _readerContext, _values);
+      fillDocIds(startDocId, numDocs, matchingDocIds);
+      return _evaluator.applySV(numDocs, matchingDocIds, _values);
+    }
+
+    @Override
+    int matchDocIds(int[] docIds, int numDocs) {
+      for (int i = 0; i < numDocs; i++) {
+        _values[i] = _reader.getLong(docIds[i], _readerContext);
+      }
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
+  }
+
+  private static class FloatBatchMatcher extends BatchValueMatcher {
+    private final float[] _values = new float[BATCH_SIZE];
+
+    FloatBatchMatcher(FixedByteChunkSingleValueReader reader, PredicateEvaluator evaluator) {
+      super(reader, evaluator);
+    }
+
+    @Override
+    int matchDocIds(int startDocId, int numDocs, int[] matchingDocIds) {
+      _reader.readFloatValues(startDocId, numDocs, _readerContext, _values);
+      fillDocIds(startDocId, numDocs, matchingDocIds);
+      return _evaluator.applySV(numDocs, matchingDocIds, _values);
+    }
+
+    @Override
+    int matchDocIds(int[] docIds, int numDocs) {
+      for (int i = 0; i < numDocs; i++) {
+        _values[i] = _reader.getFloat(docIds[i], _readerContext);
+      }
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
+  }
+
+  private static class DoubleBatchMatcher extends BatchValueMatcher {
+    private final double[] _values = new double[BATCH_SIZE];
+
+    DoubleBatchMatcher(FixedByteChunkSingleValueReader reader, PredicateEvaluator evaluator) {
+      super(reader, evaluator);
+    }
+
+    @Override
+    int matchDocIds(int startDocId, int numDocs, int[] matchingDocIds) {
+      _reader.readDoubleValues(startDocId, numDocs, _readerContext, _values);
+      fillDocIds(startDocId, numDocs, matchingDocIds);
+      return _evaluator.applySV(numDocs, matchingDocIds, _values);
+    }
+
+    @Override
+    int matchDocIds(int[] docIds, int numDocs) {
+      for (int i = 0; i < numDocs; i++) {
+        _values[i] = _reader.getDouble(docIds[i], _readerContext);
+      }
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
+  }
 }
@@ -156,7 +156,12 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
       }
 
       // handle raw iterators
+      // The scan based children are ordered by the estimated cost and selectivity, stop scanning once no document is
+      // left
       for (ScanBasedDocIdSet scanBasedDocIdSet : scanBasedDocIdSets) {
+        if (answer.isEmpty()) {
+          break;
+        }
         answer = scanBasedDocIdSet.iterator().applyAnd(answer);
       }
       // if other iterators exists resort to iterator style intersection
@@ -29,8 +29,18 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
   private int _startDocId;
   // Inclusive
   private int _endDocId;
+  private final long _numEntriesScannedInFilter;
 
   public BitmapDocIdSet(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive) {
+    this(bitmaps, startDocId, endDocId, exclusive, 0L);
+  }
+
+  /**
+   * Constructs the doc id set from the given bitmaps, where the bitmaps might be (partially) computed by scanning the
+   * forward index. The number of entries scanned is reported as the number of entries scanned in filter.
+   */
+  public BitmapDocIdSet(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive,
+      long numEntriesScannedInFilter) {
     int numBitmaps = bitmaps.length;
     if (numBitmaps > 1) {
       MutableRoaringBitmap orBitmap = MutableRoaringBitmap.or(bitmaps);
@@ -55,6 +65,7 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
 
     _startDocId = startDocId;
     _endDocId = endDocId;
+    _numEntriesScannedInFilter = numEntriesScannedInFilter;
   }
 
   @Override
@@ -79,8 +90,8 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
 
   @Override
   public long getNumEntriesScannedInFilter() {
-    // No value scanned when filtering with bitmap inverted index.
-    return 0L;
+    // No value scanned when filtering purely with bitmap index.
+    return _numEntriesScannedInFilter;
   }
 
   @Override
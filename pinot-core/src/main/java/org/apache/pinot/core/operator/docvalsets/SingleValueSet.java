@@ -38,6 +38,13 @@ public final class SingleValueSet extends BaseBlockValSet {
     _dataType = dataType;
   }
 
+  /**
+   * Returns the underlying forward index reader.
+   */
+  public SingleColumnSingleValueReader getReader() {
+    return _reader;
+  }
+
   @Override
   public BlockValIterator iterator() {
     return new SingleValueIterator(_reader, _numDocs);
@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.AndBlockDocIdSet;
 import org.apache.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import org.apache.pinot.core.util.trace.TraceContext;
 
 
 public class AndFilterOperator extends BaseFilterOperator {
@@ -49,6 +50,14 @@ public class AndFilterOperator extends BaseFilterOperator {
 
   @Override
   protected FilterBlock getNextBlock() {
+    if (TraceContext.traceEnabled()) {
+      // Log the order of the child filter operators chosen based on the estimations
+      List<String> childEstimations = new ArrayList<>(_filterOperators.size());
+      for (BaseFilterOperator filterOperator : _filterOperators) {
+        childEstimations.add(filterOperator.getEstimationDescription());
+      }
+      TraceContext.logInfo(OPERATOR_NAME + " Children", childEstimations);
+    }
     List<FilterBlockDocIdSet> filterBlockDocIdSets = new ArrayList<>(_filterOperators.size());
     for (BaseFilterOperator filterOperator : _filterOperators) {
       filterBlockDocIdSets.add(filterOperator.nextBlock().getBlockDocIdSet());
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
 
@@ -26,6 +27,10 @@ import org.apache.pinot.core.operator.blocks.FilterBlock;
  * The {@link BaseFilterOperator} class is the base class for all filter operators.
  */
 public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
+  // Estimations used to order the child filter operators of the AND filter operator, see FilterOperatorUtils
+  private double _estimatedSelectivity = FilterOperatorUtils.UNKNOWN_SELECTIVITY;
+  private double _estimatedCostPerDoc = 0;
+  private String _column;
 
   /**
    * Returns {@code true} if the result is always empty, {@code false} otherwise.
@@ -40,4 +45,34 @@ public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
   public boolean isResultMatchingAll() {
     return false;
   }
+
+  /**
+   * Returns the estimated fraction of the documents matching the filter, in the range of [0, 1].
+   */
+  public double getEstimatedSelectivity() {
+    return _estimatedSelectivity;
+  }
+
+  /**
+   * Returns the estimated cost of evaluating the filter on one document, where scanning one single-value entry costs 1.
+   * The filters that are evaluated with an index have no per document cost.
+   */
+  public double getEstimatedCostPerDoc() {
+    return _estimatedCostPerDoc;
+  }
+
+  /**
+   * Returns the description of the filter and its estimations, which is logged into the query trace.
+   */
+  public String getEstimationDescription() {
+    String operatorName = _column != null ? getOperatorName() + "[" + _column + "]" : getOperatorName();
+    return String.format("%s(selectivity:%.4f,costPerDoc:%.2f)", operatorName, _estimatedSelectivity,
+        _estimatedCostPerDoc);
+  }
+
+  void setEstimations(double estimatedSelectivity, double estimatedCostPerDoc, @Nullable String column) {
+    _estimatedSelectivity = estimatedSelectivity;
+    _estimatedCostPerDoc = estimatedCostPerDoc;
+    _column = column;
+  }
 }
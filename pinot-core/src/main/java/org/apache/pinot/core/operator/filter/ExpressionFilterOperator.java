@@ -56,6 +56,8 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
     _predicateEvaluator = PredicateEvaluatorProvider
         .getPredicateEvaluator(predicate, _transformFunction.getDictionary(),
             _transformFunction.getResultMetadata().getDataType());
+    setEstimations(FilterOperatorUtils.UNKNOWN_SELECTIVITY, FilterOperatorUtils.EXPRESSION_COST_PER_DOC,
+        expression.toString());
   }
 
   @Override
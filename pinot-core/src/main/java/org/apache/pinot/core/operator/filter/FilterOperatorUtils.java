@@ -25,17 +25,30 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.common.Predicate;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec;
 
 
 public class FilterOperatorUtils {
   private FilterOperatorUtils() {
   }
 
-  // Debug option to enable or disable multi-value optimization
+  // Debug option to enable or disable the cost based reordering of the scan based filters
   public static final String USE_SCAN_REORDER_OPTIMIZATION = "useScanReorderOpt";
 
+  // Selectivity used when it cannot be estimated from the column metadata
+  static final double UNKNOWN_SELECTIVITY = 0.5;
+  // Cost of scanning one dictionary-encoded or fixed-width value, which is the unit of the cost model
+  static final double SCAN_COST_PER_VALUE = 1;
+  // Cost of scanning one variable-width (STRING/BYTES) raw value
+  static final double RAW_VARIABLE_WIDTH_SCAN_COST_PER_VALUE = 4;
+  // Cost of evaluating the transform function for one document
+  static final double EXPRESSION_COST_PER_DOC = 10;
+
   /**
    * Returns the leaf filter operator (i.e. not {@link AndFilterOperator} or {@link OrFilterOperator}).
    */
@@ -54,20 +67,34 @@ public class FilterOperatorUtils {
 
     Predicate.Type predicateType = predicateEvaluator.getPredicateType();
 
+    BaseFilterOperator filterOperator;
     if (predicateType == Predicate.Type.TEXT_MATCH) {
-      return new TextMatchFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
-    }
-
-    // Use inverted index if the predicate type is not RANGE or REGEXP_LIKE for efficiency
-    if (dataSource.getInvertedIndex() != null && predicateType != Predicate.Type.REGEXP_LIKE) {
+      filterOperator = new TextMatchFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
+    } else if (predicateType == Predicate.Type.RANGE && dataSource.getRangeIndex() != null
+        && predicateEvaluator instanceof OfflineDictionaryBasedRangePredicateEvaluator) {
+      // Use range index for RANGE predicate if exists
+      filterOperator = new RangeIndexBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
+    } else if (dataSource.getInvertedIndex() != null && predicateType != Predicate.Type.REGEXP_LIKE && (
+        dataSource.getDataSourceMetadata().isSorted() || predicateType != Predicate.Type.RANGE)) {
+      // Use inverted index if the predicate type is not RANGE or REGEXP_LIKE for efficiency
+      // TODO: add support for bitmap inverted index operator can be used for RANGE predicate
       if (dataSource.getDataSourceMetadata().isSorted()) {
-        return new SortedInvertedIndexBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
-      } else if (predicateType != Predicate.Type.RANGE) {
-        // TODO: add support for bitmap inverted index operator can be used for RANGE predicate
-        return new BitmapBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
+        filterOperator =
+            new SortedInvertedIndexBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
+      } else {
+        filterOperator = new BitmapBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
       }
+    } else {
+      filterOperator = new ScanBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
     }
-    return new ScanBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
+
+    // Index based filters have no per document cost
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    double estimatedCostPerDoc =
+        filterOperator instanceof ScanBasedFilterOperator ? estimateScanCostPerDoc(dataSource) : 0;
+    filterOperator.setEstimations(estimateSelectivity(predicateEvaluator, dataSource), estimatedCostPerDoc,
+        dataSourceMetadata.getFieldSpec().getName());
+    return filterOperator;
   }
 
   /**
@@ -93,7 +120,18 @@ public class FilterOperatorUtils {
     } else {
       // Return the AND filter operator with re-ordered child filter operators
       FilterOperatorUtils.reorderAndFilterChildOperators(childFilterOperators, debugOptions);
-      return new AndFilterOperator(childFilterOperators);
+      AndFilterOperator andFilterOperator = new AndFilterOperator(childFilterOperators);
+
+      // The child filter operators are evaluated in order, and each child filter operator only needs to be evaluated
+      // on the documents matching the previous ones
+      double estimatedSelectivity = 1;
+      double estimatedCostPerDoc = 0;
+      for (BaseFilterOperator childFilterOperator : childFilterOperators) {
+        estimatedCostPerDoc += estimatedSelectivity * childFilterOperator.getEstimatedCostPerDoc();
+        estimatedSelectivity *= childFilterOperator.getEstimatedSelectivity();
+      }
+      andFilterOperator.setEstimations(estimatedSelectivity, estimatedCostPerDoc, null);
+      return andFilterOperator;
     }
   }
 
@@ -119,74 +157,138 @@ public class FilterOperatorUtils {
       return childFilterOperators.get(0);
     } else {
       // Return the OR filter operator with child filter operators
-      return new OrFilterOperator(childFilterOperators);
+      OrFilterOperator orFilterOperator = new OrFilterOperator(childFilterOperators);
+
+      // All the child filter operators are evaluated on all the documents
+      double estimatedNonMatchingRatio = 1;
+      double estimatedCostPerDoc = 0;
+      for (BaseFilterOperator childFilterOperator : childFilterOperators) {
+        estimatedNonMatchingRatio *= 1 - childFilterOperator.getEstimatedSelectivity();
+        estimatedCostPerDoc += childFilterOperator.getEstimatedCostPerDoc();
+      }
+      orFilterOperator.setEstimations(1 - estimatedNonMatchingRatio, estimatedCostPerDoc, null);
+      return orFilterOperator;
     }
   }
 
   /**
    * For AND filter operator, reorders its child filter operators based on the their cost and puts the ones with
    * inverted index first in order to reduce the number of documents to be processed.
+   * <p>The filter operators without index are ordered by the estimated cost per document divided by the estimated
+   * fraction of the documents filtered out (i.e. {@code costPerDoc / (1 - selectivity)}), so that the cheap and
+   * selective filters are evaluated first, and the expensive filters are evaluated on fewer documents.
    * <p>Special filter operators such as {@link MatchAllFilterOperator} and {@link EmptyFilterOperator} should be
    * removed from the list before calling this method.
    */
   private static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators,
       @Nullable Map<String, String> debugOptions) {
-    filterOperators.sort(new Comparator<BaseFilterOperator>() {
-      @Override
-      public int compare(BaseFilterOperator o1, BaseFilterOperator o2) {
-        return getPriority(o1) - getPriority(o2);
-      }
+    if (debugOptions != null
+        && StringUtils.compareIgnoreCase(debugOptions.get(USE_SCAN_REORDER_OPTIMIZATION), "false") == 0) {
+      filterOperators.sort(Comparator.comparingInt(FilterOperatorUtils::getPriority));
+    } else {
+      filterOperators.sort(Comparator.comparingInt(FilterOperatorUtils::getPriority)
+          .thenComparingDouble(FilterOperatorUtils::getRank));
+    }
+  }
 
-      int getPriority(BaseFilterOperator filterOperator) {
-        if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator) {
-          return 0;
-        }
-        if (filterOperator instanceof BitmapBasedFilterOperator) {
-          return 1;
-        }
-        if (filterOperator instanceof TextMatchFilterOperator) {
-          return 2;
-        }
-        if (filterOperator instanceof AndFilterOperator) {
-          return 3;
-        }
-        if (filterOperator instanceof OrFilterOperator) {
-          return 4;
-        }
-        if (filterOperator instanceof ScanBasedFilterOperator) {
-          return getScanBasedFilterPriority((ScanBasedFilterOperator) filterOperator, 5, debugOptions);
-        }
-        if (filterOperator instanceof ExpressionFilterOperator) {
-          return 10;
-        }
-        throw new IllegalStateException(filterOperator.getClass().getSimpleName()
-            + " should not be reordered, remove it from the list before calling this method");
-      }
-    });
+  /**
+   * Returns the priority of the filter operator based on its type. The filter operators with index are evaluated first,
+   * and the other filter operators share the same priority.
+   */
+  private static int getPriority(BaseFilterOperator filterOperator) {
+    if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator) {
+      return 0;
+    }
+    if (filterOperator instanceof BitmapBasedFilterOperator
+        || filterOperator instanceof RangeIndexBasedFilterOperator) {
+      return 1;
+    }
+    if (filterOperator instanceof TextMatchFilterOperator) {
+      return 2;
+    }
+    if (filterOperator instanceof AndFilterOperator || filterOperator instanceof OrFilterOperator
+        || filterOperator instanceof ScanBasedFilterOperator || filterOperator instanceof ExpressionFilterOperator) {
+      return 3;
+    }
+    throw new IllegalStateException(filterOperator.getClass().getSimpleName()
+        + " should not be reordered, remove it from the list before calling this method");
+  }
+
+  private static double getRank(BaseFilterOperator filterOperator) {
+    return filterOperator.getEstimatedCostPerDoc() / Math.max(1 - filterOperator.getEstimatedSelectivity(), 1e-6);
   }
 
   /**
-   * Returns the priority for scan based filtering. Multivalue column evaluation is costly, so
-   * reorder such that multivalue columns are evaluated after single value columns.
-   *
-   * TODO: additional cost based prioritization to be added
-   *
-   * @param scanBasedFilterOperator the filter operator to prioritize
-   * @param debugOptions  debug-options to enable/disable the optimization
-   * @return the priority to be associated with the filter
+   * Returns the estimated fraction of the documents matching the predicate based on the column metadata.
+   * <p>For dictionary-encoded column, the selectivity of a value is estimated as the number of matching dictionary ids
+   * divided by the cardinality, assuming the values are uniformly distributed. The number of matching dictionary ids is
+   * only read when it is already computed by the predicate evaluator to avoid iterating over the dictionary. For
+   * multi-value column, the selectivity is adjusted with the average number of values per document.
    */
-  private static int getScanBasedFilterPriority(ScanBasedFilterOperator scanBasedFilterOperator, int basePriority,
-      @Nullable Map<String, String> debugOptions) {
-    if (debugOptions != null
-        && StringUtils.compareIgnoreCase(debugOptions.get(USE_SCAN_REORDER_OPTIMIZATION), "false") == 0) {
-      return basePriority;
+  static double estimateSelectivity(PredicateEvaluator predicateEvaluator, DataSource dataSource) {
+    Predicate.Type predicateType = predicateEvaluator.getPredicateType();
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    Dictionary dictionary = dataSource.getDictionary();
+    int cardinality = dictionary != null ? dictionary.length() : 0;
+
+    // Selectivity on a single value
+    double valueSelectivity;
+    boolean useDictionary = predicateEvaluator.isDictionaryBased() && cardinality > 0;
+    if (useDictionary && (predicateType == Predicate.Type.EQ || predicateType == Predicate.Type.IN
+        || predicateEvaluator instanceof OfflineDictionaryBasedRangePredicateEvaluator)) {
+      valueSelectivity = (double) predicateEvaluator.getNumMatchingDictIds() / cardinality;
+    } else if (useDictionary && (predicateType == Predicate.Type.NEQ || predicateType == Predicate.Type.NOT_IN)) {
+      valueSelectivity = 1 - (double) predicateEvaluator.getNumNonMatchingDictIds() / cardinality;
+    } else {
+      switch (predicateType) {
+        case EQ:
+        case IN:
+          valueSelectivity = 0.1;
+          break;
+        case NEQ:
+        case NOT_IN:
+          valueSelectivity = 0.9;
+          break;
+        default:
+          valueSelectivity = UNKNOWN_SELECTIVITY;
+          break;
+      }
     }
 
-    if (scanBasedFilterOperator.getDataSourceMetadata().isSingleValue()) {
-      return basePriority;
+    if (dataSourceMetadata.isSingleValue()) {
+      return valueSelectivity;
+    }
+    // Multi-value entry matches inclusive predicate if any value matches, and matches exclusive predicate if all values
+    // match
+    double avgNumValuesPerDoc = getAvgNumValuesPerDoc(dataSourceMetadata);
+    if (predicateEvaluator.isExclusive()) {
+      return Math.pow(valueSelectivity, avgNumValuesPerDoc);
     } else {
-      // Lower priority for multi-value column
-      return basePriority + 1;
+      return 1 - Math.pow(1 - valueSelectivity, avgNumValuesPerDoc);
     }
   }
+
+  /**
+   * Returns the estimated cost of scanning the column for one document.
+   */
+  static double estimateScanCostPerDoc(DataSource dataSource) {
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    double costPerValue = SCAN_COST_PER_VALUE;
+    if (dataSource.getDictionary() == null) {
+      FieldSpec.DataType dataType = dataSourceMetadata.getDataType();
+      if (dataType == FieldSpec.DataType.STRING || dataType == FieldSpec.DataType.BYTES) {
+        costPerValue = RAW_VARIABLE_WIDTH_SCAN_COST_PER_VALUE;
+      }
+    }
+    if (dataSourceMetadata.isSingleValue()) {
+      return costPerValue;
+    } else {
+      return costPerValue * getAvgNumValuesPerDoc(dataSourceMetadata);
+    }
+  }
+
+  private static double getAvgNumValuesPerDoc(DataSourceMetadata dataSourceMetadata) {
+    int numDocs = dataSourceMetadata.getNumDocs();
+    return numDocs > 0 ? Math.max((double) dataSourceMetadata.getNumValues() / numDocs, 1) : 1;
+  }
 }
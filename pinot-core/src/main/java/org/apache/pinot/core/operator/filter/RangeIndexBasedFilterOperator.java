@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
+import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.docidsets.ScanBasedDocIdSet;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator for RANGE predicate on columns with range index.
+ * <p>The ranges that are fully covered by the predicate are solved with the bitmaps from the range index directly. The
+ * ranges that are only partially covered (at most the first and the last range) are solved by scanning the forward
+ * index only for the documents within these ranges.
+ */
+public class RangeIndexBasedFilterOperator extends BaseFilterOperator {
+  private static final String OPERATOR_NAME = "RangeIndexBasedFilterOperator";
+
+  private final PredicateEvaluator _predicateEvaluator;
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  // TODO: change it to exclusive
+  // Inclusive
+  private final int _endDocId;
+
+  RangeIndexBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId,
+      int endDocId) {
+    // NOTE:
+    // Predicate that is always evaluated as true or false should not be passed into the RangeIndexBasedFilterOperator
+    // for performance concern.
+    // If predicate is always evaluated as true, use MatchAllFilterOperator; if predicate is always evaluated as false,
+    // use EmptyFilterOperator.
+    Preconditions.checkArgument(!predicateEvaluator.isAlwaysTrue() && !predicateEvaluator.isAlwaysFalse());
+    Preconditions.checkArgument(predicateEvaluator instanceof OfflineDictionaryBasedRangePredicateEvaluator,
+        "Range index only supports dictionary based range predicate evaluator on immutable segment");
+
+    _predicateEvaluator = predicateEvaluator;
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  protected FilterBlock getNextBlock() {
+    OfflineDictionaryBasedRangePredicateEvaluator rangePredicateEvaluator =
+        (OfflineDictionaryBasedRangePredicateEvaluator) _predicateEvaluator;
+    int startDictId = rangePredicateEvaluator.getStartDictId();
+    // Exclusive
+    int endDictId = rangePredicateEvaluator.getEndDictId();
+
+    RangeIndexReader rangeIndex = _dataSource.getRangeIndex();
+    int firstRangeId = rangeIndex.findRangeId(startDictId);
+    int lastRangeId = rangeIndex.findRangeId(endDictId - 1);
+
+    List<ImmutableRoaringBitmap> bitmaps = new ArrayList<>(lastRangeId - firstRangeId + 2);
+    MutableRoaringBitmap partialMatchDocIds = null;
+    for (int rangeId = firstRangeId; rangeId <= lastRangeId; rangeId++) {
+      ImmutableRoaringBitmap docIds = rangeIndex.getDocIds(rangeId);
+      if (rangeIndex.getRangeStartDictId(rangeId) >= startDictId
+          && rangeIndex.getRangeEndDictId(rangeId) <= endDictId) {
+        bitmaps.add(docIds);
+      } else {
+        if (partialMatchDocIds == null) {
+          partialMatchDocIds = docIds.toMutableRoaringBitmap();
+        } else {
+          partialMatchDocIds.or(docIds);
+        }
+      }
+    }
+
+    // Scan the forward index for the documents within the partially matching ranges
+    long numEntriesScanned = 0L;
+    if (partialMatchDocIds != null) {
+      ScanBasedDocIdSet scanBasedDocIdSet = (ScanBasedDocIdSet) new ScanBasedFilterOperator(_predicateEvaluator,
+          _dataSource, _startDocId, _endDocId).nextBlock().getBlockDocIdSet();
+      ScanBasedDocIdIterator scanBasedDocIdIterator = scanBasedDocIdSet.iterator();
+      bitmaps.add(scanBasedDocIdIterator.applyAnd(partialMatchDocIds));
+      numEntriesScanned = scanBasedDocIdIterator.getNumEntriesScanned();
+    }
+
+    return new FilterBlock(
+        new BitmapDocIdSet(bitmaps.toArray(new ImmutableRoaringBitmap[0]), _startDocId, _endDocId, false,
+            numEntriesScanned));
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
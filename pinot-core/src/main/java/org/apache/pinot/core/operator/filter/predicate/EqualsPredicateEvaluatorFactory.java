@@ -121,6 +121,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(int value) {
       return _matchingValue == value;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (_matchingValue == values[i]) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class LongRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -139,6 +150,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(long value) {
       return (_matchingValue == value);
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, long[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (_matchingValue == values[i]) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class FloatRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -157,6 +179,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(float value) {
       return _matchingValue == value;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, float[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (_matchingValue == values[i]) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class DoubleRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -175,6 +208,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(double value) {
       return _matchingValue == value;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, double[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (_matchingValue == values[i]) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class StringRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -180,4 +180,51 @@ public interface PredicateEvaluator {
    * @return Whether the entry matches the predicate
    */
   boolean applyMV(byte[][] values, int length);
+
+  /**
+   * APIs for batch evaluation of single-value entries.
+   * <p>Each method applies the first {@code limit} values to the predicate, where {@code values[i]} is the value for
+   * document {@code docIds[i]}. The matching document ids are compacted (in order) into the first entries of
+   * {@code docIds}, and the number of matching documents is returned.
+   */
+
+  /**
+   * Apply a batch of single-value entries to the predicate.
+   *
+   * @param limit Number of entries to apply
+   * @param docIds Document ids for the entries, overwritten with the matching document ids
+   * @param values Dictionary ids or raw values for the entries
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, int[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate.
+   *
+   * @param limit Number of entries to apply
+   * @param docIds Document ids for the entries, overwritten with the matching document ids
+   * @param values Raw values for the entries
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, long[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate.
+   *
+   * @param limit Number of entries to apply
+   * @param docIds Document ids for the entries, overwritten with the matching document ids
+   * @param values Raw values for the entries
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, float[] values);
+
+  /**
+   * Apply a batch of single-value entries to the predicate.
+   *
+   * @param limit Number of entries to apply
+   * @param docIds Document ids for the entries, overwritten with the matching document ids
+   * @param values Raw values for the entries
+   * @return Number of matching documents
+   */
+  int applySV(int limit, int[] docIds, double[] values);
 }
@@ -297,6 +297,17 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (applySV(values[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class LongRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -334,6 +345,17 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, long[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (applySV(values[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class FloatRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -371,6 +393,17 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, float[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (applySV(values[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class DoubleRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -408,6 +441,17 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, double[] values) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (applySV(values[i])) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class StringRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.query;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.pinot.common.request.GroupBy;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
@@ -40,6 +41,7 @@ public class AggregationGroupByOperator extends BaseOperator<IntermediateResults
   private final GroupBy _groupBy;
   private final int _maxInitialResultHolderCapacity;
   private final int _numGroupsLimit;
+  private final int _offHeapResultHolderThreshold;
   private final TransformOperator _transformOperator;
   private final long _numTotalDocs;
   private final boolean _useStarTree;
@@ -47,12 +49,13 @@ public class AggregationGroupByOperator extends BaseOperator<IntermediateResults
   private int _numDocsScanned = 0;
 
   public AggregationGroupByOperator(AggregationFunctionContext[] functionContexts, GroupBy groupBy,
-      int maxInitialResultHolderCapacity, int numGroupsLimit, TransformOperator transformOperator, long numTotalDocs,
-      boolean useStarTree) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, int offHeapResultHolderThreshold,
+      TransformOperator transformOperator, long numTotalDocs, boolean useStarTree) {
     _functionContexts = functionContexts;
     _groupBy = groupBy;
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _offHeapResultHolderThreshold = offHeapResultHolderThreshold;
     _transformOperator = transformOperator;
     _numTotalDocs = numTotalDocs;
     _useStarTree = useStarTree;
@@ -65,16 +68,22 @@ public class AggregationGroupByOperator extends BaseOperator<IntermediateResults
     if (_useStarTree) {
       groupByExecutor =
           new StarTreeGroupByExecutor(_functionContexts, _groupBy, _maxInitialResultHolderCapacity, _numGroupsLimit,
-              _transformOperator);
+              _offHeapResultHolderThreshold, _transformOperator);
     } else {
       groupByExecutor =
           new DefaultGroupByExecutor(_functionContexts, _groupBy, _maxInitialResultHolderCapacity, _numGroupsLimit,
-              _transformOperator);
+              _offHeapResultHolderThreshold, _transformOperator);
     }
     TransformBlock transformBlock;
-    while ((transformBlock = _transformOperator.nextBlock()) != null) {
-      _numDocsScanned += transformBlock.getNumDocs();
-      groupByExecutor.process(transformBlock);
+    try {
+      while ((transformBlock = _transformOperator.nextBlock()) != null) {
+        _numDocsScanned += transformBlock.getNumDocs();
+        groupByExecutor.process(transformBlock);
+      }
+    } catch (RuntimeException e) {
+      // Release the off-heap result holders (if any) as the result won't be consumed
+      IOUtils.closeQuietly(groupByExecutor.getResult());
+      throw e;
     }
 
     // Build intermediate result block based on aggregation group-by result from the executor
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.query;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.pinot.common.request.GroupBy;
 import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.common.utils.DataSchema;
@@ -44,6 +45,7 @@ public class AggregationGroupByOrderByOperator extends BaseOperator<Intermediate
   private final GroupBy _groupBy;
   private final int _maxInitialResultHolderCapacity;
   private final int _numGroupsLimit;
+  private final int _offHeapResultHolderThreshold;
   private final TransformOperator _transformOperator;
   private final long _numTotalDocs;
   private final boolean _useStarTree;
@@ -51,12 +53,13 @@ public class AggregationGroupByOrderByOperator extends BaseOperator<Intermediate
   private int _numDocsScanned;
 
   public AggregationGroupByOrderByOperator(AggregationFunctionContext[] functionContexts, GroupBy groupBy,
-      int maxInitialResultHolderCapacity, int numGroupsLimit, TransformOperator transformOperator, long numTotalDocs,
-      boolean useStarTree) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, int offHeapResultHolderThreshold,
+      TransformOperator transformOperator, long numTotalDocs, boolean useStarTree) {
     _functionContexts = functionContexts;
     _groupBy = groupBy;
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _offHeapResultHolderThreshold = offHeapResultHolderThreshold;
     _transformOperator = transformOperator;
     _numTotalDocs = numTotalDocs;
     _useStarTree = useStarTree;
@@ -96,16 +99,22 @@ public class AggregationGroupByOrderByOperator extends BaseOperator<Intermediate
     if (_useStarTree) {
       groupByExecutor =
           new StarTreeGroupByExecutor(_functionContexts, _groupBy, _maxInitialResultHolderCapacity, _numGroupsLimit,
-              _transformOperator);
+              _offHeapResultHolderThreshold, _transformOperator);
     } else {
       groupByExecutor =
           new DefaultGroupByExecutor(_functionContexts, _groupBy, _maxInitialResultHolderCapacity, _numGroupsLimit,
-              _transformOperator);
+              _offHeapResultHolderThreshold, _transformOperator);
     }
     TransformBlock transformBlock;
-    while ((transformBlock = _transformOperator.nextBlock()) != null) {
-      _numDocsScanned += transformBlock.getNumDocs();
-      groupByExecutor.process(transformBlock);
+    try {
+      while ((transformBlock = _transformOperator.nextBlock()) != null) {
+        _numDocsScanned += transformBlock.getNumDocs();
+        groupByExecutor.process(transformBlock);
+      }
+    } catch (RuntimeException e) {
+      // Release the off-heap result holders (if any) as the result won't be consumed
+      IOUtils.closeQuietly(groupByExecutor.getResult());
+      throw e;
     }
 
     // Build intermediate result block based on aggregation group-by result from the executor
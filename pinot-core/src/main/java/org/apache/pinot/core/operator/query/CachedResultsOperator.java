@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.executor.CachedSegmentResult;
+
+
+/**
+ * The <code>CachedResultsOperator</code> class provides the operator for aggregation and aggregation group-by query on
+ * a single segment whose result is already in the {@link org.apache.pinot.core.query.executor.SegmentResultCache}.
+ * <p>NOTE: this operator short circuit underlying operators and directly returns a copy of the cached result. The
+ * execution statistics are the ones recorded when the result was computed.
+ */
+public class CachedResultsOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "CachedResultsOperator";
+
+  private final AggregationFunctionContext[] _functionContexts;
+  private final CachedSegmentResult _cachedSegmentResult;
+
+  public CachedResultsOperator(AggregationFunctionContext[] functionContexts,
+      CachedSegmentResult cachedSegmentResult) {
+    _functionContexts = functionContexts;
+    _cachedSegmentResult = cachedSegmentResult;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    return _cachedSegmentResult.toResultsBlock(_functionContexts);
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _cachedSegmentResult.getExecutionStatistics();
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.executor.CachedSegmentResult;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class wraps the operator for aggregation and aggregation group-by query on
+ * a single segment whose result is not in the {@link SegmentResultCache}, and puts the result into the cache after
+ * executing the underlying operator.
+ */
+public class SegmentResultCacheOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "SegmentResultCacheOperator";
+
+  private final Operator<IntermediateResultsBlock> _operator;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.CacheKey _cacheKey;
+
+  public SegmentResultCacheOperator(Operator<IntermediateResultsBlock> operator, SegmentResultCache segmentResultCache,
+      SegmentResultCache.CacheKey cacheKey) {
+    _operator = operator;
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = cacheKey;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    IntermediateResultsBlock resultsBlock = _operator.nextBlock();
+
+    // Materialize the result before it is merged (and possibly modified) by the combine operator
+    CachedSegmentResult cachedSegmentResult =
+        CachedSegmentResult.fromResultsBlock(resultsBlock, _operator.getExecutionStatistics(),
+            _segmentResultCache.getMaxSizeInBytes());
+    if (cachedSegmentResult != null) {
+      _segmentResultCache.put(_cacheKey, cachedSegmentResult);
+    }
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _operator.getExecutionStatistics();
+  }
+}
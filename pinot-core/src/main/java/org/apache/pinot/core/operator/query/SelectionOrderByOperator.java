@@ -19,6 +19,7 @@
 package org.apache.pinot.core.operator.query;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
@@ -31,15 +32,28 @@ import org.apache.pinot.core.common.RowBasedBlockValueFetcher;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.ProjectionOperator;
+import org.apache.pinot.core.operator.blocks.DocIdSetBlock;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.query.selection.SelectionTopNHeap;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.ByteArray;
 
 
+/**
+ * The <code>SelectionOrderByOperator</code> class provides the operator for selection order-by queries on a single
+ * segment.
+ * <p>When all the order-by expressions are single-valued, the operator applies late materialization: only the values
+ * of the order-by expressions are read for the matched documents, and only the document ids are kept in the top N.
+ * The other expressions are read only for the final top N documents. Order-by columns with sorted dictionary are
+ * compared on the dictionary ids so that the dictionary lookups are also deferred to the final top N documents.
+ */
 public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final String OPERATOR_NAME = "SelectionOrderByOperator";
 
@@ -50,6 +64,10 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
   private final DataSchema _dataSchema;
   private final int _numRowsToKeep;
   private final PriorityQueue<Object[]> _rows;
+  private final SelectionTopNHeap _topNHeap;
+  private final int _numOrderByExpressions;
+  // Whether to compare the dictionary ids for each order-by expression, or null if late materialization is not applied
+  private final boolean[] _orderByDictIds;
 
   private int _numDocsScanned = 0;
 
@@ -76,6 +94,38 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     _numRowsToKeep = selection.getOffset() + selection.getSize();
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
         getComparator(selection.getSelectionSortSequence()));
+
+    // Apply late materialization when all the order-by expressions are single-valued, and either there are other
+    // expressions to be materialized or the order-by expressions can be compared on the dictionary ids
+    List<SelectionSort> sortSequence = selection.getSelectionSortSequence();
+    _numOrderByExpressions = sortSequence.size();
+    boolean[] orderByDictIds = new boolean[_numOrderByExpressions];
+    DataSchema.ColumnDataType[] keyDataTypes = new DataSchema.ColumnDataType[_numOrderByExpressions];
+    boolean lateMaterialization = true;
+    boolean hasDictIds = false;
+    for (int i = 0; i < _numOrderByExpressions; i++) {
+      if (!_expressionMetadata[i].isSingleValue()) {
+        lateMaterialization = false;
+        break;
+      }
+      TransformExpressionTree expression = _expressions.get(i);
+      Dictionary dictionary = expression.isColumn() ? _transformOperator.getDictionary(expression) : null;
+      if (dictionary != null && dictionary.isSorted()) {
+        orderByDictIds[i] = true;
+        keyDataTypes[i] = DataSchema.ColumnDataType.INT;
+        hasDictIds = true;
+      } else {
+        keyDataTypes[i] = columnDataTypes[i];
+      }
+    }
+    if (lateMaterialization && (hasDictIds || numExpressions > _numOrderByExpressions)) {
+      _orderByDictIds = orderByDictIds;
+      DataSchema keyDataSchema = new DataSchema(Arrays.copyOf(columnNames, _numOrderByExpressions), keyDataTypes);
+      _topNHeap = new SelectionTopNHeap(sortSequence, keyDataSchema, _numRowsToKeep);
+    } else {
+      _orderByDictIds = null;
+      _topNHeap = new SelectionTopNHeap(sortSequence, _dataSchema, _numRowsToKeep);
+    }
   }
 
   private Comparator<Object[]> getComparator(List<SelectionSort> sortSequence) {
@@ -141,24 +191,103 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
 
   @Override
   protected IntermediateResultsBlock getNextBlock() {
+    if (_orderByDictIds != null) {
+      computeTopNDocIds();
+      materializeRows(_topNHeap.getDocIds());
+    } else {
+      computeTopNRows();
+    }
+    return new IntermediateResultsBlock(_dataSchema, _rows);
+  }
+
+  private void computeTopNRows() {
     TransformBlock transformBlock;
     while ((transformBlock = _transformOperator.nextBlock()) != null) {
-      int numExpressions = _expressions.size();
-      BlockValSet[] blockValSets = new BlockValSet[numExpressions];
-      for (int i = 0; i < numExpressions; i++) {
-        TransformExpressionTree expression = _expressions.get(i);
-        blockValSets[i] = transformBlock.getBlockValueSet(expression);
+      BlockValSet[] blockValSets = getBlockValSets(transformBlock);
+
+      // Only compare the order-by values for each row, and create the row fetcher lazily so that the other expressions
+      // are not read for the blocks without any row in the top N
+      RowBasedBlockValueFetcher[] blockValueFetcher = new RowBasedBlockValueFetcher[1];
+
+      int numDocsFetched = transformBlock.getNumDocs();
+      _numDocsScanned += numDocsFetched;
+      _topNHeap.addRows(blockValSets, numDocsFetched, docId -> {
+        if (blockValueFetcher[0] == null) {
+          blockValueFetcher[0] = new RowBasedBlockValueFetcher(blockValSets);
+        }
+        return blockValueFetcher[0].getRow(docId);
+      });
+    }
+    _rows.addAll(_topNHeap.getRows());
+  }
+
+  /**
+   * Reads only the order-by expressions (dictionary ids for the columns with sorted dictionary) and keeps the document
+   * ids of the top N documents in the heap.
+   */
+  private void computeTopNDocIds() {
+    TransformBlock transformBlock;
+    while ((transformBlock = _transformOperator.nextBlock()) != null) {
+      Object[] blockKeyValues = new Object[_numOrderByExpressions];
+      for (int i = 0; i < _numOrderByExpressions; i++) {
+        BlockValSet blockValSet = transformBlock.getBlockValueSet(_expressions.get(i));
+        if (_orderByDictIds[i]) {
+          blockKeyValues[i] = blockValSet.getDictionaryIdsSV();
+        } else {
+          blockKeyValues[i] = getValuesSV(blockValSet, _expressionMetadata[i].getDataType());
+        }
       }
-      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
 
       int numDocsFetched = transformBlock.getNumDocs();
       _numDocsScanned += numDocsFetched;
-      for (int i = 0; i < numDocsFetched; i++) {
-        SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
+      _topNHeap.addDocIds(blockKeyValues, transformBlock.getDocIdSetBlock().getDocIdSet(), numDocsFetched);
+    }
+  }
+
+  private static Object getValuesSV(BlockValSet blockValSet, DataType dataType) {
+    switch (dataType) {
+      case INT:
+        return blockValSet.getIntValuesSV();
+      case LONG:
+        return blockValSet.getLongValuesSV();
+      case FLOAT:
+        return blockValSet.getFloatValuesSV();
+      case DOUBLE:
+        return blockValSet.getDoubleValuesSV();
+      case STRING:
+        return blockValSet.getStringValuesSV();
+      case BYTES:
+        return blockValSet.getBytesValuesSV();
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Reads all the expressions for the given documents (in the order of the document ids) into the rows.
+   */
+  private void materializeRows(int[] docIds) {
+    Arrays.sort(docIds);
+    ProjectionOperator projectionOperator =
+        new ProjectionOperator(_transformOperator.getDataSourceMap(), new DocIdArrayOperator(docIds));
+    TransformOperator transformOperator = new TransformOperator(projectionOperator, _expressions);
+    TransformBlock transformBlock;
+    while ((transformBlock = transformOperator.nextBlock()) != null) {
+      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(getBlockValSets(transformBlock));
+      int numDocs = transformBlock.getNumDocs();
+      for (int i = 0; i < numDocs; i++) {
+        _rows.add(blockValueFetcher.getRow(i));
       }
     }
+  }
 
-    return new IntermediateResultsBlock(_dataSchema, _rows);
+  private BlockValSet[] getBlockValSets(TransformBlock transformBlock) {
+    int numExpressions = _expressions.size();
+    BlockValSet[] blockValSets = new BlockValSet[numExpressions];
+    for (int i = 0; i < numExpressions; i++) {
+      blockValSets[i] = transformBlock.getBlockValueSet(_expressions.get(i));
+    }
+    return blockValSets;
   }
 
   @Override
@@ -174,4 +303,36 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     return new ExecutionStatistics(_numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
         numTotalDocs);
   }
+
+  /**
+   * Operator to return the given (sorted) document ids in blocks.
+   */
+  private static class DocIdArrayOperator extends BaseOperator<DocIdSetBlock> {
+    private static final String OPERATOR_NAME = "DocIdArrayOperator";
+
+    private final int[] _docIds;
+    private int _nextIndex;
+
+    DocIdArrayOperator(int[] docIds) {
+      _docIds = docIds;
+    }
+
+    @Override
+    protected DocIdSetBlock getNextBlock() {
+      int numDocIds = _docIds.length;
+      if (_nextIndex == numDocIds) {
+        return null;
+      }
+      int numDocIdsInBlock = Math.min(numDocIds - _nextIndex, DocIdSetPlanNode.MAX_DOC_PER_CALL);
+      int[] blockDocIds = numDocIdsInBlock == numDocIds ? _docIds
+          : Arrays.copyOfRange(_docIds, _nextIndex, _nextIndex + numDocIdsInBlock);
+      _nextIndex += numDocIdsInBlock;
+      return new DocIdSetBlock(blockDocIds, numDocIdsInBlock);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return OPERATOR_NAME;
+    }
+  }
 }
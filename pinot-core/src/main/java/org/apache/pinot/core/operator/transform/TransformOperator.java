@@ -58,6 +58,15 @@ public class TransformOperator extends BaseOperator<TransformBlock> {
     }
   }
 
+  /**
+   * Returns the map from column to data source.
+   *
+   * @return Map from column to data source
+   */
+  public Map<String, DataSource> getDataSourceMap() {
+    return _dataSourceMap;
+  }
+
   /**
    * Returns the number of columns projected.
    *
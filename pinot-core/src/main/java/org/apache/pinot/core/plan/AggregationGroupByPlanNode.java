@@ -49,6 +49,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final int _maxInitialResultHolderCapacity;
   private final int _numGroupsLimit;
+  private final int _offHeapResultHolderThreshold;
   private final List<AggregationInfo> _aggregationInfos;
   private final AggregationFunctionContext[] _functionContexts;
   private final GroupBy _groupBy;
@@ -56,10 +57,11 @@ public class AggregationGroupByPlanNode implements PlanNode {
   private final StarTreeTransformPlanNode _starTreeTransformPlanNode;
 
   public AggregationGroupByPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest,
-      int maxInitialResultHolderCapacity, int numGroupsLimit) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, int offHeapResultHolderThreshold) {
     _indexSegment = indexSegment;
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _offHeapResultHolderThreshold = offHeapResultHolderThreshold;
     _aggregationInfos = brokerRequest.getAggregationsInfo();
     _functionContexts = AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest);
     _groupBy = brokerRequest.getGroupBy();
@@ -102,11 +104,11 @@ public class AggregationGroupByPlanNode implements PlanNode {
     if (_transformPlanNode != null) {
       // Do not use star-tree
       return new AggregationGroupByOperator(_functionContexts, _groupBy, _maxInitialResultHolderCapacity,
-          _numGroupsLimit, _transformPlanNode.run(), numTotalDocs, false);
+          _numGroupsLimit, _offHeapResultHolderThreshold, _transformPlanNode.run(), numTotalDocs, false);
     } else {
       // Use star-tree
       return new AggregationGroupByOperator(_functionContexts, _groupBy, _maxInitialResultHolderCapacity,
-          _numGroupsLimit, _starTreeTransformPlanNode.run(), numTotalDocs, true);
+          _numGroupsLimit, _offHeapResultHolderThreshold, _starTreeTransformPlanNode.run(), numTotalDocs, true);
     }
   }
 
@@ -19,10 +19,21 @@
 package org.apache.pinot.core.plan;
 
 import com.google.common.base.Preconditions;
+import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Selection;
+import org.apache.pinot.common.request.SelectionSort;
+import org.apache.pinot.common.request.transform.TransformExpressionTree;
+import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.io.reader.impl.v1.SortedIndexReader;
+import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.DocIdSetOperator;
+import org.apache.pinot.core.operator.SortedColumnDocIdSetOperator;
+import org.apache.pinot.core.operator.blocks.DocIdSetBlock;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,27 +46,89 @@ public class DocIdSetPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final FilterPlanNode _filterPlanNode;
   private final int _maxDocPerCall;
+  // Only set for selection order-by queries with the first order-by expression on a sorted column
+  private final SortedIndexReader<?> _sortedIndexReader;
+  private final boolean _ascending;
+  private final int _numDocsToKeep;
+  private final boolean _keepTies;
 
   public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest, int maxDocPerCall) {
     Preconditions.checkState(maxDocPerCall > 0 && maxDocPerCall <= MAX_DOC_PER_CALL);
     _indexSegment = indexSegment;
     _filterPlanNode = new FilterPlanNode(_indexSegment, brokerRequest);
     _maxDocPerCall = maxDocPerCall;
+
+    _sortedIndexReader = getSortedIndexReader(indexSegment, brokerRequest);
+    if (_sortedIndexReader != null) {
+      Selection selection = brokerRequest.getSelections();
+      List<SelectionSort> sortSequence = selection.getSelectionSortSequence();
+      _ascending = sortSequence.get(0).isIsAsc();
+      _numDocsToKeep = selection.getOffset() + selection.getSize();
+      _keepTies = sortSequence.size() > 1;
+    } else {
+      _ascending = false;
+      _numDocsToKeep = 0;
+      _keepTies = false;
+    }
   }
 
   public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest) {
     this(indexSegment, brokerRequest, MAX_DOC_PER_CALL);
   }
 
+  /**
+   * Returns the sorted index of the first order-by column if the query is a selection order-by query and the first
+   * order-by expression is a sorted column in the segment, or {@code null} otherwise.
+   */
+  @Nullable
+  private static SortedIndexReader<?> getSortedIndexReader(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+    if (brokerRequest.isSetAggregationsInfo()) {
+      return null;
+    }
+    Selection selection = brokerRequest.getSelections();
+    if (selection == null || selection.getSize() <= 0 || selection.getSelectionSortSequence() == null) {
+      return null;
+    }
+    // No benefit when all the documents need to be kept
+    if (selection.getOffset() + selection.getSize() >= indexSegment.getSegmentMetadata().getTotalDocs()) {
+      return null;
+    }
+    TransformExpressionTree expression =
+        TransformExpressionTree.compileToExpressionTree(selection.getSelectionSortSequence().get(0).getColumn());
+    if (expression.getExpressionType() != TransformExpressionTree.ExpressionType.IDENTIFIER) {
+      return null;
+    }
+    String column = expression.getValue();
+    if (!indexSegment.getPhysicalColumnNames().contains(column)) {
+      return null;
+    }
+    DataSource dataSource = indexSegment.getDataSource(column);
+    if (!dataSource.getDataSourceMetadata().isSorted() || !dataSource.getDataSourceMetadata().isSingleValue()) {
+      return null;
+    }
+    Object invertedIndex = dataSource.getInvertedIndex();
+    return invertedIndex instanceof SortedIndexReader ? (SortedIndexReader<?>) invertedIndex : null;
+  }
+
   @Override
-  public DocIdSetOperator run() {
-    return new DocIdSetOperator(_filterPlanNode.run(), _maxDocPerCall);
+  public BaseOperator<DocIdSetBlock> run() {
+    BaseFilterOperator filterOperator = _filterPlanNode.run();
+    if (_sortedIndexReader != null) {
+      return new SortedColumnDocIdSetOperator(filterOperator, _sortedIndexReader,
+          _indexSegment.getSegmentMetadata().getTotalDocs(), _ascending, _numDocsToKeep, _keepTies, _maxDocPerCall);
+    } else {
+      return new DocIdSetOperator(filterOperator, _maxDocPerCall);
+    }
   }
 
   @Override
   public void showTree(String prefix) {
     LOGGER.debug(prefix + "DocIdSetPlanNode Plan Node :");
-    LOGGER.debug(prefix + "Operator: DocIdSetOperator");
+    if (_sortedIndexReader != null) {
+      LOGGER.debug(prefix + "Operator: SortedColumnDocIdSetOperator");
+    } else {
+      LOGGER.debug(prefix + "Operator: DocIdSetOperator");
+    }
     LOGGER.debug(prefix + "Argument 0: IndexSegment - " + _indexSegment.getSegmentName());
     LOGGER.debug(prefix + "Argument 1: FilterPlanNode:");
     _filterPlanNode.showTree(prefix + "    ");
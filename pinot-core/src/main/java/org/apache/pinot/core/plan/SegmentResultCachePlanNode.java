@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.CachedResultsOperator;
+import org.apache.pinot.core.operator.query.SegmentResultCacheOperator;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.executor.CachedSegmentResult;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachePlanNode</code> class provides the execution plan for aggregation and aggregation
+ * group-by query on a single segment with the {@link SegmentResultCache}.
+ * <p>If the result for the segment is already cached, directly returns the cached result without planning the query
+ * on the segment; otherwise, executes the underlying plan and puts the result into the cache.
+ */
+public class SegmentResultCachePlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachePlanNode.class);
+
+  private final BrokerRequest _brokerRequest;
+  private final CachedSegmentResult _cachedSegmentResult;
+  private final PlanNode _planNode;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.CacheKey _cacheKey;
+
+  private SegmentResultCachePlanNode(BrokerRequest brokerRequest, @Nullable CachedSegmentResult cachedSegmentResult,
+      @Nullable PlanNode planNode, @Nullable SegmentResultCache segmentResultCache,
+      @Nullable SegmentResultCache.CacheKey cacheKey) {
+    _brokerRequest = brokerRequest;
+    _cachedSegmentResult = cachedSegmentResult;
+    _planNode = planNode;
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = cacheKey;
+  }
+
+  /**
+   * Returns the plan node for a segment whose result is cached.
+   */
+  public static SegmentResultCachePlanNode forCachedResult(BrokerRequest brokerRequest,
+      CachedSegmentResult cachedSegmentResult) {
+    return new SegmentResultCachePlanNode(brokerRequest, cachedSegmentResult, null, null, null);
+  }
+
+  /**
+   * Returns the plan node for a segment whose result is not cached, which caches the result of the given plan node.
+   */
+  public static SegmentResultCachePlanNode forCacheMiss(BrokerRequest brokerRequest, PlanNode planNode,
+      SegmentResultCache segmentResultCache, SegmentResultCache.CacheKey cacheKey) {
+    return new SegmentResultCachePlanNode(brokerRequest, null, planNode, segmentResultCache, cacheKey);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Operator<IntermediateResultsBlock> run() {
+    if (_cachedSegmentResult != null) {
+      return new CachedResultsOperator(AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest),
+          _cachedSegmentResult);
+    } else {
+      return new SegmentResultCacheOperator(_planNode.run(), _segmentResultCache, _cacheKey);
+    }
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug(prefix + "Segment Result Cache Plan Node:");
+    if (_cachedSegmentResult != null) {
+      LOGGER.debug(prefix + "Operator: CachedResultsOperator");
+    } else {
+      LOGGER.debug(prefix + "Operator: SegmentResultCacheOperator");
+      LOGGER.debug(prefix + "Argument 0: PlanNode -");
+      _planNode.showTree(prefix + "    ");
+    }
+  }
+}
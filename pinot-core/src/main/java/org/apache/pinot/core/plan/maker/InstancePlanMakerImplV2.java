@@ -23,6 +23,7 @@ import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.request.AggregationInfo;
 import org.apache.pinot.common.request.BrokerRequest;
@@ -39,9 +40,12 @@ import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.MetadataBasedAggregationPlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
+import org.apache.pinot.core.query.executor.CachedSegmentResult;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.util.QueryOptions;
 import org.slf4j.Logger;
@@ -58,21 +62,34 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public static final int DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY = 10_000;
   public static final String NUM_GROUPS_LIMIT = "num.groups.limit";
   public static final int DEFAULT_NUM_GROUPS_LIMIT = 100_000;
+  public static final String OFF_HEAP_RESULT_HOLDER_THRESHOLD_KEY = "offheap.group.holder.threshold";
+  // NOTE: the number of possible groups is capped by the num groups limit, so the threshold should not exceed it
+  public static final int DEFAULT_OFF_HEAP_RESULT_HOLDER_THRESHOLD = 50_000;
 
   private final int _maxInitialResultHolderCapacity;
   // Limit on number of groups stored for each segment, beyond which no new group will be created
   private final int _numGroupsLimit;
+  // Minimum number of possible groups for a segment to store the group-by results off-heap
+  private final int _offHeapResultHolderThreshold;
 
   @VisibleForTesting
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
     _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
+    _offHeapResultHolderThreshold = DEFAULT_OFF_HEAP_RESULT_HOLDER_THRESHOLD;
   }
 
   @VisibleForTesting
   public InstancePlanMakerImplV2(int maxInitialResultHolderCapacity, int numGroupsLimit) {
+    this(maxInitialResultHolderCapacity, numGroupsLimit, DEFAULT_OFF_HEAP_RESULT_HOLDER_THRESHOLD);
+  }
+
+  @VisibleForTesting
+  public InstancePlanMakerImplV2(int maxInitialResultHolderCapacity, int numGroupsLimit,
+      int offHeapResultHolderThreshold) {
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _offHeapResultHolderThreshold = offHeapResultHolderThreshold;
   }
 
   /**
@@ -80,6 +97,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * <ul>
    *   <li>Set limit on the initial result holder capacity</li>
    *   <li>Set limit on number of groups returned from each segment and combined result</li>
+   *   <li>Set threshold on number of groups to store the group-by results off-heap</li>
    * </ul>
    *
    * @param queryExecutorConfig Query executor configuration
@@ -88,11 +106,18 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _maxInitialResultHolderCapacity = queryExecutorConfig.getConfig()
         .getInt(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY, DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
     _numGroupsLimit = queryExecutorConfig.getConfig().getInt(NUM_GROUPS_LIMIT, DEFAULT_NUM_GROUPS_LIMIT);
+    _offHeapResultHolderThreshold = queryExecutorConfig.getConfig()
+        .getInt(OFF_HEAP_RESULT_HOLDER_THRESHOLD_KEY, DEFAULT_OFF_HEAP_RESULT_HOLDER_THRESHOLD);
     Preconditions.checkState(_maxInitialResultHolderCapacity <= _numGroupsLimit,
         "Invalid configuration: maxInitialResultHolderCapacity: %d must be smaller or equal to numGroupsLimit: %d",
         _maxInitialResultHolderCapacity, _numGroupsLimit);
-    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}",
-        _maxInitialResultHolderCapacity, _numGroupsLimit);
+    if (_offHeapResultHolderThreshold > _numGroupsLimit) {
+      LOGGER.warn("offHeapResultHolderThreshold: {} is larger than numGroupsLimit: {}, off-heap result holders will "
+          + "never be used", _offHeapResultHolderThreshold, _numGroupsLimit);
+    }
+    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, "
+            + "offHeapResultHolderThreshold: {}", _maxInitialResultHolderCapacity, _numGroupsLimit,
+        _offHeapResultHolderThreshold);
   }
 
   @Override
@@ -103,10 +128,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
         // new Combine operator only when GROUP_BY_MODE explicitly set to SQL
         if (queryOptions.isGroupByModeSQL()) {
           return new AggregationGroupByOrderByPlanNode(indexSegment, brokerRequest, _maxInitialResultHolderCapacity,
-              _numGroupsLimit);
+              _numGroupsLimit, _offHeapResultHolderThreshold);
         }
         return new AggregationGroupByPlanNode(indexSegment, brokerRequest, _maxInitialResultHolderCapacity,
-            _numGroupsLimit);
+            _numGroupsLimit, _offHeapResultHolderThreshold);
       } else {
         if (isFitForMetadataBasedPlan(brokerRequest, indexSegment)) {
           return new MetadataBasedAggregationPlanNode(indexSegment, brokerRequest);
@@ -126,6 +151,12 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   @Override
   public Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
       ExecutorService executorService, long timeOutMs) {
+    return makeInterSegmentPlan(segmentDataManagers, brokerRequest, executorService, timeOutMs, null);
+  }
+
+  @Override
+  public Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
+      ExecutorService executorService, long timeOutMs, @Nullable SegmentResultCache segmentResultCache) {
     // TODO: pass in List<IndexSegment> directly.
     List<IndexSegment> indexSegments = new ArrayList<>(segmentDataManagers.size());
     for (SegmentDataManager segmentDataManager : segmentDataManagers) {
@@ -133,8 +164,31 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
 
     List<PlanNode> planNodes = new ArrayList<>();
-    for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+    if (segmentResultCache != null && SegmentResultCache.isCacheable(brokerRequest)) {
+      String tableNameWithType = brokerRequest.getQuerySource().getTableName();
+      BrokerRequest queryFingerprint = SegmentResultCache.getQueryFingerprint(brokerRequest);
+      for (IndexSegment indexSegment : indexSegments) {
+        // No need to cache the results served with metadata or dictionary
+        if (!SegmentResultCache.isCacheable(indexSegment) || isFitForMetadataBasedPlan(brokerRequest, indexSegment)
+            || isFitForDictionaryBasedPlan(brokerRequest, indexSegment)) {
+          planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+          continue;
+        }
+        SegmentResultCache.CacheKey cacheKey =
+            new SegmentResultCache.CacheKey(tableNameWithType, indexSegment, queryFingerprint);
+        CachedSegmentResult cachedSegmentResult = segmentResultCache.get(cacheKey);
+        if (cachedSegmentResult != null) {
+          planNodes.add(SegmentResultCachePlanNode.forCachedResult(brokerRequest, cachedSegmentResult));
+        } else {
+          planNodes.add(SegmentResultCachePlanNode
+              .forCacheMiss(brokerRequest, makeInnerSegmentPlan(indexSegment, brokerRequest), segmentResultCache,
+                  cacheKey));
+        }
+      }
+    } else {
+      for (IndexSegment indexSegment : indexSegments) {
+        planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+      }
     }
     CombinePlanNode combinePlanNode =
         new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _numGroupsLimit);
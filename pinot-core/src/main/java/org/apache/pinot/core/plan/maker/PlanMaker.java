@@ -20,11 +20,13 @@ package org.apache.pinot.core.plan.maker;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 
 
 /**
@@ -52,4 +54,18 @@ public interface PlanMaker {
    */
   Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
       ExecutorService executorService, long timeOutMs);
+
+  /**
+   * Make instance level {@link Plan} which contains execution plan on multiple segments, where the per-segment results
+   * are read from and written to the given {@link SegmentResultCache} if it is not {@code null}.
+   *
+   * @param segmentDataManagers list of segment data manager.
+   * @param brokerRequest broker request.
+   * @param executorService executor service.
+   * @param timeOutMs time out in milliseconds.
+   * @param segmentResultCache segment result cache, or {@code null} if the cache is not enabled.
+   * @return instance level plan.
+   */
+  Plan makeInterSegmentPlan(List<SegmentDataManager> segmentDataManagers, BrokerRequest brokerRequest,
+      ExecutorService executorService, long timeOutMs, @Nullable SegmentResultCache segmentResultCache);
 }
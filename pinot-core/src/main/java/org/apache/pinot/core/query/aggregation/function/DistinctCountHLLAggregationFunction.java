@@ -134,13 +134,13 @@ public class DistinctCountHLLAggregationFunction implements AggregationFunction<
         HyperLogLog hyperLogLog = aggregationResultHolder.getResult();
         if (hyperLogLog != null) {
           for (int i = 0; i < length; i++) {
-            hyperLogLog.addAll(ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytesValues[i]));
+            ObjectSerDeUtils.mergeHyperLogLog(hyperLogLog, bytesValues[i]);
           }
         } else {
           hyperLogLog = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytesValues[0]);
           aggregationResultHolder.setValue(hyperLogLog);
           for (int i = 1; i < length; i++) {
-            hyperLogLog.addAll(ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytesValues[i]));
+            ObjectSerDeUtils.mergeHyperLogLog(hyperLogLog, bytesValues[i]);
           }
         }
       } catch (Exception e) {
@@ -191,13 +191,13 @@ public class DistinctCountHLLAggregationFunction implements AggregationFunction<
         byte[][] bytesValues = blockValSet.getBytesValuesSV();
         try {
           for (int i = 0; i < length; i++) {
-            HyperLogLog value = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytesValues[i]);
             int groupKey = groupKeyArray[i];
             HyperLogLog hyperLogLog = groupByResultHolder.getResult(groupKey);
             if (hyperLogLog != null) {
-              hyperLogLog.addAll(value);
+              ObjectSerDeUtils.mergeHyperLogLog(hyperLogLog, bytesValues[i]);
             } else {
-              groupByResultHolder.setValueForKey(groupKey, value);
+              groupByResultHolder
+                  .setValueForKey(groupKey, ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytesValues[i]));
             }
           }
         } catch (Exception e) {
@@ -266,11 +266,10 @@ public class DistinctCountHLLAggregationFunction implements AggregationFunction<
         byte[][] bytesValues = blockValSet.getBytesValuesSV();
         try {
           for (int i = 0; i < length; i++) {
-            HyperLogLog value = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytesValues[i]);
             for (int groupKey : groupKeysArray[i]) {
               HyperLogLog hyperLogLog = groupByResultHolder.getResult(groupKey);
               if (hyperLogLog != null) {
-                hyperLogLog.addAll(value);
+                ObjectSerDeUtils.mergeHyperLogLog(hyperLogLog, bytesValues[i]);
               } else {
                 // Create a new HyperLogLog for the group
                 groupByResultHolder
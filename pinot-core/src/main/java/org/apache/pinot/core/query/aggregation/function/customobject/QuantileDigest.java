@@ -63,6 +63,12 @@ public class QuantileDigest {
       + Long.BYTES                                          // Value
       + Double.BYTES;                                       // Weight
 
+  // Leading byte of the compact serialized bytes. The legacy serialized bytes start with the max error (non-negative
+  // double), whose leading byte can never be 0xFF.
+  private static final byte COMPACT_ENCODING_MARKER = (byte) 0xFF;
+  private static final int COMPACT_HEADER_BYTE_SIZE = Byte.BYTES  // Marker
+      + HEADER_BYTE_SIZE - Integer.BYTES;                           // Header without node count (variable-length)
+
   // needs to be such that Math.exp(alpha * seconds) does not grow too big
   static final long RESCALE_THRESHOLD_SECONDS = 50;
   static final double ZERO_WEIGHT_THRESHOLD = 1e-5;
@@ -359,11 +365,91 @@ public class QuantileDigest {
     byteBuffer.putDouble(node.weightedCount);
   }
 
+  /**
+   * Returns the size of the compact serialized bytes, see {@link #toCompactBytes()}.
+   */
+  public int getCompactByteSize() {
+    int[] byteSize = {COMPACT_HEADER_BYTE_SIZE + getVarLongByteSize(totalNodeCount)};
+    postOrderTraversal(root, node -> {
+      byteSize[0] += getCompactNodeByteSize(node);
+      return true;
+    });
+    return byteSize[0];
+  }
+
+  /**
+   * Serializes the digest into the compact format, where the node values and the integral node weights are
+   * variable-length encoded instead of taking 16 bytes per node. The compact bytes can be de-serialized with
+   * {@link #fromBytes(byte[])} and {@link #fromByteBuffer(ByteBuffer)}, which accept both formats.
+   */
+  public byte[] toCompactBytes() {
+    byte[] bytes = new byte[getCompactByteSize()];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.put(COMPACT_ENCODING_MARKER);
+    byteBuffer.putDouble(maxError);
+    byteBuffer.putDouble(alpha);
+    byteBuffer.putLong(landmarkInSeconds);
+    byteBuffer.putLong(min);
+    byteBuffer.putLong(max);
+    putVarLong(byteBuffer, totalNodeCount);
+    postOrderTraversal(root, node -> {
+      serializeNodeCompact(byteBuffer, node);
+      return true;
+    });
+    return bytes;
+  }
+
+  private static boolean hasIntegralWeight(Node node) {
+    double weightedCount = node.weightedCount;
+    return weightedCount >= 0 && weightedCount == (long) weightedCount;
+  }
+
+  private static int getCompactNodeByteSize(Node node) {
+    int byteSize = Byte.BYTES + Byte.BYTES + getVarLongByteSize(zigZagEncode(bitsToLong(node.bits)));
+    if (hasIntegralWeight(node)) {
+      byteSize += getVarLongByteSize((long) node.weightedCount);
+    } else {
+      byteSize += Double.BYTES;
+    }
+    return byteSize;
+  }
+
+  private static void serializeNodeCompact(ByteBuffer byteBuffer, Node node) {
+    byte flags = 0;
+    if (node.left != null) {
+      flags |= Flags.HAS_LEFT;
+    }
+    if (node.right != null) {
+      flags |= Flags.HAS_RIGHT;
+    }
+    boolean hasIntegralWeight = hasIntegralWeight(node);
+    if (hasIntegralWeight) {
+      flags |= Flags.INTEGRAL_WEIGHT;
+    }
+
+    byteBuffer.put(flags);
+    byteBuffer.put((byte) node.level);
+    putVarLong(byteBuffer, zigZagEncode(bitsToLong(node.bits)));
+    if (hasIntegralWeight) {
+      putVarLong(byteBuffer, (long) node.weightedCount);
+    } else {
+      byteBuffer.putDouble(node.weightedCount);
+    }
+  }
+
   public static QuantileDigest fromBytes(byte[] bytes) {
     return fromByteBuffer(ByteBuffer.wrap(bytes));
   }
 
+  /**
+   * De-serializes the digest from either the legacy format ({@link #toBytes()}) or the compact format
+   * ({@link #toCompactBytes()}).
+   */
   public static QuantileDigest fromByteBuffer(ByteBuffer byteBuffer) {
+    boolean compact = byteBuffer.get(byteBuffer.position()) == COMPACT_ENCODING_MARKER;
+    if (compact) {
+      byteBuffer.get();
+    }
     double maxError = byteBuffer.getDouble();
     double alpha = byteBuffer.getDouble();
 
@@ -371,7 +457,7 @@ public class QuantileDigest {
     quantileDigest.landmarkInSeconds = byteBuffer.getLong();
     quantileDigest.min = byteBuffer.getLong();
     quantileDigest.max = byteBuffer.getLong();
-    int numNodes = byteBuffer.getInt();
+    int numNodes = compact ? (int) getVarLong(byteBuffer) : byteBuffer.getInt();
     quantileDigest.totalNodeCount = numNodes;
     if (numNodes == 0) {
       return quantileDigest;
@@ -381,8 +467,15 @@ public class QuantileDigest {
     for (int i = 0; i < numNodes; i++) {
       int flags = byteBuffer.get();
       int level = byteBuffer.get() & 0xFF;
-      long bits = byteBuffer.getLong();
-      double weightedCount = byteBuffer.getDouble();
+      long bits;
+      double weightedCount;
+      if (compact) {
+        bits = longToBits(zigZagDecode(getVarLong(byteBuffer)));
+        weightedCount = (flags & Flags.INTEGRAL_WEIGHT) != 0 ? getVarLong(byteBuffer) : byteBuffer.getDouble();
+      } else {
+        bits = byteBuffer.getLong();
+        weightedCount = byteBuffer.getDouble();
+      }
 
       Node node = new Node(bits, level, weightedCount);
       if ((flags & Flags.HAS_RIGHT) != 0) {
@@ -894,6 +987,50 @@ public class QuantileDigest {
     return bits ^ 0x8000_0000_0000_0000L;
   }
 
+  /**
+   * Maps signed values to unsigned values so that the values with small absolute value have short variable-length
+   * encoding.
+   */
+  private static long zigZagEncode(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long zigZagDecode(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int getVarLongByteSize(long value) {
+    int byteSize = 1;
+    while ((value & ~0x7FL) != 0) {
+      byteSize++;
+      value >>>= 7;
+    }
+    return byteSize;
+  }
+
+  /**
+   * Writes the value as unsigned variable-length long (7 bits per byte, least significant group first).
+   */
+  private static void putVarLong(ByteBuffer byteBuffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      byteBuffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    byteBuffer.put((byte) value);
+  }
+
+  private static long getVarLong(ByteBuffer byteBuffer) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = byteBuffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
   public static class Bucket {
     private double count;
     private double mean;
@@ -1041,6 +1178,8 @@ public class QuantileDigest {
   private static class Flags {
     public static final int HAS_LEFT = 1 << 0;
     public static final int HAS_RIGHT = 1 << 1;
+    // Only used in the compact format
+    public static final int INTEGRAL_WEIGHT = 1 << 2;
   }
 
   // ----------------------------
@@ -18,7 +18,11 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 
 
@@ -26,17 +30,28 @@ import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
  * This class holds the result of aggregation group by queries.
  * It provides an iterator over group-by keys, and provides a method
  * to get the aggregation result for the given group-by key.
+ * <p>Call {@link #close()} after consuming the result to release the memory of the off-heap result holders (if any).
  */
-public class AggregationGroupByResult {
+public class AggregationGroupByResult implements Closeable {
   private final GroupKeyGenerator _groupKeyGenerator;
   private final AggregationFunction[] _aggregationFunctions;
   private final GroupByResultHolder[] _resultHolders;
+  private final PinotDataBufferMemoryManager _memoryManager;
 
   public AggregationGroupByResult(GroupKeyGenerator groupKeyGenerator, AggregationFunction[] aggregationFunctions,
       GroupByResultHolder[] resultHolders) {
+    this(groupKeyGenerator, aggregationFunctions, resultHolders, null);
+  }
+
+  /**
+   * @param memoryManager Memory manager of the off-heap result holders, or {@code null} if all of them are on-heap
+   */
+  public AggregationGroupByResult(GroupKeyGenerator groupKeyGenerator, AggregationFunction[] aggregationFunctions,
+      GroupByResultHolder[] resultHolders, @Nullable PinotDataBufferMemoryManager memoryManager) {
     _groupKeyGenerator = groupKeyGenerator;
     _aggregationFunctions = aggregationFunctions;
     _resultHolders = resultHolders;
+    _memoryManager = memoryManager;
   }
 
   /**
@@ -67,4 +82,15 @@ public class AggregationGroupByResult {
   public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
     return _aggregationFunctions[index].extractGroupByResult(_resultHolders[index], groupKey._groupId);
   }
+
+  /**
+   * Releases the memory of the off-heap result holders. The result cannot be accessed after it is closed.
+   */
+  @Override
+  public void close()
+      throws IOException {
+    if (_memoryManager != null) {
+      _memoryManager.close();
+    }
+  }
 }
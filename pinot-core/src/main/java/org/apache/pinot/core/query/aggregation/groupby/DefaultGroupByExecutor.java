@@ -26,6 +26,8 @@ import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.request.GroupBy;
 import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.io.writer.impl.DirectBufferMemoryManager;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
@@ -55,6 +57,8 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
   protected final TransformExpressionTree[] _aggregationExpressions;
   protected final GroupKeyGenerator _groupKeyGenerator;
   protected final GroupByResultHolder[] _resultHolders;
+  // Memory manager for the off-heap result holders, null if all the result holders are on-heap
+  protected final PinotDataBufferMemoryManager _memoryManager;
   protected final boolean _hasMVGroupByExpression;
   protected final boolean _hasNoDictionaryGroupByExpression;
   protected final int[] _svGroupKeys;
@@ -67,10 +71,12 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
    * @param groupBy Group by from broker request
    * @param maxInitialResultHolderCapacity Maximum initial capacity for the result holder
    * @param numGroupsLimit Limit on number of aggregation groups returned in the result
+   * @param offHeapResultHolderThreshold Minimum number of possible groups to store double results off-heap
    * @param transformOperator Transform operator
    */
   public DefaultGroupByExecutor(@Nonnull AggregationFunctionContext[] functionContexts, @Nonnull GroupBy groupBy,
-      int maxInitialResultHolderCapacity, int numGroupsLimit, @Nonnull TransformOperator transformOperator) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, int offHeapResultHolderThreshold,
+      @Nonnull TransformOperator transformOperator) {
     // Initialize aggregation functions and expressions
     _numFunctions = functionContexts.length;
     _functions = new AggregationFunction[_numFunctions];
@@ -115,10 +121,22 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
     // Initialize result holders
     int maxNumResults = _groupKeyGenerator.getGlobalGroupKeyUpperBound();
     int initialCapacity = Math.min(maxNumResults, maxInitialResultHolderCapacity);
+    PinotDataBufferMemoryManager memoryManager = null;
     _resultHolders = new GroupByResultHolder[_numFunctions];
     for (int i = 0; i < _numFunctions; i++) {
-      _resultHolders[i] = _functions[i].createGroupByResultHolder(initialCapacity, maxNumResults);
+      GroupByResultHolder resultHolder = _functions[i].createGroupByResultHolder(initialCapacity, maxNumResults);
+      // For large number of groups, store the double results off-heap to reduce the GC pressure
+      if (maxNumResults >= offHeapResultHolderThreshold && resultHolder instanceof DoubleGroupByResultHolder) {
+        if (memoryManager == null) {
+          memoryManager = new DirectBufferMemoryManager();
+        }
+        resultHolder = new OffHeapDoubleGroupByResultHolder(initialCapacity, maxNumResults,
+            ((DoubleGroupByResultHolder) resultHolder).getDefaultValue(), memoryManager,
+            "GroupByResultHolder: " + _functions[i].getType());
+      }
+      _resultHolders[i] = resultHolder;
     }
+    _memoryManager = memoryManager;
 
     // Initialize map from document Id to group key
     if (_hasMVGroupByExpression) {
@@ -173,6 +191,6 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
 
   @Override
   public AggregationGroupByResult getResult() {
-    return new AggregationGroupByResult(_groupKeyGenerator, _functions, _resultHolders);
+    return new AggregationGroupByResult(_groupKeyGenerator, _functions, _resultHolders, _memoryManager);
   }
 }
@@ -18,10 +18,6 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-import it.unimi.dsi.fastutil.longs.Long2IntMap;
-import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
@@ -32,6 +28,7 @@ import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
+import org.apache.pinot.core.query.aggregation.groupby.utils.LongToGroupIdMap;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
@@ -45,12 +42,10 @@ import org.apache.pinot.core.segment.index.readers.Dictionary;
  *     group id. (ARRAY_BASED)
  *   </li>
  *   <li>
- *     If the maximum number of possible group keys is larger than the threshold, but still fit into integer, generate
- *     integer raw keys and map them onto contiguous group ids. (INT_MAP_BASED)
- *   </li>
- *   <li>
- *     If the maximum number of possible group keys cannot fit into than integer, but still fit into long, generate long
- *     raw keys and map them onto contiguous group ids. (LONG_MAP_BASED)
+ *     If the maximum number of possible group keys is larger than the threshold, but still fit into long, generate long
+ *     raw keys and map them onto contiguous group ids with a primitive open addressing hash map. For blocks with only
+ *     single-value group-by columns, the raw keys of the whole block are packed column by column and looked up in a
+ *     batch. (LONG_MAP_BASED)
  *   </li>
  *   <li>
  *     If the maximum number of possible group keys cannot fit into long, use int arrays as the raw keys to store the
@@ -111,16 +106,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       _globalGroupIdUpperBound = numGroupsLimit;
       _rawKeyHolder = new ArrayMapBasedHolder(_globalGroupIdUpperBound);
     } else {
-      if (cardinalityProduct > Integer.MAX_VALUE) {
-        _globalGroupIdUpperBound = numGroupsLimit;
+      _globalGroupIdUpperBound = (int) Math.min(cardinalityProduct, numGroupsLimit);
+      if (cardinalityProduct > arrayBasedThreshold) {
         _rawKeyHolder = new LongMapBasedHolder(_globalGroupIdUpperBound);
       } else {
-        _globalGroupIdUpperBound = Math.min((int) cardinalityProduct, numGroupsLimit);
-        if (cardinalityProduct > arrayBasedThreshold) {
-          _rawKeyHolder = new IntMapBasedHolder(_globalGroupIdUpperBound);
-        } else {
-          _rawKeyHolder = new ArrayBasedHolder();
-        }
+        _rawKeyHolder = new ArrayBasedHolder();
       }
     }
   }
@@ -258,83 +248,6 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     }
   }
 
-  private class IntMapBasedHolder implements RawKeyHolder {
-    private final Int2IntOpenHashMap _rawKeyToGroupIdMap;
-
-    private int _numGroups = 0;
-
-    public IntMapBasedHolder(int initialSize) {
-      _rawKeyToGroupIdMap = new Int2IntOpenHashMap(initialSize);
-      _rawKeyToGroupIdMap.defaultReturnValue(INVALID_ID);
-    }
-
-    @Override
-    public void processSingleValue(int numDocs, @Nonnull int[] outGroupIds) {
-      for (int i = 0; i < numDocs; i++) {
-        int rawKey = 0;
-        for (int j = _numGroupByExpressions - 1; j >= 0; j--) {
-          rawKey = rawKey * _cardinalities[j] + _singleValueDictIds[j][i];
-        }
-        outGroupIds[i] = getGroupId(rawKey);
-      }
-    }
-
-    @Override
-    public void processMultiValue(int numDocs, @Nonnull int[][] outGroupIds) {
-      for (int i = 0; i < numDocs; i++) {
-        int[] groupIds = getIntRawKeys(i);
-        int length = groupIds.length;
-        for (int j = 0; j < length; j++) {
-          groupIds[j] = getGroupId(groupIds[j]);
-        }
-        outGroupIds[i] = groupIds;
-      }
-    }
-
-    private int getGroupId(int rawKey) {
-      int groupId = _rawKeyToGroupIdMap.get(rawKey);
-      if (groupId == INVALID_ID) {
-        if (_numGroups < _globalGroupIdUpperBound) {
-          groupId = _numGroups;
-          _rawKeyToGroupIdMap.put(rawKey, _numGroups++);
-        }
-      }
-      return groupId;
-    }
-
-    @Override
-    public int getGroupIdUpperBound() {
-      return _numGroups;
-    }
-
-    @Nonnull
-    @Override
-    public Iterator<GroupKey> iterator() {
-      return new Iterator<GroupKey>() {
-        private final ObjectIterator<Int2IntMap.Entry> _iterator = _rawKeyToGroupIdMap.int2IntEntrySet().fastIterator();
-        private final GroupKey _groupKey = new GroupKey();
-
-        @Override
-        public boolean hasNext() {
-          return _iterator.hasNext();
-        }
-
-        @Override
-        public GroupKey next() {
-          Int2IntMap.Entry entry = _iterator.next();
-          _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getIntKey());
-          return _groupKey;
-        }
-
-        @Override
-        public void remove() {
-          throw new UnsupportedOperationException();
-        }
-      };
-    }
-  }
-
   /**
    * Helper method to calculate raw keys that can fit into integer for the given index.
    *
@@ -438,24 +351,38 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   }
 
   private class LongMapBasedHolder implements RawKeyHolder {
-    private final Long2IntOpenHashMap _rawKeyToGroupIdMap;
+    private final LongToGroupIdMap _rawKeyToGroupIdMap;
 
-    private int _numGroups = 0;
+    // Reusable buffer for the raw keys of a block
+    private long[] _rawKeys = new long[0];
 
     public LongMapBasedHolder(int initialSize) {
-      _rawKeyToGroupIdMap = new Long2IntOpenHashMap(initialSize);
-      _rawKeyToGroupIdMap.defaultReturnValue(INVALID_ID);
+      _rawKeyToGroupIdMap = new LongToGroupIdMap(initialSize, _globalGroupIdUpperBound);
     }
 
     @Override
     public void processSingleValue(int numDocs, @Nonnull int[] outGroupIds) {
+      if (_rawKeys.length < numDocs) {
+        _rawKeys = new long[numDocs];
+      }
+      long[] rawKeys = _rawKeys;
+
+      // Pack the dictionary ids into raw keys one column at a time, which keeps the inner loops simple enough to be
+      // unrolled by the JIT compiler
+      int lastIndex = _numGroupByExpressions - 1;
+      int[] lastDictIds = _singleValueDictIds[lastIndex];
       for (int i = 0; i < numDocs; i++) {
-        long rawKey = 0L;
-        for (int j = _numGroupByExpressions - 1; j >= 0; j--) {
-          rawKey = rawKey * _cardinalities[j] + _singleValueDictIds[j][i];
+        rawKeys[i] = lastDictIds[i];
+      }
+      for (int j = lastIndex - 1; j >= 0; j--) {
+        long cardinality = _cardinalities[j];
+        int[] dictIds = _singleValueDictIds[j];
+        for (int i = 0; i < numDocs; i++) {
+          rawKeys[i] = rawKeys[i] * cardinality + dictIds[i];
         }
-        outGroupIds[i] = getGroupId(rawKey);
       }
+
+      _rawKeyToGroupIdMap.getGroupIds(rawKeys, numDocs, outGroupIds);
     }
 
     @Override
@@ -465,46 +392,38 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         int length = rawKeys.length;
         int[] groupIds = new int[length];
         for (int j = 0; j < length; j++) {
-          groupIds[j] = getGroupId(rawKeys[j]);
+          groupIds[j] = _rawKeyToGroupIdMap.getGroupId(rawKeys[j]);
         }
         outGroupIds[i] = groupIds;
       }
     }
 
-    private int getGroupId(long rawKey) {
-      int groupId = _rawKeyToGroupIdMap.get(rawKey);
-      if (groupId == INVALID_ID) {
-        if (_numGroups < _globalGroupIdUpperBound) {
-          groupId = _numGroups;
-          _rawKeyToGroupIdMap.put(rawKey, _numGroups++);
-        }
-      }
-      return groupId;
-    }
-
     @Override
     public int getGroupIdUpperBound() {
-      return _numGroups;
+      return _rawKeyToGroupIdMap.getNumGroups();
     }
 
     @Nonnull
     @Override
     public Iterator<GroupKey> iterator() {
       return new Iterator<GroupKey>() {
-        private final ObjectIterator<Long2IntMap.Entry> _iterator =
-            _rawKeyToGroupIdMap.long2IntEntrySet().fastIterator();
+        private final int _numGroups = _rawKeyToGroupIdMap.getNumGroups();
+        private int _currentGroupId;
         private final GroupKey _groupKey = new GroupKey();
 
         @Override
         public boolean hasNext() {
-          return _iterator.hasNext();
+          return _currentGroupId < _numGroups;
         }
 
         @Override
         public GroupKey next() {
-          Long2IntMap.Entry entry = _iterator.next();
-          _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getLongKey());
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          _groupKey._groupId = _currentGroupId;
+          _groupKey._stringKey = getGroupKey(_rawKeyToGroupIdMap.getKey(_currentGroupId));
+          _currentGroupId++;
           return _groupKey;
         }
 
@@ -597,12 +516,12 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
    */
   private String getGroupKey(long rawKey) {
     int cardinality = _cardinalities[0];
-    StringBuilder groupKeyBuilder = new StringBuilder(_dictionaries[0].get((int) (rawKey % cardinality)).toString());
+    StringBuilder groupKeyBuilder = new StringBuilder(_dictionaries[0].getStringValue((int) (rawKey % cardinality)));
     rawKey /= cardinality;
     for (int i = 1; i < _numGroupByExpressions; i++) {
       groupKeyBuilder.append(GroupKeyGenerator.DELIMITER);
       cardinality = _cardinalities[i];
-      groupKeyBuilder.append(_dictionaries[i].get((int) (rawKey % cardinality)));
+      groupKeyBuilder.append(_dictionaries[i].getStringValue((int) (rawKey % cardinality)));
       rawKey /= cardinality;
     }
     return groupKeyBuilder.toString();
@@ -50,6 +50,13 @@ public class DoubleGroupByResultHolder implements GroupByResultHolder {
     }
   }
 
+  /**
+   * Returns the default value of un-initialized results.
+   */
+  public double getDefaultValue() {
+    return _defaultValue;
+  }
+
   @Override
   public void ensureCapacity(int capacity) {
     Preconditions.checkArgument(capacity <= _maxCapacity);
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Result Holder implemented using off-heap direct memory.
+ * <p>Functionally equivalent to {@link DoubleGroupByResultHolder}, but stores the results in a {@link PinotDataBuffer}
+ * instead of an on-heap double array, so that group-by queries with a very large number of groups do not put pressure
+ * on the heap. The buffers are allocated through the given {@link PinotDataBufferMemoryManager}, and are released
+ * when the memory manager is closed once the results are consumed.
+ */
+public class OffHeapDoubleGroupByResultHolder implements GroupByResultHolder {
+  private final int _maxCapacity;
+  private final double _defaultValue;
+  private final PinotDataBufferMemoryManager _memoryManager;
+  private final String _allocationContext;
+
+  private int _resultHolderCapacity;
+  private PinotDataBuffer _resultBuffer;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param initialCapacity Initial capacity of the result holder
+   * @param maxCapacity Maximum capacity of the result holder
+   * @param defaultValue Default value of un-initialized results
+   * @param memoryManager Memory manager to allocate the result buffers
+   * @param allocationContext Context of the allocation
+   */
+  public OffHeapDoubleGroupByResultHolder(int initialCapacity, int maxCapacity, double defaultValue,
+      PinotDataBufferMemoryManager memoryManager, String allocationContext) {
+    _maxCapacity = maxCapacity;
+    _defaultValue = defaultValue;
+    _memoryManager = memoryManager;
+    _allocationContext = allocationContext;
+
+    _resultHolderCapacity = initialCapacity;
+    _resultBuffer = allocateBuffer(initialCapacity);
+    fillDefaultValue(0, initialCapacity);
+  }
+
+  @Override
+  public void ensureCapacity(int capacity) {
+    Preconditions.checkArgument(capacity <= _maxCapacity);
+
+    if (capacity > _resultHolderCapacity) {
+      int copyLength = _resultHolderCapacity;
+      _resultHolderCapacity = Math.max(_resultHolderCapacity * 2, capacity);
+
+      // Cap the growth to maximum possible number of group keys
+      _resultHolderCapacity = Math.min(_resultHolderCapacity, _maxCapacity);
+
+      PinotDataBuffer current = _resultBuffer;
+      _resultBuffer = allocateBuffer(_resultHolderCapacity);
+      current.copyTo(0, _resultBuffer, 0, (long) copyLength * Double.BYTES);
+      releaseBuffer(current);
+
+      fillDefaultValue(copyLength, _resultHolderCapacity);
+    }
+  }
+
+  @Override
+  public double getDoubleResult(int groupKey) {
+    if (groupKey == GroupKeyGenerator.INVALID_ID) {
+      return _defaultValue;
+    } else {
+      return _resultBuffer.getDouble((long) groupKey * Double.BYTES);
+    }
+  }
+
+  @Override
+  public <T> T getResult(int groupKey) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, double newValue) {
+    if (groupKey != GroupKeyGenerator.INVALID_ID) {
+      _resultBuffer.putDouble((long) groupKey * Double.BYTES, newValue);
+    }
+  }
+
+  @Override
+  public void setValueForKey(int groupKey, Object newValue) {
+    throw new UnsupportedOperationException();
+  }
+
+  private void fillDefaultValue(int startGroupKey, int endGroupKey) {
+    // NOTE: direct memory is not guaranteed to be zeroed, so always fill the default value
+    for (int i = startGroupKey; i < endGroupKey; i++) {
+      _resultBuffer.putDouble((long) i * Double.BYTES, _defaultValue);
+    }
+  }
+
+  private PinotDataBuffer allocateBuffer(int capacity) {
+    return _memoryManager.allocate((long) capacity * Double.BYTES, _allocationContext);
+  }
+
+  private static void releaseBuffer(PinotDataBuffer buffer) {
+    // Release the buffer before the memory manager is closed to bound the memory usage while growing
+    try {
+      buffer.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while releasing the result buffer", e);
+    }
+  }
+}
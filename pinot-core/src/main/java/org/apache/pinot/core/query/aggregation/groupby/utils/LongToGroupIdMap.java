@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby.utils;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.Arrays;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+
+
+/**
+ * Open addressing (linear probing) hash map from long raw keys to contiguous group ids, backed by primitive arrays.
+ * <p>Group ids are assigned in insertion order starting from 0. Once the number of groups reaches the max number of
+ * groups, new keys are mapped to {@link GroupKeyGenerator#INVALID_ID}.
+ * <p>Besides the single key lookup, the map supports looking up a batch of keys with
+ * {@link #getGroupIds(long[], int, int[])}, which computes the slots for all the keys first and then probes them, so
+ * that the independent memory accesses of consecutive keys can be overlapped by the CPU instead of being serialized
+ * behind the hash computation.
+ * <p>This class is not thread-safe.
+ */
+public class LongToGroupIdMap {
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int MIN_CAPACITY = 16;
+
+  private final int _maxNumGroups;
+
+  private long[] _keys;
+  // Group id of the slot, INVALID_ID for empty slot
+  private int[] _groupIds;
+  private int _mask;
+  private int _maxFill;
+
+  // Raw key for each group id
+  private long[] _groupIdToKey;
+  private int _numGroups;
+
+  // Reusable buffer for the slots of the keys within a batch
+  private int[] _slots = new int[0];
+
+  /**
+   * Constructor for the map.
+   *
+   * @param initialNumGroups Expected number of groups used to size the map
+   * @param maxNumGroups Max number of groups (exclusive upper bound of the group ids)
+   */
+  public LongToGroupIdMap(int initialNumGroups, int maxNumGroups) {
+    Preconditions.checkArgument(maxNumGroups > 0, "Max number of groups must be positive, got: %s", maxNumGroups);
+    _maxNumGroups = maxNumGroups;
+    int expectedNumGroups = Math.max(Math.min(initialNumGroups, maxNumGroups), MIN_CAPACITY);
+    allocate(HashCommon.arraySize(expectedNumGroups, LOAD_FACTOR));
+    _groupIdToKey = new long[expectedNumGroups];
+  }
+
+  /**
+   * Returns the group id for the given key, or assigns a new group id if the key does not exist in the map.
+   * Returns {@link GroupKeyGenerator#INVALID_ID} if the key does not exist and the max number of groups is reached.
+   */
+  public int getGroupId(long key) {
+    if (_numGroups == _maxFill) {
+      rehash(_keys.length << 1);
+    }
+    return getGroupId(key, (int) HashCommon.mix(key) & _mask);
+  }
+
+  /**
+   * Batch version of {@link #getGroupId(long)}, which fills the group ids for the first {@code length} keys into the
+   * given buffer.
+   */
+  public void getGroupIds(long[] keys, int length, int[] groupIds) {
+    // Reserve the capacity for the worst case where all the keys are new so that the map is not resized in the middle
+    // of the batch
+    ensureCapacity((int) Math.min((long) _numGroups + length, _maxNumGroups));
+    if (_slots.length < length) {
+      _slots = new int[length];
+    }
+
+    // Compute the slots first without touching the hash table
+    int[] slots = _slots;
+    int mask = _mask;
+    for (int i = 0; i < length; i++) {
+      slots[i] = (int) HashCommon.mix(keys[i]) & mask;
+    }
+
+    for (int i = 0; i < length; i++) {
+      groupIds[i] = getGroupId(keys[i], slots[i]);
+    }
+  }
+
+  /**
+   * Returns the number of groups in the map, which is also the upper bound (exclusive) of the assigned group ids.
+   */
+  public int getNumGroups() {
+    return _numGroups;
+  }
+
+  /**
+   * Returns the raw key for the given group id.
+   */
+  public long getKey(int groupId) {
+    assert groupId < _numGroups;
+    return _groupIdToKey[groupId];
+  }
+
+  private int getGroupId(long key, int slot) {
+    long[] keys = _keys;
+    int[] groupIds = _groupIds;
+    int mask = _mask;
+    while (true) {
+      int groupId = groupIds[slot];
+      if (groupId == GroupKeyGenerator.INVALID_ID) {
+        if (_numGroups < _maxNumGroups) {
+          groupId = _numGroups++;
+          keys[slot] = key;
+          groupIds[slot] = groupId;
+          addKey(groupId, key);
+        }
+        return groupId;
+      }
+      if (keys[slot] == key) {
+        return groupId;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void addKey(int groupId, long key) {
+    if (groupId == _groupIdToKey.length) {
+      _groupIdToKey = Arrays.copyOf(_groupIdToKey, (int) Math.min((long) groupId << 1, _maxNumGroups));
+    }
+    _groupIdToKey[groupId] = key;
+  }
+
+  private void ensureCapacity(int expectedNumGroups) {
+    if (expectedNumGroups > _maxFill) {
+      rehash(HashCommon.arraySize(expectedNumGroups, LOAD_FACTOR));
+    }
+  }
+
+  private void allocate(int capacity) {
+    _keys = new long[capacity];
+    _groupIds = new int[capacity];
+    Arrays.fill(_groupIds, GroupKeyGenerator.INVALID_ID);
+    _mask = capacity - 1;
+    _maxFill = HashCommon.maxFill(capacity, LOAD_FACTOR);
+  }
+
+  private void rehash(int capacity) {
+    allocate(capacity);
+    long[] keys = _keys;
+    int[] groupIds = _groupIds;
+    int mask = _mask;
+    for (int groupId = 0; groupId < _numGroups; groupId++) {
+      long key = _groupIdToKey[groupId];
+      int slot = (int) HashCommon.mix(key) & mask;
+      while (groupIds[slot] != GroupKeyGenerator.INVALID_ID) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      groupIds[slot] = groupId;
+    }
+  }
+}
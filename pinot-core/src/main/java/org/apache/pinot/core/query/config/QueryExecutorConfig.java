@@ -35,6 +35,8 @@ public class QueryExecutorConfig {
   public static final String QUERY_PLANNER = "queryPlanner";
   // Prefix key of TimeOut
   public static final String TIME_OUT = "timeout";
+  // Key of whether to serialize the HyperLogLog and QuantileDigest in the compact formats in the DataTable
+  public static final String COMPACT_OBJECT_SERDE_ENABLED = "compact.object.serde.enabled";
 
   private static final String[] REQUIRED_KEYS = {};
 
@@ -42,6 +44,7 @@ public class QueryExecutorConfig {
   private SegmentPrunerConfig _segmentPrunerConfig;
   private QueryPlannerConfig _queryPlannerConfig;
   private final long _timeOutMs;
+  private final boolean _compactObjectSerDeEnabled;
 
   public QueryExecutorConfig(Configuration config)
       throws ConfigurationException {
@@ -50,6 +53,7 @@ public class QueryExecutorConfig {
     _segmentPrunerConfig = new SegmentPrunerConfig(_queryExecutorConfig.subset(QUERY_PRUNER));
     _queryPlannerConfig = new QueryPlannerConfig(_queryExecutorConfig.subset(QUERY_PLANNER));
     _timeOutMs = _queryExecutorConfig.getLong(TIME_OUT, -1);
+    _compactObjectSerDeEnabled = _queryExecutorConfig.getBoolean(COMPACT_OBJECT_SERDE_ENABLED, false);
   }
 
   private void checkRequiredKeys()
@@ -76,4 +80,8 @@ public class QueryExecutorConfig {
   public long getTimeOut() {
     return _timeOutMs;
   }
+
+  public boolean isCompactObjectSerDeEnabled() {
+    return _compactObjectSerDeEnabled;
+  }
 }
@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+
+
+/**
+ * The {@code CachedSegmentResult} class is the materialized intermediate result of an aggregation or aggregation
+ * group-by query on a single segment, stored in the {@link SegmentResultCache}.
+ * <p>The combine operators merge the intermediate results in place, so the mutable intermediate results (e.g.
+ * {@code HyperLogLog}, {@code AvgPair}) are stored in serialized form, and a new copy is de-serialized each time the
+ * result is read from the cache. The immutable values ({@code Number} and {@code String}) are stored as is.
+ */
+@Immutable
+public class CachedSegmentResult {
+  // Rough estimation of the heap size of the stored values
+  private static final long OBJECT_OVERHEAD_IN_BYTES = 16;
+  private static final long REFERENCE_SIZE_IN_BYTES = 8;
+
+  private final Object[] _aggregationResult;
+  private final String[] _groupKeys;
+  private final Object[][] _groupByResults;
+  private final DataSchema _dataSchema;
+  private final ExecutionStatistics _executionStatistics;
+  private final long _sizeInBytes;
+
+  private CachedSegmentResult(@Nullable Object[] aggregationResult, @Nullable String[] groupKeys,
+      @Nullable Object[][] groupByResults, @Nullable DataSchema dataSchema, ExecutionStatistics executionStatistics,
+      long sizeInBytes) {
+    _aggregationResult = aggregationResult;
+    _groupKeys = groupKeys;
+    _groupByResults = groupByResults;
+    _dataSchema = dataSchema;
+    _executionStatistics = executionStatistics;
+    _sizeInBytes = sizeInBytes;
+  }
+
+  /**
+   * Materializes the given per-segment results block. Should be called before the results block is merged by the
+   * combine operator.
+   * <p>Returns {@code null} if the results block cannot be cached (e.g. it contains processing exceptions or values
+   * that cannot be serialized), or the size of the result exceeds the given max size.
+   */
+  @Nullable
+  public static CachedSegmentResult fromResultsBlock(IntermediateResultsBlock resultsBlock,
+      ExecutionStatistics executionStatistics, long maxSizeInBytes) {
+    List processingExceptions = resultsBlock.getProcessingExceptions();
+    if (processingExceptions != null && !processingExceptions.isEmpty()) {
+      return null;
+    }
+    try {
+      long[] sizeInBytes = new long[]{OBJECT_OVERHEAD_IN_BYTES};
+
+      List<Object> aggregationResult = resultsBlock.getAggregationResult();
+      if (aggregationResult != null) {
+        Object[] storedAggregationResult = storeValues(aggregationResult.toArray(), sizeInBytes);
+        return new CachedSegmentResult(storedAggregationResult, null, null, null, executionStatistics, sizeInBytes[0]);
+      }
+
+      AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+      if (aggregationGroupByResult != null) {
+        int numAggregationFunctions = resultsBlock.getAggregationFunctionContexts().length;
+        List<String> groupKeys = new ArrayList<>();
+        List<Object[]> groupByResults = new ArrayList<>();
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          Object[] values = new Object[numAggregationFunctions];
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            values[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+          }
+          String stringKey = groupKey._stringKey;
+          groupKeys.add(stringKey);
+          groupByResults.add(storeValues(values, sizeInBytes));
+          sizeInBytes[0] += OBJECT_OVERHEAD_IN_BYTES + (long) stringKey.length() * Character.BYTES
+              + 2 * REFERENCE_SIZE_IN_BYTES;
+          if (sizeInBytes[0] > maxSizeInBytes) {
+            return null;
+          }
+        }
+        return new CachedSegmentResult(null, groupKeys.toArray(new String[0]),
+            groupByResults.toArray(new Object[0][]), resultsBlock.getDataSchema(), executionStatistics,
+            sizeInBytes[0]);
+      }
+
+      return null;
+    } catch (IllegalArgumentException e) {
+      // Value type not supported by ObjectSerDeUtils
+      return null;
+    }
+  }
+
+  /**
+   * Returns a new results block with a copy of the cached result.
+   */
+  public IntermediateResultsBlock toResultsBlock(AggregationFunctionContext[] aggregationFunctionContexts) {
+    if (_aggregationResult != null) {
+      return new IntermediateResultsBlock(aggregationFunctionContexts,
+          new ArrayList<>(Arrays.asList(loadValues(_aggregationResult))), false);
+    }
+    CachedAggregationGroupByResult aggregationGroupByResult = new CachedAggregationGroupByResult();
+    if (_dataSchema != null) {
+      return new IntermediateResultsBlock(aggregationFunctionContexts, aggregationGroupByResult, _dataSchema);
+    } else {
+      return new IntermediateResultsBlock(aggregationFunctionContexts, aggregationGroupByResult);
+    }
+  }
+
+  public ExecutionStatistics getExecutionStatistics() {
+    return _executionStatistics;
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  private static Object[] storeValues(Object[] values, long[] sizeInBytes) {
+    int numValues = values.length;
+    Object[] storedValues = new Object[numValues];
+    for (int i = 0; i < numValues; i++) {
+      Object value = values[i];
+      if (value instanceof Number) {
+        storedValues[i] = value;
+        sizeInBytes[0] += OBJECT_OVERHEAD_IN_BYTES + Long.BYTES;
+      } else if (value instanceof String) {
+        storedValues[i] = value;
+        sizeInBytes[0] += OBJECT_OVERHEAD_IN_BYTES + (long) ((String) value).length() * Character.BYTES;
+      } else {
+        SerializedValue serializedValue = new SerializedValue(value);
+        storedValues[i] = serializedValue;
+        sizeInBytes[0] += 2 * OBJECT_OVERHEAD_IN_BYTES + serializedValue._bytes.length;
+      }
+    }
+    sizeInBytes[0] += OBJECT_OVERHEAD_IN_BYTES + numValues * REFERENCE_SIZE_IN_BYTES;
+    return storedValues;
+  }
+
+  private static Object loadValue(Object storedValue) {
+    if (storedValue instanceof SerializedValue) {
+      SerializedValue serializedValue = (SerializedValue) storedValue;
+      return ObjectSerDeUtils.deserialize(serializedValue._bytes, serializedValue._objectType);
+    } else {
+      return storedValue;
+    }
+  }
+
+  private static Object[] loadValues(Object[] storedValues) {
+    int numValues = storedValues.length;
+    Object[] values = new Object[numValues];
+    for (int i = 0; i < numValues; i++) {
+      values[i] = loadValue(storedValues[i]);
+    }
+    return values;
+  }
+
+  private static class SerializedValue {
+    final ObjectSerDeUtils.ObjectType _objectType;
+    final byte[] _bytes;
+
+    SerializedValue(Object value) {
+      _objectType = ObjectSerDeUtils.ObjectType.getObjectType(value);
+      _bytes = ObjectSerDeUtils.serialize(value, _objectType);
+    }
+  }
+
+  /**
+   * Aggregation group-by result backed by the cached group keys and results. The group id of each group key is the
+   * index of the group within the cached result.
+   */
+  private class CachedAggregationGroupByResult extends AggregationGroupByResult {
+
+    CachedAggregationGroupByResult() {
+      super(null, null, null);
+    }
+
+    @Override
+    public Iterator<GroupKeyGenerator.GroupKey> getGroupKeyIterator() {
+      return new Iterator<GroupKeyGenerator.GroupKey>() {
+        private int _groupId = 0;
+
+        @Override
+        public boolean hasNext() {
+          return _groupId < _groupKeys.length;
+        }
+
+        @Override
+        public GroupKeyGenerator.GroupKey next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          GroupKeyGenerator.GroupKey groupKey = new GroupKeyGenerator.GroupKey();
+          groupKey._groupId = _groupId;
+          groupKey._stringKey = _groupKeys[_groupId];
+          _groupId++;
+          return groupKey;
+        }
+      };
+    }
+
+    @Override
+    public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
+      return loadValue(_groupByResults[groupKey._groupId][index]);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
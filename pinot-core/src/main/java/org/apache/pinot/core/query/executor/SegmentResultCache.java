@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.executor;
+
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.request.AggregationInfo;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+
+
+/**
+ * The {@code SegmentResultCache} caches the per-segment intermediate results of the aggregation and aggregation
+ * group-by queries on the immutable segments, so that repeated queries only need to execute the plans for the segments
+ * not in the cache.
+ * <p>The cache key is the table name, the segment name, the segment CRC and the query fingerprint (the broker request
+ * without the options that do not affect the result, e.g. timeout and trace). Because the segment CRC is part of the
+ * key, a result is never returned after the segment is replaced. The results for a segment are removed from the cache
+ * once the segment is removed or replaced in the table data manager, and are evicted in LRU order once the total size
+ * exceeds the max size.
+ * <p>The cache is shared by all the tables on the server.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private final long _maxSizeInBytes;
+  private final LinkedHashMap<CacheKey, CachedSegmentResult> _cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long _sizeInBytes;
+
+  public SegmentResultCache(long maxSizeInBytes) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "Max size must be positive, got: %s", maxSizeInBytes);
+    _maxSizeInBytes = maxSizeInBytes;
+  }
+
+  /**
+   * Returns whether the per-segment results of the query can be cached. Only aggregation and aggregation group-by
+   * queries (excluding DISTINCT) are cached.
+   */
+  public static boolean isCacheable(BrokerRequest brokerRequest) {
+    List<AggregationInfo> aggregationsInfo = brokerRequest.getAggregationsInfo();
+    if (aggregationsInfo == null || aggregationsInfo.isEmpty()) {
+      return false;
+    }
+    for (AggregationInfo aggregationInfo : aggregationsInfo) {
+      if (AggregationFunctionType.DISTINCT.getName().equalsIgnoreCase(aggregationInfo.getAggregationType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether the results on the given segment can be cached. Only the results on the immutable segments are
+   * cached as the mutable segments keep changing.
+   */
+  public static boolean isCacheable(IndexSegment indexSegment) {
+    return indexSegment instanceof ImmutableSegment && indexSegment.getSegmentMetadata().getCrc() != null;
+  }
+
+  /**
+   * Returns the fingerprint of the query, which is a copy of the broker request without the options that do not
+   * affect the per-segment results.
+   */
+  public static BrokerRequest getQueryFingerprint(BrokerRequest brokerRequest) {
+    BrokerRequest queryFingerprint = new BrokerRequest(brokerRequest);
+    queryFingerprint.unsetEnableTrace();
+    queryFingerprint.unsetDebugOptions();
+    Map<String, String> queryOptions = queryFingerprint.getQueryOptions();
+    if (queryOptions != null) {
+      queryOptions.remove(Request.QueryOptionKey.TIMEOUT_MS);
+    }
+    return queryFingerprint;
+  }
+
+  /**
+   * Returns the cached result for the given key, or {@code null} if it is not cached.
+   */
+  @Nullable
+  public synchronized CachedSegmentResult get(CacheKey key) {
+    return _cache.get(key);
+  }
+
+  /**
+   * Caches the result for the given key.
+   */
+  public synchronized void put(CacheKey key, CachedSegmentResult result) {
+    long size = result.getSizeInBytes();
+    if (size > _maxSizeInBytes) {
+      return;
+    }
+
+    CachedSegmentResult oldResult = _cache.put(key, result);
+    if (oldResult != null) {
+      _sizeInBytes -= oldResult.getSizeInBytes();
+    }
+    _sizeInBytes += size;
+
+    // Evict the least recently used results
+    Iterator<Map.Entry<CacheKey, CachedSegmentResult>> iterator = _cache.entrySet().iterator();
+    while (_sizeInBytes > _maxSizeInBytes) {
+      Map.Entry<CacheKey, CachedSegmentResult> entry = iterator.next();
+      _sizeInBytes -= entry.getValue().getSizeInBytes();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Removes all the cached results for the given segment.
+   */
+  public synchronized void invalidate(String tableNameWithType, String segmentName) {
+    Iterator<Map.Entry<CacheKey, CachedSegmentResult>> iterator = _cache.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<CacheKey, CachedSegmentResult> entry = iterator.next();
+      CacheKey key = entry.getKey();
+      if (key._segmentName.equals(segmentName) && key._tableNameWithType.equals(tableNameWithType)) {
+        _sizeInBytes -= entry.getValue().getSizeInBytes();
+        iterator.remove();
+      }
+    }
+  }
+
+  public long getMaxSizeInBytes() {
+    return _maxSizeInBytes;
+  }
+
+  public synchronized int size() {
+    return _cache.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return _sizeInBytes;
+  }
+
+  /**
+   * Key of the cache. The query fingerprint should be created with {@link #getQueryFingerprint(BrokerRequest)}, and
+   * should not be modified after creating the key.
+   */
+  public static class CacheKey {
+    private final String _tableNameWithType;
+    private final String _segmentName;
+    private final String _segmentCrc;
+    private final BrokerRequest _queryFingerprint;
+    private final int _hashCode;
+
+    public CacheKey(String tableNameWithType, IndexSegment indexSegment, BrokerRequest queryFingerprint) {
+      _tableNameWithType = tableNameWithType;
+      _segmentName = indexSegment.getSegmentName();
+      _segmentCrc = indexSegment.getSegmentMetadata().getCrc();
+      _queryFingerprint = queryFingerprint;
+      // Cache the hash code as hashing the broker request is expensive
+      _hashCode = 31 * (31 * (31 * _tableNameWithType.hashCode() + _segmentName.hashCode()) + _segmentCrc.hashCode())
+          + _queryFingerprint.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey cacheKey = (CacheKey) o;
+      return _hashCode == cacheKey._hashCode && _tableNameWithType.equals(cacheKey._tableNameWithType)
+          && _segmentName.equals(cacheKey._segmentName) && _segmentCrc.equals(cacheKey._segmentCrc)
+          && _queryFingerprint.equals(cacheKey._queryFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -33,6 +33,7 @@ import org.apache.pinot.common.metrics.ServerQueryPhase;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
 import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.common.datatable.DataTableUtils;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
@@ -77,6 +78,8 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       _defaultTimeOutMs = queryExecutorConfig.getTimeOut();
     }
     LOGGER.info("Default timeout for query executor : {}", _defaultTimeOutMs);
+    // NOTE: Only enable the compact formats after all the brokers are upgraded to de-serialize them
+    ObjectSerDeUtils.setCompactSerDeEnabled(queryExecutorConfig.isCompactObjectSerDeEnabled());
     LOGGER.info("Trying to build SegmentPrunerService");
     _segmentPrunerService = new SegmentPrunerService(queryExecutorConfig.getPrunerConfig());
     LOGGER.info("Trying to build QueryPlanMaker");
@@ -205,8 +208,9 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
         metadata.put(DataTable.NUM_SEGMENTS_MATCHED, "0");
       } else {
         TimerContext.Timer planBuildTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.BUILD_QUERY_PLAN);
-        Plan globalQueryPlan =
-            _planMaker.makeInterSegmentPlan(segmentDataManagers, brokerRequest, executorService, remainingTimeMs);
+        Plan globalQueryPlan = _planMaker
+            .makeInterSegmentPlan(segmentDataManagers, brokerRequest, executorService, remainingTimeMs,
+                tableDataManager.getSegmentResultCache());
         planBuildTimer.stopAndRecord();
 
         if (PRINT_QUERY_PLAN) {
@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.core.query.reduce;
 
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,6 +34,7 @@ import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.ResultTable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
 import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
@@ -86,6 +89,15 @@ public class AggregationDataTableReducer implements DataTableReducer {
       for (int i = 0; i < _numAggregationFunctions; i++) {
         Object intermediateResultToMerge;
         DataSchema.ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
+        if (columnDataType == DataSchema.ColumnDataType.OBJECT && intermediateResults[i] instanceof HyperLogLog) {
+          // Merge the serialized HyperLogLog into the merged result without de-serializing it
+          HyperLogLog mergedHyperLogLog = (HyperLogLog) intermediateResults[i];
+          ByteBuffer serializedHyperLogLog = dataTable.getSerializedObject(0, i);
+          if (ObjectSerDeUtils.canMergeHyperLogLog(mergedHyperLogLog, serializedHyperLogLog)) {
+            ObjectSerDeUtils.mergeHyperLogLog(mergedHyperLogLog, serializedHyperLogLog);
+            continue;
+          }
+        }
         switch (columnDataType) {
           case LONG:
             intermediateResultToMerge = dataTable.getLong(0, i);
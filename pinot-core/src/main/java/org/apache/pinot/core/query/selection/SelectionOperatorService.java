@@ -21,6 +21,7 @@ package org.apache.pinot.core.query.selection;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -61,9 +62,13 @@ import org.apache.pinot.common.utils.DataTable;
 public class SelectionOperatorService {
   private final List<String> _selectionColumns;
   private final DataSchema _dataSchema;
+  private final List<SelectionSort> _sortSequence;
   private final int _offset;
   private final int _numRowsToKeep;
+  private final Comparator<Object[]> _comparator;
   private final PriorityQueue<Object[]> _rows;
+  // Rows in the order of the query, only set when the rows are merged from the sorted data tables
+  private List<Object[]> _sortedRows;
 
   /**
    * Constructor for <code>SelectionOperatorService</code> with {@link DataSchema}. (Inter segment)
@@ -74,11 +79,13 @@ public class SelectionOperatorService {
   public SelectionOperatorService(Selection selection, DataSchema dataSchema) {
     _selectionColumns = SelectionOperatorUtils.getSelectionColumns(selection.getSelectionColumns(), dataSchema);
     _dataSchema = dataSchema;
+    _sortSequence = selection.getSelectionSortSequence();
     // Select rows from offset to offset + size.
     _offset = selection.getOffset();
     _numRowsToKeep = _offset + selection.getSize();
+    _comparator = getTypeCompatibleComparator(_sortSequence);
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
-        getTypeCompatibleComparator(selection.getSelectionSortSequence()));
+        _comparator);
   }
 
   /**
@@ -141,15 +148,97 @@ public class SelectionOperatorService {
   /**
    * Reduces a collection of {@link DataTable}s to selection rows for selection queries with <code>ORDER BY</code>.
    * (Broker side)
+   * <p>When all the data tables have the rows sorted (by the servers), the rows are merged with a k-way merge which
+   * stops once the top N rows are collected. Otherwise, the rows are first merged with a {@link SelectionTopNHeap} so
+   * that only the rows in the top N are extracted from the data tables.
    */
   public void reduceWithOrdering(Collection<DataTable> dataTables) {
+    boolean allRowsSorted = true;
     for (DataTable dataTable : dataTables) {
-      int numRows = dataTable.getNumberOfRows();
-      for (int rowId = 0; rowId < numRows; rowId++) {
-        Object[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
-        SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+      if (!Boolean.parseBoolean(dataTable.getMetadata().get(DataTable.SORTED_ROWS_METADATA_KEY))) {
+        allRowsSorted = false;
+        break;
       }
     }
+    if (allRowsSorted) {
+      _sortedRows = mergeSortedDataTables(dataTables);
+      return;
+    }
+
+    SelectionTopNHeap topNHeap = new SelectionTopNHeap(_sortSequence, _dataSchema, _numRowsToKeep);
+    for (DataTable dataTable : dataTables) {
+      topNHeap.addDataTable(dataTable);
+    }
+    for (Object[] row : topNHeap.getRows()) {
+      SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+    }
+  }
+
+  /**
+   * Merges the sorted rows from the data tables with a k-way merge, and returns the top N rows in the order of the
+   * query. Only the rows returned plus one row per data table are extracted from the data tables.
+   */
+  private List<Object[]> mergeSortedDataTables(Collection<DataTable> dataTables) {
+    // NOTE: The comparator puts the last row first, so reverse it to poll the first row from the merge queue
+    PriorityQueue<SortedRowsCursor> mergeQueue =
+        new PriorityQueue<>(Math.max(dataTables.size(), 1), (o1, o2) -> _comparator.compare(o2._row, o1._row));
+    for (DataTable dataTable : dataTables) {
+      SortedRowsCursor cursor = new SortedRowsCursor(dataTable);
+      if (cursor.next()) {
+        mergeQueue.offer(cursor);
+      }
+    }
+    List<Object[]> sortedRows =
+        new ArrayList<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY));
+    while (sortedRows.size() < _numRowsToKeep && !mergeQueue.isEmpty()) {
+      SortedRowsCursor cursor = mergeQueue.poll();
+      sortedRows.add(cursor._row);
+      if (cursor.next()) {
+        mergeQueue.offer(cursor);
+      }
+    }
+    return sortedRows;
+  }
+
+  /**
+   * Cursor over the sorted rows of a {@link DataTable}.
+   */
+  private static class SortedRowsCursor {
+    final DataTable _dataTable;
+    final int _numRows;
+    int _nextRowId;
+    Object[] _row;
+
+    SortedRowsCursor(DataTable dataTable) {
+      _dataTable = dataTable;
+      _numRows = dataTable.getNumberOfRows();
+    }
+
+    /**
+     * Moves to the next row, returns {@code false} if there is no more row.
+     */
+    boolean next() {
+      if (_nextRowId == _numRows) {
+        return false;
+      }
+      _row = SelectionOperatorUtils.extractRowFromDataTable(_dataTable, _nextRowId++);
+      return true;
+    }
+  }
+
+  /**
+   * Returns the rows after the offset in the order of the query.
+   */
+  private List<Object[]> getRowsToRender() {
+    if (_sortedRows != null) {
+      int numRows = _sortedRows.size();
+      return numRows > _offset ? _sortedRows.subList(_offset, numRows) : Collections.emptyList();
+    }
+    LinkedList<Object[]> rows = new LinkedList<>();
+    while (_rows.size() > _offset) {
+      rows.addFirst(_rows.poll());
+    }
+    return rows;
   }
 
   /**
@@ -161,32 +250,29 @@ public class SelectionOperatorService {
    * @return {@link SelectionResults} object results.
    */
   public SelectionResults renderSelectionResultsWithOrdering(boolean preserveType) {
-    LinkedList<Serializable[]> rowsInSelectionResults = new LinkedList<>();
+    List<Object[]> rows = getRowsToRender();
+    List<Serializable[]> rowsInSelectionResults = new ArrayList<>(rows.size());
     int[] columnIndices = SelectionOperatorUtils.getColumnIndices(_selectionColumns, _dataSchema);
     int numColumns = columnIndices.length;
     DataSchema.ColumnDataType[] columnDataTypes = _dataSchema.getColumnDataTypes();
 
     if (preserveType) {
-      while (_rows.size() > _offset) {
-        Object[] row = _rows.poll();
-        assert row != null;
+      for (Object[] row : rows) {
         Serializable[] extractedRow = new Serializable[numColumns];
         for (int i = 0; i < numColumns; i++) {
           int columnIndex = columnIndices[i];
           extractedRow[i] = SelectionOperatorUtils.convertValueToType(row[columnIndex], columnDataTypes[columnIndex]);
         }
-        rowsInSelectionResults.addFirst(extractedRow);
+        rowsInSelectionResults.add(extractedRow);
       }
     } else {
-      while (_rows.size() > _offset) {
-        Object[] row = _rows.poll();
-        assert row != null;
+      for (Object[] row : rows) {
         Serializable[] extractedRow = new Serializable[numColumns];
         for (int i = 0; i < numColumns; i++) {
           int columnIndex = columnIndices[i];
           extractedRow[i] = SelectionOperatorUtils.getFormattedValue(row[columnIndex], columnDataTypes[columnIndex]);
         }
-        rowsInSelectionResults.addFirst(extractedRow);
+        rowsInSelectionResults.add(extractedRow);
       }
     }
 
@@ -202,20 +288,19 @@ public class SelectionOperatorService {
    * @return {@link SelectionResults} object results.
    */
   public ResultTable renderResultTableWithOrdering() {
-    LinkedList<Object[]> rowsInSelectionResults = new LinkedList<>();
+    List<Object[]> rows = getRowsToRender();
+    List<Object[]> rowsInSelectionResults = new ArrayList<>(rows.size());
     int[] columnIndices = SelectionOperatorUtils.getColumnIndices(_selectionColumns, _dataSchema);
     int numColumns = columnIndices.length;
     DataSchema.ColumnDataType[] columnDataTypes = _dataSchema.getColumnDataTypes();
 
-    while (_rows.size() > _offset) {
-      Object[] row = _rows.poll();
-      assert row != null;
+    for (Object[] row : rows) {
       Object[] extractedRow = new Object[numColumns];
       for (int i = 0; i < numColumns; i++) {
         int columnIndex = columnIndices[i];
         extractedRow[i] = SelectionOperatorUtils.convertValueToType(row[columnIndex], columnDataTypes[columnIndex]);
       }
-      rowsInSelectionResults.addFirst(extractedRow);
+      rowsInSelectionResults.add(extractedRow);
     }
 
     // Construct the result data schema
@@ -0,0 +1,449 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.selection;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.apache.pinot.common.request.SelectionSort;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * The <code>SelectionTopNHeap</code> class keeps the top N rows for selection queries with <code>ORDER BY</code>.
+ * <p>Different from a {@link java.util.PriorityQueue} of rows with a generic comparator, the values of the order-by
+ * expressions are stored in primitive arrays (one array per order-by expression, indexed by the slot of the row) and
+ * compared without boxing. A candidate row is only materialized after its order-by values qualify it into the top N,
+ * so once the heap is full, most of the candidates are rejected by comparing the primitive values with the current
+ * N-th row, without reading the other expressions or allocating any object.
+ * <p>The heap is a max-heap of the slots, where the root is the N-th (worst) row. There is always one extra slot for
+ * the candidate row, which is swapped with the slot of the root when the candidate replaces the root.
+ * <p>The order-by expressions must be the first columns of the data schema. Multi-value order-by expressions are not
+ * comparable and are ignored, same as the comparators for the selection rows.
+ */
+public class SelectionTopNHeap {
+  private final int _numRowsToKeep;
+  private final int _numKeys;
+  private final int[] _keyColumnIndices;
+  private final ColumnDataType[] _keyDataTypes;
+  // Use multiplier 1 or -1 to make the worse row larger for ascending/descending order
+  private final int[] _multipliers;
+  // Values of the order-by expressions, one of int[], long[], float[], double[], String[], byte[][] for each key
+  private final Object[] _keyValues;
+
+  private Object[][] _rows;
+  // Document ids of the rows, only used when the rows are added with addDocIds()
+  private int[] _docIds;
+  private int[] _heap;
+  private int _capacity;
+  private int _size;
+  private int _candidateSlot;
+
+  /**
+   * @param sortSequence Order-by expressions
+   * @param dataSchema Data schema of the rows, where the first columns are the order-by expressions
+   * @param numRowsToKeep Number of rows to keep (offset + limit)
+   */
+  public SelectionTopNHeap(List<SelectionSort> sortSequence, DataSchema dataSchema, int numRowsToKeep) {
+    Preconditions.checkArgument(numRowsToKeep >= 0);
+    _numRowsToKeep = numRowsToKeep;
+
+    int numOrderByExpressions = sortSequence.size();
+    List<Integer> keyColumnIndexList = new ArrayList<>(numOrderByExpressions);
+    for (int i = 0; i < numOrderByExpressions; i++) {
+      if (!dataSchema.getColumnDataType(i).isArray()) {
+        keyColumnIndexList.add(i);
+      }
+    }
+    _numKeys = keyColumnIndexList.size();
+    _keyColumnIndices = new int[_numKeys];
+    _keyDataTypes = new ColumnDataType[_numKeys];
+    _multipliers = new int[_numKeys];
+    _keyValues = new Object[_numKeys];
+
+    _capacity = Math.min(numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY) + 1;
+    for (int i = 0; i < _numKeys; i++) {
+      int columnIndex = keyColumnIndexList.get(i);
+      _keyColumnIndices[i] = columnIndex;
+      ColumnDataType dataType = dataSchema.getColumnDataType(columnIndex);
+      _keyDataTypes[i] = dataType;
+      _multipliers[i] = sortSequence.get(columnIndex).isIsAsc() ? 1 : -1;
+      _keyValues[i] = allocateKeyValues(dataType, _capacity);
+    }
+    _rows = new Object[_capacity][];
+    _heap = new int[_capacity];
+  }
+
+  private static Object allocateKeyValues(ColumnDataType dataType, int capacity) {
+    switch (dataType) {
+      case INT:
+        return new int[capacity];
+      case LONG:
+        return new long[capacity];
+      case FLOAT:
+        return new float[capacity];
+      case DOUBLE:
+        return new double[capacity];
+      case STRING:
+        return new String[capacity];
+      case BYTES:
+        return new byte[capacity][];
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType + " for order-by expression");
+    }
+  }
+
+  /**
+   * Adds the rows from a block (Server side).
+   *
+   * @param blockValSets Block value sets of all the columns, where the first ones are the order-by expressions
+   * @param numRows Number of rows in the block
+   * @param rowFetcher Function to materialize the row with the given index, only invoked for the rows in the top N
+   */
+  public void addRows(BlockValSet[] blockValSets, int numRows, IntFunction<Object[]> rowFetcher) {
+    if (_numRowsToKeep == 0) {
+      return;
+    }
+    Object[] blockKeyValues = new Object[_numKeys];
+    for (int i = 0; i < _numKeys; i++) {
+      BlockValSet blockValSet = blockValSets[_keyColumnIndices[i]];
+      switch (_keyDataTypes[i]) {
+        case INT:
+          blockKeyValues[i] = blockValSet.getIntValuesSV();
+          break;
+        case LONG:
+          blockKeyValues[i] = blockValSet.getLongValuesSV();
+          break;
+        case FLOAT:
+          blockKeyValues[i] = blockValSet.getFloatValuesSV();
+          break;
+        case DOUBLE:
+          blockKeyValues[i] = blockValSet.getDoubleValuesSV();
+          break;
+        case STRING:
+          blockKeyValues[i] = blockValSet.getStringValuesSV();
+          break;
+        case BYTES:
+          blockKeyValues[i] = blockValSet.getBytesValuesSV();
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      int slot = _candidateSlot;
+      setCandidateKeys(blockKeyValues, rowId);
+      if (offerCandidate()) {
+        _rows[slot] = rowFetcher.apply(rowId);
+      }
+    }
+  }
+
+  /**
+   * Adds the documents from a block with the given order-by values, where only the document ids are kept in the heap so
+   * that the rows can be materialized for the top N documents after all the blocks are processed (Server side).
+   * <p>All the order-by expressions should be single-valued for this method.
+   *
+   * @param blockKeyValues Values of the order-by expressions, one of int[], long[], float[], double[], String[],
+   *                       byte[][] matching the data type of the expression in the heap
+   * @param docIds Document ids of the block
+   * @param numDocs Number of documents in the block
+   */
+  public void addDocIds(Object[] blockKeyValues, int[] docIds, int numDocs) {
+    if (_numRowsToKeep == 0) {
+      return;
+    }
+    if (_docIds == null) {
+      _docIds = new int[_capacity];
+    }
+    for (int i = 0; i < numDocs; i++) {
+      int slot = _candidateSlot;
+      setCandidateKeys(blockKeyValues, i);
+      if (offerCandidate()) {
+        _docIds[slot] = docIds[i];
+      }
+    }
+  }
+
+  private void setCandidateKeys(Object[] blockKeyValues, int index) {
+    int slot = _candidateSlot;
+    for (int i = 0; i < _numKeys; i++) {
+      switch (_keyDataTypes[i]) {
+        case INT:
+          ((int[]) _keyValues[i])[slot] = ((int[]) blockKeyValues[i])[index];
+          break;
+        case LONG:
+          ((long[]) _keyValues[i])[slot] = ((long[]) blockKeyValues[i])[index];
+          break;
+        case FLOAT:
+          ((float[]) _keyValues[i])[slot] = ((float[]) blockKeyValues[i])[index];
+          break;
+        case DOUBLE:
+          ((double[]) _keyValues[i])[slot] = ((double[]) blockKeyValues[i])[index];
+          break;
+        case STRING:
+          ((String[]) _keyValues[i])[slot] = ((String[]) blockKeyValues[i])[index];
+          break;
+        case BYTES:
+          ((byte[][]) _keyValues[i])[slot] = ((byte[][]) blockKeyValues[i])[index];
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+  }
+
+  /**
+   * Adds the rows from a {@link DataTable} (Broker side).
+   * <p>The data schema of the data table should be type-compatible with the data schema of the heap (upgraded to cover
+   * all the data tables), where the numbers are converted to the type of the heap before comparison.
+   */
+  public void addDataTable(DataTable dataTable) {
+    if (_numRowsToKeep == 0) {
+      return;
+    }
+    DataSchema dataSchema = dataTable.getDataSchema();
+    ColumnDataType[] dataTableKeyDataTypes = new ColumnDataType[_numKeys];
+    for (int i = 0; i < _numKeys; i++) {
+      dataTableKeyDataTypes[i] = dataSchema.getColumnDataType(_keyColumnIndices[i]);
+    }
+
+    int numRows = dataTable.getNumberOfRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      int slot = _candidateSlot;
+      for (int i = 0; i < _numKeys; i++) {
+        int columnIndex = _keyColumnIndices[i];
+        switch (_keyDataTypes[i]) {
+          case INT:
+            ((int[]) _keyValues[i])[slot] = dataTable.getInt(rowId, columnIndex);
+            break;
+          case LONG:
+            ((long[]) _keyValues[i])[slot] =
+                dataTableKeyDataTypes[i] == ColumnDataType.INT ? dataTable.getInt(rowId, columnIndex)
+                    : dataTable.getLong(rowId, columnIndex);
+            break;
+          case FLOAT:
+            ((float[]) _keyValues[i])[slot] = dataTable.getFloat(rowId, columnIndex);
+            break;
+          case DOUBLE:
+            ((double[]) _keyValues[i])[slot] = getDouble(dataTable, rowId, columnIndex, dataTableKeyDataTypes[i]);
+            break;
+          case STRING:
+            ((String[]) _keyValues[i])[slot] = dataTable.getString(rowId, columnIndex);
+            break;
+          case BYTES:
+            ((byte[][]) _keyValues[i])[slot] = dataTable.getBytes(rowId, columnIndex).getBytes();
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+      }
+      if (offerCandidate()) {
+        _rows[slot] = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
+      }
+    }
+  }
+
+  private static double getDouble(DataTable dataTable, int rowId, int columnIndex, ColumnDataType dataType) {
+    switch (dataType) {
+      case INT:
+        return dataTable.getInt(rowId, columnIndex);
+      case LONG:
+        return dataTable.getLong(rowId, columnIndex);
+      case FLOAT:
+        return dataTable.getFloat(rowId, columnIndex);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, columnIndex);
+      default:
+        throw new IllegalStateException("Cannot convert data type: " + dataType + " to DOUBLE");
+    }
+  }
+
+  /**
+   * Returns the number of rows in the heap.
+   */
+  public int size() {
+    return _size;
+  }
+
+  /**
+   * Returns the rows in the heap (not sorted).
+   */
+  public List<Object[]> getRows() {
+    List<Object[]> rows = new ArrayList<>(_size);
+    for (int i = 0; i < _size; i++) {
+      rows.add(_rows[_heap[i]]);
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the document ids of the rows in the heap (not sorted), only applicable when the rows are added with
+   * {@link #addDocIds(Object[], int[], int)}.
+   */
+  public int[] getDocIds() {
+    int[] docIds = new int[_size];
+    for (int i = 0; i < _size; i++) {
+      docIds[i] = _docIds[_heap[i]];
+    }
+    return docIds;
+  }
+
+  /**
+   * Offers the candidate row (with the order-by values set into the candidate slot) to the heap. Returns
+   * {@code true} if the candidate is added into the heap, in which case the caller should set the row into the slot
+   * of the candidate, {@code false} otherwise.
+   */
+  private boolean offerCandidate() {
+    int candidateSlot = _candidateSlot;
+    if (_size < _numRowsToKeep) {
+      // NOTE: When the heap is not full, the slots in the heap are always [0, _size), and the candidate slot is _size
+      _heap[_size] = candidateSlot;
+      siftUp(_size++);
+      _candidateSlot = _size;
+      ensureCapacity(_size + 1);
+      return true;
+    }
+    int rootSlot = _heap[0];
+    if (compare(candidateSlot, rootSlot) >= 0) {
+      return false;
+    }
+    // Reuse the slot of the evicted root for the next candidate
+    _heap[0] = candidateSlot;
+    _candidateSlot = rootSlot;
+    _rows[rootSlot] = null;
+    siftDown(0);
+    return true;
+  }
+
+  private void siftUp(int index) {
+    int slot = _heap[index];
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      int parentSlot = _heap[parentIndex];
+      if (compare(slot, parentSlot) <= 0) {
+        break;
+      }
+      _heap[index] = parentSlot;
+      index = parentIndex;
+    }
+    _heap[index] = slot;
+  }
+
+  private void siftDown(int index) {
+    int slot = _heap[index];
+    int half = _size >>> 1;
+    while (index < half) {
+      int childIndex = 2 * index + 1;
+      int childSlot = _heap[childIndex];
+      int rightIndex = childIndex + 1;
+      if (rightIndex < _size && compare(_heap[rightIndex], childSlot) > 0) {
+        childIndex = rightIndex;
+        childSlot = _heap[rightIndex];
+      }
+      if (compare(slot, childSlot) >= 0) {
+        break;
+      }
+      _heap[index] = childSlot;
+      index = childIndex;
+    }
+    _heap[index] = slot;
+  }
+
+  /**
+   * Compares the rows in the given slots, returns positive value if the first row is worse (closer to the root).
+   */
+  private int compare(int slot1, int slot2) {
+    for (int i = 0; i < _numKeys; i++) {
+      Object keyValues = _keyValues[i];
+      int result;
+      switch (_keyDataTypes[i]) {
+        case INT:
+          result = Integer.compare(((int[]) keyValues)[slot1], ((int[]) keyValues)[slot2]);
+          break;
+        case LONG:
+          result = Long.compare(((long[]) keyValues)[slot1], ((long[]) keyValues)[slot2]);
+          break;
+        case FLOAT:
+          result = Float.compare(((float[]) keyValues)[slot1], ((float[]) keyValues)[slot2]);
+          break;
+        case DOUBLE:
+          result = Double.compare(((double[]) keyValues)[slot1], ((double[]) keyValues)[slot2]);
+          break;
+        case STRING:
+          result = ((String[]) keyValues)[slot1].compareTo(((String[]) keyValues)[slot2]);
+          break;
+        case BYTES:
+          result = ByteArray.compare(((byte[][]) keyValues)[slot1], ((byte[][]) keyValues)[slot2]);
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+      if (result != 0) {
+        return result * _multipliers[i];
+      }
+    }
+    return 0;
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity <= _capacity) {
+      return;
+    }
+    int newCapacity = (int) Math.min(Math.max((long) _capacity * 2, minCapacity), (long) _numRowsToKeep + 1);
+    for (int i = 0; i < _numKeys; i++) {
+      Object keyValues = _keyValues[i];
+      switch (_keyDataTypes[i]) {
+        case INT:
+          _keyValues[i] = Arrays.copyOf((int[]) keyValues, newCapacity);
+          break;
+        case LONG:
+          _keyValues[i] = Arrays.copyOf((long[]) keyValues, newCapacity);
+          break;
+        case FLOAT:
+          _keyValues[i] = Arrays.copyOf((float[]) keyValues, newCapacity);
+          break;
+        case DOUBLE:
+          _keyValues[i] = Arrays.copyOf((double[]) keyValues, newCapacity);
+          break;
+        case STRING:
+          _keyValues[i] = Arrays.copyOf((String[]) keyValues, newCapacity);
+          break;
+        case BYTES:
+          _keyValues[i] = Arrays.copyOf((byte[][]) keyValues, newCapacity);
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+    _rows = Arrays.copyOf(_rows, newCapacity);
+    if (_docIds != null) {
+      _docIds = Arrays.copyOf(_docIds, newCapacity);
+    }
+    _heap = Arrays.copyOf(_heap, newCapacity);
+    _capacity = newCapacity;
+  }
+}
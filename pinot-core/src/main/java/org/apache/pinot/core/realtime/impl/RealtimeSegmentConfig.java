@@ -19,10 +19,13 @@
 package org.apache.pinot.core.realtime.impl;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.data.Schema;
 
 
@@ -44,15 +47,18 @@ public class RealtimeSegmentConfig {
   private final PartitionFunction _partitionFunction;
   private final int _partitionId;
   private final boolean _aggregateMetrics;
+  private final Map<String, String> _metricAggregationFunctions;
   private final boolean _nullHandlingEnabled;
   private final String _consumerDir;
+  private final List<StarTreeIndexConfig> _starTreeIndexConfigs;
 
   private RealtimeSegmentConfig(String segmentName, String streamName, Schema schema, int capacity,
       int avgNumMultiValues, Set<String> noDictionaryColumns, Set<String> varLengthDictionaryColumns,
       Set<String> invertedIndexColumns, Set<String> textIndexColumns,
       RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, boolean offHeap, PinotDataBufferMemoryManager memoryManager,
       RealtimeSegmentStatsHistory statsHistory, String partitionColumn, PartitionFunction partitionFunction,
-      int partitionId, boolean aggregateMetrics, boolean nullHandlingEnabled, String consumerDir) {
+      int partitionId, boolean aggregateMetrics, Map<String, String> metricAggregationFunctions,
+      boolean nullHandlingEnabled, String consumerDir, List<StarTreeIndexConfig> starTreeIndexConfigs) {
     _segmentName = segmentName;
     _streamName = streamName;
     _schema = schema;
@@ -70,8 +76,10 @@ public class RealtimeSegmentConfig {
     _partitionFunction = partitionFunction;
     _partitionId = partitionId;
     _aggregateMetrics = aggregateMetrics;
+    _metricAggregationFunctions = metricAggregationFunctions;
     _nullHandlingEnabled = nullHandlingEnabled;
     _consumerDir = consumerDir;
+    _starTreeIndexConfigs = starTreeIndexConfigs;
   }
 
   public String getSegmentName() {
@@ -147,6 +155,10 @@ public class RealtimeSegmentConfig {
     return _aggregateMetrics;
   }
 
+  public Map<String, String> getMetricAggregationFunctions() {
+    return _metricAggregationFunctions;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -155,6 +167,10 @@ public class RealtimeSegmentConfig {
     return _consumerDir;
   }
 
+  public List<StarTreeIndexConfig> getStarTreeIndexConfigs() {
+    return _starTreeIndexConfigs;
+  }
+
   public static class Builder {
     private String _segmentName;
     private String _streamName;
@@ -173,8 +189,10 @@ public class RealtimeSegmentConfig {
     private PartitionFunction _partitionFunction;
     private int _partitionId;
     private boolean _aggregateMetrics = false;
+    private Map<String, String> _metricAggregationFunctions;
     private boolean _nullHandlingEnabled = false;
     private String _consumerDir;
+    private List<StarTreeIndexConfig> _starTreeIndexConfigs;
 
     public Builder() {
     }
@@ -272,6 +290,11 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setMetricAggregationFunctions(Map<String, String> metricAggregationFunctions) {
+      _metricAggregationFunctions = metricAggregationFunctions;
+      return this;
+    }
+
     public Builder setNullHandlingEnabled(boolean nullHandlingEnabled) {
       _nullHandlingEnabled = nullHandlingEnabled;
       return this;
@@ -282,11 +305,24 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    /**
+     * Sets the star-tree index configs, which are used by
+     * {@link org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl} to maintain the pre-aggregated star-trees
+     * while consuming.
+     * @param starTreeIndexConfigs list of star-tree index configs
+     * @return builder
+     */
+    public Builder setStarTreeIndexConfigs(List<StarTreeIndexConfig> starTreeIndexConfigs) {
+      _starTreeIndexConfigs = starTreeIndexConfigs;
+      return this;
+    }
+
     public RealtimeSegmentConfig build() {
       return new RealtimeSegmentConfig(_segmentName, _streamName, _schema, _capacity, _avgNumMultiValues,
           _noDictionaryColumns, _varLengthDictionaryColumns, _invertedIndexColumns, _textIndexColumns,
           _realtimeSegmentZKMetadata, _offHeap, _memoryManager, _statsHistory, _partitionColumn, _partitionFunction,
-          _partitionId, _aggregateMetrics, _nullHandlingEnabled, _consumerDir);
+          _partitionId, _aggregateMetrics, _metricAggregationFunctions, _nullHandlingEnabled, _consumerDir,
+          _starTreeIndexConfigs);
     }
   }
 }
@@ -0,0 +1,666 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.startree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.data.aggregator.ValueAggregator;
+import org.apache.pinot.core.data.aggregator.ValueAggregatorFactory;
+import org.apache.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.ReaderContext;
+import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.io.readerwriter.impl.FixedByteSingleColumnSingleValueReaderWriter;
+import org.apache.pinot.core.realtime.impl.dictionary.BaseMutableDictionary;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.startree.StarTree;
+import org.apache.pinot.core.startree.StarTreeNode;
+import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.StarTreeV2;
+import org.apache.pinot.core.startree.v2.StarTreeV2Metadata;
+import org.apache.pinot.core.startree.v2.store.StarTreeDataSource;
+import org.apache.pinot.core.util.FixedIntArray;
+import org.apache.pinot.core.util.FixedIntArrayOffHeapIdMap;
+import org.apache.pinot.core.util.IdMap;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.pinot.core.startree.v2.StarTreeV2Constants.STAR_IN_FORWARD_INDEX;
+
+
+/**
+ * The {@code MutableStarTreeV2} class is an incrementally maintained pre-aggregation cube for the consuming segment,
+ * which can be queried as a {@link StarTreeV2} through {@link #getSnapshot()}.
+ * <p>Each unique combination of the dimension dictionary ids is stored as a document, and the metrics of the records
+ * with the same dimensions are aggregated in place with the {@link ValueAggregator}s. Document 0 is the aggregated
+ * document for all the records. The star-tree has a single leaf root node (all the documents are scanned for the
+ * filters and group-bys), so queries save the cost of aggregating the raw records but still scan the unique dimension
+ * combinations.
+ * <p>Only the aggregation functions with fixed width aggregated value (COUNT, MIN, MAX, SUM) are supported, and all
+ * the dimensions must be single-value dictionary-encoded columns.
+ * <p>This class is thread-safe for single writer multiple readers. The aggregated values are updated in place, so the
+ * snapshot copies them under the same lock as the writer to get a point-in-time view. The copy is split into chunks of
+ * {@link #SNAPSHOT_CHUNK_SIZE} documents, and only the chunks modified since the previous snapshot are copied, the
+ * others are shared with the previous snapshot (copy-on-write), so that the cost of a snapshot is bounded by the
+ * records aggregated since the previous one instead of the size of the star-tree. The dimension values are never
+ * modified after the document is added, so they are not copied.
+ */
+public class MutableStarTreeV2 implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MutableStarTreeV2.class);
+
+  private static final int MAX_NUM_DOCS_PER_CHUNK = 100_000;
+  private static final int DEFAULT_ESTIMATED_CARDINALITY = 10_000;
+  private static final int MAX_OVERFLOW_HASH_SIZE = 10_000;
+  // Number of documents in each chunk of the snapshot, must be a power of 2
+  static final int SNAPSHOT_CHUNK_SIZE = 256;
+  private static final int SNAPSHOT_CHUNK_SHIFT = Integer.numberOfTrailingZeros(SNAPSHOT_CHUNK_SIZE);
+  private static final int SNAPSHOT_CHUNK_MASK = SNAPSHOT_CHUNK_SIZE - 1;
+
+  private final List<String> _dimensions;
+  private final FieldSpec[] _dimensionFieldSpecs;
+  private final Dictionary[] _dimensionDictionaries;
+  private final FixedByteSingleColumnSingleValueReaderWriter[] _dimensionForwardIndexes;
+  private final Set<AggregationFunctionColumnPair> _functionColumnPairs;
+  private final String[] _metrics;
+  private final ValueAggregator[] _valueAggregators;
+  private final MetricFieldSpec[] _metricFieldSpecs;
+  private final FixedByteSingleColumnSingleValueReaderWriter[] _metricForwardIndexes;
+  private final Map<String, Integer> _dimensionIndexMap = new HashMap<>();
+  private final Map<String, Integer> _metricIndexMap = new HashMap<>();
+  private final int _maxLeafRecords;
+  private final Set<String> _skipStarNodeCreationForDimensions;
+  private final IdMap<FixedIntArray> _dimensionsToDocIdMap;
+
+  private volatile int _numDocs = 0;
+  // Guarded by this
+  private long _numRecords = 0;
+  private Snapshot _snapshot;
+  // Chunks of the documents modified since the last snapshot
+  private final BitSet _modifiedChunks = new BitSet();
+
+  private MutableStarTreeV2(List<String> dimensions, Schema schema, Map<String, BaseMutableDictionary> dictionaryMap,
+      List<AggregationFunctionColumnPair> functionColumnPairs, StarTreeIndexConfig indexConfig, int capacity,
+      PinotDataBufferMemoryManager memoryManager, String allocationContext) {
+    int numDocsPerChunk = Math.min(capacity + 1, MAX_NUM_DOCS_PER_CHUNK);
+
+    _dimensions = dimensions;
+    int numDimensions = dimensions.size();
+    _dimensionFieldSpecs = new FieldSpec[numDimensions];
+    _dimensionDictionaries = new Dictionary[numDimensions];
+    _dimensionForwardIndexes = new FixedByteSingleColumnSingleValueReaderWriter[numDimensions];
+    for (int i = 0; i < numDimensions; i++) {
+      String dimension = dimensions.get(i);
+      _dimensionFieldSpecs[i] = schema.getFieldSpecFor(dimension);
+      _dimensionDictionaries[i] = dictionaryMap.get(dimension);
+      _dimensionForwardIndexes[i] =
+          new FixedByteSingleColumnSingleValueReaderWriter(numDocsPerChunk, Integer.BYTES, memoryManager,
+              allocationContext + "." + dimension);
+      _dimensionIndexMap.put(dimension, i);
+    }
+
+    _functionColumnPairs = new HashSet<>(functionColumnPairs);
+    int numMetrics = functionColumnPairs.size();
+    _metrics = new String[numMetrics];
+    _valueAggregators = new ValueAggregator[numMetrics];
+    _metricFieldSpecs = new MetricFieldSpec[numMetrics];
+    _metricForwardIndexes = new FixedByteSingleColumnSingleValueReaderWriter[numMetrics];
+    for (int i = 0; i < numMetrics; i++) {
+      AggregationFunctionColumnPair functionColumnPair = functionColumnPairs.get(i);
+      String metric = functionColumnPair.toColumnName();
+      _metrics[i] = functionColumnPair.getColumn();
+      _valueAggregators[i] = ValueAggregatorFactory.getValueAggregator(functionColumnPair.getFunctionType());
+      DataType aggregatedValueType = _valueAggregators[i].getAggregatedValueType();
+      _metricFieldSpecs[i] = new MetricFieldSpec(metric, aggregatedValueType);
+      _metricForwardIndexes[i] =
+          new FixedByteSingleColumnSingleValueReaderWriter(numDocsPerChunk, aggregatedValueType.size(), memoryManager,
+              allocationContext + "." + metric);
+      _metricIndexMap.put(metric, i);
+    }
+
+    _maxLeafRecords = indexConfig.getMaxLeafRecords();
+    List<String> skipStarNodeCreationForDimensions = indexConfig.getSkipStarNodeCreationForDimensions();
+    _skipStarNodeCreationForDimensions =
+        skipStarNodeCreationForDimensions != null ? new HashSet<>(skipStarNodeCreationForDimensions)
+            : Collections.emptySet();
+
+    int estimatedCardinality = Math.min(capacity + 1, DEFAULT_ESTIMATED_CARDINALITY);
+    _dimensionsToDocIdMap =
+        new FixedIntArrayOffHeapIdMap(estimatedCardinality, MAX_OVERFLOW_HASH_SIZE, numDimensions, memoryManager,
+            allocationContext + ".idMap");
+  }
+
+  /**
+   * Creates a mutable star-tree for the given star-tree index config, or returns {@code null} if the star-tree cannot be
+   * maintained on the consuming segment.
+   * <p>The function column pairs not supported by the mutable star-tree are skipped.
+   *
+   * @param indexConfig Star-tree index config
+   * @param schema Schema of the segment
+   * @param dictionaryMap Map from column to the dictionary of the consuming segment
+   * @param capacity Maximum number of records of the consuming segment
+   * @param memoryManager Memory manager of the consuming segment
+   * @param allocationContext Context for the memory allocation
+   * @return Mutable star-tree, or {@code null} if the star-tree cannot be maintained
+   */
+  @Nullable
+  public static MutableStarTreeV2 create(StarTreeIndexConfig indexConfig, Schema schema,
+      Map<String, BaseMutableDictionary> dictionaryMap, int capacity, PinotDataBufferMemoryManager memoryManager,
+      String allocationContext) {
+    List<String> dimensions = indexConfig.getDimensionsSplitOrder();
+    if (dimensions == null || dimensions.isEmpty()) {
+      LOGGER.warn("Skip creating mutable star-tree without dimensions");
+      return null;
+    }
+    for (String dimension : dimensions) {
+      FieldSpec fieldSpec = schema.getFieldSpecFor(dimension);
+      if (fieldSpec == null || !fieldSpec.isSingleValueField() || !dictionaryMap.containsKey(dimension)) {
+        LOGGER.warn("Skip creating mutable star-tree with dimension: {} not being a single-value dictionary-encoded "
+            + "column", dimension);
+        return null;
+      }
+    }
+
+    // Use LinkedHashSet to remove the duplicate function column pairs and preserve the order
+    Set<AggregationFunctionColumnPair> functionColumnPairSet = new LinkedHashSet<>();
+    for (String functionColumnPairName : indexConfig.getFunctionColumnPairs()) {
+      AggregationFunctionColumnPair functionColumnPair =
+          AggregationFunctionColumnPair.fromColumnName(functionColumnPairName);
+      if (isSupported(functionColumnPair, schema)) {
+        functionColumnPairSet.add(functionColumnPair);
+      } else {
+        LOGGER.info("Skip function column pair: {} not supported by mutable star-tree", functionColumnPairName);
+      }
+    }
+    if (functionColumnPairSet.isEmpty()) {
+      LOGGER.warn("Skip creating mutable star-tree without supported function column pairs");
+      return null;
+    }
+
+    return new MutableStarTreeV2(new ArrayList<>(dimensions), schema, dictionaryMap,
+        new ArrayList<>(functionColumnPairSet), indexConfig, capacity, memoryManager, allocationContext);
+  }
+
+  private static boolean isSupported(AggregationFunctionColumnPair functionColumnPair, Schema schema) {
+    DataType aggregatedValueType;
+    try {
+      aggregatedValueType = ValueAggregatorFactory.getAggregatedValueType(functionColumnPair.getFunctionType());
+    } catch (IllegalStateException e) {
+      return false;
+    }
+    if (aggregatedValueType != DataType.LONG && aggregatedValueType != DataType.DOUBLE) {
+      return false;
+    }
+    String column = functionColumnPair.getColumn();
+    if (column.equals(AggregationFunctionColumnPair.STAR)) {
+      return true;
+    }
+    FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+    if (fieldSpec == null || !fieldSpec.isSingleValueField()) {
+      return false;
+    }
+    switch (fieldSpec.getDataType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the dimensions of the star-tree, which is the order of the dictionary ids passed to
+   * {@link #index(GenericRow, int[])}.
+   */
+  public List<String> getDimensions() {
+    return _dimensions;
+  }
+
+  /**
+   * Aggregates a record into the star-tree.
+   *
+   * @param row Record represented as a {@link GenericRow}
+   * @param dimensionDictIds Dictionary ids of the dimensions of the record (in the order of {@link #getDimensions()}),
+   *                         which should not be modified after the call
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized void index(GenericRow row, int[] dimensionDictIds) {
+    int numDocs = _numDocs;
+    int numMetrics = _metrics.length;
+
+    // Update the aggregated document for all the records
+    if (numDocs == 0) {
+      for (FixedByteSingleColumnSingleValueReaderWriter dimensionForwardIndex : _dimensionForwardIndexes) {
+        dimensionForwardIndex.setInt(0, STAR_IN_FORWARD_INDEX);
+      }
+      for (int i = 0; i < numMetrics; i++) {
+        setAggregatedValue(i, 0, _valueAggregators[i].getInitialAggregatedValue(getRawValue(row, i)));
+      }
+      numDocs = 1;
+    } else {
+      for (int i = 0; i < numMetrics; i++) {
+        setAggregatedValue(i, 0, _valueAggregators[i].applyRawValue(getAggregatedValue(i, 0), getRawValue(row, i)));
+      }
+    }
+
+    // Document id is offset by 1 because of the aggregated document
+    int docId = _dimensionsToDocIdMap.put(new FixedIntArray(dimensionDictIds)) + 1;
+    if (docId == numDocs) {
+      for (int i = 0; i < dimensionDictIds.length; i++) {
+        _dimensionForwardIndexes[i].setInt(docId, dimensionDictIds[i]);
+      }
+      for (int i = 0; i < numMetrics; i++) {
+        setAggregatedValue(i, docId, _valueAggregators[i].getInitialAggregatedValue(getRawValue(row, i)));
+      }
+      numDocs++;
+    } else {
+      for (int i = 0; i < numMetrics; i++) {
+        setAggregatedValue(i, docId,
+            _valueAggregators[i].applyRawValue(getAggregatedValue(i, docId), getRawValue(row, i)));
+      }
+    }
+
+    // The aggregated document is always modified
+    _modifiedChunks.set(0);
+    _modifiedChunks.set(docId >>> SNAPSHOT_CHUNK_SHIFT);
+
+    // Update number of documents at last to make the new document queryable
+    _numDocs = numDocs;
+    _numRecords++;
+  }
+
+  @Nullable
+  private Object getRawValue(GenericRow row, int metricIndex) {
+    String metric = _metrics[metricIndex];
+    return metric.equals(AggregationFunctionColumnPair.STAR) ? null : row.getValue(metric);
+  }
+
+  private Object getAggregatedValue(int metricIndex, int docId) {
+    FixedByteSingleColumnSingleValueReaderWriter forwardIndex = _metricForwardIndexes[metricIndex];
+    if (_metricFieldSpecs[metricIndex].getDataType() == DataType.LONG) {
+      return forwardIndex.getLong(docId);
+    } else {
+      return forwardIndex.getDouble(docId);
+    }
+  }
+
+  private void setAggregatedValue(int metricIndex, int docId, Object value) {
+    FixedByteSingleColumnSingleValueReaderWriter forwardIndex = _metricForwardIndexes[metricIndex];
+    if (_metricFieldSpecs[metricIndex].getDataType() == DataType.LONG) {
+      forwardIndex.setLong(docId, ((Number) value).longValue());
+    } else {
+      forwardIndex.setDouble(docId, ((Number) value).doubleValue());
+    }
+  }
+
+  /**
+   * Returns the number of documents in the star-tree, including the aggregated document.
+   */
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  /**
+   * Returns a {@link StarTreeV2} on the records currently aggregated into the star-tree, or {@code null} if no record
+   * has been aggregated yet. The returned star-tree is not affected by the records aggregated afterwards.
+   */
+  @Nullable
+  public synchronized StarTreeV2 getSnapshot() {
+    if (_numDocs == 0) {
+      return null;
+    }
+    // Reuse the last snapshot if no record has been aggregated since then
+    if (_snapshot == null || _snapshot._numRecords != _numRecords) {
+      _snapshot = new Snapshot(_numDocs, _numRecords, _snapshot);
+      _modifiedChunks.clear();
+    }
+    return _snapshot;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (FixedByteSingleColumnSingleValueReaderWriter dimensionForwardIndex : _dimensionForwardIndexes) {
+      dimensionForwardIndex.close();
+    }
+    for (FixedByteSingleColumnSingleValueReaderWriter metricForwardIndex : _metricForwardIndexes) {
+      metricForwardIndex.close();
+    }
+    _dimensionsToDocIdMap.clear();
+  }
+
+  /**
+   * Immutable view of the star-tree with a fixed number of documents and a copy of the aggregated values.
+   * <p>Should be created while holding the lock of the star-tree, where the chunks not modified since the previous
+   * snapshot are shared with it.
+   */
+  private class Snapshot implements StarTreeV2, StarTree {
+    final int _numDocs;
+    final long _numRecords;
+    final SingleColumnSingleValueReader[] _metricReaders;
+    final StarTreeV2Metadata _metadata;
+    final StarTreeNode _root;
+
+    Snapshot(int numDocs, long numRecords, @Nullable Snapshot previousSnapshot) {
+      _numDocs = numDocs;
+      _numRecords = numRecords;
+      int numChunks = ((numDocs - 1) >>> SNAPSHOT_CHUNK_SHIFT) + 1;
+      int numMetrics = _metrics.length;
+      _metricReaders = new SingleColumnSingleValueReader[numMetrics];
+      for (int i = 0; i < numMetrics; i++) {
+        FixedByteSingleColumnSingleValueReaderWriter forwardIndex = _metricForwardIndexes[i];
+        if (_metricFieldSpecs[i].getDataType() == DataType.LONG) {
+          long[][] previousChunks =
+              previousSnapshot != null ? ((LongValueReader) previousSnapshot._metricReaders[i])._chunks : null;
+          long[][] chunks = new long[numChunks][];
+          for (int chunkId = 0; chunkId < numChunks; chunkId++) {
+            if (isChunkReusable(chunkId, previousChunks)) {
+              chunks[chunkId] = previousChunks[chunkId];
+            } else {
+              long[] chunk = new long[SNAPSHOT_CHUNK_SIZE];
+              int startDocId = chunkId << SNAPSHOT_CHUNK_SHIFT;
+              int endDocId = Math.min(startDocId + SNAPSHOT_CHUNK_SIZE, numDocs);
+              for (int docId = startDocId; docId < endDocId; docId++) {
+                chunk[docId - startDocId] = forwardIndex.getLong(docId);
+              }
+              chunks[chunkId] = chunk;
+            }
+          }
+          _metricReaders[i] = new LongValueReader(chunks);
+        } else {
+          double[][] previousChunks =
+              previousSnapshot != null ? ((DoubleValueReader) previousSnapshot._metricReaders[i])._chunks : null;
+          double[][] chunks = new double[numChunks][];
+          for (int chunkId = 0; chunkId < numChunks; chunkId++) {
+            if (isChunkReusable(chunkId, previousChunks)) {
+              chunks[chunkId] = previousChunks[chunkId];
+            } else {
+              double[] chunk = new double[SNAPSHOT_CHUNK_SIZE];
+              int startDocId = chunkId << SNAPSHOT_CHUNK_SHIFT;
+              int endDocId = Math.min(startDocId + SNAPSHOT_CHUNK_SIZE, numDocs);
+              for (int docId = startDocId; docId < endDocId; docId++) {
+                chunk[docId - startDocId] = forwardIndex.getDouble(docId);
+              }
+              chunks[chunkId] = chunk;
+            }
+          }
+          _metricReaders[i] = new DoubleValueReader(chunks);
+        }
+      }
+      _metadata = new StarTreeV2Metadata(numDocs, _dimensions, _functionColumnPairs, _maxLeafRecords,
+          _skipStarNodeCreationForDimensions);
+      _root = new LeafRootNode(numDocs);
+    }
+
+    /**
+     * Returns whether the chunk can be shared with the previous snapshot. A new document always modifies its chunk, so
+     * the chunks not modified have the same documents as in the previous snapshot.
+     */
+    private boolean isChunkReusable(int chunkId, @Nullable Object[] previousChunks) {
+      return previousChunks != null && chunkId < previousChunks.length && !_modifiedChunks.get(chunkId);
+    }
+
+    @Override
+    public StarTree getStarTree() {
+      return this;
+    }
+
+    @Override
+    public StarTreeV2Metadata getMetadata() {
+      return _metadata;
+    }
+
+    @Override
+    public DataSource getDataSource(String columnName) {
+      Integer dimensionIndex = _dimensionIndexMap.get(columnName);
+      if (dimensionIndex != null) {
+        return new StarTreeDataSource(_dimensionFieldSpecs[dimensionIndex], _numDocs,
+            _dimensionForwardIndexes[dimensionIndex], _dimensionDictionaries[dimensionIndex]);
+      }
+      Integer metricIndex = _metricIndexMap.get(columnName);
+      if (metricIndex != null) {
+        return new StarTreeDataSource(_metricFieldSpecs[metricIndex], _numDocs, _metricReaders[metricIndex], null);
+      }
+      return null;
+    }
+
+    @Override
+    public StarTreeNode getRoot() {
+      return _root;
+    }
+
+    @Override
+    public List<String> getDimensionNames() {
+      return _dimensions;
+    }
+
+    @Override
+    public void printTree(Map<String, Dictionary> dictionaryMap) {
+      LOGGER.info("Mutable star-tree with dimensions: {}, number of documents: {}", _dimensions, _numDocs);
+    }
+  }
+
+  /**
+   * Reader for the copied LONG aggregated values, stored in chunks of {@link #SNAPSHOT_CHUNK_SIZE} documents.
+   */
+  static class LongValueReader extends BaseSingleColumnSingleValueReader<ReaderContext> {
+    final long[][] _chunks;
+
+    LongValueReader(long[][] chunks) {
+      _chunks = chunks;
+    }
+
+    long getValue(int docId) {
+      return _chunks[docId >>> SNAPSHOT_CHUNK_SHIFT][docId & SNAPSHOT_CHUNK_MASK];
+    }
+
+    @Override
+    public ReaderContext createContext() {
+      return null;
+    }
+
+    @Override
+    public int getInt(int row) {
+      return (int) getValue(row);
+    }
+
+    @Override
+    public int getInt(int rowId, ReaderContext context) {
+      return (int) getValue(rowId);
+    }
+
+    @Override
+    public long getLong(int row) {
+      return getValue(row);
+    }
+
+    @Override
+    public long getLong(int rowId, ReaderContext context) {
+      return getValue(rowId);
+    }
+
+    @Override
+    public float getFloat(int row) {
+      return getValue(row);
+    }
+
+    @Override
+    public float getFloat(int rowId, ReaderContext context) {
+      return getValue(rowId);
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return getValue(row);
+    }
+
+    @Override
+    public double getDouble(int rowId, ReaderContext context) {
+      return getValue(rowId);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Reader for the copied DOUBLE aggregated values, stored in chunks of {@link #SNAPSHOT_CHUNK_SIZE} documents.
+   */
+  static class DoubleValueReader extends BaseSingleColumnSingleValueReader<ReaderContext> {
+    final double[][] _chunks;
+
+    DoubleValueReader(double[][] chunks) {
+      _chunks = chunks;
+    }
+
+    double getValue(int docId) {
+      return _chunks[docId >>> SNAPSHOT_CHUNK_SHIFT][docId & SNAPSHOT_CHUNK_MASK];
+    }
+
+    @Override
+    public ReaderContext createContext() {
+      return null;
+    }
+
+    @Override
+    public int getInt(int row) {
+      return (int) getValue(row);
+    }
+
+    @Override
+    public int getInt(int rowId, ReaderContext context) {
+      return (int) getValue(rowId);
+    }
+
+    @Override
+    public long getLong(int row) {
+      return (long) getValue(row);
+    }
+
+    @Override
+    public long getLong(int rowId, ReaderContext context) {
+      return (long) getValue(rowId);
+    }
+
+    @Override
+    public float getFloat(int row) {
+      return (float) getValue(row);
+    }
+
+    @Override
+    public float getFloat(int rowId, ReaderContext context) {
+      return (float) getValue(rowId);
+    }
+
+    @Override
+    public double getDouble(int row) {
+      return getValue(row);
+    }
+
+    @Override
+    public double getDouble(int rowId, ReaderContext context) {
+      return getValue(rowId);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Root node of the star-tree, which is a leaf node for all the documents except the aggregated document.
+   */
+  private static class LeafRootNode implements StarTreeNode {
+    final int _endDocId;
+
+    LeafRootNode(int endDocId) {
+      _endDocId = endDocId;
+    }
+
+    @Override
+    public int getDimensionId() {
+      return ALL;
+    }
+
+    @Override
+    public int getDimensionValue() {
+      return ALL;
+    }
+
+    @Override
+    public int getChildDimensionId() {
+      return ALL;
+    }
+
+    @Override
+    public int getStartDocId() {
+      return 1;
+    }
+
+    @Override
+    public int getEndDocId() {
+      return _endDocId;
+    }
+
+    @Override
+    public int getAggregatedDocId() {
+      return 0;
+    }
+
+    @Override
+    public int getNumChildren() {
+      return 0;
+    }
+
+    @Override
+    public boolean isLeaf() {
+      return true;
+    }
+
+    @Override
+    public StarTreeNode getChildForDimensionValue(int dimensionValue) {
+      return null;
+    }
+
+    @Override
+    public Iterator<? extends StarTreeNode> getChildrenIterator() {
+      return Collections.emptyIterator();
+    }
+  }
+}
@@ -22,15 +22,22 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.pinot.common.utils.FileUtils;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
@@ -51,6 +58,7 @@ import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForward
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.inv.RangeIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.text.LuceneTextIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.nullvalue.NullValueVectorCreator;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
@@ -78,12 +86,16 @@ import static org.apache.pinot.core.segment.creator.impl.V1Constants.MetadataKey
 public class SegmentColumnarIndexCreator implements SegmentCreator {
   // TODO Refactor class name to match interface name
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentColumnarIndexCreator.class);
+  // Number of rows buffered before indexing them in parallel across the columns
+  private static final int PARALLEL_INDEXING_BATCH_SIZE = 10_000;
   private SegmentGeneratorConfig config;
   private Map<String, ColumnIndexCreationInfo> indexCreationInfoMap;
-  private Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
-  private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
-  private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
-  private Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
+  // NOTE: Use concurrent maps because the creators can be initialized in parallel
+  private Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new ConcurrentHashMap<>();
+  private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new ConcurrentHashMap<>();
+  private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new ConcurrentHashMap<>();
+  private Map<String, InvertedIndexCreator> _rangeIndexCreatorMap = new ConcurrentHashMap<>();
+  private Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new ConcurrentHashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -93,6 +105,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
   private final Set<String> _textIndexColumns = new HashSet<>();
 
+  // For parallel index creation, null if the columns are processed sequentially
+  private ExecutorService _executorService;
+  private List<GenericRow> _rowBuffer;
+
   @Override
   public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
       Map<String, ColumnIndexCreationInfo> indexCreationInfoMap, Schema schema, File outDir)
@@ -118,99 +134,128 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       invertedIndexColumns.add(columnName);
     }
 
+    Set<String> rangeIndexColumns = new HashSet<>();
+    for (String columnName : config.getRangeIndexCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create range index for column: %s because it is not in schema", columnName);
+      rangeIndexColumns.add(columnName);
+    }
+
     for (String columnName : config.getTextIndexCreationColumns()) {
       Preconditions.checkState(schema.hasColumn(columnName),
           "Cannot create text index for column: %s because it is not in schema", columnName);
       _textIndexColumns.add(columnName);
     }
 
+    _nullHandlingEnabled = config.isNullHandlingEnabled();
+
+    int numIndexCreationThreads = config.getNumIndexCreationThreads();
+    if (numIndexCreationThreads > 1) {
+      _executorService = Executors.newFixedThreadPool(Math.min(numIndexCreationThreads, fieldSpecs.size()),
+          new NamedThreadFactory("SegmentIndexCreator-" + outDir.getName()));
+      _rowBuffer = new ArrayList<>(PARALLEL_INDEXING_BATCH_SIZE);
+      LOGGER.info("Creating indexes for segment: {} with {} threads", outDir.getName(), numIndexCreationThreads);
+    }
+
     // Initialize creators for dictionary, forward index and inverted index
+    List<String> columns = new ArrayList<>(fieldSpecs.size());
     for (FieldSpec fieldSpec : fieldSpecs) {
       // Ignore virtual columns
-      if (fieldSpec.isVirtualColumn()) {
-        continue;
+      if (!fieldSpec.isVirtualColumn()) {
+        columns.add(fieldSpec.getName());
       }
+    }
+    runPerColumn(columns,
+        columnName -> initColumn(schema.getFieldSpecFor(columnName), invertedIndexColumns, rangeIndexColumns));
+  }
 
-      String columnName = fieldSpec.getName();
-      ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(columnName);
-      Preconditions.checkNotNull(indexCreationInfo, "Missing index creation info for column: %s", columnName);
-
-      if (createDictionaryForColumn(indexCreationInfo, segmentCreationSpec, fieldSpec)) {
-        // Create dictionary-encoded index
-
-        // Initialize dictionary creator
-        SegmentDictionaryCreator dictionaryCreator =
-            new SegmentDictionaryCreator(indexCreationInfo.getSortedUniqueElementsArray(), fieldSpec, _indexDir,
-                indexCreationInfo.isUseVarLengthDictionary());
-        _dictionaryCreatorMap.put(columnName, dictionaryCreator);
-
-        // Create dictionary
-        try {
-          dictionaryCreator.build();
-        } catch (Exception e) {
-          LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
-              fieldSpec.getName(), indexCreationInfo.getDistinctValueCount(), dictionaryCreator.getNumBytesPerEntry());
-          throw e;
-        }
+  private void initColumn(FieldSpec fieldSpec, Set<String> invertedIndexColumns, Set<String> rangeIndexColumns)
+      throws Exception {
+    String columnName = fieldSpec.getName();
+    ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(columnName);
+    Preconditions.checkNotNull(indexCreationInfo, "Missing index creation info for column: %s", columnName);
+
+    if (createDictionaryForColumn(indexCreationInfo, config, fieldSpec)) {
+      // Create dictionary-encoded index
+
+      // Initialize dictionary creator
+      SegmentDictionaryCreator dictionaryCreator =
+          new SegmentDictionaryCreator(indexCreationInfo.getSortedUniqueElementsArray(), fieldSpec, _indexDir,
+              indexCreationInfo.isUseVarLengthDictionary());
+      _dictionaryCreatorMap.put(columnName, dictionaryCreator);
+
+      // Create dictionary
+      try {
+        dictionaryCreator.build();
+      } catch (Exception e) {
+        LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
+            fieldSpec.getName(), indexCreationInfo.getDistinctValueCount(), dictionaryCreator.getNumBytesPerEntry());
+        throw e;
+      }
 
-        // Initialize forward index creator
-        int cardinality = indexCreationInfo.getDistinctValueCount();
-        if (fieldSpec.isSingleValueField()) {
-          if (indexCreationInfo.isSorted()) {
-            _forwardIndexCreatorMap
-                .put(columnName, new SingleValueSortedForwardIndexCreator(_indexDir, columnName, cardinality));
-          } else {
-            _forwardIndexCreatorMap.put(columnName,
-                new SingleValueUnsortedForwardIndexCreator(_indexDir, columnName, cardinality, totalDocs));
-          }
+      // Initialize forward index creator
+      int cardinality = indexCreationInfo.getDistinctValueCount();
+      if (fieldSpec.isSingleValueField()) {
+        if (indexCreationInfo.isSorted()) {
+          _forwardIndexCreatorMap
+              .put(columnName, new SingleValueSortedForwardIndexCreator(_indexDir, columnName, cardinality));
         } else {
           _forwardIndexCreatorMap.put(columnName,
-              new MultiValueUnsortedForwardIndexCreator(_indexDir, columnName, cardinality, totalDocs,
-                  indexCreationInfo.getTotalNumberOfEntries()));
-        }
-
-        // Initialize inverted index creator; skip creating inverted index if sorted
-        if (invertedIndexColumns.contains(columnName) && !indexCreationInfo.isSorted()) {
-          if (segmentCreationSpec.isOnHeap()) {
-            _invertedIndexCreatorMap
-                .put(columnName, new OnHeapBitmapInvertedIndexCreator(_indexDir, columnName, cardinality));
-          } else {
-            _invertedIndexCreatorMap.put(columnName,
-                new OffHeapBitmapInvertedIndexCreator(_indexDir, fieldSpec, cardinality, totalDocs,
-                    indexCreationInfo.getTotalNumberOfEntries()));
-          }
+              new SingleValueUnsortedForwardIndexCreator(_indexDir, columnName, cardinality, totalDocs));
         }
       } else {
-        // Create raw index
-
-        // TODO: add support to multi-value column and inverted index
-        Preconditions.checkState(fieldSpec.isSingleValueField(), "Cannot create raw index for multi-value column: %s",
-            columnName);
-        Preconditions.checkState(!invertedIndexColumns.contains(columnName),
-            "Cannot create inverted index for raw index column: %s", columnName);
-
-        ChunkCompressorFactory.CompressionType compressionType =
-            getColumnCompressionType(segmentCreationSpec, fieldSpec);
-
-        // Initialize forward index creator
         _forwardIndexCreatorMap.put(columnName,
-            getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
-                indexCreationInfo.getLengthOfLongestEntry()));
+            new MultiValueUnsortedForwardIndexCreator(_indexDir, columnName, cardinality, totalDocs,
+                indexCreationInfo.getTotalNumberOfEntries()));
+      }
 
-        // Initialize text index creator
-        if (_textIndexColumns.contains(columnName)) {
+      // Initialize inverted index creator; skip creating inverted index if sorted
+      if (invertedIndexColumns.contains(columnName) && !indexCreationInfo.isSorted()) {
+        if (config.isOnHeap()) {
           _invertedIndexCreatorMap
-              .put(columnName, new LuceneTextIndexCreator(columnName, _indexDir, true /* commitOnClose */));
+              .put(columnName, new OnHeapBitmapInvertedIndexCreator(_indexDir, columnName, cardinality));
+        } else {
+          _invertedIndexCreatorMap.put(columnName,
+              new OffHeapBitmapInvertedIndexCreator(_indexDir, fieldSpec, cardinality, totalDocs,
+                  indexCreationInfo.getTotalNumberOfEntries()));
         }
       }
 
-      _nullHandlingEnabled = config.isNullHandlingEnabled();
-
-      if (_nullHandlingEnabled) {
-        // Initialize Null value vector map
-        _nullValueVectorCreatorMap.put(columnName, new NullValueVectorCreator(_indexDir, columnName));
+      // Initialize range index creator; skip creating range index if sorted
+      if (rangeIndexColumns.contains(columnName) && !indexCreationInfo.isSorted()) {
+        _rangeIndexCreatorMap.put(columnName,
+            new RangeIndexCreator(_indexDir, fieldSpec, cardinality, totalDocs,
+                indexCreationInfo.getTotalNumberOfEntries()));
+      }
+    } else {
+      // Create raw index
+
+      // TODO: add support to multi-value column and inverted index
+      Preconditions.checkState(fieldSpec.isSingleValueField(), "Cannot create raw index for multi-value column: %s",
+          columnName);
+      Preconditions.checkState(!invertedIndexColumns.contains(columnName),
+          "Cannot create inverted index for raw index column: %s", columnName);
+      Preconditions.checkState(!rangeIndexColumns.contains(columnName),
+          "Cannot create range index for raw index column: %s", columnName);
+
+      ChunkCompressorFactory.CompressionType compressionType = getColumnCompressionType(config, fieldSpec);
+
+      // Initialize forward index creator
+      _forwardIndexCreatorMap.put(columnName,
+          getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
+              indexCreationInfo.getLengthOfLongestEntry()));
+
+      // Initialize text index creator
+      if (_textIndexColumns.contains(columnName)) {
+        _invertedIndexCreatorMap
+            .put(columnName, new LuceneTextIndexCreator(columnName, _indexDir, true /* commitOnClose */));
       }
     }
+
+    if (_nullHandlingEnabled) {
+      // Initialize Null value vector map
+      _nullValueVectorCreatorMap.put(columnName, new NullValueVectorCreator(_indexDir, columnName));
+    }
   }
 
   /**
@@ -280,57 +325,143 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
   @Override
   public void indexRow(GenericRow row) {
-    for (String columnName : _forwardIndexCreatorMap.keySet()) {
-      Object columnValueToIndex = row.getValue(columnName);
-      if (columnValueToIndex == null) {
-        throw new RuntimeException("Null value for column:" + columnName);
+    if (_executorService == null) {
+      for (String columnName : _forwardIndexCreatorMap.keySet()) {
+        indexColumn(columnName, row, docIdCounter);
       }
+      docIdCounter++;
+    } else {
+      // Buffer a copy of the row (the caller might reuse the row), and index the buffered rows once the buffer is full
+      GenericRow rowCopy = new GenericRow();
+      rowCopy.init(row);
+      _rowBuffer.add(rowCopy);
+      if (_rowBuffer.size() == PARALLEL_INDEXING_BATCH_SIZE) {
+        indexBufferedRows();
+      }
+    }
+  }
 
-      boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
-      SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
-
-      if (isSingleValue) {
-        // SV column
-        if (dictionaryCreator != null) {
-          // dictionary encoded SV column
-          // get dictID from dictionary
-          int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
-          // store the docID -> dictID mapping in forward index
-          ((SingleValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docIdCounter, dictId);
-          if (_invertedIndexCreatorMap.containsKey(columnName)) {
-            // if inverted index enabled during segment creation,
-            // then store dictID -> docID mapping in inverted index
-            _invertedIndexCreatorMap.get(columnName).add(dictId);
-          }
-        } else {
-          // non-dictionary encoded SV column
-          // store the docId -> raw value mapping in forward index
-          ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName))
-              .index(docIdCounter, columnValueToIndex);
-          // text-search enabled column
-          if (_textIndexColumns.contains(columnName)) {
-            InvertedIndexCreator textInvertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
-            // add the column value to lucene index
-            textInvertedIndexCreator.addDoc(columnValueToIndex, docIdCounter);
-          }
+  /**
+   * Indexes the buffered rows with one task per column. Each task only accesses the creators of its own column.
+   */
+  private void indexBufferedRows() {
+    int startDocId = docIdCounter;
+    int numRows = _rowBuffer.size();
+    try {
+      runPerColumn(_forwardIndexCreatorMap.keySet(), columnName -> {
+        for (int i = 0; i < numRows; i++) {
+          indexColumn(columnName, _rowBuffer.get(i), startDocId + i);
         }
-      } else {
-        // MV column (always dictionary encoded)
-        int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
-        ((MultiValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docIdCounter, dictIds);
+      });
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Caught exception while indexing rows", e);
+    }
+    docIdCounter += numRows;
+    _rowBuffer.clear();
+  }
+
+  private void indexColumn(String columnName, GenericRow row, int docId) {
+    Object columnValueToIndex = row.getValue(columnName);
+    if (columnValueToIndex == null) {
+      throw new RuntimeException("Null value for column:" + columnName);
+    }
+
+    boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+
+    if (isSingleValue) {
+      // SV column
+      if (dictionaryCreator != null) {
+        // dictionary encoded SV column
+        // get dictID from dictionary
+        int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
+        // store the docID -> dictID mapping in forward index
+        ((SingleValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docId, dictId);
         if (_invertedIndexCreatorMap.containsKey(columnName)) {
-          _invertedIndexCreatorMap.get(columnName).add(dictIds, dictIds.length);
+          // if inverted index enabled during segment creation,
+          // then store dictID -> docID mapping in inverted index
+          _invertedIndexCreatorMap.get(columnName).add(dictId);
         }
+        InvertedIndexCreator rangeIndexCreator = _rangeIndexCreatorMap.get(columnName);
+        if (rangeIndexCreator != null) {
+          rangeIndexCreator.add(dictId);
+        }
+      } else {
+        // non-dictionary encoded SV column
+        // store the docId -> raw value mapping in forward index
+        ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName))
+            .index(docId, columnValueToIndex);
+        // text-search enabled column
+        if (_textIndexColumns.contains(columnName)) {
+          InvertedIndexCreator textInvertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+          // add the column value to lucene index
+          textInvertedIndexCreator.addDoc(columnValueToIndex, docId);
+        }
+      }
+    } else {
+      // MV column (always dictionary encoded)
+      int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
+      ((MultiValueForwardIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docId, dictIds);
+      if (_invertedIndexCreatorMap.containsKey(columnName)) {
+        _invertedIndexCreatorMap.get(columnName).add(dictIds, dictIds.length);
+      }
+      InvertedIndexCreator rangeIndexCreator = _rangeIndexCreatorMap.get(columnName);
+      if (rangeIndexCreator != null) {
+        rangeIndexCreator.add(dictIds, dictIds.length);
       }
+    }
 
-      if (_nullHandlingEnabled) {
-        // If row has null value for given column name, add to null value vector
-        if (row.isNullValue(columnName)) {
-          _nullValueVectorCreatorMap.get(columnName).setNull(docIdCounter);
-        }
+    if (_nullHandlingEnabled) {
+      // If row has null value for given column name, add to null value vector
+      if (row.isNullValue(columnName)) {
+        _nullValueVectorCreatorMap.get(columnName).setNull(docId);
       }
     }
-    docIdCounter++;
+  }
+
+  /**
+   * Runs the given task for each of the given columns, in parallel if parallel index creation is enabled.
+   */
+  private void runPerColumn(Collection<String> columns, ColumnTask task)
+      throws Exception {
+    if (_executorService == null) {
+      for (String column : columns) {
+        task.run(column);
+      }
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>(columns.size());
+    for (String column : columns) {
+      futures.add(_executorService.submit(() -> {
+        task.run(column);
+        return null;
+      }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    } finally {
+      // Cancel the remaining tasks on failure
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private interface ColumnTask {
+    void run(String column)
+        throws Exception;
   }
 
   @Override
@@ -341,13 +472,45 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void seal()
       throws ConfigurationException, IOException {
-    for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
+    if (_executorService == null) {
+      for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
+        invertedIndexCreator.seal();
+      }
+      for (InvertedIndexCreator rangeIndexCreator : _rangeIndexCreatorMap.values()) {
+        rangeIndexCreator.seal();
+      }
+      for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
+        nullValueVectorCreator.seal();
+      }
+    } else {
+      if (!_rowBuffer.isEmpty()) {
+        indexBufferedRows();
+      }
+      try {
+        runPerColumn(_forwardIndexCreatorMap.keySet(), this::sealColumn);
+      } catch (IOException | RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IOException("Caught exception while sealing the indexes", e);
+      }
+    }
+    writeMetadata();
+  }
+
+  private void sealColumn(String columnName)
+      throws IOException {
+    InvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+    if (invertedIndexCreator != null) {
       invertedIndexCreator.seal();
     }
-    for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
+    InvertedIndexCreator rangeIndexCreator = _rangeIndexCreatorMap.get(columnName);
+    if (rangeIndexCreator != null) {
+      rangeIndexCreator.seal();
+    }
+    NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+    if (nullValueVectorCreator != null) {
       nullValueVectorCreator.seal();
     }
-    writeMetadata();
   }
 
   private void writeMetadata()
@@ -574,8 +737,11 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void close()
       throws IOException {
+    if (_executorService != null) {
+      _executorService.shutdownNow();
+    }
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
-            _nullValueVectorCreatorMap.values()));
+            _rangeIndexCreatorMap.values(), _nullValueVectorCreatorMap.values()));
   }
 }
@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.inv;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.creator.InvertedIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Implementation of {@link InvertedIndexCreator} that creates a bitmap based range index on dictionary ids.
+ * <p>Because the dictionary is sorted, a range predicate always matches a contiguous range of dictionary ids. The
+ * dictionary ids are split into at most {@code numRanges} contiguous ranges with roughly the same number of values
+ * each, and one bitmap is stored per range. A range predicate can then be solved by OR-ing the bitmaps for the ranges
+ * that are fully covered by the predicate, and only scanning the documents within the (at most 2) partially covered
+ * ranges.
+ * <pre>
+ * Layout for the range index:
+ * |-------------------------------------------------------------------------|
+ * |                                 Version                                 |
+ * |                            Number of ranges                             |
+ * |-------------------------------------------------------------------------|
+ * |                       Start dictId of 1st range                         |
+ * |                                   ...                                   |
+ * |                       Start dictId of last range                        |
+ * |               End dictId of last range (exclusive, cardinality)         |
+ * |-------------------------------------------------------------------------|
+ * |                    Start offset of 1st bitmap                           |
+ * |                                   ...                                   |
+ * |                  End offset of last bitmap (exclusive)                  |
+ * |-------------------------------------------------------------------------|
+ * |                           Data for 1st bitmap                           |
+ * |                                   ...                                   |
+ * |                           Data for last bitmap                          |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ * <p>Similar to {@link OffHeapBitmapInvertedIndexCreator}, the dictIds are buffered off-heap when added, and the range
+ * boundaries and bitmaps are computed when seal() is called.
+ */
+public final class RangeIndexCreator implements InvertedIndexCreator {
+  public static final int VERSION = 1;
+  public static final int DEFAULT_NUM_RANGES = 20;
+
+  // Use MMapBuffer if the value buffer size is larger than 2G
+  private static final int NUM_VALUES_THRESHOLD_FOR_MMAP_BUFFER = 500_000_000;
+
+  private static final String FORWARD_INDEX_VALUE_BUFFER_SUFFIX = ".range.fwd.idx.val.buf";
+  private static final String FORWARD_INDEX_LENGTH_BUFFER_SUFFIX = ".range.fwd.idx.len.buf";
+  private static final String DICT_ID_COUNT_BUFFER_SUFFIX = ".range.dict.id.count.buf";
+
+  private final File _rangeIndexFile;
+  private final File _forwardIndexValueBufferFile;
+  private final File _forwardIndexLengthBufferFile;
+  private final File _dictIdCountBufferFile;
+  private final boolean _singleValue;
+  private final int _cardinality;
+  private final int _numDocs;
+  private final int _numValues;
+  private final int _numRanges;
+  private final boolean _useMMapBuffer;
+
+  private int _nextDocId;
+  private int _nextValueId;
+  private PinotDataBuffer _forwardIndexValueBuffer;
+  // For multi-valued column only because each docId can have multiple dictIds
+  private PinotDataBuffer _forwardIndexLengthBuffer;
+  // Number of values for each dictId, re-used to store the range id for each dictId when sealing
+  private PinotDataBuffer _dictIdCountBuffer;
+
+  public RangeIndexCreator(File indexDir, FieldSpec fieldSpec, int cardinality, int numDocs, int numValues)
+      throws IOException {
+    this(indexDir, fieldSpec, cardinality, numDocs, numValues, DEFAULT_NUM_RANGES);
+  }
+
+  public RangeIndexCreator(File indexDir, FieldSpec fieldSpec, int cardinality, int numDocs, int numValues,
+      int numRanges)
+      throws IOException {
+    Preconditions.checkArgument(numRanges > 0, "Number of ranges must be positive, got: %s", numRanges);
+    String columnName = fieldSpec.getName();
+    _rangeIndexFile = new File(indexDir, columnName + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    _forwardIndexValueBufferFile = new File(indexDir, columnName + FORWARD_INDEX_VALUE_BUFFER_SUFFIX);
+    _forwardIndexLengthBufferFile = new File(indexDir, columnName + FORWARD_INDEX_LENGTH_BUFFER_SUFFIX);
+    _dictIdCountBufferFile = new File(indexDir, columnName + DICT_ID_COUNT_BUFFER_SUFFIX);
+    _singleValue = fieldSpec.isSingleValueField();
+    _cardinality = cardinality;
+    _numDocs = numDocs;
+    _numValues = _singleValue ? numDocs : numValues;
+    _numRanges = Math.min(numRanges, cardinality);
+    _useMMapBuffer = _numValues > NUM_VALUES_THRESHOLD_FOR_MMAP_BUFFER;
+
+    try {
+      _forwardIndexValueBuffer = createTempBuffer((long) _numValues * Integer.BYTES, _forwardIndexValueBufferFile);
+      if (!_singleValue) {
+        _forwardIndexLengthBuffer = createTempBuffer((long) _numDocs * Integer.BYTES, _forwardIndexLengthBufferFile);
+      }
+
+      // We need to clear the dictId count buffer because we rely on the initial value of 0
+      _dictIdCountBuffer = createTempBuffer((long) _cardinality * Integer.BYTES, _dictIdCountBufferFile);
+      for (int i = 0; i < _cardinality; i++) {
+        putInt(_dictIdCountBuffer, i, 0);
+      }
+    } catch (Exception e) {
+      destroyBuffer(_forwardIndexValueBuffer, _forwardIndexValueBufferFile);
+      destroyBuffer(_forwardIndexLengthBuffer, _forwardIndexLengthBufferFile);
+      destroyBuffer(_dictIdCountBuffer, _dictIdCountBufferFile);
+      throw e;
+    }
+  }
+
+  @Override
+  public void add(int dictId) {
+    putInt(_forwardIndexValueBuffer, _nextDocId++, dictId);
+    putInt(_dictIdCountBuffer, dictId, getInt(_dictIdCountBuffer, dictId) + 1);
+  }
+
+  @Override
+  public void add(int[] dictIds, int length) {
+    for (int i = 0; i < length; i++) {
+      int dictId = dictIds[i];
+      putInt(_forwardIndexValueBuffer, _nextValueId++, dictId);
+      putInt(_dictIdCountBuffer, dictId, getInt(_dictIdCountBuffer, dictId) + 1);
+    }
+    putInt(_forwardIndexLengthBuffer, _nextDocId++, length);
+  }
+
+  @Override
+  public void addDoc(Object document, int docIdCounter) {
+    throw new IllegalStateException("Range index creator does not support Object type currently");
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    // Split the dictIds into ranges with roughly the same number of values, and re-use the dictId count buffer to
+    // store the range id for each dictId
+    IntArrayList rangeStartDictIds = new IntArrayList(_numRanges + 1);
+    if (_cardinality > 0) {
+      rangeStartDictIds.add(0);
+    }
+    long numValuesPerRange = ((long) _numValues + _numRanges - 1) / Math.max(_numRanges, 1);
+    long numValuesInCurrentRange = 0;
+    for (int dictId = 0; dictId < _cardinality; dictId++) {
+      numValuesInCurrentRange += getInt(_dictIdCountBuffer, dictId);
+      putInt(_dictIdCountBuffer, dictId, rangeStartDictIds.size() - 1);
+      if (numValuesInCurrentRange >= numValuesPerRange && dictId < _cardinality - 1
+          && rangeStartDictIds.size() < _numRanges) {
+        rangeStartDictIds.add(dictId + 1);
+        numValuesInCurrentRange = 0;
+      }
+    }
+    int numRanges = rangeStartDictIds.size();
+    rangeStartDictIds.add(_cardinality);
+
+    MutableRoaringBitmap[] bitmaps = new MutableRoaringBitmap[numRanges];
+    for (int i = 0; i < numRanges; i++) {
+      bitmaps[i] = new MutableRoaringBitmap();
+    }
+    if (_singleValue) {
+      for (int docId = 0; docId < _numDocs; docId++) {
+        bitmaps[getInt(_dictIdCountBuffer, getInt(_forwardIndexValueBuffer, docId))].add(docId);
+      }
+    } else {
+      int valueId = 0;
+      for (int docId = 0; docId < _numDocs; docId++) {
+        int length = getInt(_forwardIndexLengthBuffer, docId);
+        for (int i = 0; i < length; i++) {
+          bitmaps[getInt(_dictIdCountBuffer, getInt(_forwardIndexValueBuffer, valueId++))].add(docId);
+        }
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_rangeIndexFile)))) {
+      out.writeInt(VERSION);
+      out.writeInt(numRanges);
+      for (int i = 0; i <= numRanges; i++) {
+        out.writeInt(rangeStartDictIds.getInt(i));
+      }
+
+      // Write bitmap offsets
+      int bitmapOffset = (2 + 2 * (numRanges + 1)) * Integer.BYTES;
+      out.writeInt(bitmapOffset);
+      for (MutableRoaringBitmap bitmap : bitmaps) {
+        bitmapOffset += bitmap.serializedSizeInBytes();
+        // Check for int overflow
+        Preconditions.checkState(bitmapOffset > 0, "Range index file: %s exceeds 2GB limit", _rangeIndexFile);
+        out.writeInt(bitmapOffset);
+      }
+
+      // Write bitmap data
+      for (MutableRoaringBitmap bitmap : bitmaps) {
+        bitmap.serialize(out);
+      }
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_rangeIndexFile);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      destroyBuffer(_forwardIndexValueBuffer, _forwardIndexValueBufferFile);
+      destroyBuffer(_forwardIndexLengthBuffer, _forwardIndexLengthBufferFile);
+    } finally {
+      destroyBuffer(_dictIdCountBuffer, _dictIdCountBufferFile);
+    }
+  }
+
+  private static void putInt(PinotDataBuffer buffer, long index, int value) {
+    buffer.putInt(index << 2, value);
+  }
+
+  private static int getInt(PinotDataBuffer buffer, long index) {
+    return buffer.getInt(index << 2);
+  }
+
+  private PinotDataBuffer createTempBuffer(long size, File mmapFile)
+      throws IOException {
+    if (_useMMapBuffer) {
+      return PinotDataBuffer.mapFile(mmapFile, false, 0, size, PinotDataBuffer.NATIVE_ORDER,
+          "RangeIndexCreator: temp buffer");
+    } else {
+      return PinotDataBuffer.allocateDirect(size, PinotDataBuffer.NATIVE_ORDER,
+          "RangeIndexCreator: temp buffer for " + mmapFile.getName());
+    }
+  }
+
+  private void destroyBuffer(PinotDataBuffer buffer, File mmapFile)
+      throws IOException {
+    if (buffer != null) {
+      buffer.close();
+      if (mmapFile.exists()) {
+        FileUtils.forceDelete(mmapFile);
+      }
+    }
+  }
+}
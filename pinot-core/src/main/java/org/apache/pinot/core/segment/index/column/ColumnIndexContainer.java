@@ -18,17 +18,20 @@
  */
 package org.apache.pinot.core.segment.index.column;
 
+import java.io.Closeable;
 import org.apache.pinot.core.io.reader.DataFileReader;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
 
 
 /**
  * A container for all the indexes for a column.
+ * <p>Closing the container closes the indexes held by it.
  */
-public interface ColumnIndexContainer {
+public interface ColumnIndexContainer extends Closeable {
 
   /**
    * Returns the forward index for the column.
@@ -40,6 +43,11 @@ public interface ColumnIndexContainer {
    */
   InvertedIndexReader getInvertedIndex();
 
+  /**
+   * Returns the range index for the column, or {@code null} if it does not exist.
+   */
+  RangeIndexReader getRangeIndex();
+
   /**
    * Returns the dictionary for the column, or {@code null} if it does not exist.
    */
@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.column;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.io.reader.DataFileReader;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
+import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
+import org.apache.pinot.core.segment.store.SegmentDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code LazyColumnIndexContainer} defers the construction of the indexes of a column (e.g. materializing the
+ * on-heap dictionary) until they are first accessed, and can unload them after they have not been accessed for the
+ * configured idle timeout.
+ * <p>Unloading only drops the reference to the {@link PhysicalColumnIndexContainer} without closing it: the underlying
+ * buffers are owned by the segment directory, and queries still holding the indexes can keep using them. Indexes that
+ * own resources outside of the segment directory (Lucene text index) are never unloaded.
+ * <p>The idle indexes are unloaded by a shared background thread which checks the loaded containers every
+ * {@link #UNLOAD_CHECK_INTERVAL_MS}.
+ */
+public final class LazyColumnIndexContainer implements ColumnIndexContainer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LazyColumnIndexContainer.class);
+  private static final long UNLOAD_CHECK_INTERVAL_MS = 60_000L;
+
+  // Loaded containers that can be unloaded
+  private static final Set<LazyColumnIndexContainer> UNLOADABLE_CONTAINERS = ConcurrentHashMap.newKeySet();
+
+  private final SegmentDirectory.Reader _segmentReader;
+  private final ColumnMetadata _metadata;
+  private final IndexLoadingConfig _indexLoadingConfig;
+  private final File _segmentIndexDir;
+  private final long _idleTimeoutMs;
+
+  private volatile PhysicalColumnIndexContainer _indexContainer;
+  private volatile long _lastAccessTimeMs;
+  private boolean _closed;
+
+  public LazyColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
+      IndexLoadingConfig indexLoadingConfig, File segmentIndexDir) {
+    _segmentReader = segmentReader;
+    _metadata = metadata;
+    _indexLoadingConfig = indexLoadingConfig;
+    _segmentIndexDir = segmentIndexDir;
+    if (indexLoadingConfig.getTextIndexColumns().contains(metadata.getColumnName())) {
+      _idleTimeoutMs = 0L;
+    } else {
+      _idleTimeoutMs = indexLoadingConfig.getLazyIndexIdleTimeoutMs();
+    }
+  }
+
+  /**
+   * Returns whether the indexes of the column are currently loaded.
+   */
+  public boolean isLoaded() {
+    return _indexContainer != null;
+  }
+
+  private PhysicalColumnIndexContainer getIndexContainer() {
+    PhysicalColumnIndexContainer indexContainer = _indexContainer;
+    if (indexContainer == null) {
+      synchronized (this) {
+        indexContainer = _indexContainer;
+        if (indexContainer == null) {
+          Preconditions.checkState(!_closed, "Column index container for column: %s is already closed",
+              _metadata.getColumnName());
+          indexContainer = loadIndexContainer();
+          if (_idleTimeoutMs > 0) {
+            // Set the access time before publishing the container so that it won't be unloaded right away
+            _lastAccessTimeMs = System.currentTimeMillis();
+          }
+          _indexContainer = indexContainer;
+          if (_idleTimeoutMs > 0) {
+            UnloadScheduler.ensureStarted();
+            UNLOADABLE_CONTAINERS.add(this);
+          }
+        }
+      }
+    }
+    if (_idleTimeoutMs > 0) {
+      _lastAccessTimeMs = System.currentTimeMillis();
+    }
+    return indexContainer;
+  }
+
+  private PhysicalColumnIndexContainer loadIndexContainer() {
+    String columnName = _metadata.getColumnName();
+    LOGGER.debug("Loading indexes for column: {} in segment directory: {}", columnName, _segmentIndexDir);
+    // The segment directory reader is shared by all the columns of the segment and is not thread-safe
+    synchronized (_segmentReader) {
+      try {
+        return new PhysicalColumnIndexContainer(_segmentReader, _metadata, _indexLoadingConfig, _segmentIndexDir);
+      } catch (IOException e) {
+        throw new RuntimeException(
+            "Caught exception while loading indexes for column: " + columnName + " in segment directory: "
+                + _segmentIndexDir, e);
+      }
+    }
+  }
+
+  /**
+   * Unloads the indexes of the column if they have not been accessed for the idle timeout, returns {@code true} if the
+   * indexes are unloaded.
+   */
+  public synchronized boolean unloadIfIdle(long currentTimeMs) {
+    if (_indexContainer == null || _idleTimeoutMs <= 0 || currentTimeMs - _lastAccessTimeMs < _idleTimeoutMs) {
+      return false;
+    }
+    _indexContainer = null;
+    UNLOADABLE_CONTAINERS.remove(this);
+    return true;
+  }
+
+  @Override
+  public DataFileReader getForwardIndex() {
+    return getIndexContainer().getForwardIndex();
+  }
+
+  @Override
+  public InvertedIndexReader getInvertedIndex() {
+    return getIndexContainer().getInvertedIndex();
+  }
+
+  @Override
+  public RangeIndexReader getRangeIndex() {
+    return getIndexContainer().getRangeIndex();
+  }
+
+  @Override
+  public Dictionary getDictionary() {
+    return getIndexContainer().getDictionary();
+  }
+
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    return getIndexContainer().getBloomFilter();
+  }
+
+  @Override
+  public NullValueVectorReaderImpl getNullValueVector() {
+    return getIndexContainer().getNullValueVector();
+  }
+
+  @Override
+  public synchronized void close()
+      throws IOException {
+    _closed = true;
+    UNLOADABLE_CONTAINERS.remove(this);
+    PhysicalColumnIndexContainer indexContainer = _indexContainer;
+    if (indexContainer != null) {
+      _indexContainer = null;
+      indexContainer.close();
+    }
+  }
+
+  private static void unloadIdleContainers() {
+    long currentTimeMs = System.currentTimeMillis();
+    int numUnloaded = 0;
+    for (LazyColumnIndexContainer container : UNLOADABLE_CONTAINERS) {
+      if (container.unloadIfIdle(currentTimeMs)) {
+        numUnloaded++;
+      }
+    }
+    if (numUnloaded > 0) {
+      LOGGER.info("Unloaded indexes for {} idle columns, {} columns remain loaded", numUnloaded,
+          UNLOADABLE_CONTAINERS.size());
+    }
+  }
+
+  /**
+   * Lazily starts the background thread that unloads the idle column indexes.
+   */
+  private static class UnloadScheduler {
+    private static final ScheduledExecutorService EXECUTOR_SERVICE;
+
+    static {
+      EXECUTOR_SERVICE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lazy-index-unloader");
+        thread.setDaemon(true);
+        return thread;
+      });
+      EXECUTOR_SERVICE.scheduleWithFixedDelay(() -> {
+        try {
+          unloadIdleContainers();
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while unloading idle column indexes", e);
+        }
+      }, UNLOAD_CHECK_INTERVAL_MS, UNLOAD_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    static void ensureStarted() {
+      // Class initialization starts the thread
+    }
+  }
+}
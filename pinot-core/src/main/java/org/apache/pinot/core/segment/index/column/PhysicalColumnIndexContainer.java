@@ -46,6 +46,7 @@ import org.apache.pinot.core.segment.index.readers.OnHeapFloatDictionary;
 import org.apache.pinot.core.segment.index.readers.OnHeapIntDictionary;
 import org.apache.pinot.core.segment.index.readers.OnHeapLongDictionary;
 import org.apache.pinot.core.segment.index.readers.OnHeapStringDictionary;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
 import org.apache.pinot.core.segment.index.readers.StringDictionary;
 import org.apache.pinot.core.segment.index.readers.text.LuceneTextIndexReader;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
@@ -61,6 +62,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
 
   private final DataFileReader _forwardIndex;
   private final InvertedIndexReader _invertedIndex;
+  private final RangeIndexReader _rangeIndex;
   private final BaseImmutableDictionary _dictionary;
   private final BloomFilterReader _bloomFilterReader;
   private final NullValueVectorReaderImpl _nullValueVectorReader;
@@ -73,11 +75,13 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     boolean loadTextIndex = false;
     boolean loadOnHeapDictionary = false;
     boolean loadBloomFilter = false;
+    boolean loadRangeIndex = false;
     if (indexLoadingConfig != null) {
       loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
       loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
       loadBloomFilter = indexLoadingConfig.getBloomFilterColumns().contains(columnName);
       loadTextIndex = indexLoadingConfig.getTextIndexColumns().contains(columnName);
+      loadRangeIndex = indexLoadingConfig.getRangeIndexColumns().contains(columnName);
     }
 
     if (segmentReader.hasIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR)) {
@@ -108,6 +112,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
               new SortedIndexReaderImpl(fwdIndexBuffer, metadata.getCardinality());
           _forwardIndex = sortedIndexReader;
           _invertedIndex = sortedIndexReader;
+          _rangeIndex = null;
           return;
         } else {
           // Unsorted
@@ -127,11 +132,17 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       } else {
         _invertedIndex = null;
       }
+      if (loadRangeIndex) {
+        _rangeIndex = new RangeIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.RANGE_INDEX));
+      } else {
+        _rangeIndex = null;
+      }
     } else {
       // Raw index
       _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType());
       _dictionary = null;
       _bloomFilterReader = null;
+      _rangeIndex = null;
       if (loadTextIndex) {
         Map<String, Map<String, String>> columnProperties = indexLoadingConfig.getColumnProperties();
         _invertedIndex = new LuceneTextIndexReader(columnName, segmentIndexDir, metadata.getTotalDocs(),
@@ -152,6 +163,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _invertedIndex;
   }
 
+  @Override
+  public RangeIndexReader getRangeIndex() {
+    return _rangeIndex;
+  }
+
   @Override
   public BaseImmutableDictionary getDictionary() {
     return _dictionary;
@@ -167,6 +183,21 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _nullValueVectorReader;
   }
 
+  @Override
+  public void close()
+      throws IOException {
+    if (_dictionary != null) {
+      _dictionary.close();
+    }
+    _forwardIndex.close();
+    if (_invertedIndex != null) {
+      _invertedIndex.close();
+    }
+    if (_rangeIndex != null) {
+      _rangeIndex.close();
+    }
+  }
+
   private static BaseImmutableDictionary loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) {
     FieldSpec.DataType dataType = metadata.getDataType();
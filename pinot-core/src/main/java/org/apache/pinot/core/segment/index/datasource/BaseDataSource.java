@@ -31,6 +31,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
 import org.apache.pinot.spi.data.FieldSpec;
 
 
@@ -39,6 +40,7 @@ public abstract class BaseDataSource extends DataSource {
   private final DataFileReader _forwardIndex;
   private final Dictionary _dictionary;
   private final InvertedIndexReader _invertedIndex;
+  private final RangeIndexReader _rangeIndex;
   private final BloomFilterReader _bloomFilter;
   private final NullValueVectorReader _nullValueVector;
   private final String _operatorName;
@@ -46,10 +48,19 @@ public abstract class BaseDataSource extends DataSource {
   public BaseDataSource(DataSourceMetadata dataSourceMetadata, DataFileReader forwardIndex,
       @Nullable Dictionary dictionary, @Nullable InvertedIndexReader invertedIndex,
       @Nullable BloomFilterReader bloomFilter, @Nullable NullValueVectorReader nullValueVector, String operatorName) {
+    this(dataSourceMetadata, forwardIndex, dictionary, invertedIndex, null, bloomFilter, nullValueVector,
+        operatorName);
+  }
+
+  public BaseDataSource(DataSourceMetadata dataSourceMetadata, DataFileReader forwardIndex,
+      @Nullable Dictionary dictionary, @Nullable InvertedIndexReader invertedIndex,
+      @Nullable RangeIndexReader rangeIndex, @Nullable BloomFilterReader bloomFilter,
+      @Nullable NullValueVectorReader nullValueVector, String operatorName) {
     _dataSourceMetadata = dataSourceMetadata;
     _forwardIndex = forwardIndex;
     _dictionary = dictionary;
     _invertedIndex = invertedIndex;
+    _rangeIndex = rangeIndex;
     _bloomFilter = bloomFilter;
     _nullValueVector = nullValueVector;
     _operatorName = operatorName;
@@ -77,6 +88,12 @@ public abstract class BaseDataSource extends DataSource {
     return _invertedIndex;
   }
 
+  @Nullable
+  @Override
+  public RangeIndexReader getRangeIndex() {
+    return _rangeIndex;
+  }
+
   @Nullable
   @Override
   public BloomFilterReader getBloomFilter() {
@@ -36,8 +36,8 @@ public class ImmutableDataSource extends BaseDataSource {
   public ImmutableDataSource(ColumnMetadata columnMetadata, ColumnIndexContainer columnIndexContainer) {
     super(new ImmutableDataSourceMetadata(columnMetadata), columnIndexContainer.getForwardIndex(),
         columnIndexContainer.getDictionary(), columnIndexContainer.getInvertedIndex(),
-        columnIndexContainer.getBloomFilter(), columnIndexContainer.getNullValueVector(),
-        OPERATOR_NAME_PREFIX + columnMetadata.getColumnName());
+        columnIndexContainer.getRangeIndex(), columnIndexContainer.getBloomFilter(),
+        columnIndexContainer.getNullValueVector(), OPERATOR_NAME_PREFIX + columnMetadata.getColumnName());
   }
 
   private static class ImmutableDataSourceMetadata implements DataSourceMetadata {
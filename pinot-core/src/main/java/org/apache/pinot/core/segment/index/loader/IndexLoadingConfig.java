@@ -51,6 +51,7 @@ public class IndexLoadingConfig {
   private Set<String> _varLengthDictionaryColumns = new HashSet<>();
   private Set<String> _onHeapDictionaryColumns = new HashSet<>();
   private Set<String> _bloomFilterColumns = new HashSet<>();
+  private Set<String> _rangeIndexColumns = new HashSet<>();
 
   private SegmentVersion _segmentVersion;
   private ColumnMinMaxValueGeneratorMode _columnMinMaxValueGeneratorMode = ColumnMinMaxValueGeneratorMode.DEFAULT_MODE;
@@ -59,6 +60,8 @@ public class IndexLoadingConfig {
   private boolean _isRealtimeOffheapAllocation;
   private boolean _isDirectRealtimeOffheapAllocation;
   private boolean _enableSplitCommitEndWithMetadata;
+  private boolean _lazyLoadIndexes;
+  private long _lazyIndexIdleTimeoutMs;
 
   // constructed from FieldConfig
   private Map<String, Map<String, String>> _columnProperties = new HashMap<>();
@@ -91,6 +94,11 @@ public class IndexLoadingConfig {
       _bloomFilterColumns.addAll(bloomFilterColumns);
     }
 
+    List<String> rangeIndexColumns = indexingConfig.getRangeIndexColumns();
+    if (rangeIndexColumns != null) {
+      _rangeIndexColumns.addAll(rangeIndexColumns);
+    }
+
     List<String> noDictionaryColumns = indexingConfig.getNoDictionaryColumns();
     if (noDictionaryColumns != null) {
       _noDictionaryColumns.addAll(noDictionaryColumns);
@@ -176,6 +184,8 @@ public class IndexLoadingConfig {
       _realtimeAvgMultiValueCount = Integer.valueOf(avgMultiValueCount);
     }
     _enableSplitCommitEndWithMetadata = instanceDataManagerConfig.isEnableSplitCommitEndWithMetadata();
+    _lazyLoadIndexes = instanceDataManagerConfig.isLazyLoadIndexes();
+    _lazyIndexIdleTimeoutMs = instanceDataManagerConfig.getLazyIndexIdleTimeoutMs();
   }
 
   /**
@@ -250,6 +260,11 @@ public class IndexLoadingConfig {
     _bloomFilterColumns = bloomFilterColumns;
   }
 
+  @VisibleForTesting
+  public void setRangeIndexColumns(@Nonnull Set<String> rangeIndexColumns) {
+    _rangeIndexColumns = rangeIndexColumns;
+  }
+
   @VisibleForTesting
   public void setOnHeapDictionaryColumns(@Nonnull Set<String> onHeapDictionaryColumns) {
     _onHeapDictionaryColumns = onHeapDictionaryColumns;
@@ -279,6 +294,11 @@ public class IndexLoadingConfig {
     return _bloomFilterColumns;
   }
 
+  @Nonnull
+  public Set<String> getRangeIndexColumns() {
+    return _rangeIndexColumns;
+  }
+
   @Nullable
   public SegmentVersion getSegmentVersion() {
     return _segmentVersion;
@@ -322,4 +342,33 @@ public class IndexLoadingConfig {
   public int getRealtimeAvgMultiValueCount() {
     return _realtimeAvgMultiValueCount;
   }
+
+  /**
+   * Returns whether to defer loading the indexes of a column until they are first accessed.
+   */
+  public boolean isLazyLoadIndexes() {
+    return _lazyLoadIndexes;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setLazyLoadIndexes(boolean lazyLoadIndexes) {
+    _lazyLoadIndexes = lazyLoadIndexes;
+  }
+
+  /**
+   * Returns the idle time in milliseconds after which the lazily loaded indexes of a column are unloaded, where a
+   * value of {@code <= 0} keeps them loaded.
+   */
+  public long getLazyIndexIdleTimeoutMs() {
+    return _lazyIndexIdleTimeoutMs;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setLazyIndexIdleTimeoutMs(long lazyIndexIdleTimeoutMs) {
+    _lazyIndexIdleTimeoutMs = lazyIndexIdleTimeoutMs;
+  }
 }
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.pinot.core.segment.creator.impl.inv.RangeIndexCreator;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Reader for the bitmap based range index created by {@link RangeIndexCreator}.
+ * <p>The index is looked up by range id instead of dictionary id: use {@link #findRangeId(int)} to get the range that
+ * contains a dictionary id, and {@link #getDocIds(int)} to get the documents for all the dictionary ids in the range.
+ */
+public class RangeIndexReader implements InvertedIndexReader<ImmutableRoaringBitmap> {
+  private final PinotDataBuffer _buffer;
+  private final int _numRanges;
+  // Contains (numRanges + 1) entries, where the last entry is the exclusive end dictId of the last range
+  private final int[] _rangeStartDictIds;
+  private final long _bitmapOffsetsStart;
+
+  public RangeIndexReader(PinotDataBuffer indexDataBuffer) {
+    _buffer = indexDataBuffer;
+    int version = _buffer.getInt(0);
+    Preconditions.checkState(version == RangeIndexCreator.VERSION, "Unsupported range index version: %s", version);
+    _numRanges = _buffer.getInt(Integer.BYTES);
+    _rangeStartDictIds = new int[_numRanges + 1];
+    long offset = 2 * Integer.BYTES;
+    for (int i = 0; i <= _numRanges; i++) {
+      _rangeStartDictIds[i] = _buffer.getInt(offset);
+      offset += Integer.BYTES;
+    }
+    _bitmapOffsetsStart = offset;
+
+    int lastOffset = getOffset(_numRanges);
+    Preconditions.checkState(lastOffset == _buffer.size(),
+        "The last offset should be equal to buffer size! Current lastOffset: " + lastOffset + ", buffer size: "
+            + _buffer.size());
+  }
+
+  /**
+   * Returns the number of ranges in the index.
+   */
+  public int getNumRanges() {
+    return _numRanges;
+  }
+
+  /**
+   * Returns the first dictionary id (inclusive) of the given range.
+   */
+  public int getRangeStartDictId(int rangeId) {
+    return _rangeStartDictIds[rangeId];
+  }
+
+  /**
+   * Returns the last dictionary id (exclusive) of the given range.
+   */
+  public int getRangeEndDictId(int rangeId) {
+    return _rangeStartDictIds[rangeId + 1];
+  }
+
+  /**
+   * Returns the id of the range that contains the given dictionary id.
+   */
+  public int findRangeId(int dictId) {
+    int index = Arrays.binarySearch(_rangeStartDictIds, 0, _numRanges, dictId);
+    return index >= 0 ? index : -(index + 1) - 1;
+  }
+
+  /**
+   * Returns the document ids for all the dictionary ids within the given range.
+   */
+  @Override
+  public ImmutableRoaringBitmap getDocIds(int rangeId) {
+    int currentOffset = getOffset(rangeId);
+    int nextOffset = getOffset(rangeId + 1);
+    ByteBuffer byteBuffer = _buffer.toDirectByteBuffer(currentOffset, nextOffset - currentOffset);
+    return new ImmutableRoaringBitmap(byteBuffer);
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getDocIds(Object value) {
+    throw new IllegalStateException("Range index reader supports lookup only on range id");
+  }
+
+  private int getOffset(int rangeId) {
+    return _buffer.getInt(_bitmapOffsetsStart + (long) rangeId * Integer.BYTES);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _buffer.close();
+  }
+}
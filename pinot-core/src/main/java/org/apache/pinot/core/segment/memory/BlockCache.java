@@ -0,0 +1,460 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.memory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code BlockCache} caches fixed-size blocks of remote files in memory, and optionally on the local disk.
+ * <p>Both tiers are bounded by size and evict the least recently used blocks. Blocks evicted from memory are spilled to
+ * the disk tier (if enabled), and blocks evicted from the disk tier are deleted. On a cache miss, the block is loaded
+ * with the given {@link BlockLoader}, and concurrent misses on the same block only load it once.
+ * <p>The memory tier is split into stripes by block to reduce the lock contention, where each stripe is an independent
+ * LRU with an even share of the memory budget.
+ * <p>When read-ahead is enabled, a miss on the block following a cached block (sequential access) asynchronously
+ * loads the next blocks of the file, and the read-ahead continues when the first access hits a read-ahead block.
+ * <p>The disk tier is not persistent: the cache directory is cleaned up when the cache is created.
+ */
+public class BlockCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BlockCache.class);
+
+  private static volatile BlockCache _instance;
+
+  // Max number of stripes of the memory tier
+  private static final int MAX_NUM_MEMORY_STRIPES = 16;
+  // Min number of blocks in each stripe of the memory tier, so that small caches are not over-partitioned
+  private static final int MIN_BLOCKS_PER_MEMORY_STRIPE = 16;
+  private static final int NUM_READ_AHEAD_THREADS = 4;
+
+  /**
+   * Loads a block of a remote file.
+   */
+  public interface BlockLoader {
+
+    /**
+     * Returns the content of the block with the given index, which should have {@code blockSize} bytes except for the
+     * last block of the file.
+     */
+    byte[] load(int blockIndex)
+        throws IOException;
+  }
+
+  private final int _blockSize;
+  private final File _diskCacheDir;
+  private final long _maxDiskBytes;
+  private final int _numReadAheadBlocks;
+
+  private final MemoryStripe[] _memoryStripes;
+  // Access-ordered map for LRU eviction, guarded by the map itself
+  private final LinkedHashMap<BlockKey, DiskBlock> _diskBlocks = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<BlockKey, CompletableFuture<byte[]>> _pendingLoads = new ConcurrentHashMap<>();
+  private final AtomicLong _diskFileId = new AtomicLong();
+  private long _diskBytes;
+
+  // Blocks loaded by read-ahead that have not been accessed yet, null if read-ahead is disabled
+  private final Set<BlockKey> _readAheadKeys;
+  private final ExecutorService _readAheadExecutor;
+
+  private final AtomicLong _numHits = new AtomicLong();
+  private final AtomicLong _numDiskHits = new AtomicLong();
+  private final AtomicLong _numMisses = new AtomicLong();
+
+  /**
+   * @param blockSize Size of the blocks in bytes
+   * @param maxMemoryBytes Max size of the blocks cached in memory
+   * @param diskCacheDir Directory of the disk tier, or {@code null} to disable the disk tier
+   * @param maxDiskBytes Max size of the blocks cached on disk
+   */
+  public BlockCache(int blockSize, long maxMemoryBytes, @Nullable File diskCacheDir, long maxDiskBytes)
+      throws IOException {
+    this(blockSize, maxMemoryBytes, diskCacheDir, maxDiskBytes, 0);
+  }
+
+  /**
+   * @param blockSize Size of the blocks in bytes
+   * @param maxMemoryBytes Max size of the blocks cached in memory
+   * @param diskCacheDir Directory of the disk tier, or {@code null} to disable the disk tier
+   * @param maxDiskBytes Max size of the blocks cached on disk
+   * @param numReadAheadBlocks Number of blocks to read ahead on sequential access (non-positive to disable)
+   */
+  public BlockCache(int blockSize, long maxMemoryBytes, @Nullable File diskCacheDir, long maxDiskBytes,
+      int numReadAheadBlocks)
+      throws IOException {
+    Preconditions.checkArgument(blockSize > 0, "Block size must be positive, got: %s", blockSize);
+    _blockSize = blockSize;
+    int numMemoryStripes = (int) Math.max(1,
+        Math.min(MAX_NUM_MEMORY_STRIPES, maxMemoryBytes / ((long) blockSize * MIN_BLOCKS_PER_MEMORY_STRIPE)));
+    _memoryStripes = new MemoryStripe[numMemoryStripes];
+    for (int i = 0; i < numMemoryStripes; i++) {
+      _memoryStripes[i] = new MemoryStripe(maxMemoryBytes / numMemoryStripes);
+    }
+    if (diskCacheDir != null && maxDiskBytes > 0) {
+      FileUtils.deleteQuietly(diskCacheDir);
+      FileUtils.forceMkdir(diskCacheDir);
+      _diskCacheDir = diskCacheDir;
+      _maxDiskBytes = maxDiskBytes;
+    } else {
+      _diskCacheDir = null;
+      _maxDiskBytes = 0;
+    }
+    if (numReadAheadBlocks > 0) {
+      _numReadAheadBlocks = numReadAheadBlocks;
+      _readAheadKeys = ConcurrentHashMap.newKeySet();
+      _readAheadExecutor = Executors.newFixedThreadPool(NUM_READ_AHEAD_THREADS,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("block-cache-read-ahead-%d").build());
+    } else {
+      _numReadAheadBlocks = 0;
+      _readAheadKeys = null;
+      _readAheadExecutor = null;
+    }
+    LOGGER.info("Created block cache with block size: {}, max memory bytes: {} ({} stripes), disk cache dir: {}, "
+            + "max disk bytes: {}, read-ahead blocks: {}", blockSize, maxMemoryBytes, numMemoryStripes, _diskCacheDir,
+        _maxDiskBytes, _numReadAheadBlocks);
+  }
+
+  /**
+   * Initializes the process-wide block cache used to serve segments from the deep store.
+   */
+  public static synchronized void init(int blockSize, long maxMemoryBytes, @Nullable File diskCacheDir,
+      long maxDiskBytes, int numReadAheadBlocks)
+      throws IOException {
+    if (_instance != null) {
+      LOGGER.warn("Block cache is already initialized, skipping the re-initialization");
+      return;
+    }
+    _instance = new BlockCache(blockSize, maxMemoryBytes, diskCacheDir, maxDiskBytes, numReadAheadBlocks);
+  }
+
+  /**
+   * Returns the process-wide block cache, or {@code null} if it is not initialized.
+   */
+  @Nullable
+  public static BlockCache getInstance() {
+    return _instance;
+  }
+
+  public int getBlockSize() {
+    return _blockSize;
+  }
+
+  /**
+   * Returns the block with the given index of the file identified by {@code fileId}, loads it with the given loader
+   * if it is not cached.
+   *
+   * @param fileId Identifier of the file
+   * @param blockIndex Index of the block to return
+   * @param numBlocks Number of blocks of the file, which bounds the read-ahead
+   * @param loader Loader of the blocks of the file
+   */
+  public byte[] getBlock(String fileId, int blockIndex, int numBlocks, BlockLoader loader)
+      throws IOException {
+    BlockKey key = new BlockKey(fileId, blockIndex);
+    byte[] block = getFromMemory(key);
+    if (block != null) {
+      _numHits.getAndIncrement();
+      if (_readAheadKeys != null && _readAheadKeys.remove(key)) {
+        // First access to a read-ahead block, keep reading ahead
+        readAhead(fileId, blockIndex, numBlocks, loader);
+      }
+      return block;
+    }
+
+    block = loadBlock(key, loader);
+    if (_readAheadKeys != null && blockIndex > 0 && getFromMemory(new BlockKey(fileId, blockIndex - 1)) != null) {
+      // Sequential access
+      readAhead(fileId, blockIndex, numBlocks, loader);
+    }
+    return block;
+  }
+
+  /**
+   * Loads the block from the disk tier or with the given loader, and puts it into the memory tier.
+   */
+  private byte[] loadBlock(BlockKey key, BlockLoader loader)
+      throws IOException {
+    CompletableFuture<byte[]> future = new CompletableFuture<>();
+    CompletableFuture<byte[]> pendingLoad = _pendingLoads.putIfAbsent(key, future);
+    if (pendingLoad != null) {
+      // Another thread is loading the block
+      return waitForLoad(pendingLoad, key);
+    }
+    try {
+      // Check again in case the block was loaded by another thread between the first check and the registration
+      byte[] block = getFromMemory(key);
+      if (block == null) {
+        block = readFromDisk(key);
+        if (block != null) {
+          _numDiskHits.getAndIncrement();
+        } else {
+          _numMisses.getAndIncrement();
+          block = loader.load(key._blockIndex);
+        }
+        putInMemory(key, block);
+      } else {
+        _numHits.getAndIncrement();
+      }
+      future.complete(block);
+      return block;
+    } catch (IOException | RuntimeException e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      _pendingLoads.remove(key);
+    }
+  }
+
+  /**
+   * Asynchronously loads the blocks after the given block that are not cached or being loaded.
+   */
+  private void readAhead(String fileId, int blockIndex, int numBlocks, BlockLoader loader) {
+    int endBlockIndex = (int) Math.min(numBlocks, (long) blockIndex + 1 + _numReadAheadBlocks);
+    for (int i = blockIndex + 1; i < endBlockIndex; i++) {
+      BlockKey key = new BlockKey(fileId, i);
+      if (getFromMemory(key) != null || _pendingLoads.containsKey(key)) {
+        continue;
+      }
+      _readAheadExecutor.execute(() -> {
+        if (getFromMemory(key) != null) {
+          return;
+        }
+        try {
+          loadBlock(key, loader);
+          _readAheadKeys.add(key);
+        } catch (Exception e) {
+          // Read-ahead is best-effort, the block will be loaded again on access
+          LOGGER.debug("Failed to read ahead block: {}", key, e);
+        }
+      });
+    }
+  }
+
+  private static byte[] waitForLoad(CompletableFuture<byte[]> pendingLoad, BlockKey key)
+      throws IOException {
+    try {
+      return pendingLoad.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for block: " + key + " to be loaded", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Caught exception while loading block: " + key, e.getCause());
+    }
+  }
+
+  private MemoryStripe getMemoryStripe(BlockKey key) {
+    return _memoryStripes[(key.hashCode() & Integer.MAX_VALUE) % _memoryStripes.length];
+  }
+
+  @Nullable
+  private byte[] getFromMemory(BlockKey key) {
+    MemoryStripe memoryStripe = getMemoryStripe(key);
+    synchronized (memoryStripe) {
+      return memoryStripe._blocks.get(key);
+    }
+  }
+
+  private void putInMemory(BlockKey key, byte[] block) {
+    List<Map.Entry<BlockKey, byte[]>> evictedBlocks = new ArrayList<>();
+    MemoryStripe memoryStripe = getMemoryStripe(key);
+    synchronized (memoryStripe) {
+      if (memoryStripe._blocks.put(key, block) == null) {
+        memoryStripe._bytes += block.length;
+      }
+      Iterator<Map.Entry<BlockKey, byte[]>> iterator = memoryStripe._blocks.entrySet().iterator();
+      while (memoryStripe._bytes > memoryStripe._maxBytes && iterator.hasNext()) {
+        Map.Entry<BlockKey, byte[]> eldest = iterator.next();
+        iterator.remove();
+        memoryStripe._bytes -= eldest.getValue().length;
+        evictedBlocks.add(eldest);
+      }
+    }
+    // Spill the evicted blocks to disk outside of the lock
+    for (Map.Entry<BlockKey, byte[]> evictedBlock : evictedBlocks) {
+      if (_readAheadKeys != null) {
+        _readAheadKeys.remove(evictedBlock.getKey());
+      }
+      writeToDisk(evictedBlock.getKey(), evictedBlock.getValue());
+    }
+  }
+
+  @Nullable
+  private byte[] readFromDisk(BlockKey key)
+      throws IOException {
+    if (_diskCacheDir == null) {
+      return null;
+    }
+    DiskBlock diskBlock;
+    synchronized (_diskBlocks) {
+      diskBlock = _diskBlocks.get(key);
+    }
+    if (diskBlock == null) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(diskBlock._file.toPath());
+    } catch (IOException e) {
+      // The block might be evicted concurrently
+      LOGGER.debug("Failed to read block: {} from disk", key, e);
+      return null;
+    }
+  }
+
+  private void writeToDisk(BlockKey key, byte[] block) {
+    if (_diskCacheDir == null || block.length > _maxDiskBytes) {
+      return;
+    }
+    synchronized (_diskBlocks) {
+      if (_diskBlocks.containsKey(key)) {
+        return;
+      }
+    }
+    File file = new File(_diskCacheDir, Long.toString(_diskFileId.getAndIncrement()));
+    try {
+      Files.write(file.toPath(), block);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to write block: {} to disk", key, e);
+      FileUtils.deleteQuietly(file);
+      return;
+    }
+    List<File> evictedFiles = new ArrayList<>();
+    synchronized (_diskBlocks) {
+      if (_diskBlocks.containsKey(key)) {
+        // Written concurrently by another thread
+        evictedFiles.add(file);
+      } else {
+        _diskBlocks.put(key, new DiskBlock(file, block.length));
+        _diskBytes += block.length;
+        Iterator<DiskBlock> iterator = _diskBlocks.values().iterator();
+        while (_diskBytes > _maxDiskBytes && iterator.hasNext()) {
+          DiskBlock eldest = iterator.next();
+          iterator.remove();
+          _diskBytes -= eldest._size;
+          evictedFiles.add(eldest._file);
+        }
+      }
+    }
+    for (File evictedFile : evictedFiles) {
+      FileUtils.deleteQuietly(evictedFile);
+    }
+  }
+
+  public long getNumHits() {
+    return _numHits.get();
+  }
+
+  public long getNumDiskHits() {
+    return _numDiskHits.get();
+  }
+
+  public long getNumMisses() {
+    return _numMisses.get();
+  }
+
+  public long getMemoryBytes() {
+    long memoryBytes = 0;
+    for (MemoryStripe memoryStripe : _memoryStripes) {
+      synchronized (memoryStripe) {
+        memoryBytes += memoryStripe._bytes;
+      }
+    }
+    return memoryBytes;
+  }
+
+  public long getDiskBytes() {
+    synchronized (_diskBlocks) {
+      return _diskBytes;
+    }
+  }
+
+  private static class BlockKey {
+    final String _fileId;
+    final int _blockIndex;
+
+    BlockKey(String fileId, int blockIndex) {
+      _fileId = fileId;
+      _blockIndex = blockIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof BlockKey)) {
+        return false;
+      }
+      BlockKey that = (BlockKey) o;
+      return _blockIndex == that._blockIndex && _fileId.equals(that._fileId);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * _fileId.hashCode() + _blockIndex;
+    }
+
+    @Override
+    public String toString() {
+      return _fileId + "#" + _blockIndex;
+    }
+  }
+
+  /**
+   * Stripe of the memory tier, guarded by the stripe itself.
+   */
+  private static class MemoryStripe {
+    // Access-ordered map for LRU eviction
+    final LinkedHashMap<BlockKey, byte[]> _blocks = new LinkedHashMap<>(16, 0.75f, true);
+    final long _maxBytes;
+    long _bytes;
+
+    MemoryStripe(long maxBytes) {
+      _maxBytes = maxBytes;
+    }
+  }
+
+  private static class DiskBlock {
+    final File _file;
+    final int _size;
+
+    DiskBlock(File file, int size) {
+      _file = file;
+      _size = size;
+    }
+  }
+}
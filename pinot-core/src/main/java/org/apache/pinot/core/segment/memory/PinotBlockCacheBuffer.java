@@ -0,0 +1,397 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.memory;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.spi.filesystem.PinotFS;
+
+
+/**
+ * Read-only {@link PinotDataBuffer} backed by a (remote) file on {@link PinotFS}. The content of the file is read in
+ * fixed-size blocks through the {@link BlockCache}, so that only the accessed ranges of the file are fetched.
+ * <p>Each buffer keeps a weak reference to its last accessed block, so that consecutive accesses within the same block
+ * do not go through the {@link BlockCache}, without pinning the block in memory after it is evicted from the cache.
+ * <p>Writing to this buffer is not supported. Closing this buffer does not release the cached blocks.
+ */
+public class PinotBlockCacheBuffer extends PinotDataBuffer {
+  private final BlockCache _blockCache;
+  private final String _fileId;
+  private final BlockCache.BlockLoader _blockLoader;
+  private final int _blockSize;
+  private final int _numBlocks;
+  // Offset of this buffer in the file
+  private final long _startOffset;
+  private final long _size;
+  private final ByteOrder _byteOrder;
+
+  private volatile CurrentBlock _currentBlock;
+
+  /**
+   * Creates a buffer for the whole file.
+   *
+   * @param blockCache Block cache to read the blocks through
+   * @param pinotFS File system of the file
+   * @param uri URI of the file
+   * @param fileLength Length of the file
+   * @param fileId Identifier of the file in the block cache, which should change when the file content changes
+   * @param byteOrder Byte order of the buffer
+   */
+  public PinotBlockCacheBuffer(BlockCache blockCache, PinotFS pinotFS, URI uri, long fileLength, String fileId,
+      ByteOrder byteOrder) {
+    super(true);
+    _blockCache = blockCache;
+    _fileId = fileId;
+    _blockSize = blockCache.getBlockSize();
+    _numBlocks = (int) ((fileLength + _blockSize - 1) / _blockSize);
+    _blockLoader = blockIndex -> loadBlock(pinotFS, uri, fileLength, blockIndex, _blockSize);
+    _startOffset = 0;
+    _size = fileLength;
+    _byteOrder = byteOrder;
+  }
+
+  private PinotBlockCacheBuffer(PinotBlockCacheBuffer buffer, long startOffset, long size, ByteOrder byteOrder) {
+    super(false);
+    _blockCache = buffer._blockCache;
+    _fileId = buffer._fileId;
+    _blockSize = buffer._blockSize;
+    _numBlocks = buffer._numBlocks;
+    _blockLoader = buffer._blockLoader;
+    _startOffset = startOffset;
+    _size = size;
+    _byteOrder = byteOrder;
+  }
+
+  private static byte[] loadBlock(PinotFS pinotFS, URI uri, long fileLength, int blockIndex, int blockSize)
+      throws IOException {
+    long offset = (long) blockIndex * blockSize;
+    Preconditions.checkState(offset < fileLength, "Block: %s is out of range for file: %s of length: %s", blockIndex,
+        uri, fileLength);
+    int length = (int) Math.min(blockSize, fileLength - offset);
+    byte[] block = new byte[length];
+    try (InputStream inputStream = pinotFS.open(uri, offset, length)) {
+      IOUtils.readFully(inputStream, block);
+    }
+    return block;
+  }
+
+  private byte[] getBlock(int blockIndex) {
+    CurrentBlock currentBlock = _currentBlock;
+    if (currentBlock != null && currentBlock._blockIndex == blockIndex) {
+      byte[] block = currentBlock.get();
+      if (block != null) {
+        return block;
+      }
+    }
+    byte[] block;
+    try {
+      block = _blockCache.getBlock(_fileId, blockIndex, _numBlocks, _blockLoader);
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while reading block: " + blockIndex + " of file: " + _fileId, e);
+    }
+    _currentBlock = new CurrentBlock(blockIndex, block);
+    return block;
+  }
+
+  /**
+   * Reads a value of {@code numBytes} bytes (at most 8) starting from the given offset of this buffer.
+   */
+  private long getValue(long offset, int numBytes) {
+    long position = _startOffset + offset;
+    int blockIndex = (int) (position / _blockSize);
+    int blockOffset = (int) (position % _blockSize);
+    byte[] block = getBlock(blockIndex);
+    if (blockOffset + numBytes <= block.length) {
+      // Fast path for value within the block
+      return getValueWithinBlock(block, blockOffset, numBytes);
+    }
+    long value = 0;
+    if (_byteOrder == ByteOrder.BIG_ENDIAN) {
+      for (int i = 0; i < numBytes; i++) {
+        if (blockOffset == block.length) {
+          block = getBlock(++blockIndex);
+          blockOffset = 0;
+        }
+        value = (value << 8) | (block[blockOffset++] & 0xFFL);
+      }
+    } else {
+      for (int i = 0; i < numBytes; i++) {
+        if (blockOffset == block.length) {
+          block = getBlock(++blockIndex);
+          blockOffset = 0;
+        }
+        value |= (block[blockOffset++] & 0xFFL) << (i << 3);
+      }
+    }
+    return value;
+  }
+
+  private long getValueWithinBlock(byte[] block, int blockOffset, int numBytes) {
+    long value = 0;
+    if (_byteOrder == ByteOrder.BIG_ENDIAN) {
+      for (int i = 0; i < numBytes; i++) {
+        value = (value << 8) | (block[blockOffset + i] & 0xFFL);
+      }
+    } else {
+      for (int i = numBytes - 1; i >= 0; i--) {
+        value = (value << 8) | (block[blockOffset + i] & 0xFFL);
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public byte getByte(int offset) {
+    return getByte((long) offset);
+  }
+
+  @Override
+  public byte getByte(long offset) {
+    long position = _startOffset + offset;
+    return getBlock((int) (position / _blockSize))[(int) (position % _blockSize)];
+  }
+
+  @Override
+  public void putByte(int offset, byte value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putByte(long offset, byte value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public char getChar(int offset) {
+    return (char) getValue(offset, Character.BYTES);
+  }
+
+  @Override
+  public char getChar(long offset) {
+    return (char) getValue(offset, Character.BYTES);
+  }
+
+  @Override
+  public void putChar(int offset, char value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putChar(long offset, char value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public short getShort(int offset) {
+    return (short) getValue(offset, Short.BYTES);
+  }
+
+  @Override
+  public short getShort(long offset) {
+    return (short) getValue(offset, Short.BYTES);
+  }
+
+  @Override
+  public void putShort(int offset, short value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putShort(long offset, short value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getInt(int offset) {
+    return (int) getValue(offset, Integer.BYTES);
+  }
+
+  @Override
+  public int getInt(long offset) {
+    return (int) getValue(offset, Integer.BYTES);
+  }
+
+  @Override
+  public void putInt(int offset, int value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putInt(long offset, int value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long getLong(int offset) {
+    return getValue(offset, Long.BYTES);
+  }
+
+  @Override
+  public long getLong(long offset) {
+    return getValue(offset, Long.BYTES);
+  }
+
+  @Override
+  public void putLong(int offset, long value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putLong(long offset, long value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float getFloat(int offset) {
+    return Float.intBitsToFloat(getInt(offset));
+  }
+
+  @Override
+  public float getFloat(long offset) {
+    return Float.intBitsToFloat(getInt(offset));
+  }
+
+  @Override
+  public void putFloat(int offset, float value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putFloat(long offset, float value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDouble(int offset) {
+    return Double.longBitsToDouble(getLong(offset));
+  }
+
+  @Override
+  public double getDouble(long offset) {
+    return Double.longBitsToDouble(getLong(offset));
+  }
+
+  @Override
+  public void putDouble(int offset, double value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putDouble(long offset, double value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void copyTo(long offset, byte[] buffer, int destOffset, int size) {
+    long position = _startOffset + offset;
+    while (size > 0) {
+      byte[] block = getBlock((int) (position / _blockSize));
+      int blockOffset = (int) (position % _blockSize);
+      int length = Math.min(size, block.length - blockOffset);
+      System.arraycopy(block, blockOffset, buffer, destOffset, length);
+      position += length;
+      destOffset += length;
+      size -= length;
+    }
+  }
+
+  @Override
+  public void copyTo(long offset, PinotDataBuffer buffer, long destOffset, long size) {
+    long position = _startOffset + offset;
+    while (size > 0) {
+      byte[] block = getBlock((int) (position / _blockSize));
+      int blockOffset = (int) (position % _blockSize);
+      int length = (int) Math.min(size, block.length - blockOffset);
+      buffer.readFrom(destOffset, block, blockOffset, length);
+      position += length;
+      destOffset += length;
+      size -= length;
+    }
+  }
+
+  @Override
+  public void readFrom(long offset, byte[] buffer, int srcOffset, int size) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void readFrom(long offset, ByteBuffer buffer) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void readFrom(long offset, File file, long srcOffset, long size) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long size() {
+    return _size;
+  }
+
+  @Override
+  public ByteOrder order() {
+    return _byteOrder;
+  }
+
+  @Override
+  public PinotDataBuffer view(long start, long end, ByteOrder byteOrder) {
+    Preconditions.checkArgument(start >= 0 && start <= end && end <= _size, "Invalid range: [%s, %s) for size: %s",
+        start, end, _size);
+    return new PinotBlockCacheBuffer(this, _startOffset + start, end - start, byteOrder);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>NOTE: the content is copied into a heap {@link ByteBuffer}.
+   */
+  @Override
+  public ByteBuffer toDirectByteBuffer(long offset, int size, ByteOrder byteOrder) {
+    byte[] bytes = new byte[size];
+    copyTo(offset, bytes, 0, size);
+    return ByteBuffer.wrap(bytes).order(byteOrder);
+  }
+
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  protected void release() {
+  }
+
+  /**
+   * Weak reference to the last accessed block of the buffer.
+   */
+  private static class CurrentBlock extends WeakReference<byte[]> {
+    final int _blockIndex;
+
+    CurrentBlock(int blockIndex, byte[] block) {
+      super(block);
+      _blockIndex = blockIndex;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.store;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.net.URI;
+import java.nio.ByteOrder;
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.memory.BlockCache;
+import org.apache.pinot.core.segment.memory.PinotBlockCacheBuffer;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.startree.v2.StarTreeV2Constants;
+import org.apache.pinot.spi.filesystem.PinotFS;
+import org.apache.pinot.spi.filesystem.PinotFSFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Utility methods for the remote segments, which are served directly from an (untarred) V3 segment directory on
+ * {@link PinotFS} instead of being downloaded.
+ * <p>For a remote segment, all the files except the index file ({@code columns.psf}) are copied into the local segment
+ * directory, and the index file is replaced by a {@link #REMOTE_INDEX_FILE_NAME} file pointing to the remote index
+ * file.
+ * The index file is then read in blocks through the {@link BlockCache}.
+ */
+public class RemoteSegmentUtils {
+  private RemoteSegmentUtils() {
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSegmentUtils.class);
+
+  public static final String REMOTE_INDEX_FILE_NAME = SingleFileIndexDirectory.DEFAULT_INDEX_FILE_NAME + ".remote";
+
+  private static final String URI_KEY = "uri";
+  private static final String LENGTH_KEY = "length";
+  private static final String FILE_ID_KEY = "fileId";
+
+  // Files to be copied into the local segment directory
+  private static final String[] REQUIRED_LOCAL_FILES =
+      {V1Constants.MetadataKeys.METADATA_FILE_NAME, V1Constants.SEGMENT_CREATION_META,
+          SingleFileIndexDirectory.INDEX_MAP_FILE};
+  private static final String[] OPTIONAL_LOCAL_FILES =
+      {StarTreeV2Constants.INDEX_FILE_NAME, StarTreeV2Constants.INDEX_MAP_FILE_NAME};
+
+  /**
+   * Returns whether the given segment directory contains a remote segment.
+   */
+  public static boolean isRemoteSegment(File indexDir) {
+    File segmentDirectory = SegmentDirectoryPaths.segmentDirectoryFor(indexDir, SegmentVersion.v3);
+    return new File(segmentDirectory, REMOTE_INDEX_FILE_NAME).isFile();
+  }
+
+  /**
+   * Sets up a remote segment in the local index directory from the given remote segment directory, which should be an
+   * untarred V3 segment on {@link PinotFS}.
+   */
+  public static void setUpRemoteSegment(URI remoteIndexDirUri, File indexDir)
+      throws Exception {
+    PinotFS pinotFS = PinotFSFactory.create(remoteIndexDirUri.getScheme());
+    URI remoteSegmentDirUri = resolve(remoteIndexDirUri, SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME);
+    URI remoteIndexFileUri = resolve(remoteSegmentDirUri, SingleFileIndexDirectory.DEFAULT_INDEX_FILE_NAME);
+    Preconditions.checkState(pinotFS.exists(remoteIndexFileUri), "Failed to find V3 index file: %s",
+        remoteIndexFileUri);
+
+    File segmentDirectory = new File(indexDir, SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME);
+    FileUtils.deleteQuietly(indexDir);
+    FileUtils.forceMkdir(segmentDirectory);
+    try {
+      for (String fileName : REQUIRED_LOCAL_FILES) {
+        pinotFS.copyToLocalFile(resolve(remoteSegmentDirUri, fileName), new File(segmentDirectory, fileName));
+      }
+      for (String fileName : OPTIONAL_LOCAL_FILES) {
+        URI fileUri = resolve(remoteSegmentDirUri, fileName);
+        if (pinotFS.exists(fileUri)) {
+          pinotFS.copyToLocalFile(fileUri, new File(segmentDirectory, fileName));
+        }
+      }
+
+      // Include the CRC in the file id so that the cached blocks are not reused after the segment is refreshed
+      String crc = new SegmentMetadataImpl(indexDir).getCrc();
+      PropertiesConfiguration remoteIndexFileConfig = new PropertiesConfiguration();
+      // URI might contain the list delimiter
+      remoteIndexFileConfig.setDelimiterParsingDisabled(true);
+      remoteIndexFileConfig.setProperty(URI_KEY, remoteIndexFileUri.toString());
+      remoteIndexFileConfig.setProperty(LENGTH_KEY, pinotFS.length(remoteIndexFileUri));
+      remoteIndexFileConfig.setProperty(FILE_ID_KEY, remoteIndexFileUri + "@" + crc);
+      remoteIndexFileConfig.save(new File(segmentDirectory, REMOTE_INDEX_FILE_NAME));
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(indexDir);
+      throw e;
+    }
+    LOGGER.info("Set up remote segment from: {} in: {}", remoteIndexDirUri, indexDir);
+  }
+
+  /**
+   * Returns a read-only buffer of the remote index file referenced in the given segment directory.
+   */
+  static PinotDataBuffer getRemoteIndexFileBuffer(File segmentDirectory)
+      throws ConfigurationException {
+    BlockCache blockCache = BlockCache.getInstance();
+    Preconditions.checkState(blockCache != null, "Block cache is not initialized, cannot load remote segment: %s",
+        segmentDirectory);
+    PropertiesConfiguration remoteIndexFileConfig = new PropertiesConfiguration();
+    remoteIndexFileConfig.setDelimiterParsingDisabled(true);
+    remoteIndexFileConfig.load(new File(segmentDirectory, REMOTE_INDEX_FILE_NAME));
+    URI uri = URI.create(remoteIndexFileConfig.getString(URI_KEY));
+    long length = remoteIndexFileConfig.getLong(LENGTH_KEY);
+    String fileId = remoteIndexFileConfig.getString(FILE_ID_KEY);
+    // Backward-compatible: index file is always big-endian
+    return new PinotBlockCacheBuffer(blockCache, PinotFSFactory.create(uri.getScheme()), uri, length, fileId,
+        ByteOrder.BIG_ENDIAN);
+  }
+
+  private static URI resolve(URI dirUri, String fileName) {
+    String dir = dirUri.toString();
+    return URI.create(dir.endsWith("/") ? dir + fileName : dir + "/" + fileName);
+  }
+}
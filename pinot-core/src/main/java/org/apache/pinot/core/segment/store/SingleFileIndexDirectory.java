@@ -61,8 +61,8 @@ import org.slf4j.LoggerFactory;
 class SingleFileIndexDirectory extends ColumnIndexDirectory {
   private static Logger LOGGER = LoggerFactory.getLogger(SingleFileIndexDirectory.class);
 
-  private static final String DEFAULT_INDEX_FILE_NAME = "columns.psf";
-  private static final String INDEX_MAP_FILE = "index_map";
+  static final String DEFAULT_INDEX_FILE_NAME = "columns.psf";
+  static final String INDEX_MAP_FILE = "index_map";
   private static final long MAGIC_MARKER = 0xdeadbeefdeafbeadL;
   private static final int MAGIC_MARKER_SIZE_BYTES = 8;
   private static final String MAP_KEY_SEPARATOR = ".";
@@ -78,13 +78,17 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
   private File indexFile;
   private Map<IndexKey, IndexEntry> columnEntries;
   private List<PinotDataBuffer> allocBuffers;
+  // Buffer of the remote index file for remote segment, null for local segment
+  private PinotDataBuffer remoteIndexFileBuffer;
 
   public SingleFileIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode)
       throws IOException, ConfigurationException {
     super(segmentDirectory, metadata, readMode);
 
     indexFile = new File(segmentDirectory, DEFAULT_INDEX_FILE_NAME);
-    if (!indexFile.exists()) {
+    if (new File(segmentDirectory, RemoteSegmentUtils.REMOTE_INDEX_FILE_NAME).exists()) {
+      remoteIndexFileBuffer = RemoteSegmentUtils.getRemoteIndexFileBuffer(segmentDirectory);
+    } else if (!indexFile.exists()) {
       indexFile.createNewFile();
     }
     columnEntries = new HashMap<>(metadata.getAllColumns().size());
@@ -145,6 +149,8 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
   private PinotDataBuffer allocNewBufferInternal(String column, ColumnIndexType indexType, long size, String context)
       throws IOException {
 
+    Preconditions.checkState(remoteIndexFileBuffer == null, "Cannot create index for remote segment: %s",
+        segmentDirectory);
     IndexKey key = new IndexKey(column, indexType);
     checkKeyNotPresent(key);
 
@@ -283,7 +289,9 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
 
     // Backward-compatible: index file is always big-endian
     PinotDataBuffer buffer;
-    if (readMode == ReadMode.heap) {
+    if (remoteIndexFileBuffer != null) {
+      buffer = remoteIndexFileBuffer.view(fromFilePos, fromFilePos + size);
+    } else if (readMode == ReadMode.heap) {
       buffer = PinotDataBuffer.loadFile(indexFile, fromFilePos, size, ByteOrder.BIG_ENDIAN, context);
     } else {
       buffer = PinotDataBuffer.mapFile(indexFile, true, fromFilePos, size, ByteOrder.BIG_ENDIAN, context);
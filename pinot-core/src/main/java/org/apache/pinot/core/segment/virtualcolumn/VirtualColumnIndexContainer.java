@@ -18,12 +18,14 @@
  */
 package org.apache.pinot.core.segment.virtualcolumn;
 
+import java.io.IOException;
 import org.apache.pinot.core.io.reader.DataFileReader;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
 import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
 
 
 /**
@@ -51,6 +53,11 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
     return _invertedIndex;
   }
 
+  @Override
+  public RangeIndexReader getRangeIndex() {
+    return null;
+  }
+
   @Override
   public Dictionary getDictionary() {
     return _dictionary;
@@ -65,4 +72,16 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
   public NullValueVectorReaderImpl getNullValueVector() {
     return null;
   }
+
+  @Override
+  public void close()
+      throws IOException {
+    if (_dictionary != null) {
+      _dictionary.close();
+    }
+    _forwardIndex.close();
+    if (_invertedIndex != null) {
+      _invertedIndex.close();
+    }
+  }
 }
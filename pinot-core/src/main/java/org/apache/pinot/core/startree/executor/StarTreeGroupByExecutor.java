@@ -49,9 +49,10 @@ public class StarTreeGroupByExecutor extends DefaultGroupByExecutor {
   private final String[] _functionArgs;
 
   public StarTreeGroupByExecutor(@Nonnull AggregationFunctionContext[] functionContexts, @Nonnull GroupBy groupBy,
-      int maxInitialResultHolderCapacity, int numGroupsLimit, @Nonnull TransformOperator transformOperator) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, int offHeapResultHolderThreshold,
+      @Nonnull TransformOperator transformOperator) {
     super(StarTreeUtils.createStarTreeFunctionContexts(functionContexts), groupBy, maxInitialResultHolderCapacity,
-        numGroupsLimit, transformOperator);
+        numGroupsLimit, offHeapResultHolderThreshold, transformOperator);
 
     _functionArgs = new String[functionContexts.length];
     for (int i = 0; i < functionContexts.length; i++) {
@@ -20,16 +20,20 @@ package org.apache.pinot.core.transport;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.utils.DataTable;
 
 
 /**
  * The {@code AsyncQueryResponse} class represents an asynchronous query response.
- * <p>Call {@link #getResponse()} to get the query response asynchronously.
+ * <p>Call {@link #getResponse()} to wait for the query response, or {@link #getResponseFuture()} to get the query
+ * response without blocking the caller thread.
  */
 @ThreadSafe
 public class AsyncQueryResponse {
@@ -38,11 +42,43 @@ public class AsyncQueryResponse {
   private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
   private final long _maxEndTimeMs;
+  private final CompletableFuture<Map<ServerRoutingInstance, ServerResponse>> _responseFuture =
+      new CompletableFuture<>();
+  private final long _startTimeMs;
+  private volatile ScheduledFuture<?> _timeoutFuture;
+
+  // For server latency tracking, where the pending servers are the servers queried but not responded yet
+  private final ServerLatencyTracker _serverLatencyTracker;
+  private final ConcurrentHashMap<ServerRoutingInstance, String> _pendingServers;
 
   public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
       long startTimeMs, long timeoutMs) {
+    this(queryRouter, requestId, serversQueried, startTimeMs, timeoutMs, null, null);
+  }
+
+  /**
+   * @param serverLatencyTracker Tracker to record the server latencies to, or {@code null} if not tracked
+   * @param instanceIdMap Map from server to instance id, must be provided when the server latencies are tracked
+   */
+  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
+      long startTimeMs, long timeoutMs, @Nullable ServerLatencyTracker serverLatencyTracker,
+      @Nullable Map<ServerRoutingInstance, String> instanceIdMap) {
     _queryRouter = queryRouter;
     _requestId = requestId;
+    _startTimeMs = startTimeMs;
+    if (serverLatencyTracker != null) {
+      assert instanceIdMap != null;
+      _serverLatencyTracker = serverLatencyTracker;
+      _pendingServers = new ConcurrentHashMap<>(instanceIdMap);
+      // Record the submission before sending the requests because the response might be received before the request
+      // is marked submitted
+      for (String instanceId : instanceIdMap.values()) {
+        serverLatencyTracker.recordQuerySubmitted(instanceId);
+      }
+    } else {
+      _serverLatencyTracker = null;
+      _pendingServers = null;
+    }
     int numServersQueried = serversQueried.size();
     _responseMap = new ConcurrentHashMap<>(numServersQueried);
     for (ServerRoutingInstance serverRoutingInstance : serversQueried) {
@@ -50,6 +86,22 @@ public class AsyncQueryResponse {
     }
     _countDownLatch = new CountDownLatch(numServersQueried);
     _maxEndTimeMs = startTimeMs + timeoutMs;
+    _responseFuture.whenComplete((response, throwable) -> {
+      ScheduledFuture<?> timeoutFuture = _timeoutFuture;
+      if (timeoutFuture != null) {
+        timeoutFuture.cancel(false);
+      }
+      if (_pendingServers != null) {
+        // Query failed before the pending servers responded
+        for (ServerRoutingInstance serverRoutingInstance : _pendingServers.keySet()) {
+          String instanceId = _pendingServers.remove(serverRoutingInstance);
+          if (instanceId != null) {
+            _serverLatencyTracker.recordQueryAborted(instanceId);
+          }
+        }
+      }
+      _queryRouter.markQueryDone(_requestId, this);
+    });
   }
 
   /**
@@ -61,13 +113,23 @@ public class AsyncQueryResponse {
       _countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
       return _responseMap;
     } finally {
-      _queryRouter.markQueryDone(_requestId);
+      _queryRouter.markQueryDone(_requestId, this);
     }
   }
 
+  /**
+   * Returns a future which is completed with the map from the server to the response when the query is done (all the
+   * servers responded, the query failed or timed out).
+   * <p>NOTE: the future might be completed on the network thread, so the expensive dependent actions (e.g. reduce)
+   * should be executed asynchronously with a separate executor.
+   */
+  public CompletableFuture<Map<ServerRoutingInstance, ServerResponse>> getResponseFuture() {
+    return _responseFuture;
+  }
+
   /**
    * Returns the statistics for the servers the query sent to.
-   * <p>Should be called after calling {@link #getResponse()}.
+   * <p>Should be called after calling {@link #getResponse()} or the response future is completed.
    */
   public String getStats() {
     StringBuilder stringBuilder =
@@ -82,10 +144,26 @@ public class AsyncQueryResponse {
     _responseMap.get(serverRoutingInstance).markRequestSubmitted();
   }
 
+  /**
+   * Records the latency for the pending server. Each server is recorded at most once.
+   */
+  private void recordServerLatency(ServerRoutingInstance serverRoutingInstance, long latencyMs) {
+    String instanceId = _pendingServers.remove(serverRoutingInstance);
+    if (instanceId != null) {
+      _serverLatencyTracker.recordQueryCompleted(instanceId, latencyMs);
+    }
+  }
+
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
     _responseMap.get(serverRoutingInstance).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+    if (_serverLatencyTracker != null) {
+      recordServerLatency(serverRoutingInstance, System.currentTimeMillis() - _startTimeMs);
+    }
     _countDownLatch.countDown();
+    if (_countDownLatch.getCount() == 0) {
+      _responseFuture.complete(_responseMap);
+    }
   }
 
   void markQueryFailed() {
@@ -93,6 +171,29 @@ public class AsyncQueryResponse {
     for (int i = 0; i < count; i++) {
       _countDownLatch.countDown();
     }
+    _responseFuture.complete(_responseMap);
+  }
+
+  void setTimeoutFuture(ScheduledFuture<?> timeoutFuture) {
+    _timeoutFuture = timeoutFuture;
+    // The query might be done before the timeout future is set
+    if (_responseFuture.isDone()) {
+      timeoutFuture.cancel(false);
+    }
+  }
+
+  /**
+   * Completes the response future with the responses received so far when the query times out.
+   */
+  void markQueryTimedOut() {
+    if (_serverLatencyTracker != null) {
+      // Penalize the servers not responded with the time waited
+      long latencyMs = System.currentTimeMillis() - _startTimeMs;
+      for (ServerRoutingInstance serverRoutingInstance : _pendingServers.keySet()) {
+        recordServerLatency(serverRoutingInstance, latencyMs);
+      }
+    }
+    _responseFuture.complete(_responseMap);
   }
 
   /**
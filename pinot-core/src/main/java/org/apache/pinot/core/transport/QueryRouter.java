@@ -22,6 +22,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -29,6 +32,7 @@ import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.spi.config.table.TableType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,12 +50,25 @@ public class QueryRouter {
   private final String _brokerId;
   private final BrokerMetrics _brokerMetrics;
   private final ServerChannels _serverChannels;
+  private final ServerLatencyTracker _serverLatencyTracker;
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
+  // Completes the response futures of the timed out queries
+  private final ScheduledExecutorService _timeoutExecutor =
+      Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("query-router-timeout"));
 
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics) {
+    this(brokerId, brokerMetrics, null);
+  }
+
+  /**
+   * @param serverLatencyTracker Tracker to record the server latencies to, or {@code null} if not tracked
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics,
+      @Nullable ServerLatencyTracker serverLatencyTracker) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
     _serverChannels = new ServerChannels(this, brokerMetrics);
+    _serverLatencyTracker = serverLatencyTracker;
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
@@ -62,12 +79,17 @@ public class QueryRouter {
 
     // Build map from server to request based on the routing table
     Map<ServerRoutingInstance, InstanceRequest> requestMap = new HashMap<>();
+    // Map from server to instance id, only used to track the server latencies
+    Map<ServerRoutingInstance, String> instanceIdMap = _serverLatencyTracker != null ? new HashMap<>() : null;
     if (offlineBrokerRequest != null) {
       assert offlineRoutingTable != null;
       for (Map.Entry<ServerInstance, List<String>> entry : offlineRoutingTable.entrySet()) {
         ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(TableType.OFFLINE);
         InstanceRequest instanceRequest = getInstanceRequest(requestId, offlineBrokerRequest, entry.getValue());
         requestMap.put(serverRoutingInstance, instanceRequest);
+        if (instanceIdMap != null) {
+          instanceIdMap.put(serverRoutingInstance, entry.getKey().getInstanceId());
+        }
       }
     }
     if (realtimeBrokerRequest != null) {
@@ -76,13 +98,19 @@ public class QueryRouter {
         ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(TableType.REALTIME);
         InstanceRequest instanceRequest = getInstanceRequest(requestId, realtimeBrokerRequest, entry.getValue());
         requestMap.put(serverRoutingInstance, instanceRequest);
+        if (instanceIdMap != null) {
+          instanceIdMap.put(serverRoutingInstance, entry.getKey().getInstanceId());
+        }
       }
     }
 
     // Create the asynchronous query response with the request map
     AsyncQueryResponse asyncQueryResponse =
-        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs);
+        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs,
+            _serverLatencyTracker, instanceIdMap);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
+    asyncQueryResponse.setTimeoutFuture(
+        _timeoutExecutor.schedule(asyncQueryResponse::markQueryTimedOut, timeoutMs, TimeUnit.MILLISECONDS));
     for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
       ServerRoutingInstance serverRoutingInstance = entry.getKey();
       try {
@@ -102,6 +130,7 @@ public class QueryRouter {
 
   public void shutDown() {
     _serverChannels.shutDown();
+    _timeoutExecutor.shutdownNow();
   }
 
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
@@ -121,8 +150,13 @@ public class QueryRouter {
     }
   }
 
-  void markQueryDone(long requestId) {
-    _asyncQueryResponseMap.remove(requestId);
+  /**
+   * Removes the query from the pending queries. The query is removed only if it is still mapped to the given response
+   * because it can be marked done more than once (e.g. when the response future is completed after the caller thread
+   * stops waiting), after which a new query might have been submitted with the same request id.
+   */
+  void markQueryDone(long requestId, AsyncQueryResponse asyncQueryResponse) {
+    _asyncQueryResponseMap.remove(requestId, asyncQueryResponse);
   }
 
   private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest, List<String> segments) {
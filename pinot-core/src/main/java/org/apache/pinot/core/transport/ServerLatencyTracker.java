@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code ServerLatencyTracker} class tracks the latency and the number of in-flight queries for each server (keyed
+ * by the instance id), which can be used to route the queries to the fastest servers.
+ * <p>The latency is tracked as the exponentially weighted moving average (EWMA) of the server response delays. Servers
+ * not responding before the query times out are recorded with the timeout as the latency. The latency decays over time
+ * (halved every {@link #LATENCY_HALF_LIFE_MS}) so that a server recovered from a temporary slowness (e.g. GC pause)
+ * gets queries again even if it is not picked in the meantime.
+ */
+@ThreadSafe
+public class ServerLatencyTracker {
+  public static final double DEFAULT_EWMA_ALPHA = 0.3;
+  public static final long LATENCY_HALF_LIFE_MS = 10_000L;
+
+  private final double _ewmaAlpha;
+  private final ConcurrentHashMap<String, ServerStats> _serverStatsMap = new ConcurrentHashMap<>();
+
+  public ServerLatencyTracker() {
+    this(DEFAULT_EWMA_ALPHA);
+  }
+
+  /**
+   * @param ewmaAlpha Weight of the latest latency in the EWMA, in range (0, 1]
+   */
+  public ServerLatencyTracker(double ewmaAlpha) {
+    Preconditions.checkArgument(ewmaAlpha > 0 && ewmaAlpha <= 1, "EWMA alpha must be in range (0, 1], got: %s",
+        ewmaAlpha);
+    _ewmaAlpha = ewmaAlpha;
+  }
+
+  /**
+   * Records a query submitted to the server.
+   */
+  public void recordQuerySubmitted(String instanceId) {
+    getServerStats(instanceId)._numInFlightQueries.getAndIncrement();
+  }
+
+  /**
+   * Records a query submitted to the server completed with the given latency.
+   */
+  public void recordQueryCompleted(String instanceId, long latencyMs) {
+    ServerStats serverStats = getServerStats(instanceId);
+    serverStats._numInFlightQueries.getAndDecrement();
+    serverStats.updateLatency(latencyMs, System.currentTimeMillis(), _ewmaAlpha);
+  }
+
+  /**
+   * Records a query submitted to the server finished without a valid latency (e.g. the query failed on another server).
+   */
+  public void recordQueryAborted(String instanceId) {
+    getServerStats(instanceId)._numInFlightQueries.getAndDecrement();
+  }
+
+  /**
+   * Returns the score of the server for routing, where lower is better. The score is the estimated time to serve a new
+   * query, i.e. the latency multiplied by the number of queries queued on the server (including the new one).
+   * <p>Returns {@link Double#NaN} for servers without latency recorded (e.g. just started), for which the caller
+   * should pick a score based on the other servers instead of treating them as the fastest ones.
+   */
+  public double getScore(String instanceId) {
+    ServerStats serverStats = _serverStatsMap.get(instanceId);
+    if (serverStats == null) {
+      return Double.NaN;
+    }
+    double latencyMs = serverStats.getLatencyMs(System.currentTimeMillis());
+    if (Double.isNaN(latencyMs)) {
+      return Double.NaN;
+    }
+    return (latencyMs + 1) * (serverStats._numInFlightQueries.get() + 1);
+  }
+
+  /**
+   * Returns the current (decayed) latency EWMA of the server, or 0 if there is no latency recorded.
+   */
+  public double getLatencyMs(String instanceId) {
+    ServerStats serverStats = _serverStatsMap.get(instanceId);
+    if (serverStats == null) {
+      return 0;
+    }
+    double latencyMs = serverStats.getLatencyMs(System.currentTimeMillis());
+    return Double.isNaN(latencyMs) ? 0 : latencyMs;
+  }
+
+  public int getNumInFlightQueries(String instanceId) {
+    ServerStats serverStats = _serverStatsMap.get(instanceId);
+    return serverStats != null ? serverStats._numInFlightQueries.get() : 0;
+  }
+
+  private ServerStats getServerStats(String instanceId) {
+    return _serverStatsMap.computeIfAbsent(instanceId, k -> new ServerStats());
+  }
+
+  private static class ServerStats {
+    final AtomicInteger _numInFlightQueries = new AtomicInteger();
+
+    // Guarded by this
+    boolean _hasLatency;
+    double _latencyMs;
+    long _lastUpdateTimeMs;
+
+    synchronized void updateLatency(long latencyMs, long currentTimeMs, double ewmaAlpha) {
+      if (_hasLatency) {
+        _latencyMs = ewmaAlpha * latencyMs + (1 - ewmaAlpha) * getLatencyMs(currentTimeMs);
+      } else {
+        _latencyMs = latencyMs;
+        _hasLatency = true;
+      }
+      _lastUpdateTimeMs = currentTimeMs;
+    }
+
+    /**
+     * Returns the decayed latency EWMA, or {@link Double#NaN} if there is no latency recorded.
+     */
+    synchronized double getLatencyMs(long currentTimeMs) {
+      if (!_hasLatency) {
+        return Double.NaN;
+      }
+      long elapsedTimeMs = currentTimeMs - _lastUpdateTimeMs;
+      if (elapsedTimeMs <= 0) {
+        return _latencyMs;
+      }
+      return _latencyMs * Math.pow(0.5, (double) elapsedTimeMs / LATENCY_HALF_LIFE_MS);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.tdunning.math.stats.TDigest;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
@@ -35,6 +36,9 @@ import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDig
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 
 public class ObjectSerDeUtilsTest {
@@ -123,14 +127,110 @@ public class ObjectSerDeUtilsTest {
   }
 
   @Test
-  public void testHyperLogLog() {
+  public void testHyperLogLog()
+      throws Exception {
     for (int i = 0; i < NUM_ITERATIONS; i++) {
-      HyperLogLog expected = new HyperLogLog(7);
+      HyperLogLog expected = new HyperLogLog(RANDOM.nextBoolean() ? 8 : 12);
+      int size = RANDOM.nextInt(2000);
+      for (int j = 0; j < size; j++) {
+        expected.offer(RANDOM.nextInt());
+      }
 
-      byte[] bytes = ObjectSerDeUtils.serialize(expected);
+      // Sparse format when it is smaller than the dense format
+      byte[] bytes = ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.serialize(expected);
+      byte[] denseBytes = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(expected);
+      assertTrue(bytes.length <= denseBytes.length, ERROR_MESSAGE);
       HyperLogLog actual = ObjectSerDeUtils.deserialize(bytes, ObjectSerDeUtils.ObjectType.HyperLogLog);
-
       assertEquals(actual.cardinality(), expected.cardinality(), ERROR_MESSAGE);
+      assertEquals(actual.getBytes(), denseBytes, ERROR_MESSAGE);
+
+      // Both formats can be de-serialized by both ser-des
+      assertEquals(ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytes).getBytes(), denseBytes, ERROR_MESSAGE);
+      HyperLogLog fromDense =
+          ObjectSerDeUtils.deserialize(ByteBuffer.wrap(denseBytes), ObjectSerDeUtils.ObjectType.HyperLogLog);
+      assertEquals(fromDense.cardinality(), expected.cardinality(), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testMergeHyperLogLog()
+      throws Exception {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      int log2m = RANDOM.nextBoolean() ? 8 : 12;
+      HyperLogLog hyperLogLog1 = new HyperLogLog(log2m);
+      HyperLogLog hyperLogLog2 = new HyperLogLog(log2m);
+      int size = RANDOM.nextInt(2000);
+      for (int j = 0; j < size; j++) {
+        hyperLogLog1.offer(RANDOM.nextInt());
+        hyperLogLog2.offer(RANDOM.nextInt());
+      }
+
+      // Merge both formats in place
+      HyperLogLog sparseMerged = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(hyperLogLog1.getBytes());
+      ObjectSerDeUtils
+          .mergeHyperLogLog(sparseMerged, ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog2));
+      HyperLogLog denseMerged = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(hyperLogLog1.getBytes());
+      ObjectSerDeUtils.mergeHyperLogLog(denseMerged, ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog2));
+
+      hyperLogLog1.addAll(hyperLogLog2);
+      assertEquals(sparseMerged.getBytes(), hyperLogLog1.getBytes(), ERROR_MESSAGE);
+      assertEquals(denseMerged.getBytes(), hyperLogLog1.getBytes(), ERROR_MESSAGE);
+    }
+
+    try {
+      ObjectSerDeUtils.mergeHyperLogLog(new HyperLogLog(8), new HyperLogLog(12).getBytes());
+      fail("Merging HyperLogLogs of different sizes should fail");
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testCompactSerDeEnabled()
+      throws Exception {
+    HyperLogLog hyperLogLog = new HyperLogLog(12);
+    QuantileDigest quantileDigest = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+    for (int i = 0; i < 100; i++) {
+      int value = RANDOM.nextInt(10000);
+      hyperLogLog.offer(value);
+      quantileDigest.add(value);
+    }
+
+    // Legacy formats by default
+    assertFalse(ObjectSerDeUtils.isCompactSerDeEnabled());
+    assertEquals(ObjectSerDeUtils.serialize(hyperLogLog), hyperLogLog.getBytes(), ERROR_MESSAGE);
+    assertEquals(ObjectSerDeUtils.serialize(quantileDigest), quantileDigest.toBytes(), ERROR_MESSAGE);
+
+    ObjectSerDeUtils.setCompactSerDeEnabled(true);
+    try {
+      byte[] hyperLogLogBytes = ObjectSerDeUtils.serialize(hyperLogLog);
+      byte[] quantileDigestBytes = ObjectSerDeUtils.serialize(quantileDigest);
+      assertEquals(hyperLogLogBytes, ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog),
+          ERROR_MESSAGE);
+      assertEquals(quantileDigestBytes, quantileDigest.toCompactBytes(), ERROR_MESSAGE);
+
+      // Compact formats can be de-serialized by the legacy ser-des
+      assertEquals(ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(hyperLogLogBytes).getBytes(),
+          hyperLogLog.getBytes(), ERROR_MESSAGE);
+      assertEquals(ObjectSerDeUtils.QUANTILE_DIGEST_SER_DE.deserialize(quantileDigestBytes).getQuantile(0.5),
+          QuantileDigest.fromBytes(quantileDigest.toBytes()).getQuantile(0.5), ERROR_MESSAGE);
+    } finally {
+      ObjectSerDeUtils.setCompactSerDeEnabled(false);
+    }
+  }
+
+  @Test
+  public void testCanMergeHyperLogLog()
+      throws Exception {
+    HyperLogLog hyperLogLog = new HyperLogLog(12);
+    hyperLogLog.offer(RANDOM.nextInt());
+    for (byte[] bytes : new byte[][]{ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog),
+        ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog)}) {
+      ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+      assertTrue(ObjectSerDeUtils.canMergeHyperLogLog(new HyperLogLog(12), byteBuffer), ERROR_MESSAGE);
+      assertFalse(ObjectSerDeUtils.canMergeHyperLogLog(new HyperLogLog(8), byteBuffer), ERROR_MESSAGE);
+      // Position should not be changed
+      assertEquals(byteBuffer.position(), 0, ERROR_MESSAGE);
     }
   }
 
@@ -145,9 +245,38 @@ public class ObjectSerDeUtilsTest {
 
       byte[] bytes = ObjectSerDeUtils.serialize(expected);
       QuantileDigest actual = ObjectSerDeUtils.deserialize(bytes, ObjectSerDeUtils.ObjectType.QuantileDigest);
+      QuantileDigest actualFromLegacyBytes = QuantileDigest.fromBytes(expected.toBytes());
 
       for (int j = 0; j <= 100; j++) {
         assertEquals(actual.getQuantile(j / 100.0), expected.getQuantile(j / 100.0), 1e-5, ERROR_MESSAGE);
+        assertEquals(actualFromLegacyBytes.getQuantile(j / 100.0), expected.getQuantile(j / 100.0), 1e-5,
+            ERROR_MESSAGE);
+      }
+    }
+  }
+
+  @Test
+  public void testCompactQuantileDigest() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      QuantileDigest expected = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+      int size = RANDOM.nextInt(1000) + 1;
+      for (int j = 0; j < size; j++) {
+        expected.add(RANDOM.nextInt(10000) - 5000);
+      }
+
+      byte[] bytes = expected.toCompactBytes();
+      assertEquals(bytes.length, expected.getCompactByteSize(), ERROR_MESSAGE);
+      assertTrue(bytes.length < expected.getByteSize(), ERROR_MESSAGE);
+      QuantileDigest actual = QuantileDigest.fromByteBuffer(ByteBuffer.wrap(bytes));
+
+      // Should be identical to the one de-serialized from the legacy format
+      QuantileDigest actualFromLegacyBytes = QuantileDigest.fromBytes(expected.toBytes());
+      assertEquals(actual.toBytes(), expected.toBytes(), ERROR_MESSAGE);
+      assertEquals(actual.getCount(), actualFromLegacyBytes.getCount(), ERROR_MESSAGE);
+      assertEquals(actual.getMin(), expected.getMin(), ERROR_MESSAGE);
+      assertEquals(actual.getMax(), expected.getMax(), ERROR_MESSAGE);
+      for (int j = 0; j <= 100; j++) {
+        assertEquals(actual.getQuantile(j / 100.0), actualFromLegacyBytes.getQuantile(j / 100.0), ERROR_MESSAGE);
       }
     }
   }
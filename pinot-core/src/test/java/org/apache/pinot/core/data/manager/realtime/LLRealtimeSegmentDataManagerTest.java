@@ -44,6 +44,7 @@ import org.apache.pinot.core.realtime.impl.fakestream.FakeStreamMessageDecoder;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.stream.MessageBatch;
 import org.apache.pinot.spi.stream.PermanentConsumerException;
 import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.spi.utils.JsonUtils;
@@ -141,8 +142,12 @@ public class LLRealtimeSegmentDataManagerTest {
 
   private FakeLLRealtimeSegmentDataManager createFakeSegmentManager()
       throws Exception {
+    return createFakeSegmentManager(createTableConfig());
+  }
+
+  private FakeLLRealtimeSegmentDataManager createFakeSegmentManager(TableConfig tableConfig)
+      throws Exception {
     LLCRealtimeSegmentZKMetadata segmentZKMetadata = createZkMetadata();
-    TableConfig tableConfig = createTableConfig();
     InstanceZKMetadata instanceZKMetadata = new InstanceZKMetadata();
     RealtimeTableDataManager tableDataManager = createTableDataManager();
     String resourceDir = _segmentDir;
@@ -646,6 +651,48 @@ public class LLRealtimeSegmentDataManagerTest {
     segmentDataManager.destroy();
   }
 
+  // Test that the consumption can resume with the pipelined message decoder after building the segment, where the
+  // commit fails after the build and the controller asks to catch up
+  @Test
+  public void testCatchupAfterSegmentBuildWithPipelinedDecoder()
+      throws Exception {
+    TableConfig tableConfig = createTableConfig();
+    tableConfig.getIndexingConfig().getStreamConfigs().put(StreamConfigProperties.DECODER_NUM_THREADS, "2");
+    FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager(tableConfig);
+    LLRealtimeSegmentDataManager.PartitionConsumer consumer = segmentDataManager.createPartitionConsumer();
+    final long firstOffset = _startOffset + 500;
+    final long catchupOffset = firstOffset + 1000;
+    segmentDataManager.setCurrentOffset(firstOffset);
+    segmentDataManager._state.set(segmentDataManager, LLRealtimeSegmentDataManager.State.HOLDING);
+    segmentDataManager._failSegmentCommit = true;
+    final SegmentCompletionProtocol.Response commitResponse = new SegmentCompletionProtocol.Response(
+        new SegmentCompletionProtocol.Response.Params().withOffset(firstOffset)
+            .withStatus(SegmentCompletionProtocol.ControllerResponseStatus.COMMIT));
+    final SegmentCompletionProtocol.Response catchupResponse = new SegmentCompletionProtocol.Response(
+        new SegmentCompletionProtocol.Response.Params().withOffset(catchupOffset)
+            .withStatus(SegmentCompletionProtocol.ControllerResponseStatus.CATCH_UP));
+    final SegmentCompletionProtocol.Response keepResponse = new SegmentCompletionProtocol.Response(
+        new SegmentCompletionProtocol.Response.Params().withOffset(catchupOffset)
+            .withStatus(SegmentCompletionProtocol.ControllerResponseStatus.KEEP));
+    segmentDataManager._responses.add(commitResponse);
+    segmentDataManager._responses.add(catchupResponse);
+    segmentDataManager._responses.add(keepResponse);
+    // Messages to catch up with, more than needed
+    segmentDataManager._messageBatches.add(new FakeMessageBatch(firstOffset, 2000));
+
+    consumer.run();
+
+    Assert.assertTrue(segmentDataManager._responses.isEmpty());
+    Assert.assertTrue(segmentDataManager._messageBatches.isEmpty());
+    Assert.assertTrue(segmentDataManager._buildSegmentCalled);
+    Assert.assertTrue(segmentDataManager._commitSegmentCalled);
+    Assert.assertTrue(segmentDataManager._buildAndReplaceCalled);
+    Assert.assertEquals(segmentDataManager.getCurrentOffset(), catchupOffset);
+    Assert
+        .assertEquals(segmentDataManager._state.get(segmentDataManager), LLRealtimeSegmentDataManager.State.RETAINED);
+    segmentDataManager.destroy();
+  }
+
   @Test
   public void testOnlyOneSegmentHoldingTheSemaphoreForParticularPartition()
       throws Exception {
@@ -705,9 +752,12 @@ public class LLRealtimeSegmentDataManagerTest {
     public Field _stopReason;
     public LinkedList<Long> _consumeOffsets = new LinkedList<>();
     public LinkedList<SegmentCompletionProtocol.Response> _responses = new LinkedList<>();
+    // Message batches to be processed with the real implementation, consumed before the offsets in _consumeOffsets
+    public LinkedList<MessageBatch> _messageBatches = new LinkedList<>();
     public boolean _commitSegmentCalled = false;
     public boolean _buildSegmentCalled = false;
     public boolean _failSegmentBuild = false;
+    public boolean _failSegmentCommit = false;
     public boolean _buildAndReplaceCalled = false;
     public int _stopWaitTimeMs = 100;
     private boolean _downloadAndReplaceCalled = false;
@@ -767,7 +817,7 @@ public class LLRealtimeSegmentDataManagerTest {
     }
 
     private void terminateLoopIfNecessary() {
-      if (_consumeOffsets.isEmpty() && _responses.isEmpty()) {
+      if (_consumeOffsets.isEmpty() && _responses.isEmpty() && _messageBatches.isEmpty()) {
         try {
           _shouldStop.set(this, true);
         } catch (Exception e) {
@@ -787,7 +837,11 @@ public class LLRealtimeSegmentDataManagerTest {
       if (_throwExceptionFromConsume) {
         throw new PermanentConsumerException(new Throwable("Offset out of range"));
       }
-      setCurrentOffset(_consumeOffsets.remove());
+      if (!_messageBatches.isEmpty()) {
+        invokeProcessStreamEvents(_messageBatches.remove());
+      } else {
+        setCurrentOffset(_consumeOffsets.remove());
+      }
       terminateLoopIfNecessary();
       return true;
     }
@@ -829,6 +883,8 @@ public class LLRealtimeSegmentDataManagerTest {
     @Override
     protected SegmentBuildDescriptor buildSegmentInternal(boolean forCommit) {
       _buildSegmentCalled = true;
+      // Close the stream consumers as the real implementation does before building the segment
+      invokeCloseKafkaConsumers();
       if (_failSegmentBuild) {
         return null;
       }
@@ -848,7 +904,7 @@ public class LLRealtimeSegmentDataManagerTest {
     @Override
     protected boolean commitSegment(String controllerVipUrl, boolean isSplitCommit) {
       _commitSegmentCalled = true;
-      return true;
+      return !_failSegmentCommit;
     }
 
     @Override
@@ -898,6 +954,29 @@ public class LLRealtimeSegmentDataManagerTest {
       throw new RuntimeException("Cannot get here");
     }
 
+    private void invokeProcessStreamEvents(MessageBatch messageBatch)
+        throws Exception {
+      Method processStreamEvents =
+          LLRealtimeSegmentDataManager.class.getDeclaredMethod("processStreamEvents", MessageBatch.class, long.class);
+      processStreamEvents.setAccessible(true);
+      try {
+        processStreamEvents.invoke(this, messageBatch, 0L);
+      } catch (InvocationTargetException e) {
+        // Rethrow the exception from the real implementation
+        throw (Exception) e.getCause();
+      }
+    }
+
+    private void invokeCloseKafkaConsumers() {
+      try {
+        Method closeKafkaConsumers = LLRealtimeSegmentDataManager.class.getDeclaredMethod("closeKafkaConsumers");
+        closeKafkaConsumers.setAccessible(true);
+        closeKafkaConsumers.invoke(this);
+      } catch (Exception e) {
+        Assert.fail();
+      }
+    }
+
     public void setSegmentMaxRowCount(int numRows) {
       setInt(numRows, "_segmentMaxRowCount");
     }
@@ -926,4 +1005,43 @@ public class LLRealtimeSegmentDataManagerTest {
       }
     }
   }
+
+  /**
+   * Message batch with contiguous offsets starting from the given offset. The payloads are not decoded by the
+   * {@link FakeStreamMessageDecoder}, so the messages are consumed but not indexed.
+   */
+  private static class FakeMessageBatch implements MessageBatch<byte[]> {
+    final long _startOffset;
+    final int _numMessages;
+
+    FakeMessageBatch(long startOffset, int numMessages) {
+      _startOffset = startOffset;
+      _numMessages = numMessages;
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _numMessages;
+    }
+
+    @Override
+    public byte[] getMessageAtIndex(int index) {
+      return new byte[0];
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return _startOffset + index + 1;
+    }
+  }
 }
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.util.Map;
+import java.util.Set;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class PipelinedMessageDecoderTest {
+  private static final String VALUE_COLUMN = "value";
+  private static final int NUM_MESSAGES = 10_000;
+
+  // Messages dropped by the decoder, dropped by the transformer and failed to be transformed
+  private static final int DECODER_DROP_MODULO = 7;
+  private static final int TRANSFORMER_DROP_MODULO = 11;
+  private static final int TRANSFORMER_ERROR_MODULO = 13;
+
+  private final PipelinedMessageDecoder _pipelinedMessageDecoder =
+      new PipelinedMessageDecoder(4, TestDecoder::new, () -> record -> {
+        int value = (int) record.getValue(VALUE_COLUMN);
+        if (value % TRANSFORMER_DROP_MODULO == 0) {
+          return null;
+        }
+        if (value % TRANSFORMER_ERROR_MODULO == 0) {
+          throw new IllegalStateException();
+        }
+        return record;
+      }, "PipelinedMessageDecoderTest", LoggerFactory.getLogger(PipelinedMessageDecoderTest.class));
+
+  @Test
+  public void testDecodeInOrder() {
+    // Decode multiple batches with the same decoder to test the buffer reuse
+    for (int batchId = 0; batchId < 3; batchId++) {
+      int startValue = batchId * NUM_MESSAGES;
+      _pipelinedMessageDecoder.start(new TestMessageBatch(startValue, NUM_MESSAGES));
+      for (int i = 0; i < NUM_MESSAGES; i++) {
+        int value = startValue + i;
+        GenericRow transformedRow = _pipelinedMessageDecoder.getTransformedRow(i);
+        if (value % DECODER_DROP_MODULO == 0 || value % TRANSFORMER_DROP_MODULO == 0) {
+          assertNull(transformedRow);
+          assertFalse(_pipelinedMessageDecoder.isErrored(i));
+        } else if (value % TRANSFORMER_ERROR_MODULO == 0) {
+          assertNull(transformedRow);
+          assertTrue(_pipelinedMessageDecoder.isErrored(i));
+        } else {
+          assertEquals(transformedRow.getValue(VALUE_COLUMN), value);
+        }
+      }
+      _pipelinedMessageDecoder.finish();
+    }
+  }
+
+  @Test
+  public void testFinishEarly() {
+    _pipelinedMessageDecoder.start(new TestMessageBatch(0, NUM_MESSAGES));
+    assertEquals(_pipelinedMessageDecoder.getTransformedRow(1).getValue(VALUE_COLUMN), 1);
+    _pipelinedMessageDecoder.finish();
+
+    _pipelinedMessageDecoder.start(new TestMessageBatch(1, 1));
+    assertEquals(_pipelinedMessageDecoder.getTransformedRow(0).getValue(VALUE_COLUMN), 1);
+    _pipelinedMessageDecoder.finish();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _pipelinedMessageDecoder.close();
+  }
+
+  private static class TestMessageBatch implements MessageBatch<Integer> {
+    final int _startValue;
+    final int _numMessages;
+
+    TestMessageBatch(int startValue, int numMessages) {
+      _startValue = startValue;
+      _numMessages = numMessages;
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _numMessages;
+    }
+
+    @Override
+    public Integer getMessageAtIndex(int index) {
+      return _startValue + index;
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return 1;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return _startValue + index + 1;
+    }
+  }
+
+  private static class TestDecoder implements StreamMessageDecoder<Integer> {
+
+    @Override
+    public void init(Map<String, String> props, Set<String> fieldsToRead, String topicName) {
+    }
+
+    @Override
+    public GenericRow decode(Integer payload, GenericRow destination) {
+      if (payload % DECODER_DROP_MODULO == 0) {
+        return null;
+      }
+      destination.putValue(VALUE_COLUMN, payload);
+      return destination;
+    }
+
+    @Override
+    public GenericRow decode(Integer payload, int offset, int length, GenericRow destination) {
+      return decode(payload, destination);
+    }
+  }
+}
@@ -68,7 +68,12 @@ public class IndexedTableTest {
     sel.setIsAsc(true);
     List<SelectionSort> orderBy = Lists.newArrayList(sel);
 
-    IndexedTable indexedTable = new ConcurrentIndexedTable(dataSchema, aggregationInfos, orderBy, 5);
+    testConcurrentUpserts(new ConcurrentIndexedTable(dataSchema, aggregationInfos, orderBy, 5));
+    testConcurrentUpserts(new PartitionedIndexedTable(dataSchema, aggregationInfos, orderBy, 5, 4));
+  }
+
+  private void testConcurrentUpserts(IndexedTable indexedTable)
+      throws InterruptedException, TimeoutException, ExecutionException {
 
     // 3 threads upsert together
     // a inserted 6 times (60), b inserted 5 times (50), d inserted 2 times (20)
@@ -165,6 +170,15 @@ public class IndexedTableTest {
     // finish
     concurrentIndexedTable.finish(true);
     checkSurvivors(concurrentIndexedTable, survivors);
+
+    // Test PartitionedIndexedTable
+    IndexedTable partitionedIndexedTable = new PartitionedIndexedTable(dataSchema, aggregationInfos, orderBy, 5, 4);
+    mergeTable = new SimpleIndexedTable(dataSchema, aggregationInfos, orderBy, 10);
+    testNonConcurrent(partitionedIndexedTable, mergeTable);
+
+    // finish
+    partitionedIndexedTable.finish(true);
+    checkSurvivors(partitionedIndexedTable, survivors);
   }
 
   @DataProvider(name = "initDataProvider")
@@ -304,6 +318,43 @@ public class IndexedTableTest {
     return new Record(columns);
   }
 
+  @Test
+  public void testPartitionedIndexedTableCapacity() {
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+
+    AggregationInfo agg1 = new AggregationInfo();
+    agg1.setExpressions(Lists.newArrayList("m1"));
+    agg1.setAggregationType("sum");
+    List<AggregationInfo> aggregationInfos = Lists.newArrayList(agg1);
+
+    SelectionSort sel = new SelectionSort();
+    sel.setColumn("sum(m1)");
+    sel.setIsAsc(false);
+    List<SelectionSort> orderBy = Lists.newArrayList(sel);
+
+    // Capacity 120_000 -> max capacity 144_000, split among 4 partitions
+    int capacity = 120_000;
+    int maxCapacity = 144_000;
+    IndexedTable indexedTable = new PartitionedIndexedTable(dataSchema, aggregationInfos, orderBy, capacity, 4);
+    int numRecords = 300_000;
+    for (int i = 0; i < numRecords; i++) {
+      indexedTable.upsert(getKey(new Object[]{i}), getRecord(new Object[]{i, (double) i}));
+      if (i % 10_000 == 0) {
+        Assert.assertTrue(indexedTable.size() <= maxCapacity);
+      }
+    }
+    Assert.assertTrue(indexedTable.size() <= maxCapacity);
+
+    // The top records should not be trimmed out of their partitions
+    indexedTable.finish(true);
+    Assert.assertEquals(indexedTable.size(), capacity);
+    Iterator<Record> iterator = indexedTable.iterator();
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(iterator.next().getValues()[0], numRecords - 1 - i);
+    }
+  }
+
   @Test
   public void testNoMoreNewRecords() {
     DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"},
@@ -328,6 +379,9 @@ public class IndexedTableTest {
 
     indexedTable = new ConcurrentIndexedTable(dataSchema, aggregationInfos, null, 5);
     testNoMoreNewRecordsInTable(indexedTable);
+
+    indexedTable = new PartitionedIndexedTable(dataSchema, aggregationInfos, null, 5, 4);
+    testNoMoreNewRecordsInTable(indexedTable);
   }
 
   private void testNoMoreNewRecordsInTable(IndexedTable indexedTable) {
@@ -44,6 +44,8 @@ public class MutableSegmentImplAggregateMetricsTest {
   private static final String DIMENSION_2 = "dim2";
   private static final String METRIC = "metric";
   private static final String METRIC_2 = "metric2";
+  private static final String MAX_METRIC = "maxMetric";
+  private static final String MIN_METRIC = "minMetric";
   private static final String TIME_COLUMN = "time";
   private static final String KEY_SEPARATOR = "\t\t";
   private static final int NUM_ROWS = 10001;
@@ -55,7 +57,8 @@ public class MutableSegmentImplAggregateMetricsTest {
     Schema schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
         .addSingleValueDimension(DIMENSION_1, FieldSpec.DataType.INT)
         .addSingleValueDimension(DIMENSION_2, FieldSpec.DataType.STRING).addMetric(METRIC, FieldSpec.DataType.LONG)
-        .addMetric(METRIC_2, FieldSpec.DataType.FLOAT)
+        .addMetric(METRIC_2, FieldSpec.DataType.FLOAT).addMetric(MAX_METRIC, FieldSpec.DataType.LONG)
+        .addMetric(MIN_METRIC, FieldSpec.DataType.DOUBLE)
         .addTime(new TimeGranularitySpec(FieldSpec.DataType.INT, TimeUnit.DAYS, TIME_COLUMN), null)
         .build();
     // Add virtual columns, which should not be aggregated
@@ -66,10 +69,13 @@ public class MutableSegmentImplAggregateMetricsTest {
     virtualMetricFieldSpec.setVirtualColumnProvider("provider.class");
     schema.addField(virtualMetricFieldSpec);
 
+    Map<String, String> metricAggregationFunctions = new HashMap<>();
+    metricAggregationFunctions.put(MAX_METRIC, "max");
+    metricAggregationFunctions.put(MIN_METRIC, "MIN");
     _mutableSegmentImpl = MutableSegmentImplTestUtils
-        .createMutableSegmentImpl(schema, new HashSet<>(Arrays.asList(METRIC, METRIC_2)),
+        .createMutableSegmentImpl(schema, new HashSet<>(Arrays.asList(METRIC, METRIC_2, MAX_METRIC, MIN_METRIC)),
             Collections.singleton(DIMENSION_2), new HashSet<>(Arrays.asList(DIMENSION_1, DIMENSION_2, TIME_COLUMN)),
-            true);
+            true, metricAggregationFunctions, false);
   }
 
   @Test
@@ -84,6 +90,8 @@ public class MutableSegmentImplAggregateMetricsTest {
 
     Map<String, Long> expectedValues = new HashMap<>();
     Map<String, Float> expectedValuesFloat = new HashMap<>();
+    Map<String, Long> expectedMaxValues = new HashMap<>();
+    Map<String, Double> expectedMinValues = new HashMap<>();
     StreamMessageMetadata defaultMetadata = new StreamMessageMetadata(System.currentTimeMillis());
     for (int i = 0; i < NUM_ROWS; i++) {
       int daysSinceEpoch = random.nextInt(10);
@@ -96,6 +104,11 @@ public class MutableSegmentImplAggregateMetricsTest {
       row.putField(METRIC, metricValue);
       float metricValueFloat = floatValues[random.nextInt(floatValues.length)];
       row.putField(METRIC_2, metricValueFloat);
+      // Use values that cannot be represented as double without losing precision
+      long maxMetricValue = Long.MAX_VALUE - random.nextInt(1000);
+      row.putField(MAX_METRIC, maxMetricValue);
+      double minMetricValue = random.nextDouble();
+      row.putField(MIN_METRIC, minMetricValue);
 
       _mutableSegmentImpl.index(row, defaultMetadata);
 
@@ -103,6 +116,8 @@ public class MutableSegmentImplAggregateMetricsTest {
       String key = buildKey(row);
       expectedValues.put(key, expectedValues.getOrDefault(key, 0L) + metricValue);
       expectedValuesFloat.put(key, expectedValuesFloat.getOrDefault(key, 0f) + metricValueFloat);
+      expectedMaxValues.merge(key, maxMetricValue, Math::max);
+      expectedMinValues.merge(key, minMetricValue, Math::min);
     }
 
     int numDocsIndexed = _mutableSegmentImpl.getNumDocsIndexed();
@@ -117,6 +132,8 @@ public class MutableSegmentImplAggregateMetricsTest {
       String key = buildKey(row);
       Assert.assertEquals(row.getValue(METRIC), expectedValues.get(key));
       Assert.assertEquals(row.getValue(METRIC_2), expectedValuesFloat.get(key));
+      Assert.assertEquals(row.getValue(MAX_METRIC), expectedMaxValues.get(key));
+      Assert.assertEquals(row.getValue(MIN_METRIC), expectedMinValues.get(key));
     }
   }
 
@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.indexsegment.mutable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.RowMetadata;
+import org.apache.pinot.spi.stream.StreamMessageMetadata;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+/**
+ * Tests that indexing the records in batches generates the same mutable segment as indexing them one by one.
+ */
+public class MutableSegmentImplBatchIndexTest {
+  private static final int NUM_ROWS = 10_000;
+  private static final int BATCH_SIZE = 97;
+  private static final int MAX_NUM_MULTI_VALUES = 5;
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String MV_COLUMN = "mvColumn";
+  private static final String RAW_LONG_COLUMN = "rawLongColumn";
+  private static final String RAW_STRING_COLUMN = "rawStringColumn";
+  private static final String METRIC_COLUMN = "metricColumn";
+  private static final Set<String> NO_DICTIONARY_COLUMNS =
+      new HashSet<>(Arrays.asList(RAW_LONG_COLUMN, RAW_STRING_COLUMN, METRIC_COLUMN));
+  private static final Set<String> INVERTED_INDEX_COLUMNS = new HashSet<>(Arrays.asList(INT_COLUMN, MV_COLUMN));
+
+  private final long _randomSeed = System.currentTimeMillis();
+  private final Random _random = new Random(_randomSeed);
+  private final String _errorMessage = "Random seed is: " + _randomSeed;
+
+  @Test
+  public void testBatchIndex() {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(STRING_COLUMN, FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec(MV_COLUMN, FieldSpec.DataType.INT, false));
+    schema.addField(new DimensionFieldSpec(RAW_LONG_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new DimensionFieldSpec(RAW_STRING_COLUMN, FieldSpec.DataType.STRING, true));
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.DOUBLE));
+
+    GenericRow[] rows = new GenericRow[NUM_ROWS];
+    RowMetadata[] rowMetadata = new RowMetadata[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_COLUMN, _random.nextInt(1000));
+      if (_random.nextBoolean()) {
+        row.putValue(STRING_COLUMN, "s" + _random.nextInt(100));
+      } else {
+        row.putDefaultNullValue(STRING_COLUMN, "null");
+      }
+      int numMultiValues = 1 + _random.nextInt(MAX_NUM_MULTI_VALUES);
+      Object[] multiValues = new Object[numMultiValues];
+      for (int j = 0; j < numMultiValues; j++) {
+        multiValues[j] = _random.nextInt(100);
+      }
+      row.putValue(MV_COLUMN, multiValues);
+      row.putValue(RAW_LONG_COLUMN, _random.nextLong());
+      row.putValue(RAW_STRING_COLUMN, "raw" + _random.nextInt());
+      row.putValue(METRIC_COLUMN, _random.nextDouble());
+      rows[i] = row;
+      rowMetadata[i] = new StreamMessageMetadata(i);
+    }
+
+    MutableSegmentImpl expectedSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, NO_DICTIONARY_COLUMNS, Collections.emptySet(), INVERTED_INDEX_COLUMNS, false,
+            true);
+    MutableSegmentImpl actualSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, NO_DICTIONARY_COLUMNS, Collections.emptySet(), INVERTED_INDEX_COLUMNS, false,
+            true);
+    try {
+      for (int i = 0; i < NUM_ROWS; i++) {
+        expectedSegment.index(rows[i], rowMetadata[i]);
+      }
+      GenericRow[] batch = new GenericRow[BATCH_SIZE];
+      RowMetadata[] batchMetadata = new RowMetadata[BATCH_SIZE];
+      for (int i = 0; i < NUM_ROWS; i += BATCH_SIZE) {
+        int numRows = Math.min(BATCH_SIZE, NUM_ROWS - i);
+        System.arraycopy(rows, i, batch, 0, numRows);
+        System.arraycopy(rowMetadata, i, batchMetadata, 0, numRows);
+        assertEquals(actualSegment.index(batch, batchMetadata, numRows), numRows, _errorMessage);
+      }
+
+      assertEquals(actualSegment.getNumDocsIndexed(), NUM_ROWS, _errorMessage);
+      assertEquals(actualSegment.getSegmentMetadata().getLatestIngestionTimestamp(), NUM_ROWS - 1, _errorMessage);
+
+      // Compare the values
+      GenericRow expectedRow = new GenericRow();
+      GenericRow actualRow = new GenericRow();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        expectedSegment.getRecord(docId, expectedRow);
+        actualSegment.getRecord(docId, actualRow);
+        for (String column : schema.getColumnNames()) {
+          Object expectedValue = expectedRow.getValue(column);
+          Object actualValue = actualRow.getValue(column);
+          if (expectedValue instanceof Object[]) {
+            assertTrue(Arrays.equals((Object[]) actualValue, (Object[]) expectedValue), _errorMessage);
+          } else {
+            assertEquals(actualValue, expectedValue, _errorMessage);
+          }
+          assertEquals(actualRow.isNullValue(column), expectedRow.isNullValue(column), _errorMessage);
+        }
+      }
+
+      // Compare the inverted indexes
+      for (String column : INVERTED_INDEX_COLUMNS) {
+        Dictionary dictionary = expectedSegment.getDataSource(column).getDictionary();
+        InvertedIndexReader expectedInvertedIndex = expectedSegment.getDataSource(column).getInvertedIndex();
+        InvertedIndexReader actualInvertedIndex = actualSegment.getDataSource(column).getInvertedIndex();
+        int cardinality = dictionary.length();
+        assertEquals(actualSegment.getDataSource(column).getDictionary().length(), cardinality, _errorMessage);
+        for (int dictId = 0; dictId < cardinality; dictId++) {
+          assertEquals(actualInvertedIndex.getDocIds(dictId), expectedInvertedIndex.getDocIds(dictId), _errorMessage);
+        }
+      }
+    } finally {
+      expectedSegment.destroy();
+      actualSegment.destroy();
+    }
+  }
+
+  @Test
+  public void testInvalidRecord() {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(RAW_LONG_COLUMN, FieldSpec.DataType.LONG, true));
+
+    GenericRow validRow = new GenericRow();
+    validRow.putValue(INT_COLUMN, 1);
+    validRow.putValue(RAW_LONG_COLUMN, 1L);
+    GenericRow invalidRow = new GenericRow();
+    invalidRow.putValue(INT_COLUMN, 2);
+    invalidRow.putValue(RAW_LONG_COLUMN, "invalid");
+
+    MutableSegmentImpl mutableSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, NO_DICTIONARY_COLUMNS, Collections.emptySet(), Collections.emptySet(),
+            false);
+    try {
+      try {
+        mutableSegment.index(new GenericRow[]{validRow, invalidRow, validRow}, null, 3);
+        fail("Indexing an invalid record should fail");
+      } catch (Exception e) {
+        assertTrue(e instanceof ClassCastException);
+      }
+      // None of the records should be indexed
+      assertEquals(mutableSegment.getNumDocsIndexed(), 0);
+
+      assertEquals(mutableSegment.index(new GenericRow[]{validRow, validRow}, null, 2), 2);
+      assertEquals(mutableSegment.getNumDocsIndexed(), 2);
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+}
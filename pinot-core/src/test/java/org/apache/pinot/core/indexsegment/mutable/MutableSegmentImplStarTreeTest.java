@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.indexsegment.mutable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.startree.StarTreeNode;
+import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.StarTreeV2;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the star-tree maintained by the consuming segment contains the pre-aggregated values of the records.
+ */
+public class MutableSegmentImplStarTreeTest {
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 10_000;
+  private static final int BATCH_SIZE = 97;
+
+  private static final String INT_DIMENSION = "intDimension";
+  private static final String STRING_DIMENSION = "stringDimension";
+  private static final String LONG_METRIC = "longMetric";
+  private static final String DOUBLE_METRIC = "doubleMetric";
+  private static final String COUNT_STAR = AggregationFunctionColumnPair.COUNT_STAR_COLUMN_NAME;
+  private static final String SUM_LONG_METRIC = "sum__" + LONG_METRIC;
+  private static final String MAX_DOUBLE_METRIC = "max__" + DOUBLE_METRIC;
+  // Not supported by the mutable star-tree
+  private static final String AVG_DOUBLE_METRIC = "avg__" + DOUBLE_METRIC;
+
+  @Test
+  public void testStarTree() {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_DIMENSION, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(STRING_DIMENSION, FieldSpec.DataType.STRING, true));
+    schema.addField(new MetricFieldSpec(LONG_METRIC, FieldSpec.DataType.LONG));
+    schema.addField(new MetricFieldSpec(DOUBLE_METRIC, FieldSpec.DataType.DOUBLE));
+
+    long randomSeed = System.currentTimeMillis();
+    Random random = new Random(randomSeed);
+    String errorMessage = "Random seed is: " + randomSeed;
+
+    GenericRow[] rows = new GenericRow[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_DIMENSION, random.nextInt(10));
+      row.putValue(STRING_DIMENSION, "s" + random.nextInt(10));
+      row.putValue(LONG_METRIC, (long) random.nextInt(1000));
+      row.putValue(DOUBLE_METRIC, random.nextDouble());
+      rows[i] = row;
+    }
+
+    MutableSegmentImpl mutableSegment = createMutableSegmentImpl(schema);
+    try {
+      assertNull(mutableSegment.getStarTrees());
+
+      // Index half of the records one by one and the other half in batches
+      int numRowsIndexedOneByOne = NUM_ROWS / 2;
+      for (int i = 0; i < numRowsIndexedOneByOne; i++) {
+        mutableSegment.index(rows[i], null);
+      }
+      GenericRow[] batch = new GenericRow[BATCH_SIZE];
+      for (int i = numRowsIndexedOneByOne; i < NUM_ROWS; i += BATCH_SIZE) {
+        int numRows = Math.min(BATCH_SIZE, NUM_ROWS - i);
+        System.arraycopy(rows, i, batch, 0, numRows);
+        assertEquals(mutableSegment.index(batch, null, numRows), numRows, errorMessage);
+      }
+
+      // Compute the expected aggregated values
+      Map<List<Object>, double[]> expectedValuesMap = new HashMap<>();
+      double[] expectedTotalValues = new double[]{0, 0, Double.NEGATIVE_INFINITY};
+      for (GenericRow row : rows) {
+        List<Object> key = Arrays.asList(row.getValue(INT_DIMENSION), row.getValue(STRING_DIMENSION));
+        double[] expectedValues =
+            expectedValuesMap.computeIfAbsent(key, k -> new double[]{0, 0, Double.NEGATIVE_INFINITY});
+        for (double[] values : Arrays.asList(expectedValues, expectedTotalValues)) {
+          values[0]++;
+          values[1] += (Long) row.getValue(LONG_METRIC);
+          values[2] = Math.max(values[2], (Double) row.getValue(DOUBLE_METRIC));
+        }
+      }
+
+      List<StarTreeV2> starTrees = mutableSegment.getStarTrees();
+      assertNotNull(starTrees);
+      assertEquals(starTrees.size(), 1);
+      StarTreeV2 starTree = starTrees.get(0);
+      int numDocs = starTree.getMetadata().getNumDocs();
+      assertEquals(numDocs, expectedValuesMap.size() + 1, errorMessage);
+      assertTrue(starTree.getMetadata()
+          .containsFunctionColumnPair(AggregationFunctionColumnPair.fromColumnName(SUM_LONG_METRIC)));
+      assertFalse(starTree.getMetadata()
+          .containsFunctionColumnPair(AggregationFunctionColumnPair.fromColumnName(AVG_DOUBLE_METRIC)));
+      assertNull(starTree.getDataSource(AVG_DOUBLE_METRIC));
+
+      StarTreeNode root = starTree.getStarTree().getRoot();
+      assertTrue(root.isLeaf());
+      assertEquals(root.getStartDocId(), 1);
+      assertEquals(root.getEndDocId(), numDocs);
+      assertEquals(root.getAggregatedDocId(), 0);
+
+      DataSource intDataSource = starTree.getDataSource(INT_DIMENSION);
+      DataSource stringDataSource = starTree.getDataSource(STRING_DIMENSION);
+      SingleColumnSingleValueReader intReader = (SingleColumnSingleValueReader) intDataSource.getForwardIndex();
+      SingleColumnSingleValueReader stringReader = (SingleColumnSingleValueReader) stringDataSource.getForwardIndex();
+      Dictionary intDictionary = intDataSource.getDictionary();
+      Dictionary stringDictionary = stringDataSource.getDictionary();
+      SingleColumnSingleValueReader countReader =
+          (SingleColumnSingleValueReader) starTree.getDataSource(COUNT_STAR).getForwardIndex();
+      SingleColumnSingleValueReader sumReader =
+          (SingleColumnSingleValueReader) starTree.getDataSource(SUM_LONG_METRIC).getForwardIndex();
+      SingleColumnSingleValueReader maxReader =
+          (SingleColumnSingleValueReader) starTree.getDataSource(MAX_DOUBLE_METRIC).getForwardIndex();
+
+      // Check the aggregated document
+      assertEquals(countReader.getLong(0), (long) expectedTotalValues[0], errorMessage);
+      assertEquals(sumReader.getDouble(0), expectedTotalValues[1], errorMessage);
+      assertEquals(maxReader.getDouble(0), expectedTotalValues[2], errorMessage);
+
+      for (int docId = 1; docId < numDocs; docId++) {
+        List<Object> key = Arrays.asList(intDictionary.get(intReader.getInt(docId)),
+            stringDictionary.get(stringReader.getInt(docId)));
+        double[] expectedValues = expectedValuesMap.remove(key);
+        assertNotNull(expectedValues, errorMessage);
+        assertEquals(countReader.getLong(docId), (long) expectedValues[0], errorMessage);
+        assertEquals(sumReader.getDouble(docId), expectedValues[1], errorMessage);
+        assertEquals(maxReader.getDouble(docId), expectedValues[2], errorMessage);
+      }
+      assertTrue(expectedValuesMap.isEmpty(), errorMessage);
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+
+  @Test
+  public void testSnapshotWhileIndexing()
+      throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_DIMENSION, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(STRING_DIMENSION, FieldSpec.DataType.STRING, true));
+    schema.addField(new MetricFieldSpec(LONG_METRIC, FieldSpec.DataType.LONG));
+    schema.addField(new MetricFieldSpec(DOUBLE_METRIC, FieldSpec.DataType.DOUBLE));
+
+    MutableSegmentImpl mutableSegment = createMutableSegmentImpl(schema);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> future = executorService.submit(() -> {
+        Random random = new Random();
+        GenericRow[] batch = new GenericRow[BATCH_SIZE];
+        for (int i = 0; i < NUM_ROWS; i += BATCH_SIZE) {
+          int numRows = Math.min(BATCH_SIZE, NUM_ROWS - i);
+          for (int j = 0; j < numRows; j++) {
+            GenericRow row = new GenericRow();
+            row.putValue(INT_DIMENSION, random.nextInt(10));
+            row.putValue(STRING_DIMENSION, "s" + random.nextInt(10));
+            row.putValue(LONG_METRIC, 1L);
+            row.putValue(DOUBLE_METRIC, random.nextDouble());
+            batch[j] = row;
+          }
+          mutableSegment.index(batch, null, numRows);
+        }
+      });
+
+      // The snapshot should not change after it is taken, and the aggregated document should always match the sum of
+      // the other documents
+      long lastCount = 0;
+      while (true) {
+        boolean done = future.isDone();
+        List<StarTreeV2> starTrees = mutableSegment.getStarTrees();
+        if (starTrees != null) {
+          StarTreeV2 starTree = starTrees.get(0);
+          int numDocs = starTree.getMetadata().getNumDocs();
+          SingleColumnSingleValueReader countReader =
+              (SingleColumnSingleValueReader) starTree.getDataSource(COUNT_STAR).getForwardIndex();
+          SingleColumnSingleValueReader sumReader =
+              (SingleColumnSingleValueReader) starTree.getDataSource(SUM_LONG_METRIC).getForwardIndex();
+          long count = countReader.getLong(0);
+          long sumOfCounts = 0;
+          double sumOfSums = 0;
+          for (int docId = 1; docId < numDocs; docId++) {
+            sumOfCounts += countReader.getLong(docId);
+            sumOfSums += sumReader.getDouble(docId);
+          }
+          assertEquals(sumOfCounts, count);
+          assertEquals(sumOfSums, (double) count);
+          assertEquals(sumReader.getDouble(0), (double) count);
+          assertTrue(count >= lastCount);
+          // The star-tree should never contain the records not visible to the other queries
+          assertTrue(count <= mutableSegment.getNumDocsIndexed());
+          lastCount = count;
+        }
+        if (done) {
+          break;
+        }
+      }
+      future.get();
+      assertEquals(lastCount, NUM_ROWS);
+    } finally {
+      executorService.shutdownNow();
+      mutableSegment.destroy();
+    }
+  }
+
+  private static MutableSegmentImpl createMutableSegmentImpl(Schema schema) {
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+
+    StarTreeIndexConfig starTreeIndexConfig =
+        new StarTreeIndexConfig(Arrays.asList(INT_DIMENSION, STRING_DIMENSION), null,
+            Arrays.asList(COUNT_STAR, SUM_LONG_METRIC, MAX_DOUBLE_METRIC, AVG_DOUBLE_METRIC), 0);
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setSegmentName(SEGMENT_NAME).setStreamName("testStream").setSchema(schema)
+            .setCapacity(100000).setAvgNumMultiValues(2).setNoDictionaryColumns(Collections.emptySet())
+            .setVarLengthDictionaryColumns(Collections.emptySet()).setInvertedIndexColumns(Collections.emptySet())
+            .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
+            .setStarTreeIndexConfigs(Collections.singletonList(starTreeIndexConfig)).build();
+    return new MutableSegmentImpl(realtimeSegmentConfig);
+  }
+}
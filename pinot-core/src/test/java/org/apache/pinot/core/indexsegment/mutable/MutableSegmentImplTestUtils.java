@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.indexsegment.mutable;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
@@ -48,6 +50,14 @@ public class MutableSegmentImplTestUtils {
   public static MutableSegmentImpl createMutableSegmentImpl(@Nonnull Schema schema,
       @Nonnull Set<String> noDictionaryColumns, @Nonnull Set<String> varLengthDictionaryColumns,
       @Nonnull Set<String> invertedIndexColumns, boolean aggregateMetrics, boolean nullHandlingEnabled) {
+    return createMutableSegmentImpl(schema, noDictionaryColumns, varLengthDictionaryColumns, invertedIndexColumns,
+        aggregateMetrics, Collections.emptyMap(), nullHandlingEnabled);
+  }
+
+  public static MutableSegmentImpl createMutableSegmentImpl(@Nonnull Schema schema,
+      @Nonnull Set<String> noDictionaryColumns, @Nonnull Set<String> varLengthDictionaryColumns,
+      @Nonnull Set<String> invertedIndexColumns, boolean aggregateMetrics,
+      @Nonnull Map<String, String> metricAggregationFunctions, boolean nullHandlingEnabled) {
     RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
     when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
     when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
@@ -58,7 +68,8 @@ public class MutableSegmentImplTestUtils {
             .setVarLengthDictionaryColumns(varLengthDictionaryColumns).setInvertedIndexColumns(invertedIndexColumns)
             .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
             .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
-            .setAggregateMetrics(aggregateMetrics).setNullHandlingEnabled(nullHandlingEnabled).build();
+            .setAggregateMetrics(aggregateMetrics).setMetricAggregationFunctions(metricAggregationFunctions)
+            .setNullHandlingEnabled(nullHandlingEnabled).build();
     return new MutableSegmentImpl(realtimeSegmentConfig);
   }
 }
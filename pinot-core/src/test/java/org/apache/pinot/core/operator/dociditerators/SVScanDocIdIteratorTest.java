@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.common.Predicate;
+import org.apache.pinot.core.common.predicate.EqPredicate;
+import org.apache.pinot.core.common.predicate.InPredicate;
+import org.apache.pinot.core.common.predicate.NEqPredicate;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.io.reader.impl.ChunkReaderContext;
+import org.apache.pinot.core.io.reader.impl.v1.FixedByteChunkSingleValueReader;
+import org.apache.pinot.core.io.readerwriter.impl.FixedByteSingleColumnSingleValueReaderWriter;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.io.writer.impl.v1.FixedByteChunkSingleValueWriter;
+import org.apache.pinot.core.operator.blocks.BlockMetadataImpl;
+import org.apache.pinot.core.operator.docvalsets.SingleValueSet;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.realtime.impl.dictionary.IntOnHeapMutableDictionary;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Tests that the batch evaluation path of {@link SVScanDocIdIterator} for the raw fixed-width columns returns exactly
+ * the same document ids as the per-document evaluation path.
+ * <p>The per-document path is forced by hiding the {@link FixedByteChunkSingleValueReader} behind a delegating reader.
+ * The number of documents and the number of documents per chunk are chosen so that the batches cross the chunk
+ * boundaries, and the last batch is partial.
+ */
+public class SVScanDocIdIteratorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SVScanDocIdIteratorTest");
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_DOCS = 10_009;
+  private static final int NUM_DOCS_PER_CHUNK = 1000;
+  // Same as the batch size in SVScanDocIdIterator
+  private static final int BATCH_SIZE = 1024;
+  private static final int MAX_VALUE = 100;
+  private static final DataType[] RAW_DATA_TYPES = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE};
+  private static final int[] BOUNDARY_DOC_IDS =
+      {0, 1, 999, 1000, 1001, BATCH_SIZE - 1, BATCH_SIZE, BATCH_SIZE + 1, 2 * BATCH_SIZE, NUM_DOCS - 1, NUM_DOCS};
+
+  private final long _randomSeed = System.currentTimeMillis();
+  private final Random _random = new Random(_randomSeed);
+  private final String _errorMessage = "Random seed is: " + _randomSeed;
+  private final int[] _values = new int[NUM_DOCS];
+  private final List<FixedByteChunkSingleValueReader> _rawReaders = new ArrayList<>();
+  private IntOnHeapMutableDictionary _dictionary;
+  private FixedByteSingleColumnSingleValueReaderWriter _dictIdReader;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+
+    for (int i = 0; i < NUM_DOCS; i++) {
+      _values[i] = _random.nextInt(MAX_VALUE);
+    }
+
+    // Raw columns
+    for (DataType dataType : RAW_DATA_TYPES) {
+      File indexFile = new File(TEMP_DIR, dataType.name());
+      try (FixedByteChunkSingleValueWriter writer = new FixedByteChunkSingleValueWriter(indexFile,
+          ChunkCompressorFactory.CompressionType.SNAPPY, NUM_DOCS, NUM_DOCS_PER_CHUNK, dataType.size())) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          switch (dataType) {
+            case INT:
+              writer.setInt(i, _values[i]);
+              break;
+            case LONG:
+              writer.setLong(i, _values[i]);
+              break;
+            case FLOAT:
+              writer.setFloat(i, _values[i]);
+              break;
+            case DOUBLE:
+              writer.setDouble(i, _values[i]);
+              break;
+            default:
+              throw new IllegalStateException();
+          }
+        }
+      }
+      _rawReaders.add(new FixedByteChunkSingleValueReader(PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile)));
+    }
+
+    // Dictionary-encoded column
+    _dictionary = new IntOnHeapMutableDictionary();
+    _dictIdReader = new FixedByteSingleColumnSingleValueReaderWriter(NUM_DOCS_PER_CHUNK, Integer.BYTES,
+        new DirectMemoryManager(SVScanDocIdIteratorTest.class.getName()), COLUMN_NAME);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      _dictIdReader.setInt(i, _dictionary.index(_values[i]));
+    }
+  }
+
+  @Test
+  public void testRawColumns() {
+    for (int i = 0; i < RAW_DATA_TYPES.length; i++) {
+      DataType dataType = RAW_DATA_TYPES[i];
+      FixedByteChunkSingleValueReader reader = _rawReaders.get(i);
+      for (Predicate predicate : getPredicates()) {
+        PredicateEvaluator evaluator = PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, dataType);
+        String errorMessage = _errorMessage + ", data type: " + dataType + ", predicate: " + predicate;
+        // Batch path reads from the chunk reader, per-document path reads from the delegating reader
+        checkIterators(() -> new SVScanDocIdIterator(COLUMN_NAME, new SingleValueSet(reader, NUM_DOCS, dataType),
+                new BlockMetadataImpl(NUM_DOCS, true, 0, dataType, null), evaluator),
+            () -> new SVScanDocIdIterator(COLUMN_NAME,
+                new SingleValueSet(new DelegatingReader(reader), NUM_DOCS, dataType),
+                new BlockMetadataImpl(NUM_DOCS, true, 0, dataType, null), evaluator), evaluator, errorMessage);
+      }
+    }
+  }
+
+  @Test
+  public void testDictionaryEncodedColumn() {
+    FixedByteChunkSingleValueReader rawReader = _rawReaders.get(0);
+    for (Predicate predicate : getPredicates()) {
+      PredicateEvaluator dictionaryBasedEvaluator =
+          PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _dictionary, DataType.INT);
+      PredicateEvaluator rawValueBasedEvaluator =
+          PredicateEvaluatorProvider.getPredicateEvaluator(predicate, null, DataType.INT);
+      String errorMessage = _errorMessage + ", predicate: " + predicate;
+      // Dictionary-encoded column is always evaluated per document, and should match the batch path on the raw column
+      checkIterators(() -> new SVScanDocIdIterator(COLUMN_NAME, new SingleValueSet(rawReader, NUM_DOCS, DataType.INT),
+              new BlockMetadataImpl(NUM_DOCS, true, 0, DataType.INT, null), rawValueBasedEvaluator),
+          () -> new SVScanDocIdIterator(COLUMN_NAME, new SingleValueSet(_dictIdReader, NUM_DOCS, DataType.INT),
+              new BlockMetadataImpl(NUM_DOCS, true, 0, DataType.INT, _dictionary), dictionaryBasedEvaluator),
+          rawValueBasedEvaluator, errorMessage);
+    }
+  }
+
+  private List<Predicate> getPredicates() {
+    int value = _random.nextInt(MAX_VALUE);
+    int lowerBound = _random.nextInt(MAX_VALUE / 2);
+    int upperBound = lowerBound + _random.nextInt(MAX_VALUE / 2);
+    return Arrays.asList(new EqPredicate(COLUMN_NAME, Collections.singletonList(Integer.toString(value))),
+        new NEqPredicate(COLUMN_NAME, Collections.singletonList(Integer.toString(value))),
+        new RangePredicate(COLUMN_NAME, Collections.singletonList("[" + lowerBound + "\t\t" + upperBound + ")")),
+        new RangePredicate(COLUMN_NAME, Collections.singletonList("(" + lowerBound + "\t\t*)")),
+        new InPredicate(COLUMN_NAME, Arrays.asList(Integer.toString(lowerBound), Integer.toString(upperBound))),
+        // Matches no document
+        new EqPredicate(COLUMN_NAME, Collections.singletonList(Integer.toString(MAX_VALUE))));
+  }
+
+  private void checkIterators(IteratorSupplier batchIteratorSupplier, IteratorSupplier perDocIteratorSupplier,
+      PredicateEvaluator rawValueBasedEvaluator, String errorMessage) {
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (rawValueBasedEvaluator.applySV(_values[i])) {
+        expectedDocIds.add(i);
+      }
+    }
+
+    // Iterate over all the documents with next()
+    SVScanDocIdIterator batchIterator = batchIteratorSupplier.get();
+    SVScanDocIdIterator perDocIterator = perDocIteratorSupplier.get();
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = batchIterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+      assertEquals(perDocIterator.next(), docId, errorMessage);
+    }
+    assertEquals(perDocIterator.next(), Constants.EOF, errorMessage);
+    assertEquals(actualDocIds, expectedDocIds, errorMessage);
+    assertEquals(batchIterator.getNumEntriesScanned(), NUM_DOCS, errorMessage);
+    // Should keep returning EOF
+    assertEquals(batchIterator.next(), Constants.EOF, errorMessage);
+    assertEquals(batchIterator.advance(0), Constants.EOF, errorMessage);
+
+    // Advance to the batch and chunk boundaries, then iterate over the remaining documents
+    for (int targetDocId : BOUNDARY_DOC_IDS) {
+      batchIterator = batchIteratorSupplier.get();
+      perDocIterator = perDocIteratorSupplier.get();
+      docId = batchIterator.advance(targetDocId);
+      assertEquals(perDocIterator.advance(targetDocId), docId, errorMessage);
+      while (docId != Constants.EOF) {
+        docId = batchIterator.next();
+        assertEquals(perDocIterator.next(), docId, errorMessage);
+      }
+    }
+
+    // Interleave next() and advance() with targets both inside the buffered batch and beyond it
+    batchIterator = batchIteratorSupplier.get();
+    perDocIterator = perDocIteratorSupplier.get();
+    docId = -1;
+    while (docId != Constants.EOF) {
+      if (_random.nextBoolean()) {
+        docId = batchIterator.next();
+        assertEquals(perDocIterator.next(), docId, errorMessage);
+      } else {
+        // Also advance to the current document or the documents before it
+        int targetDocId = Math.max(docId + _random.nextInt(2 * BATCH_SIZE) - 10, 0);
+        docId = batchIterator.advance(targetDocId);
+        assertEquals(perDocIterator.advance(targetDocId), docId, errorMessage);
+        assertEquals(perDocIterator.currentDocId(), batchIterator.currentDocId(), errorMessage);
+      }
+    }
+
+    // Partial range of documents
+    int startDocId = _random.nextInt(NUM_DOCS);
+    int endDocId = startDocId + _random.nextInt(NUM_DOCS - startDocId);
+    batchIterator = batchIteratorSupplier.get();
+    perDocIterator = perDocIteratorSupplier.get();
+    batchIterator.setStartDocId(startDocId);
+    batchIterator.setEndDocId(endDocId);
+    perDocIterator.setStartDocId(startDocId);
+    perDocIterator.setEndDocId(endDocId);
+    while ((docId = batchIterator.next()) != Constants.EOF) {
+      assertEquals(perDocIterator.next(), docId, errorMessage);
+      assertEquals(rawValueBasedEvaluator.applySV(_values[docId]), true, errorMessage);
+    }
+    assertEquals(perDocIterator.next(), Constants.EOF, errorMessage);
+
+    // applyAnd() with candidate documents sparser and denser than the batch size
+    for (int numCandidates : new int[]{1, BATCH_SIZE - 1, BATCH_SIZE, BATCH_SIZE + 1, NUM_DOCS / 2, NUM_DOCS}) {
+      MutableRoaringBitmap candidates = new MutableRoaringBitmap();
+      if (numCandidates == NUM_DOCS) {
+        candidates.add(0L, NUM_DOCS);
+      } else {
+        for (int i = 0; i < numCandidates; i++) {
+          candidates.add(_random.nextInt(NUM_DOCS));
+        }
+      }
+      MutableRoaringBitmap expectedResult = new MutableRoaringBitmap();
+      candidates.forEach((int candidate) -> {
+        if (rawValueBasedEvaluator.applySV(_values[candidate])) {
+          expectedResult.add(candidate);
+        }
+      });
+      batchIterator = batchIteratorSupplier.get();
+      perDocIterator = perDocIteratorSupplier.get();
+      assertEquals(batchIterator.applyAnd(candidates), expectedResult, errorMessage);
+      assertEquals(perDocIterator.applyAnd(candidates), expectedResult, errorMessage);
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    for (FixedByteChunkSingleValueReader rawReader : _rawReaders) {
+      rawReader.close();
+    }
+    _dictIdReader.close();
+    _dictionary.close();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  private interface IteratorSupplier {
+    SVScanDocIdIterator get();
+  }
+
+  /**
+   * Reader that delegates to the {@link FixedByteChunkSingleValueReader}, used to force the per-document evaluation.
+   */
+  private static class DelegatingReader extends BaseSingleColumnSingleValueReader<ChunkReaderContext> {
+    final SingleColumnSingleValueReader<ChunkReaderContext> _reader;
+
+    DelegatingReader(SingleColumnSingleValueReader<ChunkReaderContext> reader) {
+      _reader = reader;
+    }
+
+    @Override
+    public ChunkReaderContext createContext() {
+      return _reader.createContext();
+    }
+
+    @Override
+    public int getInt(int rowId, ChunkReaderContext context) {
+      return _reader.getInt(rowId, context);
+    }
+
+    @Override
+    public long getLong(int rowId, ChunkReaderContext context) {
+      return _reader.getLong(rowId, context);
+    }
+
+    @Override
+    public float getFloat(int rowId, ChunkReaderContext context) {
+      return _reader.getFloat(rowId, context);
+    }
+
+    @Override
+    public double getDouble(int rowId, ChunkReaderContext context) {
+      return _reader.getDouble(rowId, context);
+    }
+  }
+}
@@ -20,8 +20,16 @@ package org.apache.pinot.core.operator.filter;
 
 import java.util.Arrays;
 import java.util.Collections;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.common.Predicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 
@@ -92,4 +100,74 @@ public class FilterOperatorUtilsTest {
         .getOrFilterOperator(Arrays.asList(MATCH_ALL_FILTER_OPERATOR, REGULAR_FILTER_OPERATOR), NUM_DOCS, null);
     assertTrue(filterOperator instanceof MatchAllFilterOperator);
   }
+
+  @Test
+  public void testReorderAndFilterChildOperators() {
+    // Cheap and selective filter
+    BaseFilterOperator selectiveFilterOperator = getOrFilterOperator(0.01, 1);
+    assertEquals(selectiveFilterOperator.getEstimatedSelectivity(), 1 - 0.99 * 0.99, 1e-9);
+    assertEquals(selectiveFilterOperator.getEstimatedCostPerDoc(), 2.0, 1e-9);
+    // Expensive and non-selective filter
+    BaseFilterOperator expensiveFilterOperator = getOrFilterOperator(0.5, 10);
+    assertEquals(expensiveFilterOperator.getEstimatedSelectivity(), 0.75, 1e-9);
+    assertEquals(expensiveFilterOperator.getEstimatedCostPerDoc(), 20.0, 1e-9);
+
+    // The selective filter should be evaluated first, and the expensive filter should only be evaluated on the
+    // documents matching the selective filter
+    BaseFilterOperator filterOperator = FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(expensiveFilterOperator, selectiveFilterOperator), NUM_DOCS, null);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    double selectivity = selectiveFilterOperator.getEstimatedSelectivity();
+    assertEquals(filterOperator.getEstimatedSelectivity(), selectivity * 0.75, 1e-9);
+    assertEquals(filterOperator.getEstimatedCostPerDoc(), 2.0 + selectivity * 20.0, 1e-9);
+
+    // Cost based reordering disabled
+    filterOperator = FilterOperatorUtils
+        .getAndFilterOperator(Arrays.asList(expensiveFilterOperator, selectiveFilterOperator), NUM_DOCS,
+            Collections.singletonMap(FilterOperatorUtils.USE_SCAN_REORDER_OPTIMIZATION, "false"));
+    assertEquals(filterOperator.getEstimatedCostPerDoc(), 20.0 + 0.75 * 2.0, 1e-9);
+  }
+
+  @Test
+  public void testEstimateSelectivity() {
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.EQ);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+    when(predicateEvaluator.getNumMatchingDictIds()).thenReturn(1);
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.length()).thenReturn(100);
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    when(dataSourceMetadata.getNumDocs()).thenReturn(1000);
+    when(dataSourceMetadata.getNumValues()).thenReturn(1000);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDictionary()).thenReturn(dictionary);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource), 0.01, 1e-9);
+    assertEquals(FilterOperatorUtils.estimateScanCostPerDoc(dataSource), 1.0, 1e-9);
+
+    // Exclusive predicate
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.NOT_IN);
+    when(predicateEvaluator.isExclusive()).thenReturn(true);
+    when(predicateEvaluator.getNumNonMatchingDictIds()).thenReturn(10);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource), 0.9, 1e-9);
+
+    // Multi-value column with 3 values per document on average
+    when(dataSourceMetadata.isSingleValue()).thenReturn(false);
+    when(dataSourceMetadata.getNumValues()).thenReturn(3000);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource), 0.9 * 0.9 * 0.9, 1e-9);
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.EQ);
+    when(predicateEvaluator.isExclusive()).thenReturn(false);
+    assertEquals(FilterOperatorUtils.estimateSelectivity(predicateEvaluator, dataSource), 1 - 0.99 * 0.99 * 0.99,
+        1e-9);
+    assertEquals(FilterOperatorUtils.estimateScanCostPerDoc(dataSource), 3.0, 1e-9);
+  }
+
+  private static BaseFilterOperator getOrFilterOperator(double childSelectivity, double childCostPerDoc) {
+    BaseFilterOperator child1 = new TestFilterOperator(new int[]{1, 4, 7});
+    child1.setEstimations(childSelectivity, childCostPerDoc, null);
+    BaseFilterOperator child2 = new TestFilterOperator(new int[]{2, 5, 8});
+    child2.setEstimations(childSelectivity, childCostPerDoc, null);
+    return FilterOperatorUtils.getOrFilterOperator(Arrays.asList(child1, child2), NUM_DOCS, null);
+  }
 }
@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the {@link RangeIndexBasedFilterOperator} returns the same document ids as the
+ * {@link ScanBasedFilterOperator} for the RANGE predicates that fully and partially cover the ranges of the range
+ * index.
+ */
+public class RangeIndexBasedFilterOperatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RangeIndexBasedFilterOperatorTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String INT_COLUMN = "intColumn";
+  private static final int NUM_DOCS = 10_000;
+  // Leave gaps between the values so that the predicate bounds might not be in the dictionary
+  private static final int MAX_VALUE = 2000;
+  private static final int NUM_RANDOM_RANGES = 100;
+
+  private final long _randomSeed = System.currentTimeMillis();
+  private final Random _random = new Random(_randomSeed);
+  private final String _errorMessage = "Random seed is: " + _randomSeed;
+  private final int[] _values = new int[NUM_DOCS];
+  private ImmutableSegment _segment;
+  private DataSource _dataSource;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+
+    List<GenericRow> rows = new ArrayList<>(NUM_DOCS);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      _values[i] = _random.nextInt(MAX_VALUE);
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(INT_COLUMN, _values[i]);
+      GenericRow row = new GenericRow();
+      row.init(valueMap);
+      rows.add(row);
+    }
+
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME).addSingleValueDimension(INT_COLUMN, DataType.INT)
+            .build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setRangeIndexColumns(Collections.singletonList(INT_COLUMN)).build();
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setTableName(RAW_TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setRangeIndexColumns(Collections.singleton(INT_COLUMN));
+    _segment = ImmutableSegmentLoader.load(new File(TEMP_DIR, SEGMENT_NAME), indexLoadingConfig);
+    _dataSource = _segment.getDataSource(INT_COLUMN);
+  }
+
+  @Test
+  public void testRangeIndexBasedFilterOperator() {
+    RangeIndexReader rangeIndex = _dataSource.getRangeIndex();
+    assertNotNull(rangeIndex);
+    Dictionary dictionary = _dataSource.getDictionary();
+
+    // Predicates matching exactly the ranges of the range index, which can be solved without scanning
+    int numRanges = rangeIndex.getNumRanges();
+    for (int rangeId = 0; rangeId < numRanges; rangeId++) {
+      int lowerValue = dictionary.getIntValue(rangeIndex.getRangeStartDictId(rangeId));
+      int upperValue = dictionary.getIntValue(rangeIndex.getRangeEndDictId(rangeId) - 1);
+      testRange("[" + lowerValue + "\t\t" + upperValue + "]");
+      // Partially covered ranges
+      testRange("(" + lowerValue + "\t\t" + upperValue + "]");
+      testRange("[" + lowerValue + "\t\t" + upperValue + ")");
+      // Spanning multiple ranges
+      testRange("[" + lowerValue + "\t\t*)");
+      testRange("(*\t\t" + upperValue + ")");
+    }
+
+    // Random ranges
+    for (int i = 0; i < NUM_RANDOM_RANGES; i++) {
+      int lowerValue = _random.nextInt(MAX_VALUE);
+      int upperValue = lowerValue + _random.nextInt(MAX_VALUE - lowerValue);
+      String lowerBoundary = _random.nextBoolean() ? "[" : "(";
+      String upperBoundary = _random.nextBoolean() ? "]" : ")";
+      testRange(lowerBoundary + lowerValue + "\t\t" + upperValue + upperBoundary);
+    }
+  }
+
+  private void testRange(String rangeString) {
+    String errorMessage = _errorMessage + ", range: " + rangeString.replace('\t', ' ');
+    RangePredicate predicate = new RangePredicate(INT_COLUMN, Collections.singletonList(rangeString));
+    PredicateEvaluator predicateEvaluator =
+        PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _dataSource.getDictionary(), DataType.INT);
+    if (predicateEvaluator.isAlwaysTrue() || predicateEvaluator.isAlwaysFalse()) {
+      return;
+    }
+
+    BaseFilterOperator filterOperator =
+        FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, _dataSource, NUM_DOCS);
+    assertTrue(filterOperator instanceof RangeIndexBasedFilterOperator, errorMessage);
+    List<Integer> rangeIndexDocIds = getDocIds(filterOperator);
+    List<Integer> scanDocIds =
+        getDocIds(new ScanBasedFilterOperator(predicateEvaluator, _dataSource, 0, NUM_DOCS - 1));
+    assertEquals(rangeIndexDocIds, scanDocIds, errorMessage);
+
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      if (predicateEvaluator.applySV(_dataSource.getDictionary().indexOf(Integer.toString(_values[docId])))) {
+        expectedDocIds.add(docId);
+      }
+    }
+    assertEquals(rangeIndexDocIds, expectedDocIds, errorMessage);
+  }
+
+  private static List<Integer> getDocIds(BaseFilterOperator filterOperator) {
+    List<Integer> docIds = new ArrayList<>();
+    BlockDocIdIterator docIdIterator = filterOperator.nextBlock().getBlockDocIdSet().iterator();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _segment.destroy();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.executor;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String TABLE_NAME = "myTable_OFFLINE";
+
+  @Test
+  public void testQueryFingerprint() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE");
+    assertTrue(SegmentResultCache.isCacheable(brokerRequest));
+    assertFalse(SegmentResultCache.isCacheable(COMPILER.compileToBrokerRequest("SELECT * FROM myTable_OFFLINE")));
+    assertFalse(
+        SegmentResultCache.isCacheable(COMPILER.compileToBrokerRequest("SELECT DISTINCT(foo) FROM myTable_OFFLINE")));
+
+    // Timeout and trace should not affect the fingerprint
+    BrokerRequest brokerRequestWithOptions = COMPILER
+        .compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE OPTION(timeoutMs=1000, groupByMode=sql)");
+    brokerRequestWithOptions.setEnableTrace(true);
+    BrokerRequest brokerRequestWithoutTimeout =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE OPTION(groupByMode=sql)");
+    assertEquals(SegmentResultCache.getQueryFingerprint(brokerRequestWithOptions),
+        SegmentResultCache.getQueryFingerprint(brokerRequestWithoutTimeout));
+    // The original broker request should not be modified
+    assertTrue(brokerRequestWithOptions.isEnableTrace());
+    assertEquals(brokerRequestWithOptions.getQueryOptions().get("timeoutMs"), "1000");
+  }
+
+  @Test
+  public void testCache() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*), AVG(foo) FROM myTable_OFFLINE");
+    AggregationFunctionContext[] functionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest);
+    BrokerRequest queryFingerprint = SegmentResultCache.getQueryFingerprint(brokerRequest);
+    SegmentResultCache segmentResultCache = new SegmentResultCache(1024 * 1024);
+    SegmentResultCache.CacheKey cacheKey =
+        new SegmentResultCache.CacheKey(TABLE_NAME, mockSegment("segment0", "crc0"), queryFingerprint);
+    assertNull(segmentResultCache.get(cacheKey));
+
+    IntermediateResultsBlock resultsBlock =
+        new IntermediateResultsBlock(functionContexts, Arrays.asList(10L, new AvgPair(20.0, 10L)), false);
+    CachedSegmentResult cachedSegmentResult =
+        CachedSegmentResult.fromResultsBlock(resultsBlock, new ExecutionStatistics(10L, 0L, 10L, 100L), 1024 * 1024);
+    assertNotNull(cachedSegmentResult);
+    segmentResultCache.put(cacheKey, cachedSegmentResult);
+    assertEquals(segmentResultCache.size(), 1);
+    assertEquals(segmentResultCache.getSizeInBytes(), cachedSegmentResult.getSizeInBytes());
+
+    // Same segment and query should hit the cache, and each read should return a new copy of the result
+    SegmentResultCache.CacheKey sameCacheKey = new SegmentResultCache.CacheKey(TABLE_NAME,
+        mockSegment("segment0", "crc0"),
+        SegmentResultCache.getQueryFingerprint(COMPILER.compileToBrokerRequest(
+            "SELECT COUNT(*), AVG(foo) FROM myTable_OFFLINE")));
+    CachedSegmentResult cachedResult = segmentResultCache.get(sameCacheKey);
+    assertNotNull(cachedResult);
+    assertEquals(cachedResult.getExecutionStatistics().getNumDocsScanned(), 10L);
+    List<Object> aggregationResult = cachedResult.toResultsBlock(functionContexts).getAggregationResult();
+    assertEquals(aggregationResult.get(0), 10L);
+    AvgPair avgPair = (AvgPair) aggregationResult.get(1);
+    assertEquals(avgPair.getSum(), 20.0);
+    avgPair.apply(1.0, 1L);
+    avgPair = (AvgPair) cachedResult.toResultsBlock(functionContexts).getAggregationResult().get(1);
+    assertEquals(avgPair.getSum(), 20.0);
+    assertEquals(avgPair.getCount(), 10L);
+
+    // Different CRC (segment replaced) should not hit the cache
+    assertNull(segmentResultCache.get(
+        new SegmentResultCache.CacheKey(TABLE_NAME, mockSegment("segment0", "crc1"), queryFingerprint)));
+
+    segmentResultCache.invalidate(TABLE_NAME, "segment0");
+    assertEquals(segmentResultCache.size(), 0);
+    assertEquals(segmentResultCache.getSizeInBytes(), 0L);
+  }
+
+  @Test
+  public void testEviction() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM myTable_OFFLINE");
+    AggregationFunctionContext[] functionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest);
+    BrokerRequest queryFingerprint = SegmentResultCache.getQueryFingerprint(brokerRequest);
+    CachedSegmentResult cachedSegmentResult = CachedSegmentResult
+        .fromResultsBlock(new IntermediateResultsBlock(functionContexts, Arrays.asList(10L), false),
+            new ExecutionStatistics(), Long.MAX_VALUE);
+    assertNotNull(cachedSegmentResult);
+    SegmentResultCache segmentResultCache = new SegmentResultCache(2 * cachedSegmentResult.getSizeInBytes());
+
+    SegmentResultCache.CacheKey[] cacheKeys = new SegmentResultCache.CacheKey[3];
+    for (int i = 0; i < 3; i++) {
+      cacheKeys[i] = new SegmentResultCache.CacheKey(TABLE_NAME, mockSegment("segment" + i, "crc"), queryFingerprint);
+    }
+    segmentResultCache.put(cacheKeys[0], cachedSegmentResult);
+    segmentResultCache.put(cacheKeys[1], cachedSegmentResult);
+    assertEquals(segmentResultCache.size(), 2);
+
+    // Access the first key so that the second key becomes the least recently used one
+    assertNotNull(segmentResultCache.get(cacheKeys[0]));
+    segmentResultCache.put(cacheKeys[2], cachedSegmentResult);
+    assertEquals(segmentResultCache.size(), 2);
+    assertNotNull(segmentResultCache.get(cacheKeys[0]));
+    assertNull(segmentResultCache.get(cacheKeys[1]));
+    assertNotNull(segmentResultCache.get(cacheKeys[2]));
+  }
+
+  private static ImmutableSegment mockSegment(String segmentName, String crc) {
+    ImmutableSegment segment = mock(ImmutableSegment.class);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.startree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.pinot.core.io.reader.SingleColumnSingleValueReader;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.realtime.impl.dictionary.IntOnHeapMutableDictionary;
+import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
+import org.apache.pinot.core.startree.v2.StarTreeV2;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+
+/**
+ * Tests that the snapshots of the {@link MutableStarTreeV2} are point-in-time views, and only copy the chunks of the
+ * aggregated values modified since the previous snapshot.
+ */
+public class MutableStarTreeV2Test {
+  private static final String DIMENSION = "dimension";
+  private static final String METRIC = "metric";
+  private static final String COUNT_STAR = AggregationFunctionColumnPair.COUNT_STAR_COLUMN_NAME;
+  private static final String SUM_METRIC = "sum__" + METRIC;
+  private static final int NUM_CHUNKS = 4;
+  private static final int NUM_UNIQUE_DIMENSIONS = NUM_CHUNKS * MutableStarTreeV2.SNAPSHOT_CHUNK_SIZE - 1;
+
+  @Test
+  public void testIncrementalSnapshot()
+      throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(DIMENSION, FieldSpec.DataType.INT, true));
+    schema.addField(new MetricFieldSpec(METRIC, FieldSpec.DataType.LONG));
+    StarTreeIndexConfig indexConfig =
+        new StarTreeIndexConfig(Collections.singletonList(DIMENSION), null, Arrays.asList(COUNT_STAR, SUM_METRIC), 0);
+
+    try (DirectMemoryManager memoryManager = new DirectMemoryManager(MutableStarTreeV2Test.class.getName());
+        MutableStarTreeV2 starTree = MutableStarTreeV2
+            .create(indexConfig, schema, Collections.singletonMap(DIMENSION, new IntOnHeapMutableDictionary()), 10_000,
+                memoryManager, MutableStarTreeV2Test.class.getName())) {
+      assertNotNull(starTree);
+      assertNull(starTree.getSnapshot());
+
+      // Document id for dictionary id i is i + 1, so the documents fill up all the chunks
+      for (int i = 0; i < NUM_UNIQUE_DIMENSIONS; i++) {
+        starTree.index(getRow(i), new int[]{i});
+      }
+      StarTreeV2 snapshot1 = starTree.getSnapshot();
+      assertNotNull(snapshot1);
+      assertSame(starTree.getSnapshot(), snapshot1);
+      assertEquals(snapshot1.getMetadata().getNumDocs(), NUM_UNIQUE_DIMENSIONS + 1);
+
+      // Aggregate a record into a document in the last chunk
+      int dictId = NUM_UNIQUE_DIMENSIONS - 1;
+      int docId = dictId + 1;
+      starTree.index(getRow(dictId), new int[]{dictId});
+      StarTreeV2 snapshot2 = starTree.getSnapshot();
+      assertNotNull(snapshot2);
+      assertNotSame(snapshot2, snapshot1);
+
+      // The previous snapshot should not be affected
+      SingleColumnSingleValueReader countReader1 = getReader(snapshot1, COUNT_STAR);
+      SingleColumnSingleValueReader sumReader1 = getReader(snapshot1, SUM_METRIC);
+      assertEquals(countReader1.getLong(0), NUM_UNIQUE_DIMENSIONS);
+      assertEquals(countReader1.getLong(docId), 1);
+      assertEquals(sumReader1.getDouble(docId), (double) dictId);
+      SingleColumnSingleValueReader countReader2 = getReader(snapshot2, COUNT_STAR);
+      SingleColumnSingleValueReader sumReader2 = getReader(snapshot2, SUM_METRIC);
+      assertEquals(countReader2.getLong(0), NUM_UNIQUE_DIMENSIONS + 1);
+      assertEquals(countReader2.getLong(docId), 2);
+      assertEquals(sumReader2.getDouble(docId), 2.0 * dictId);
+      for (int i = 1; i < docId; i++) {
+        assertEquals(countReader2.getLong(i), 1);
+        assertEquals(sumReader2.getDouble(i), (double) (i - 1));
+      }
+
+      // Only the chunk of the aggregated document and the chunk of the modified document should be copied
+      long[][] countChunks1 = ((MutableStarTreeV2.LongValueReader) countReader1)._chunks;
+      long[][] countChunks2 = ((MutableStarTreeV2.LongValueReader) countReader2)._chunks;
+      double[][] sumChunks1 = ((MutableStarTreeV2.DoubleValueReader) sumReader1)._chunks;
+      double[][] sumChunks2 = ((MutableStarTreeV2.DoubleValueReader) sumReader2)._chunks;
+      assertEquals(countChunks2.length, NUM_CHUNKS);
+      assertEquals(sumChunks2.length, NUM_CHUNKS);
+      assertNotSame(countChunks2[0], countChunks1[0]);
+      assertNotSame(sumChunks2[0], sumChunks1[0]);
+      for (int chunkId = 1; chunkId < NUM_CHUNKS - 1; chunkId++) {
+        assertSame(countChunks2[chunkId], countChunks1[chunkId]);
+        assertSame(sumChunks2[chunkId], sumChunks1[chunkId]);
+      }
+      assertNotSame(countChunks2[NUM_CHUNKS - 1], countChunks1[NUM_CHUNKS - 1]);
+      assertNotSame(sumChunks2[NUM_CHUNKS - 1], sumChunks1[NUM_CHUNKS - 1]);
+
+      // A new document in a new chunk should copy the new chunk only (besides the aggregated document)
+      starTree.index(getRow(NUM_UNIQUE_DIMENSIONS), new int[]{NUM_UNIQUE_DIMENSIONS});
+      StarTreeV2 snapshot3 = starTree.getSnapshot();
+      assertNotNull(snapshot3);
+      assertEquals(snapshot3.getMetadata().getNumDocs(), NUM_UNIQUE_DIMENSIONS + 2);
+      SingleColumnSingleValueReader countReader3 = getReader(snapshot3, COUNT_STAR);
+      assertEquals(countReader3.getLong(0), NUM_UNIQUE_DIMENSIONS + 2);
+      assertEquals(countReader3.getLong(NUM_UNIQUE_DIMENSIONS + 1), 1);
+      long[][] countChunks3 = ((MutableStarTreeV2.LongValueReader) countReader3)._chunks;
+      assertEquals(countChunks3.length, NUM_CHUNKS + 1);
+      for (int chunkId = 1; chunkId < NUM_CHUNKS; chunkId++) {
+        assertSame(countChunks3[chunkId], countChunks2[chunkId]);
+      }
+    }
+  }
+
+  private static GenericRow getRow(int value) {
+    GenericRow row = new GenericRow();
+    row.putValue(DIMENSION, value);
+    row.putValue(METRIC, (long) value);
+    return row;
+  }
+
+  private static SingleColumnSingleValueReader getReader(StarTreeV2 starTree, String column) {
+    return (SingleColumnSingleValueReader) starTree.getDataSource(column).getForwardIndex();
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.RangeIndexCreator;
+import org.apache.pinot.core.segment.index.readers.RangeIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class RangeIndexCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RangeIndexCreatorTest");
+  private static final Random RANDOM = new Random();
+  private static final int NUM_DOCS = 10000;
+  private static final int CARDINALITY = 1000;
+  private static final int NUM_RANGES = 20;
+  private static final int MAX_NUM_VALUES_PER_MV_ENTRY = 5;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @Test
+  public void testSingleValue()
+      throws Exception {
+    String columnName = "svColumn";
+    FieldSpec fieldSpec = new DimensionFieldSpec(columnName, FieldSpec.DataType.INT, true);
+    int[] dictIds = new int[NUM_DOCS];
+    try (RangeIndexCreator creator = new RangeIndexCreator(TEMP_DIR, fieldSpec, CARDINALITY, NUM_DOCS, NUM_DOCS,
+        NUM_RANGES)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        dictIds[i] = RANDOM.nextInt(CARDINALITY);
+        creator.add(dictIds[i]);
+      }
+      creator.seal();
+    }
+
+    File rangeIndexFile = new File(TEMP_DIR, columnName + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    try (RangeIndexReader reader = new RangeIndexReader(PinotDataBuffer.loadBigEndianFile(rangeIndexFile))) {
+      int numRanges = reader.getNumRanges();
+      Assert.assertTrue(numRanges > 0 && numRanges <= NUM_RANGES);
+      validateRanges(reader);
+
+      for (int rangeId = 0; rangeId < numRanges; rangeId++) {
+        ImmutableRoaringBitmap docIds = reader.getDocIds(rangeId);
+        int startDictId = reader.getRangeStartDictId(rangeId);
+        int endDictId = reader.getRangeEndDictId(rangeId);
+        for (int docId = 0; docId < NUM_DOCS; docId++) {
+          boolean inRange = dictIds[docId] >= startDictId && dictIds[docId] < endDictId;
+          Assert.assertEquals(docIds.contains(docId), inRange);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMultiValue()
+      throws Exception {
+    String columnName = "mvColumn";
+    FieldSpec fieldSpec = new DimensionFieldSpec(columnName, FieldSpec.DataType.LONG, false);
+    int[][] dictIds = new int[NUM_DOCS][];
+    int numValues = 0;
+    for (int i = 0; i < NUM_DOCS; i++) {
+      int length = RANDOM.nextInt(MAX_NUM_VALUES_PER_MV_ENTRY) + 1;
+      dictIds[i] = new int[length];
+      for (int j = 0; j < length; j++) {
+        dictIds[i][j] = RANDOM.nextInt(CARDINALITY);
+      }
+      numValues += length;
+    }
+    try (RangeIndexCreator creator = new RangeIndexCreator(TEMP_DIR, fieldSpec, CARDINALITY, NUM_DOCS, numValues,
+        NUM_RANGES)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        creator.add(dictIds[i], dictIds[i].length);
+      }
+      creator.seal();
+    }
+
+    File rangeIndexFile = new File(TEMP_DIR, columnName + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    try (RangeIndexReader reader = new RangeIndexReader(PinotDataBuffer.loadBigEndianFile(rangeIndexFile))) {
+      validateRanges(reader);
+
+      for (int rangeId = 0; rangeId < reader.getNumRanges(); rangeId++) {
+        ImmutableRoaringBitmap docIds = reader.getDocIds(rangeId);
+        int startDictId = reader.getRangeStartDictId(rangeId);
+        int endDictId = reader.getRangeEndDictId(rangeId);
+        for (int docId = 0; docId < NUM_DOCS; docId++) {
+          boolean inRange = false;
+          for (int dictId : dictIds[docId]) {
+            if (dictId >= startDictId && dictId < endDictId) {
+              inRange = true;
+              break;
+            }
+          }
+          Assert.assertEquals(docIds.contains(docId), inRange);
+        }
+      }
+    }
+  }
+
+  private static void validateRanges(RangeIndexReader reader) {
+    int numRanges = reader.getNumRanges();
+    Assert.assertEquals(reader.getRangeStartDictId(0), 0);
+    Assert.assertEquals(reader.getRangeEndDictId(numRanges - 1), CARDINALITY);
+    for (int rangeId = 0; rangeId < numRanges; rangeId++) {
+      int startDictId = reader.getRangeStartDictId(rangeId);
+      int endDictId = reader.getRangeEndDictId(rangeId);
+      Assert.assertTrue(startDictId < endDictId);
+      for (int dictId = startDictId; dictId < endDictId; dictId++) {
+        Assert.assertEquals(reader.findRangeId(dictId), rangeId);
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
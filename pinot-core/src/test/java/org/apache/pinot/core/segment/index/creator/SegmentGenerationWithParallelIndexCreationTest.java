@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.data.readers.PinotSegmentRecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that building the columns in parallel generates the same segment as building them sequentially.
+ */
+public class SegmentGenerationWithParallelIndexCreationTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "SegmentGenerationWithParallelIndexCreationTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  // More than one batch of buffered rows
+  private static final int NUM_ROWS = 25_001;
+  private static final int MAX_NUM_MULTI_VALUES = 5;
+
+  private static final String INT_COLUMN = "intColumn";
+  private static final String SORTED_COLUMN = "sortedColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String MV_COLUMN = "mvColumn";
+  private static final String RAW_COLUMN = "rawColumn";
+  private static final String METRIC_COLUMN = "metricColumn";
+  private static final List<String> INVERTED_INDEX_COLUMNS = Arrays.asList(INT_COLUMN, STRING_COLUMN, MV_COLUMN);
+
+  @Test
+  public void testParallelIndexCreation()
+      throws Exception {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(SORTED_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(STRING_COLUMN, FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec(MV_COLUMN, FieldSpec.DataType.INT, false));
+    schema.addField(new DimensionFieldSpec(RAW_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new MetricFieldSpec(METRIC_COLUMN, FieldSpec.DataType.DOUBLE));
+
+    long randomSeed = System.currentTimeMillis();
+    Random random = new Random(randomSeed);
+    String errorMessage = "Random seed is: " + randomSeed;
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putField(INT_COLUMN, random.nextInt(1000));
+      row.putField(SORTED_COLUMN, i / 100);
+      row.putField(STRING_COLUMN, random.nextBoolean() ? "s" + random.nextInt(100) : null);
+      int numMultiValues = 1 + random.nextInt(MAX_NUM_MULTI_VALUES);
+      Object[] multiValues = new Object[numMultiValues];
+      for (int j = 0; j < numMultiValues; j++) {
+        multiValues[j] = random.nextInt(100);
+      }
+      row.putField(MV_COLUMN, multiValues);
+      row.putField(RAW_COLUMN, random.nextLong());
+      row.putField(METRIC_COLUMN, random.nextDouble());
+      rows.add(row);
+    }
+
+    ImmutableSegment sequentialSegment = buildSegment(schema, rows, 1, "sequential");
+    ImmutableSegment parallelSegment = buildSegment(schema, rows, 4, "parallel");
+    try {
+      // Compare the values
+      try (PinotSegmentRecordReader sequentialReader = new PinotSegmentRecordReader(
+          new File(new File(TEMP_DIR, "sequential"), SEGMENT_NAME));
+          PinotSegmentRecordReader parallelReader = new PinotSegmentRecordReader(
+              new File(new File(TEMP_DIR, "parallel"), SEGMENT_NAME))) {
+        int numRows = 0;
+        while (sequentialReader.hasNext()) {
+          assertTrue(parallelReader.hasNext(), errorMessage);
+          GenericRow expectedRow = sequentialReader.next();
+          GenericRow actualRow = parallelReader.next();
+          for (String column : schema.getColumnNames()) {
+            Object expectedValue = expectedRow.getValue(column);
+            Object actualValue = actualRow.getValue(column);
+            if (expectedValue instanceof Object[]) {
+              assertTrue(Arrays.equals((Object[]) actualValue, (Object[]) expectedValue), errorMessage);
+            } else {
+              assertEquals(actualValue, expectedValue, errorMessage);
+            }
+          }
+          numRows++;
+        }
+        assertFalse(parallelReader.hasNext(), errorMessage);
+        assertEquals(numRows, NUM_ROWS, errorMessage);
+      }
+
+      // Compare the inverted indexes
+      for (String column : INVERTED_INDEX_COLUMNS) {
+        Dictionary dictionary = sequentialSegment.getDataSource(column).getDictionary();
+        InvertedIndexReader expectedInvertedIndex = sequentialSegment.getDataSource(column).getInvertedIndex();
+        InvertedIndexReader actualInvertedIndex = parallelSegment.getDataSource(column).getInvertedIndex();
+        int cardinality = dictionary.length();
+        assertEquals(parallelSegment.getDataSource(column).getDictionary().length(), cardinality, errorMessage);
+        for (int dictId = 0; dictId < cardinality; dictId++) {
+          assertEquals(actualInvertedIndex.getDocIds(dictId), expectedInvertedIndex.getDocIds(dictId), errorMessage);
+        }
+      }
+
+      // Compare the null value vectors
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        assertEquals(parallelSegment.getDataSource(STRING_COLUMN).getNullValueVector().isNull(docId),
+            sequentialSegment.getDataSource(STRING_COLUMN).getNullValueVector().isNull(docId), errorMessage);
+      }
+    } finally {
+      sequentialSegment.destroy();
+      parallelSegment.destroy();
+    }
+  }
+
+  private ImmutableSegment buildSegment(Schema schema, List<GenericRow> rows, int numIndexCreationThreads,
+      String outDirName)
+      throws Exception {
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setInvertedIndexColumns(INVERTED_INDEX_COLUMNS).setCreateInvertedIndexDuringSegmentGeneration(true)
+        .setNoDictionaryColumns(Collections.singletonList(RAW_COLUMN)).build();
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    File outDir = new File(TEMP_DIR, outDirName);
+    config.setOutDir(outDir.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setNullHandlingEnabled(true);
+    config.setNumIndexCreationThreads(numIndexCreationThreads);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    return ImmutableSegmentLoader.load(new File(outDir, SEGMENT_NAME), ReadMode.mmap);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.pinot.core.segment.creator.SegmentIndexCreationDriver;
 import org.apache.pinot.core.segment.creator.impl.SegmentCreationDriverFactory;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
 import org.apache.pinot.core.segment.creator.impl.inv.text.LuceneTextIndexCreator;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexContainer;
 import org.apache.pinot.core.segment.index.converter.SegmentV1V2ToV3FormatConverter;
 import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
@@ -49,6 +50,7 @@ import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.MetricFieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.utils.BytesUtils;
 import org.apache.pinot.util.TestUtils;
 import org.testng.Assert;
@@ -253,6 +255,58 @@ public class LoaderTest {
     indexSegment.destroy();
   }
 
+  @Test
+  public void testLazyLoad()
+      throws Exception {
+    constructV1Segment();
+
+    IndexLoadingConfig lazyIndexLoadingConfig = new IndexLoadingConfig();
+    lazyIndexLoadingConfig.setReadMode(ReadMode.mmap);
+    lazyIndexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    lazyIndexLoadingConfig.setLazyLoadIndexes(true);
+    lazyIndexLoadingConfig.setLazyIndexIdleTimeoutMs(1000L);
+
+    // Lazily loaded segment should return the same records as the eagerly loaded one
+    IndexSegment eagerIndexSegment = ImmutableSegmentLoader.load(_indexDir, _v3IndexLoadingConfig);
+    IndexSegment lazyIndexSegment = ImmutableSegmentLoader.load(_indexDir, lazyIndexLoadingConfig);
+    int numDocs = eagerIndexSegment.getSegmentMetadata().getTotalDocs();
+    for (int docId = 0; docId < numDocs; docId += 100) {
+      GenericRow expectedRow = eagerIndexSegment.getRecord(docId, new GenericRow());
+      GenericRow actualRow = lazyIndexSegment.getRecord(docId, new GenericRow());
+      for (String column : eagerIndexSegment.getPhysicalColumnNames()) {
+        Object expectedValue = expectedRow.getValue(column);
+        if (expectedValue instanceof Object[]) {
+          Assert.assertEquals((Object[]) actualRow.getValue(column), (Object[]) expectedValue);
+        } else {
+          Assert.assertEquals(actualRow.getValue(column), expectedValue);
+        }
+      }
+    }
+    eagerIndexSegment.destroy();
+    lazyIndexSegment.destroy();
+
+    // Indexes should be loaded on first access and unloaded after the idle timeout
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(_indexDir);
+    try (SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(_indexDir, segmentMetadata,
+        ReadMode.mmap); SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      LazyColumnIndexContainer indexContainer =
+          new LazyColumnIndexContainer(reader, segmentMetadata.getColumnMetadataFor("column1"), lazyIndexLoadingConfig,
+              _indexDir);
+      Assert.assertFalse(indexContainer.isLoaded());
+      Assert.assertFalse(indexContainer.unloadIfIdle(System.currentTimeMillis() + 2000L));
+      Assert.assertNotNull(indexContainer.getForwardIndex());
+      Assert.assertTrue(indexContainer.isLoaded());
+      Assert.assertFalse(indexContainer.unloadIfIdle(System.currentTimeMillis()));
+      Assert.assertTrue(indexContainer.isLoaded());
+      Assert.assertTrue(indexContainer.unloadIfIdle(System.currentTimeMillis() + 2000L));
+      Assert.assertFalse(indexContainer.isLoaded());
+      Assert.assertNotNull(indexContainer.getDictionary());
+      Assert.assertTrue(indexContainer.isLoaded());
+      indexContainer.close();
+      Assert.assertFalse(indexContainer.isLoaded());
+    }
+  }
+
   private void constructSegmentWithTextIndex(SegmentVersion segmentVersion)
       throws Exception {
     FileUtils.deleteQuietly(INDEX_DIR);
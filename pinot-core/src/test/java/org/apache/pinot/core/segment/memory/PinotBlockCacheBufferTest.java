@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.memory;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.spi.filesystem.LocalPinotFS;
+import org.apache.pinot.util.TestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class PinotBlockCacheBufferTest {
+  private static final Random RANDOM = new Random();
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "PinotBlockCacheBufferTest");
+  private static final File DATA_FILE = new File(TEMP_DIR, "data");
+  private static final File DISK_CACHE_DIR = new File(TEMP_DIR, "cache");
+  private static final int BLOCK_SIZE = 100;        // Not aligned with the value sizes
+  private static final int FILE_SIZE = 10_050;      // Last block is partial
+  private static final int NUM_ROUNDS = 1000;
+
+  private final byte[] _bytes = new byte[FILE_SIZE];
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    RANDOM.nextBytes(_bytes);
+    FileUtils.writeByteArrayToFile(DATA_FILE, _bytes);
+  }
+
+  @Test
+  public void testReadValues()
+      throws Exception {
+    for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+      BlockCache blockCache = new BlockCache(BLOCK_SIZE, Long.MAX_VALUE, null, 0);
+      try (PinotDataBuffer buffer = getBuffer(blockCache, byteOrder)) {
+        Assert.assertEquals(buffer.size(), FILE_SIZE);
+        Assert.assertEquals(buffer.order(), byteOrder);
+        ByteBuffer expected = ByteBuffer.wrap(_bytes).order(byteOrder);
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+          int offset = RANDOM.nextInt(FILE_SIZE - Long.BYTES);
+          Assert.assertEquals(buffer.getByte(offset), expected.get(offset));
+          Assert.assertEquals(buffer.getChar(offset), expected.getChar(offset));
+          Assert.assertEquals(buffer.getShort(offset), expected.getShort(offset));
+          Assert.assertEquals(buffer.getInt(offset), expected.getInt(offset));
+          Assert.assertEquals(buffer.getLong(offset), expected.getLong(offset));
+          Assert.assertEquals(Float.floatToRawIntBits(buffer.getFloat(offset)),
+              Float.floatToRawIntBits(expected.getFloat(offset)));
+          Assert.assertEquals(Double.doubleToRawLongBits(buffer.getDouble(offset)),
+              Double.doubleToRawLongBits(expected.getDouble(offset)));
+        }
+
+        // Values across the block boundary
+        Assert.assertEquals(buffer.getInt(BLOCK_SIZE - 2), expected.getInt(BLOCK_SIZE - 2));
+        Assert.assertEquals(buffer.getLong(BLOCK_SIZE - 1), expected.getLong(BLOCK_SIZE - 1));
+        // Last value in the partial block
+        Assert.assertEquals(buffer.getLong(FILE_SIZE - Long.BYTES), expected.getLong(FILE_SIZE - Long.BYTES));
+      }
+      // Each block should be loaded only once
+      Assert.assertEquals(blockCache.getNumMisses(), (FILE_SIZE + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+  }
+
+  @Test
+  public void testCopyAndView()
+      throws Exception {
+    BlockCache blockCache = new BlockCache(BLOCK_SIZE, Long.MAX_VALUE, null, 0);
+    try (PinotDataBuffer buffer = getBuffer(blockCache, ByteOrder.BIG_ENDIAN)) {
+      for (int i = 0; i < NUM_ROUNDS; i++) {
+        int start = RANDOM.nextInt(FILE_SIZE);
+        int end = start + RANDOM.nextInt(FILE_SIZE - start + 1);
+        byte[] expected = Arrays.copyOfRange(_bytes, start, end);
+
+        byte[] actual = new byte[end - start];
+        buffer.copyTo(start, actual);
+        Assert.assertEquals(actual, expected);
+
+        PinotDataBuffer view = buffer.view(start, end, ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(view.size(), end - start);
+        Assert.assertEquals(view.order(), ByteOrder.LITTLE_ENDIAN);
+        if (end - start >= Integer.BYTES) {
+          Assert.assertEquals(view.getInt(0), ByteBuffer.wrap(expected).order(ByteOrder.LITTLE_ENDIAN).getInt(0));
+        }
+        Assert.assertEquals(view.toDirectByteBuffer(0, end - start), ByteBuffer.wrap(expected));
+      }
+    }
+  }
+
+  @Test
+  public void testEviction()
+      throws Exception {
+    int numBlocks = (FILE_SIZE + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    // Keep 10 blocks in memory and 20 blocks on disk
+    BlockCache blockCache = new BlockCache(BLOCK_SIZE, 10 * BLOCK_SIZE, DISK_CACHE_DIR, 20 * BLOCK_SIZE);
+    try (PinotDataBuffer buffer = getBuffer(blockCache, ByteOrder.BIG_ENDIAN)) {
+      for (int i = 0; i < numBlocks; i++) {
+        Assert.assertEquals(buffer.getByte(i * BLOCK_SIZE), _bytes[i * BLOCK_SIZE]);
+      }
+      Assert.assertEquals(blockCache.getNumMisses(), numBlocks);
+      Assert.assertEquals(blockCache.getMemoryBytes(), 9 * BLOCK_SIZE + FILE_SIZE % BLOCK_SIZE);
+      Assert.assertEquals(blockCache.getDiskBytes(), 20 * BLOCK_SIZE);
+
+      // Blocks spilled to disk
+      int blockIndex = numBlocks - 11;
+      Assert.assertEquals(buffer.getByte(blockIndex * BLOCK_SIZE), _bytes[blockIndex * BLOCK_SIZE]);
+      Assert.assertEquals(blockCache.getNumDiskHits(), 1);
+      Assert.assertEquals(blockCache.getNumMisses(), numBlocks);
+
+      // Blocks evicted from both tiers
+      Assert.assertEquals(buffer.getByte(0), _bytes[0]);
+      Assert.assertEquals(blockCache.getNumMisses(), numBlocks + 1);
+    }
+    FileUtils.deleteQuietly(DISK_CACHE_DIR);
+  }
+
+  @Test
+  public void testReadAhead()
+      throws Exception {
+    int numBlocks = (FILE_SIZE + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int numReadAheadBlocks = 4;
+    BlockCache blockCache = new BlockCache(BLOCK_SIZE, Long.MAX_VALUE, null, 0, numReadAheadBlocks);
+    try (PinotDataBuffer buffer = getBuffer(blockCache, ByteOrder.BIG_ENDIAN)) {
+      // Random access should not trigger read-ahead
+      Assert.assertEquals(buffer.getByte(10 * BLOCK_SIZE), _bytes[10 * BLOCK_SIZE]);
+      Assert.assertEquals(buffer.getByte(0), _bytes[0]);
+      Assert.assertEquals(blockCache.getNumMisses(), 2);
+
+      // Sequential access should read ahead the next blocks
+      Assert.assertEquals(buffer.getByte(BLOCK_SIZE), _bytes[BLOCK_SIZE]);
+      TestUtils.waitForCondition(aVoid -> blockCache.getNumMisses() == 3 + numReadAheadBlocks, 10_000L,
+          "Failed to read ahead the blocks");
+
+      // Scan the whole file, where each block should be loaded only once
+      for (int i = 0; i < FILE_SIZE; i++) {
+        Assert.assertEquals(buffer.getByte(i), _bytes[i]);
+      }
+      Assert.assertEquals(blockCache.getNumMisses(), numBlocks);
+      Assert.assertEquals(blockCache.getMemoryBytes(), FILE_SIZE);
+    }
+  }
+
+  @Test(expectedExceptions = UnsupportedOperationException.class)
+  public void testWrite()
+      throws Exception {
+    BlockCache blockCache = new BlockCache(BLOCK_SIZE, Long.MAX_VALUE, null, 0);
+    try (PinotDataBuffer buffer = getBuffer(blockCache, ByteOrder.BIG_ENDIAN)) {
+      buffer.putInt(0, 0);
+    }
+  }
+
+  private PinotDataBuffer getBuffer(BlockCache blockCache, ByteOrder byteOrder) {
+    return new PinotBlockCacheBuffer(blockCache, new LocalPinotFS(), DATA_FILE.toURI(), FILE_SIZE,
+        DATA_FILE.getAbsolutePath(), byteOrder);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
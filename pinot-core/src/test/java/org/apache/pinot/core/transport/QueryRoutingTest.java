@@ -125,6 +125,48 @@ public class QueryRoutingTest {
     queryServer.shutDown();
   }
 
+  @Test
+  public void testAsyncResponse()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    QueryServer queryServer = getQueryServer(0, responseBytes);
+    queryServer.start();
+
+    // Valid response
+    AsyncQueryResponse asyncQueryResponse =
+        _queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponseFuture().get();
+    assertEquals(response.size(), 1);
+    ServerResponse serverResponse = response.get(OFFLINE_SERVER_ROUTING_INSTANCE);
+    assertNotNull(serverResponse.getDataTable());
+    assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+
+    // Non-matching request id, the response future should be completed when the query times out
+    long startTimeMs = System.currentTimeMillis();
+    asyncQueryResponse =
+        _queryRouter.submitQuery(requestId + 1, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+    response = asyncQueryResponse.getResponseFuture().get();
+    assertEquals(response.size(), 1);
+    assertNull(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable());
+    assertTrue(System.currentTimeMillis() - startTimeMs >= 1000);
+
+    // Shut down the server, the response future should be completed early
+    // NOTE: this also makes sure the server down event is consumed before the next test starts
+    queryServer.shutDown();
+    startTimeMs = System.currentTimeMillis();
+    asyncQueryResponse =
+        _queryRouter.submitQuery(requestId + 2, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+    response = asyncQueryResponse.getResponseFuture().get();
+    assertEquals(response.size(), 1);
+    assertNull(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable());
+    assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
+  }
+
   @Test
   public void testInvalidResponse()
       throws Exception {
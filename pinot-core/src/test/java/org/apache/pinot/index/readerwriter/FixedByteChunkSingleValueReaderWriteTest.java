@@ -52,6 +52,7 @@ public class FixedByteChunkSingleValueReaderWriteTest {
   private static final String TEST_FILE = System.getProperty("java.io.tmpdir") + File.separator + "FixedByteSVRTest";
   private static final Random _random = new Random();
   private static final int BYTES_LENGTH = 101;
+  private static final int BULK_READ_BATCH_SIZE = 997;
 
   @Test
   public void testWithCompression()
@@ -106,6 +107,17 @@ public class FixedByteChunkSingleValueReaderWriteTest {
           Assert.assertEquals(actual, expected[i]);
         }
       }
+
+      // Bulk read with batches crossing the chunk boundaries
+      context = reader.createContext();
+      int[] actualValues = new int[BULK_READ_BATCH_SIZE];
+      for (int startRow = 0; startRow < NUM_VALUES; startRow += BULK_READ_BATCH_SIZE) {
+        int numRows = Math.min(BULK_READ_BATCH_SIZE, NUM_VALUES - startRow);
+        reader.readIntValues(startRow, numRows, context, actualValues);
+        for (int i = 0; i < numRows; i++) {
+          Assert.assertEquals(actualValues[i], expected[startRow + i]);
+        }
+      }
     }
 
     FileUtils.deleteQuietly(outFile);
@@ -142,6 +154,17 @@ public class FixedByteChunkSingleValueReaderWriteTest {
           Assert.assertEquals(actual, expected[i]);
         }
       }
+
+      // Bulk read with batches crossing the chunk boundaries
+      context = reader.createContext();
+      long[] actualValues = new long[BULK_READ_BATCH_SIZE];
+      for (int startRow = 0; startRow < NUM_VALUES; startRow += BULK_READ_BATCH_SIZE) {
+        int numRows = Math.min(BULK_READ_BATCH_SIZE, NUM_VALUES - startRow);
+        reader.readLongValues(startRow, numRows, context, actualValues);
+        for (int i = 0; i < numRows; i++) {
+          Assert.assertEquals(actualValues[i], expected[startRow + i]);
+        }
+      }
     }
 
     FileUtils.deleteQuietly(outFile);
@@ -178,6 +201,17 @@ public class FixedByteChunkSingleValueReaderWriteTest {
           Assert.assertEquals(actual, expected[i]);
         }
       }
+
+      // Bulk read with batches crossing the chunk boundaries
+      context = reader.createContext();
+      float[] actualValues = new float[BULK_READ_BATCH_SIZE];
+      for (int startRow = 0; startRow < NUM_VALUES; startRow += BULK_READ_BATCH_SIZE) {
+        int numRows = Math.min(BULK_READ_BATCH_SIZE, NUM_VALUES - startRow);
+        reader.readFloatValues(startRow, numRows, context, actualValues);
+        for (int i = 0; i < numRows; i++) {
+          Assert.assertEquals(actualValues[i], expected[startRow + i]);
+        }
+      }
     }
 
     FileUtils.deleteQuietly(outFile);
@@ -214,6 +248,17 @@ public class FixedByteChunkSingleValueReaderWriteTest {
           Assert.assertEquals(actual, expected[i]);
         }
       }
+
+      // Bulk read with batches crossing the chunk boundaries
+      context = reader.createContext();
+      double[] actualValues = new double[BULK_READ_BATCH_SIZE];
+      for (int startRow = 0; startRow < NUM_VALUES; startRow += BULK_READ_BATCH_SIZE) {
+        int numRows = Math.min(BULK_READ_BATCH_SIZE, NUM_VALUES - startRow);
+        reader.readDoubleValues(startRow, numRows, context, actualValues);
+        for (int i = 0; i < numRows; i++) {
+          Assert.assertEquals(actualValues[i], expected[startRow + i]);
+        }
+      }
     }
 
     FileUtils.deleteQuietly(outFile);
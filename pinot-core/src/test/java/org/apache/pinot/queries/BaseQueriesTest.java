@@ -158,7 +158,7 @@ public abstract class BaseQueriesTest {
    * @param planMaker Plan maker.
    * @return broker response.
    */
-  private BrokerResponseNative getBrokerResponseForBrokerRequest(BrokerRequest brokerRequest, PlanMaker planMaker,
+  protected BrokerResponseNative getBrokerResponseForBrokerRequest(BrokerRequest brokerRequest, PlanMaker planMaker,
       Map<String, String> queryOptions) {
     Map<String, String> allQueryOptions = new HashMap<>();
 
@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.queries;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -244,6 +247,74 @@ public class InnerSegmentSelectionSingleValueQueriesTest extends BaseSingleValue
     Assert.assertEquals(((Integer) lastRow[columnIndexMap.get("column1")]).intValue(), 462769197);
   }
 
+  @Test
+  public void testSelectionOrderBySortedColumn() {
+    for (String filter : new String[]{"", getFilter()}) {
+      // Fetch all the matched rows (the first order-by column is not sorted) to compute the expected results
+      List<int[]> allRows =
+          getRows(getOperatorForQuery("SELECT daysSinceEpoch, column1 FROM testTable" + filter + " ORDER BY column1"
+              + " LIMIT 30000"));
+      int numMatchedDocs = allRows.size();
+
+      // Without more order-by expressions, only the top documents should be scanned
+      for (boolean ascending : new boolean[]{true, false}) {
+        String query = "SELECT daysSinceEpoch, column1 FROM testTable" + filter + " ORDER BY daysSinceEpoch " + (
+            ascending ? "ASC" : "DESC") + " LIMIT 10";
+        BaseOperator<IntermediateResultsBlock> selectionOrderByOperator = getOperatorForQuery(query);
+        List<int[]> rows = getRows(selectionOrderByOperator);
+        Assert.assertEquals(selectionOrderByOperator.getExecutionStatistics().getNumDocsScanned(), 10L);
+        Comparator<int[]> comparator = Comparator.comparingInt(row -> row[0]);
+        allRows.sort(ascending ? comparator : comparator.reversed());
+        Assert.assertEquals(rows.size(), 10);
+        for (int i = 0; i < 10; i++) {
+          Assert.assertEquals(rows.get(i)[0], allRows.get(i)[0]);
+        }
+      }
+
+      // With more order-by expressions, the ties on the sorted column should be resolved
+      for (boolean ascending : new boolean[]{true, false}) {
+        String query = "SELECT daysSinceEpoch, column1 FROM testTable" + filter + " ORDER BY daysSinceEpoch " + (
+            ascending ? "ASC" : "DESC") + ", column1 DESC LIMIT 10";
+        BaseOperator<IntermediateResultsBlock> selectionOrderByOperator = getOperatorForQuery(query);
+        List<int[]> rows = getRows(selectionOrderByOperator);
+        long numDocsScanned = selectionOrderByOperator.getExecutionStatistics().getNumDocsScanned();
+        if (filter.isEmpty()) {
+          // Only the documents with the boundary value should be scanned
+          Assert.assertTrue(numDocsScanned < numMatchedDocs);
+        } else {
+          Assert.assertTrue(numDocsScanned <= numMatchedDocs);
+        }
+        Comparator<int[]> comparator = Comparator.comparingInt(row -> row[0]);
+        allRows.sort((ascending ? comparator : comparator.reversed())
+            .thenComparing(Comparator.<int[]>comparingInt(row -> row[1]).reversed()));
+        Assert.assertEquals(rows.size(), 10);
+        for (int i = 0; i < 10; i++) {
+          Assert.assertEquals(rows.get(i), allRows.get(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the (daysSinceEpoch, column1) pairs of the selection order-by results in order.
+   */
+  private List<int[]> getRows(BaseOperator<IntermediateResultsBlock> selectionOrderByOperator) {
+    IntermediateResultsBlock resultsBlock = selectionOrderByOperator.nextBlock();
+    Map<String, Integer> columnIndexMap = computeColumnNameToIndexMap(resultsBlock.getDataSchema());
+    int daysSinceEpochIndex = columnIndexMap.get("daysSinceEpoch");
+    int column1Index = columnIndexMap.get("column1");
+    PriorityQueue<Object[]> selectionResult = new PriorityQueue<>(
+        (PriorityQueue<Object[]>) resultsBlock.getSelectionResult());
+    List<int[]> rows = new ArrayList<>(selectionResult.size());
+    while (!selectionResult.isEmpty()) {
+      Object[] row = selectionResult.poll();
+      rows.add(new int[]{(Integer) row[daysSinceEpochIndex], (Integer) row[column1Index]});
+    }
+    // The priority queue returns the last row first
+    Collections.reverse(rows);
+    return rows;
+  }
+
   @Test
   public void testSelectStarOrderBy() {
     String query = "SELECT * " + " FROM testTable" + ORDER_BY;
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.core.startree.StarTreeUtils;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the queries solved by the star-tree maintained by the consuming segment return the same results as the
+ * queries solved by scanning the records of the consuming segment.
+ */
+public class MutableSegmentStarTreeQueriesTest extends BaseQueriesTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 10_000;
+  private static final int BATCH_SIZE = 97;
+  private static final Random RANDOM = new Random();
+
+  private static final String INT_DIMENSION = "intDimension";
+  private static final String STRING_DIMENSION = "stringDimension";
+  private static final String LONG_METRIC = "longMetric";
+  private static final String DOUBLE_METRIC = "doubleMetric";
+
+  private static final String[] QUERIES = new String[]{
+      "SELECT COUNT(*), SUM(longMetric), MIN(longMetric), MAX(doubleMetric) FROM testTable",
+      "SELECT COUNT(*), SUM(longMetric) FROM testTable WHERE intDimension < 5 AND stringDimension IN ('s1', 's3')",
+      "SELECT stringDimension, COUNT(*), SUM(longMetric), MAX(doubleMetric) FROM testTable GROUP BY stringDimension "
+          + "ORDER BY stringDimension LIMIT 100",
+      "SELECT intDimension, stringDimension, MIN(longMetric), SUM(longMetric) FROM testTable WHERE intDimension IN "
+          + "(1, 3, 5) GROUP BY intDimension, stringDimension ORDER BY intDimension, stringDimension LIMIT 100"
+  };
+
+  private MutableSegmentImpl _mutableSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _mutableSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(INT_DIMENSION, DataType.INT).addSingleValueDimension(STRING_DIMENSION, DataType.STRING)
+        .addMetric(LONG_METRIC, DataType.LONG).addMetric(DOUBLE_METRIC, DataType.DOUBLE).build();
+
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+    StarTreeIndexConfig starTreeIndexConfig =
+        new StarTreeIndexConfig(Arrays.asList(INT_DIMENSION, STRING_DIMENSION), null,
+            Arrays.asList("count__*", "sum__longMetric", "min__longMetric", "max__doubleMetric"), 0);
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setSegmentName(SEGMENT_NAME).setStreamName("testStream").setSchema(schema)
+            .setCapacity(100000).setAvgNumMultiValues(2).setNoDictionaryColumns(Collections.emptySet())
+            .setVarLengthDictionaryColumns(Collections.emptySet()).setInvertedIndexColumns(Collections.emptySet())
+            .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
+            .setStarTreeIndexConfigs(Collections.singletonList(starTreeIndexConfig)).build();
+    _mutableSegment = new MutableSegmentImpl(realtimeSegmentConfig);
+
+    // Index half of the records one by one and the other half in batches
+    GenericRow[] rows = new GenericRow[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_DIMENSION, RANDOM.nextInt(10));
+      row.putValue(STRING_DIMENSION, "s" + RANDOM.nextInt(10));
+      row.putValue(LONG_METRIC, (long) RANDOM.nextInt(1000));
+      row.putValue(DOUBLE_METRIC, RANDOM.nextDouble());
+      rows[i] = row;
+    }
+    int numRowsIndexedOneByOne = NUM_ROWS / 2;
+    for (int i = 0; i < numRowsIndexedOneByOne; i++) {
+      _mutableSegment.index(rows[i], null);
+    }
+    GenericRow[] batch = new GenericRow[BATCH_SIZE];
+    for (int i = numRowsIndexedOneByOne; i < NUM_ROWS; i += BATCH_SIZE) {
+      int numRows = Math.min(BATCH_SIZE, NUM_ROWS - i);
+      System.arraycopy(rows, i, batch, 0, numRows);
+      _mutableSegment.index(batch, null, numRows);
+    }
+
+    SegmentDataManager segmentDataManager = mock(SegmentDataManager.class);
+    when(segmentDataManager.getSegment()).thenReturn(_mutableSegment);
+    when(segmentDataManager.getSegmentName()).thenReturn(SEGMENT_NAME);
+    _segmentDataManagers = Arrays.asList(segmentDataManager, segmentDataManager);
+  }
+
+  @Test
+  public void testQueries() {
+    assertNotNull(_mutableSegment.getStarTrees());
+
+    for (String query : QUERIES) {
+      BrokerResponseNative starTreeResponse = getBrokerResponse(query, true);
+      BrokerResponseNative nonStarTreeResponse = getBrokerResponse(query, false);
+      assertTrue(starTreeResponse.getProcessingExceptions().isEmpty(), query);
+      assertTrue(nonStarTreeResponse.getProcessingExceptions().isEmpty(), query);
+
+      // Star-tree should scan the pre-aggregated documents instead of the records
+      assertTrue(starTreeResponse.getNumDocsScanned() < nonStarTreeResponse.getNumDocsScanned(), query);
+
+      assertEquals(starTreeResponse.getResultTable().getDataSchema(),
+          nonStarTreeResponse.getResultTable().getDataSchema(), query);
+      List<Object[]> starTreeRows = starTreeResponse.getResultTable().getRows();
+      List<Object[]> nonStarTreeRows = nonStarTreeResponse.getResultTable().getRows();
+      assertFalse(nonStarTreeRows.isEmpty(), query);
+      assertEquals(starTreeRows.size(), nonStarTreeRows.size(), query);
+      for (int i = 0; i < nonStarTreeRows.size(); i++) {
+        assertEquals(starTreeRows.get(i), nonStarTreeRows.get(i), query);
+      }
+    }
+  }
+
+  private BrokerResponseNative getBrokerResponse(String query, boolean useStarTree) {
+    BrokerRequest brokerRequest = SQL_COMPILER.compileToBrokerRequest(query);
+    if (!useStarTree) {
+      brokerRequest.setDebugOptions(Collections.singletonMap(StarTreeUtils.USE_STAR_TREE_KEY, "false"));
+    }
+    Map<String, String> queryOptions = new HashMap<>();
+    queryOptions.put("groupByMode", "sql");
+    queryOptions.put("responseFormat", "sql");
+    return getBrokerResponseForBrokerRequest(brokerRequest, PLAN_MAKER, queryOptions);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _mutableSegment.destroy();
+  }
+}
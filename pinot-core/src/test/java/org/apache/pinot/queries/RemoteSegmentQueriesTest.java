@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.memory.BlockCache;
+import org.apache.pinot.core.segment.store.RemoteSegmentUtils;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the queries on a remote segment (served from {@link org.apache.pinot.spi.filesystem.PinotFS} through the
+ * {@link BlockCache}) return the same results as the queries on the same segment loaded locally.
+ */
+public class RemoteSegmentQueriesTest extends BaseQueriesTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RemoteSegmentQueriesTest");
+  private static final File LOCAL_INDEX_DIR = new File(TEMP_DIR, "local");
+  private static final File REMOTE_INDEX_DIR = new File(TEMP_DIR, "remote");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+
+  // Use small blocks so that the index file spans many blocks, and the values cross the block boundaries
+  private static final int BLOCK_SIZE = 4000;
+  private static final int NUM_ROWS = 10_000;
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String RAW_LONG_COLUMN = "rawLongColumn";
+  private static final String RAW_DOUBLE_COLUMN = "rawDoubleColumn";
+  private static final Random RANDOM = new Random();
+
+  private static final String[] QUERIES = new String[]{
+      "SELECT COUNT(*), SUM(rawLongColumn), MAX(rawDoubleColumn), DISTINCTCOUNT(intColumn) FROM testTable",
+      "SELECT COUNT(*), MIN(rawLongColumn) FROM testTable WHERE intColumn > 500 AND stringColumn = 's3'",
+      "SELECT COUNT(*) FROM testTable WHERE rawLongColumn BETWEEN 1000 AND 100000",
+      "SELECT stringColumn, SUM(rawDoubleColumn) FROM testTable GROUP BY stringColumn ORDER BY SUM(rawDoubleColumn) "
+          + "DESC LIMIT 100",
+      "SELECT intColumn, MAX(rawLongColumn) FROM testTable WHERE stringColumn IN ('s1', 's5') GROUP BY intColumn "
+          + "ORDER BY intColumn LIMIT 50",
+      "SELECT intColumn, stringColumn, rawLongColumn, rawDoubleColumn FROM testTable ORDER BY rawLongColumn, "
+          + "intColumn LIMIT 20",
+      "SELECT * FROM testTable WHERE intColumn < 10 LIMIT 100"
+  };
+
+  private BlockCache _blockCache;
+  private ImmutableSegment _localSegment;
+  private ImmutableSegment _remoteSegment;
+  private IndexSegment _indexSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+
+    buildSegment();
+    File localSegmentDir = new File(LOCAL_INDEX_DIR, SEGMENT_NAME);
+    _localSegment = ImmutableSegmentLoader.load(localSegmentDir, ReadMode.mmap);
+
+    BlockCache.init(BLOCK_SIZE, 100L * BLOCK_SIZE, null, 0, 4);
+    _blockCache = BlockCache.getInstance();
+    File remoteSegmentDir = new File(REMOTE_INDEX_DIR, SEGMENT_NAME);
+    RemoteSegmentUtils.setUpRemoteSegment(localSegmentDir.toURI(), remoteSegmentDir);
+    _remoteSegment = ImmutableSegmentLoader.load(remoteSegmentDir, ReadMode.mmap);
+  }
+
+  private void buildSegment()
+      throws Exception {
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      HashMap<String, Object> valueMap = new HashMap<>();
+      valueMap.put(INT_COLUMN, RANDOM.nextInt(1000));
+      valueMap.put(STRING_COLUMN, "s" + RANDOM.nextInt(10));
+      valueMap.put(RAW_LONG_COLUMN, (long) RANDOM.nextInt(1_000_000));
+      valueMap.put(RAW_DOUBLE_COLUMN, RANDOM.nextDouble());
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(INT_COLUMN, DataType.INT).addSingleValueDimension(STRING_COLUMN, DataType.STRING)
+        .addMetric(RAW_LONG_COLUMN, DataType.LONG).addMetric(RAW_DOUBLE_COLUMN, DataType.DOUBLE).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(LOCAL_INDEX_DIR.getPath());
+    config.setTableName(RAW_TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    // Remote segment must be in V3 format
+    config.setSegmentVersion(SegmentVersion.v3);
+    config.setRawIndexCreationColumns(Arrays.asList(RAW_LONG_COLUMN, RAW_DOUBLE_COLUMN));
+    config.setInvertedIndexCreationColumns(Collections.singletonList(STRING_COLUMN));
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+  }
+
+  @Test
+  public void testQueries() {
+    assertTrue(RemoteSegmentUtils.isRemoteSegment(_remoteSegment.getSegmentMetadata().getIndexDir()));
+    assertFalse(RemoteSegmentUtils.isRemoteSegment(_localSegment.getSegmentMetadata().getIndexDir()));
+
+    for (String query : QUERIES) {
+      BrokerResponseNative expected = getBrokerResponse(_localSegment, query);
+      BrokerResponseNative actual = getBrokerResponse(_remoteSegment, query);
+      assertTrue(expected.getProcessingExceptions().isEmpty(), query);
+      assertTrue(actual.getProcessingExceptions().isEmpty(), query);
+      assertEquals(actual.getNumDocsScanned(), expected.getNumDocsScanned(), query);
+      assertEquals(actual.getNumEntriesScannedInFilter(), expected.getNumEntriesScannedInFilter(), query);
+      assertEquals(actual.getNumEntriesScannedPostFilter(), expected.getNumEntriesScannedPostFilter(), query);
+      assertEquals(actual.getResultTable().getDataSchema(), expected.getResultTable().getDataSchema(), query);
+      List<Object[]> expectedRows = expected.getResultTable().getRows();
+      List<Object[]> actualRows = actual.getResultTable().getRows();
+      assertFalse(expectedRows.isEmpty(), query);
+      assertEquals(actualRows.size(), expectedRows.size(), query);
+      for (int i = 0; i < expectedRows.size(); i++) {
+        assertEquals(actualRows.get(i), expectedRows.get(i), query);
+      }
+    }
+
+    // The index file should be read through the block cache
+    assertTrue(_blockCache.getNumMisses() > 0);
+  }
+
+  private BrokerResponseNative getBrokerResponse(ImmutableSegment segment, String query) {
+    _indexSegment = segment;
+    _segmentDataManagers =
+        Arrays.asList(new ImmutableSegmentDataManager(segment), new ImmutableSegmentDataManager(segment));
+    return getBrokerResponseForSqlQuery(query);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _localSegment.destroy();
+    _remoteSegment.destroy();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
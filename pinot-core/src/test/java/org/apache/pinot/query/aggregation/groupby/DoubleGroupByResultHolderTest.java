@@ -18,9 +18,12 @@
  */
 package org.apache.pinot.query.aggregation.groupby;
 
+import java.io.IOException;
 import java.util.Random;
+import org.apache.pinot.core.io.writer.impl.DirectBufferMemoryManager;
 import org.apache.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.OffHeapDoubleGroupByResultHolder;
 import org.testng.Assert;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
@@ -59,9 +62,17 @@ public class DoubleGroupByResultHolderTest {
    * - Asserts that the values returned by the result holder are as expected.
    */
   @Test
-  void testSetValueForKey() {
-    GroupByResultHolder resultHolder = new DoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE);
+  void testSetValueForKey()
+      throws IOException {
+    testSetValueForKey(new DoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE));
+    try (DirectBufferMemoryManager memoryManager = new DirectBufferMemoryManager()) {
+      testSetValueForKey(
+          new OffHeapDoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE, memoryManager,
+              "DoubleGroupByResultHolderTest"));
+    }
+  }
 
+  private void testSetValueForKey(GroupByResultHolder resultHolder) {
     for (int i = 0; i < INITIAL_CAPACITY; i++) {
       resultHolder.setValueForKey(i, _expected[i]);
     }
@@ -76,9 +87,20 @@ public class DoubleGroupByResultHolderTest {
    * - Fills the rest of the resultHolder, and ensures all values are returned as expected.
    */
   @Test
-  void testEnsureCapacity() {
-    GroupByResultHolder resultHolder = new DoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE);
+  void testEnsureCapacity()
+      throws IOException {
+    testEnsureCapacity(new DoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE));
+    try (DirectBufferMemoryManager memoryManager = new DirectBufferMemoryManager()) {
+      testEnsureCapacity(
+          new OffHeapDoubleGroupByResultHolder(INITIAL_CAPACITY, MAX_CAPACITY, DEFAULT_VALUE, memoryManager,
+              "DoubleGroupByResultHolderTest"));
+      // Result buffers should be allocated through the memory manager
+      Assert.assertEquals(memoryManager.getTotalAllocatedBytes(),
+          (long) (INITIAL_CAPACITY + MAX_CAPACITY) * Double.BYTES);
+    }
+  }
 
+  private void testEnsureCapacity(GroupByResultHolder resultHolder) {
     for (int i = 0; i < INITIAL_CAPACITY; i++) {
       resultHolder.setValueForKey(i, _expected[i]);
     }
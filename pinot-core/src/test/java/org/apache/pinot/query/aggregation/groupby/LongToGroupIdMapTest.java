@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.aggregation.groupby;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.util.Random;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.aggregation.groupby.utils.LongToGroupIdMap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class LongToGroupIdMapTest {
+  private static final int NUM_KEYS = 100_000;
+  private static final int NUM_UNIQUE_KEYS = 5_000;
+  private static final int BATCH_SIZE = 1_000;
+
+  private final long _randomSeed = System.currentTimeMillis();
+  private final Random _random = new Random(_randomSeed);
+  private final String _errorMessage = "Random seed is: " + _randomSeed;
+
+  @Test
+  public void testGetGroupIds() {
+    long[] uniqueKeys = new long[NUM_UNIQUE_KEYS];
+    for (int i = 0; i < NUM_UNIQUE_KEYS; i++) {
+      uniqueKeys[i] = _random.nextLong();
+    }
+    long[] keys = new long[NUM_KEYS];
+    for (int i = 0; i < NUM_KEYS; i++) {
+      keys[i] = uniqueKeys[_random.nextInt(NUM_UNIQUE_KEYS)];
+    }
+
+    // Start with a small map to test the resizing
+    LongToGroupIdMap singleKeyMap = new LongToGroupIdMap(1, Integer.MAX_VALUE);
+    LongToGroupIdMap batchMap = new LongToGroupIdMap(1, Integer.MAX_VALUE);
+    Long2IntOpenHashMap expectedMap = new Long2IntOpenHashMap();
+    expectedMap.defaultReturnValue(GroupKeyGenerator.INVALID_ID);
+    int[] groupIds = new int[BATCH_SIZE];
+    for (int i = 0; i < NUM_KEYS; i += BATCH_SIZE) {
+      long[] batch = new long[BATCH_SIZE];
+      System.arraycopy(keys, i, batch, 0, BATCH_SIZE);
+      batchMap.getGroupIds(batch, BATCH_SIZE, groupIds);
+      for (int j = 0; j < BATCH_SIZE; j++) {
+        long key = batch[j];
+        int expectedGroupId = expectedMap.get(key);
+        if (expectedGroupId == GroupKeyGenerator.INVALID_ID) {
+          expectedGroupId = expectedMap.size();
+          expectedMap.put(key, expectedGroupId);
+        }
+        assertEquals(singleKeyMap.getGroupId(key), expectedGroupId, _errorMessage);
+        assertEquals(groupIds[j], expectedGroupId, _errorMessage);
+      }
+    }
+
+    int numGroups = expectedMap.size();
+    assertEquals(singleKeyMap.getNumGroups(), numGroups, _errorMessage);
+    assertEquals(batchMap.getNumGroups(), numGroups, _errorMessage);
+    for (long key : uniqueKeys) {
+      if (expectedMap.containsKey(key)) {
+        int groupId = expectedMap.get(key);
+        assertEquals(singleKeyMap.getKey(groupId), key, _errorMessage);
+        assertEquals(batchMap.getKey(groupId), key, _errorMessage);
+      }
+    }
+  }
+
+  @Test
+  public void testMaxNumGroups() {
+    int maxNumGroups = 10;
+    LongToGroupIdMap map = new LongToGroupIdMap(maxNumGroups, maxNumGroups);
+    long[] keys = new long[2 * maxNumGroups];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = i;
+    }
+    int[] groupIds = new int[keys.length];
+    map.getGroupIds(keys, keys.length, groupIds);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(groupIds[i], i < maxNumGroups ? i : GroupKeyGenerator.INVALID_ID);
+    }
+    assertEquals(map.getNumGroups(), maxNumGroups);
+
+    // Existing keys should still be mapped after reaching the limit
+    assertEquals(map.getGroupId(3L), 3);
+    assertEquals(map.getGroupId(2L * maxNumGroups), GroupKeyGenerator.INVALID_ID);
+    assertEquals(map.getNumGroups(), maxNumGroups);
+  }
+}
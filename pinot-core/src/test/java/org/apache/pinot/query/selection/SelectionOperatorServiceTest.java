@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Random;
 import org.apache.pinot.common.request.Selection;
 import org.apache.pinot.common.request.SelectionSort;
 import org.apache.pinot.common.request.transform.TransformExpressionTree;
@@ -35,6 +36,7 @@ import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.query.selection.SelectionOperatorService;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.query.selection.SelectionTopNHeap;
 import org.apache.pinot.spi.utils.BytesUtils;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -266,4 +268,127 @@ public class SelectionOperatorServiceTest {
     assertTrue(Arrays.deepEquals(resultRows.get(0), expectedFormattedRow1));
     assertTrue(Arrays.deepEquals(resultRows.get(1), expectedFormattedRow2));
   }
+
+  @Test
+  public void testCompatibleRowsReduceWithOrdering()
+      throws Exception {
+    DataTable dataTable1 = SelectionOperatorUtils.getDataTableFromRows(Arrays.asList(_row1, _row2), _dataSchema);
+    DataTable dataTable2 = SelectionOperatorUtils
+        .getDataTableFromRows(Arrays.asList(_compatibleRow1, _compatibleRow2), _compatibleDataSchema);
+    SelectionOperatorService selectionOperatorService =
+        new SelectionOperatorService(_selectionOrderBy, _upgradedDataSchema);
+    selectionOperatorService.reduceWithOrdering(Arrays.asList(dataTable1, dataTable2));
+    assertEquals(selectionOperatorService.getRows().size(), 3);
+    SelectionResults selectionResults = selectionOperatorService.renderSelectionResultsWithOrdering(true);
+    List<Serializable[]> resultRows = selectionResults.getRows();
+    assertEquals(resultRows.size(), 2);
+    Serializable[] expectedRow1 =
+        {10L, 11.0, 12.0, 13.0, "14", new long[]{15L}, new double[]{16.0}, new double[]{17.0}, new double[]{18.0}, new String[]{"19"}, "3040"};
+    Serializable[] expectedRow2 =
+        {1L, 2.0, 3.0, 4.0, "5", new long[]{6L}, new double[]{7.0}, new double[]{8.0}, new double[]{9.0}, new String[]{"10"}, "5060"};
+    assertTrue(Arrays.deepEquals(resultRows.get(0), expectedRow1));
+    assertTrue(Arrays.deepEquals(resultRows.get(1), expectedRow2));
+  }
+
+  @Test
+  public void testCompatibleRowsReduceWithOrderingSortedRows()
+      throws Exception {
+    // Rows sorted by int DESC on the servers
+    DataTable dataTable1 = SelectionOperatorUtils.getDataTableFromRows(Arrays.asList(_row2, _row1), _dataSchema);
+    dataTable1.getMetadata().put(DataTable.SORTED_ROWS_METADATA_KEY, "true");
+    DataTable dataTable2 = SelectionOperatorUtils
+        .getDataTableFromRows(Arrays.asList(_compatibleRow2, _compatibleRow1), _compatibleDataSchema);
+    dataTable2.getMetadata().put(DataTable.SORTED_ROWS_METADATA_KEY, "true");
+    SelectionOperatorService selectionOperatorService =
+        new SelectionOperatorService(_selectionOrderBy, _upgradedDataSchema);
+    selectionOperatorService.reduceWithOrdering(Arrays.asList(dataTable1, dataTable2));
+    SelectionResults selectionResults = selectionOperatorService.renderSelectionResultsWithOrdering(true);
+    List<Serializable[]> resultRows = selectionResults.getRows();
+    assertEquals(resultRows.size(), 2);
+    Serializable[] expectedRow1 =
+        {10L, 11.0, 12.0, 13.0, "14", new long[]{15L}, new double[]{16.0}, new double[]{17.0}, new double[]{18.0}, new String[]{"19"}, "3040"};
+    Serializable[] expectedRow2 =
+        {1L, 2.0, 3.0, 4.0, "5", new long[]{6L}, new double[]{7.0}, new double[]{8.0}, new double[]{9.0}, new String[]{"10"}, "5060"};
+    assertTrue(Arrays.deepEquals(resultRows.get(0), expectedRow1));
+    assertTrue(Arrays.deepEquals(resultRows.get(1), expectedRow2));
+  }
+
+  @Test
+  public void testTopNHeap()
+      throws Exception {
+    // SELECT * FROM table ORDER BY int ASC, string DESC LIMIT 50
+    DataSchema dataSchema = new DataSchema(new String[]{"int", "string", "long"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING,
+            DataSchema.ColumnDataType.LONG});
+    SelectionSort selectionSort1 = new SelectionSort();
+    selectionSort1.setColumn("int");
+    selectionSort1.setIsAsc(true);
+    SelectionSort selectionSort2 = new SelectionSort();
+    selectionSort2.setColumn("string");
+    selectionSort2.setIsAsc(false);
+    List<SelectionSort> sortSequence = Arrays.asList(selectionSort1, selectionSort2);
+    int numRowsToKeep = 50;
+
+    Random random = new Random();
+    List<Object[]> allRows = new ArrayList<>();
+    List<DataTable> dataTables = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      List<Object[]> rows = new ArrayList<>();
+      for (int j = 0; j < 1000; j++) {
+        rows.add(new Object[]{random.nextInt(100), Integer.toString(random.nextInt(10)), random.nextLong()});
+      }
+      allRows.addAll(rows);
+      dataTables.add(SelectionOperatorUtils.getDataTableFromRows(rows, dataSchema));
+    }
+
+    SelectionTopNHeap topNHeap = new SelectionTopNHeap(sortSequence, dataSchema, numRowsToKeep);
+    for (DataTable dataTable : dataTables) {
+      topNHeap.addDataTable(dataTable);
+    }
+    assertEquals(topNHeap.size(), numRowsToKeep);
+
+    // Compare the order-by values with the top rows from a full sort (ties can be resolved differently)
+    allRows.sort((o1, o2) -> {
+      int result = Integer.compare((int) o1[0], (int) o2[0]);
+      return result != 0 ? result : ((String) o2[1]).compareTo((String) o1[1]);
+    });
+    List<Object[]> topRows = topNHeap.getRows();
+    topRows.sort((o1, o2) -> {
+      int result = Integer.compare((int) o1[0], (int) o2[0]);
+      return result != 0 ? result : ((String) o2[1]).compareTo((String) o1[1]);
+    });
+    for (int i = 0; i < numRowsToKeep; i++) {
+      assertEquals(topRows.get(i)[0], allRows.get(i)[0]);
+      assertEquals(topRows.get(i)[1], allRows.get(i)[1]);
+    }
+  }
+
+  @Test
+  public void testTopNHeapDocIds() {
+    // SELECT * FROM table ORDER BY long DESC LIMIT 10 on the dictionary ids (sorted dictionary)
+    DataSchema keyDataSchema =
+        new DataSchema(new String[]{"long"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+    SelectionSort selectionSort = new SelectionSort();
+    selectionSort.setColumn("long");
+    selectionSort.setIsAsc(false);
+    SelectionTopNHeap topNHeap = new SelectionTopNHeap(Collections.singletonList(selectionSort), keyDataSchema, 10);
+
+    // Add 2 blocks with dictionary id = document id % 100
+    int numDocsPerBlock = 1000;
+    for (int i = 0; i < 2; i++) {
+      int[] docIds = new int[numDocsPerBlock];
+      int[] dictIds = new int[numDocsPerBlock];
+      for (int j = 0; j < numDocsPerBlock; j++) {
+        int docId = i * numDocsPerBlock + j;
+        docIds[j] = docId;
+        dictIds[j] = docId % 100;
+      }
+      topNHeap.addDocIds(new Object[]{dictIds}, docIds, numDocsPerBlock);
+    }
+    assertEquals(topNHeap.size(), 10);
+    for (int docId : topNHeap.getDocIds()) {
+      assertEquals(docId % 100, 99);
+    }
+  }
 }
+
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.aggregation.groupby.utils.LongToGroupIdMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for generating the group ids from the dictionary ids of 2-5 single-value group-by columns, comparing the
+ * per-doc key generation with the fastutil hash maps (the previous INT_MAP_BASED and LONG_MAP_BASED holders in
+ * {@code DictionaryBasedGroupKeyGenerator}) against the bulk key generation with {@link LongToGroupIdMap}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDictionaryBasedGroupKeyGeneration {
+  private static final int NUM_BLOCKS = 100;
+  private static final int NUM_DOCS_PER_BLOCK = DocIdSetPlanNode.MAX_DOC_PER_CALL;
+  private static final int COLUMN_CARDINALITY = 50;
+  private static final int NUM_UNIQUE_ROWS = 20_000;
+  private static final int NUM_GROUPS_LIMIT = 100_000;
+
+  @Param({"2", "3", "4", "5"})
+  private int _numColumns;
+
+  private int[] _cardinalities;
+  // Dictionary ids of each block, where the second dimension is the index of the group-by column
+  private int[][][] _dictIds;
+  private final int[] _groupIds = new int[NUM_DOCS_PER_BLOCK];
+  private final long[] _rawKeys = new long[NUM_DOCS_PER_BLOCK];
+
+  @Setup
+  public void setUp() {
+    Random random = new Random();
+
+    _cardinalities = new int[_numColumns];
+    for (int i = 0; i < _numColumns; i++) {
+      _cardinalities[i] = COLUMN_CARDINALITY;
+    }
+
+    int[][] uniqueRows = new int[NUM_UNIQUE_ROWS][_numColumns];
+    for (int[] uniqueRow : uniqueRows) {
+      for (int i = 0; i < _numColumns; i++) {
+        uniqueRow[i] = random.nextInt(COLUMN_CARDINALITY);
+      }
+    }
+
+    _dictIds = new int[NUM_BLOCKS][_numColumns][NUM_DOCS_PER_BLOCK];
+    for (int[][] block : _dictIds) {
+      for (int i = 0; i < NUM_DOCS_PER_BLOCK; i++) {
+        int[] row = uniqueRows[random.nextInt(NUM_UNIQUE_ROWS)];
+        for (int j = 0; j < _numColumns; j++) {
+          block[j][i] = row[j];
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int int2IntOpenHashMap() {
+    Int2IntOpenHashMap rawKeyToGroupIdMap = new Int2IntOpenHashMap(NUM_GROUPS_LIMIT);
+    rawKeyToGroupIdMap.defaultReturnValue(GroupKeyGenerator.INVALID_ID);
+    int numGroups = 0;
+    for (int[][] dictIds : _dictIds) {
+      for (int i = 0; i < NUM_DOCS_PER_BLOCK; i++) {
+        int rawKey = 0;
+        for (int j = _numColumns - 1; j >= 0; j--) {
+          rawKey = rawKey * _cardinalities[j] + dictIds[j][i];
+        }
+        int groupId = rawKeyToGroupIdMap.get(rawKey);
+        if (groupId == GroupKeyGenerator.INVALID_ID && numGroups < NUM_GROUPS_LIMIT) {
+          groupId = numGroups;
+          rawKeyToGroupIdMap.put(rawKey, numGroups++);
+        }
+        _groupIds[i] = groupId;
+      }
+    }
+    return numGroups;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int long2IntOpenHashMap() {
+    Long2IntOpenHashMap rawKeyToGroupIdMap = new Long2IntOpenHashMap(NUM_GROUPS_LIMIT);
+    rawKeyToGroupIdMap.defaultReturnValue(GroupKeyGenerator.INVALID_ID);
+    int numGroups = 0;
+    for (int[][] dictIds : _dictIds) {
+      for (int i = 0; i < NUM_DOCS_PER_BLOCK; i++) {
+        long rawKey = 0L;
+        for (int j = _numColumns - 1; j >= 0; j--) {
+          rawKey = rawKey * _cardinalities[j] + dictIds[j][i];
+        }
+        int groupId = rawKeyToGroupIdMap.get(rawKey);
+        if (groupId == GroupKeyGenerator.INVALID_ID && numGroups < NUM_GROUPS_LIMIT) {
+          groupId = numGroups;
+          rawKeyToGroupIdMap.put(rawKey, numGroups++);
+        }
+        _groupIds[i] = groupId;
+      }
+    }
+    return numGroups;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int longToGroupIdMapBulk() {
+    LongToGroupIdMap rawKeyToGroupIdMap = new LongToGroupIdMap(NUM_GROUPS_LIMIT, NUM_GROUPS_LIMIT);
+    int lastIndex = _numColumns - 1;
+    for (int[][] dictIds : _dictIds) {
+      int[] lastDictIds = dictIds[lastIndex];
+      for (int i = 0; i < NUM_DOCS_PER_BLOCK; i++) {
+        _rawKeys[i] = lastDictIds[i];
+      }
+      for (int j = lastIndex - 1; j >= 0; j--) {
+        long cardinality = _cardinalities[j];
+        int[] columnDictIds = dictIds[j];
+        for (int i = 0; i < NUM_DOCS_PER_BLOCK; i++) {
+          _rawKeys[i] = _rawKeys[i] * cardinality + columnDictIds[i];
+        }
+      }
+      rawKeyToGroupIdMap.getGroupIds(_rawKeys, NUM_DOCS_PER_BLOCK, _groupIds);
+    }
+    return rawKeyToGroupIdMap.getNumGroups();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt =
+        new OptionsBuilder().include(BenchmarkDictionaryBasedGroupKeyGeneration.class.getSimpleName())
+            .warmupTime(TimeValue.seconds(5)).warmupIterations(2).measurementTime(TimeValue.seconds(10))
+            .measurementIterations(5).forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.pinot.common.request.SelectionSort;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.SimpleIndexedTable;
 import org.apache.pinot.core.util.trace.TraceRunnable;
@@ -131,12 +132,29 @@ public class BenchmarkIndexedTable {
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
   public void concurrentIndexedTable() throws InterruptedException, ExecutionException, TimeoutException {
 
-    int numSegments = 10;
-
     // make 1 concurrent table
     IndexedTable concurrentIndexedTable =
         new ConcurrentIndexedTable(_dataSchema, _aggregationInfos, _orderBy, CAPACITY);
 
+    upsertConcurrently(concurrentIndexedTable);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void partitionedIndexedTable() throws InterruptedException, ExecutionException, TimeoutException {
+
+    // make 1 partitioned table
+    IndexedTable partitionedIndexedTable =
+        new PartitionedIndexedTable(_dataSchema, _aggregationInfos, _orderBy, CAPACITY);
+
+    upsertConcurrently(partitionedIndexedTable);
+  }
+
+  private void upsertConcurrently(IndexedTable concurrentIndexedTable) throws InterruptedException {
+
+    int numSegments = 10;
+
     // 10 parallel threads putting 10k records into the table
 
     CountDownLatch operatorLatch = new CountDownLatch(numSegments);
@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.aggregation.function.DistinctCountHLLAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.PercentileEstAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDigest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the serialization and the merge of the HyperLogLog and QuantileDigest, comparing the legacy formats
+ * with the compact formats used in the DataTable, and the HyperLogLog merge with and without de-serialization.
+ * <p>Each operation is performed on {@link #NUM_OBJECTS} objects with the given number of values, which simulates a
+ * group-by query with {@link #NUM_OBJECTS} groups.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkObjectSerDe {
+  private static final int NUM_OBJECTS = 1000;
+  private static final Random RANDOM = new Random();
+
+  @Param({"10", "100", "10000"})
+  private int _numValues;
+
+  private HyperLogLog[] _hyperLogLogs;
+  private byte[][] _denseHyperLogLogBytes;
+  private byte[][] _sparseHyperLogLogBytes;
+  private QuantileDigest[] _quantileDigests;
+  private byte[][] _legacyQuantileDigestBytes;
+  private byte[][] _compactQuantileDigestBytes;
+
+  @Setup
+  public void setUp() {
+    _hyperLogLogs = new HyperLogLog[NUM_OBJECTS];
+    _denseHyperLogLogBytes = new byte[NUM_OBJECTS][];
+    _sparseHyperLogLogBytes = new byte[NUM_OBJECTS][];
+    _quantileDigests = new QuantileDigest[NUM_OBJECTS];
+    _legacyQuantileDigestBytes = new byte[NUM_OBJECTS][];
+    _compactQuantileDigestBytes = new byte[NUM_OBJECTS][];
+    long denseHyperLogLogSize = 0;
+    long sparseHyperLogLogSize = 0;
+    long legacyQuantileDigestSize = 0;
+    long compactQuantileDigestSize = 0;
+    for (int i = 0; i < NUM_OBJECTS; i++) {
+      HyperLogLog hyperLogLog = new HyperLogLog(DistinctCountHLLAggregationFunction.DEFAULT_LOG2M);
+      QuantileDigest quantileDigest = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+      for (int j = 0; j < _numValues; j++) {
+        int value = RANDOM.nextInt(1_000_000);
+        hyperLogLog.offer(value);
+        quantileDigest.add(value);
+      }
+      _hyperLogLogs[i] = hyperLogLog;
+      _denseHyperLogLogBytes[i] = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog);
+      _sparseHyperLogLogBytes[i] = ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog);
+      _quantileDigests[i] = quantileDigest;
+      _legacyQuantileDigestBytes[i] = ObjectSerDeUtils.QUANTILE_DIGEST_SER_DE.serialize(quantileDigest);
+      _compactQuantileDigestBytes[i] = ObjectSerDeUtils.COMPACT_QUANTILE_DIGEST_SER_DE.serialize(quantileDigest);
+      denseHyperLogLogSize += _denseHyperLogLogBytes[i].length;
+      sparseHyperLogLogSize += _sparseHyperLogLogBytes[i].length;
+      legacyQuantileDigestSize += _legacyQuantileDigestBytes[i].length;
+      compactQuantileDigestSize += _compactQuantileDigestBytes[i].length;
+    }
+    System.out.println(String
+        .format("Serialized size for %d values - HyperLogLog dense: %d, sparse: %d; QuantileDigest legacy: %d, "
+                + "compact: %d", _numValues, denseHyperLogLogSize, sparseHyperLogLogSize, legacyQuantileDigestSize,
+            compactQuantileDigestSize));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int serializeDenseHyperLogLog() {
+    int ret = 0;
+    for (HyperLogLog hyperLogLog : _hyperLogLogs) {
+      ret += ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog).length;
+    }
+    return ret;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int serializeSparseHyperLogLog() {
+    int ret = 0;
+    for (HyperLogLog hyperLogLog : _hyperLogLogs) {
+      ret += ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog).length;
+    }
+    return ret;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long deserializeAndMergeDenseHyperLogLog()
+      throws Exception {
+    HyperLogLog accumulator = new HyperLogLog(DistinctCountHLLAggregationFunction.DEFAULT_LOG2M);
+    for (byte[] bytes : _denseHyperLogLogBytes) {
+      accumulator.addAll(ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize(bytes));
+    }
+    return accumulator.cardinality();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long deserializeAndMergeSparseHyperLogLog()
+      throws Exception {
+    HyperLogLog accumulator = new HyperLogLog(DistinctCountHLLAggregationFunction.DEFAULT_LOG2M);
+    for (byte[] bytes : _sparseHyperLogLogBytes) {
+      accumulator.addAll(ObjectSerDeUtils.SPARSE_HYPER_LOG_LOG_SER_DE.deserialize(bytes));
+    }
+    return accumulator.cardinality();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long mergeDenseHyperLogLogInPlace() {
+    HyperLogLog accumulator = new HyperLogLog(DistinctCountHLLAggregationFunction.DEFAULT_LOG2M);
+    for (byte[] bytes : _denseHyperLogLogBytes) {
+      ObjectSerDeUtils.mergeHyperLogLog(accumulator, bytes);
+    }
+    return accumulator.cardinality();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long mergeSparseHyperLogLogInPlace() {
+    HyperLogLog accumulator = new HyperLogLog(DistinctCountHLLAggregationFunction.DEFAULT_LOG2M);
+    for (byte[] bytes : _sparseHyperLogLogBytes) {
+      ObjectSerDeUtils.mergeHyperLogLog(accumulator, bytes);
+    }
+    return accumulator.cardinality();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int serializeLegacyQuantileDigest() {
+    int ret = 0;
+    for (QuantileDigest quantileDigest : _quantileDigests) {
+      ret += ObjectSerDeUtils.QUANTILE_DIGEST_SER_DE.serialize(quantileDigest).length;
+    }
+    return ret;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int serializeCompactQuantileDigest() {
+    int ret = 0;
+    for (QuantileDigest quantileDigest : _quantileDigests) {
+      ret += ObjectSerDeUtils.COMPACT_QUANTILE_DIGEST_SER_DE.serialize(quantileDigest).length;
+    }
+    return ret;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long deserializeAndMergeLegacyQuantileDigest() {
+    QuantileDigest accumulator = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+    for (byte[] bytes : _legacyQuantileDigestBytes) {
+      accumulator.merge(ObjectSerDeUtils.QUANTILE_DIGEST_SER_DE.deserialize(bytes));
+    }
+    return accumulator.getQuantile(0.5);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long deserializeAndMergeCompactQuantileDigest() {
+    QuantileDigest accumulator = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+    for (byte[] bytes : _compactQuantileDigestBytes) {
+      accumulator.merge(ObjectSerDeUtils.COMPACT_QUANTILE_DIGEST_SER_DE.deserialize(bytes));
+    }
+    return accumulator.getQuantile(0.5);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    Options opt =
+        new OptionsBuilder().include(BenchmarkObjectSerDe.class.getSimpleName()).warmupTime(TimeValue.seconds(5))
+            .warmupIterations(2).measurementTime(TimeValue.seconds(5)).measurementIterations(3).forks(1).build();
+
+    new Runner(opt).run();
+  }
+}
@@ -93,6 +93,9 @@ public class SegmentGenerationTaskRunner implements Serializable {
     segmentGeneratorConfig.setReaderConfig(recordReaderConfig);
     segmentGeneratorConfig.setRecordReaderPath(_taskSpec.getRecordReaderSpec().getClassName());
     segmentGeneratorConfig.setInputFilePath(_taskSpec.getInputFilePath());
+    if (_taskSpec.getNumIndexCreationThreads() > 1) {
+      segmentGeneratorConfig.setNumIndexCreationThreads(_taskSpec.getNumIndexCreationThreads());
+    }
 
     //build segment
     SegmentIndexCreationDriverImpl segmentIndexCreationDriver = new SegmentIndexCreationDriverImpl();
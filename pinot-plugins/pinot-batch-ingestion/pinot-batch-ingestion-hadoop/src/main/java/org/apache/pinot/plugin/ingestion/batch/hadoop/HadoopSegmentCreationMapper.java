@@ -138,6 +138,7 @@ public class HadoopSegmentCreationMapper extends Mapper<LongWritable, Text, Long
           .setTableConfig(SegmentGenerationUtils.getTableConfig(_spec.getTableSpec().getTableConfigURI()).toJsonNode());
       taskSpec.setSequenceId(idx);
       taskSpec.setSegmentNameGeneratorSpec(_spec.getSegmentNameGeneratorSpec());
+      taskSpec.setNumIndexCreationThreads(_spec.getNumIndexCreationThreads());
 
       // Start a thread that reports progress every minute during segment generation to prevent job getting killed
       Thread progressReporterThread = new Thread(getProgressReporter(context));
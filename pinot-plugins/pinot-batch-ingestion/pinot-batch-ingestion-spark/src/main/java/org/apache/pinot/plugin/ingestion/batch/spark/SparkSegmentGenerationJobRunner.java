@@ -268,6 +268,7 @@ public class SparkSegmentGenerationJobRunner implements IngestionJobRunner, Seri
             SegmentGenerationUtils.getTableConfig(_spec.getTableSpec().getTableConfigURI()).toJsonNode());
         taskSpec.setSequenceId(idx);
         taskSpec.setSegmentNameGeneratorSpec(_spec.getSegmentNameGeneratorSpec());
+        taskSpec.setNumIndexCreationThreads(_spec.getNumIndexCreationThreads());
 
         SegmentGenerationTaskRunner taskRunner = new SegmentGenerationTaskRunner(taskSpec);
         String segmentName = taskRunner.run();
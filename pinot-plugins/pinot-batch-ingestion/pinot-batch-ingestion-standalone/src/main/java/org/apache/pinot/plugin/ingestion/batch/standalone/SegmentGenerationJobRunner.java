@@ -184,6 +184,7 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
         taskSpec.setTableConfig(tableConfig.toJsonNode());
         taskSpec.setSequenceId(i);
         taskSpec.setSegmentNameGeneratorSpec(_spec.getSegmentNameGeneratorSpec());
+        taskSpec.setNumIndexCreationThreads(_spec.getNumIndexCreationThreads());
 
         //invoke segmentGenerationTask
         SegmentGenerationTaskRunner taskRunner = new SegmentGenerationTaskRunner(taskSpec);
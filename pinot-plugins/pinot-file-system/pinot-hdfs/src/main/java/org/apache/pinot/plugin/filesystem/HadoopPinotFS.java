@@ -21,6 +21,7 @@ package org.apache.pinot.plugin.filesystem;
 
 import com.google.common.base.Strings;
 import org.apache.commons.configuration.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileUtil;
@@ -234,6 +235,19 @@ public class HadoopPinotFS extends PinotFS {
     return _hadoopFS.open(path);
   }
 
+  @Override
+  public InputStream open(URI uri, long offset, long length)
+      throws IOException {
+    FSDataInputStream inputStream = _hadoopFS.open(new Path(uri));
+    try {
+      inputStream.seek(offset);
+    } catch (IOException e) {
+      inputStream.close();
+      throw e;
+    }
+    return inputStream;
+  }
+
   private void authenticate(org.apache.hadoop.conf.Configuration hadoopConf,
       org.apache.commons.configuration.Configuration configs) {
     String principal = configs.getString(PRINCIPAL);
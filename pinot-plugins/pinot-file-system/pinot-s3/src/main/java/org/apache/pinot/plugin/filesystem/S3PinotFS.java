@@ -508,6 +508,19 @@ public class S3PinotFS extends PinotFS {
     }
   }
 
+  @Override
+  public InputStream open(URI uri, long offset, long length)
+      throws IOException {
+    if (length <= 0) {
+      return open(uri);
+    }
+    String path = sanitizePath(uri.getPath());
+    GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(uri.getHost()).key(path)
+        .range("bytes=" + offset + "-" + (offset + length - 1)).build();
+    ResponseBytes responseBytes = _s3Client.getObjectAsBytes(getObjectRequest);
+    return responseBytes.asInputStream();
+  }
+
   @Override
   public void close()
       throws IOException {
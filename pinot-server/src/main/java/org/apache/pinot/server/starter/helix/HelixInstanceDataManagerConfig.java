@@ -66,6 +66,16 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // response times to suffer.
   private static final String MAX_PARALLEL_SEGMENT_BUILDS = "realtime.max.parallel.segment.builds";
 
+  // Key of the max size in bytes of the cache for the per-segment query results on immutable segments.
+  // A value of <= 0 disables the cache.
+  private static final String SEGMENT_RESULT_CACHE_MAX_SIZE_IN_BYTES = "segment.result.cache.max.size.in.bytes";
+
+  // Key of whether to load the column indexes of immutable segments lazily when they are first accessed.
+  private static final String LAZY_LOAD_INDEXES = "segment.index.lazy.load";
+  // Key of the idle time in milliseconds after which the lazily loaded column indexes are unloaded.
+  // A value of <= 0 keeps the column indexes loaded once they are accessed.
+  private static final String LAZY_INDEX_IDLE_TIMEOUT_MS = "segment.index.lazy.idle.timeout.ms";
+
   // Key of whether to enable split commit
   private static final String ENABLE_SPLIT_COMMIT = "enable.split.commit";
   // Key of whether to enable split commit end with segment metadata files.
@@ -193,6 +203,21 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
 
+  @Override
+  public long getSegmentResultCacheMaxSizeInBytes() {
+    return _instanceDataManagerConfiguration.getLong(SEGMENT_RESULT_CACHE_MAX_SIZE_IN_BYTES, 0L);
+  }
+
+  @Override
+  public boolean isLazyLoadIndexes() {
+    return _instanceDataManagerConfiguration.getBoolean(LAZY_LOAD_INDEXES, false);
+  }
+
+  @Override
+  public long getLazyIndexIdleTimeoutMs() {
+    return _instanceDataManagerConfiguration.getLong(LAZY_INDEX_IDLE_TIMEOUT_MS, 0L);
+  }
+
   @Override
   public String toString() {
     String configString = "";
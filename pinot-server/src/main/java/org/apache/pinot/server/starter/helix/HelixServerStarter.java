@@ -29,6 +29,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationUtils;
@@ -49,6 +50,7 @@ import org.apache.helix.model.builder.HelixConfigScopeBuilder;
 import org.apache.helix.participant.statemachine.StateModelFactory;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.CommonConstants;
@@ -148,6 +150,25 @@ public class HelixServerStarter {
     // Start the server instance as a pre-connect callback so that it starts after connecting to the ZK in order to
     // access the property store, but before receiving state transitions
     _helixManager.addPreConnectCallback(_serverInstance::start);
+    // Preload the local segments in parallel before receiving state transitions so that the OFFLINE -> ONLINE state
+    // transitions for them become no-ops. Pre-connect callbacks are also invoked on ZK reconnect, so only preload once.
+    // The preload needs the ZK connection to read the ideal states, so it runs in the pre-connect callback, and is
+    // bounded by a timeout to not block the connection for too long.
+    int segmentPreloadParallelism = _serverConf
+        .getInt(CONFIG_OF_STARTUP_SEGMENT_PRELOAD_PARALLELISM, DEFAULT_STARTUP_SEGMENT_PRELOAD_PARALLELISM);
+    if (segmentPreloadParallelism > 0) {
+      long segmentPreloadTimeoutMs = _serverConf
+          .getLong(CONFIG_OF_STARTUP_SEGMENT_PRELOAD_TIMEOUT_MS, DEFAULT_STARTUP_SEGMENT_PRELOAD_TIMEOUT_MS);
+      SegmentPreloader segmentPreloader =
+          new SegmentPreloader(_instanceId, _helixManager, fetcherAndLoader, segmentPreloadParallelism,
+              segmentPreloadTimeoutMs);
+      AtomicBoolean segmentsPreloaded = new AtomicBoolean();
+      _helixManager.addPreConnectCallback(() -> {
+        if (!segmentsPreloaded.getAndSet(true)) {
+          segmentPreloader.preload();
+        }
+      });
+    }
 
     LOGGER.info("Connecting Helix manager");
     _helixManager.connect();
@@ -194,7 +215,9 @@ public class HelixServerStarter {
       startupServiceStatusCheck(endTimeMs);
     }
     setShuttingDownStatus(false);
-    LOGGER.info("Pinot server ready");
+    long timeToReadyMs = System.currentTimeMillis() - startTimeMs;
+    serverMetrics.setValueOfGlobalGauge(ServerGauge.STARTUP_TIME_TO_READY_MS, timeToReadyMs);
+    LOGGER.info("Pinot server ready in {}ms", timeToReadyMs);
 
     // Create metrics for mmap stuff
     serverMetrics.addCallbackGauge("memory.directBufferCount", PinotDataBuffer::getDirectBufferCount);
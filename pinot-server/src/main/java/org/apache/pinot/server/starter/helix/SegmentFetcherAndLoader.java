@@ -20,6 +20,7 @@ package org.apache.pinot.server.starter.helix;
 
 import com.google.common.base.Preconditions;
 import java.io.File;
+import java.net.URI;
 import java.util.concurrent.locks.Lock;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
@@ -35,6 +36,8 @@ import org.apache.pinot.core.segment.index.loader.LoaderUtils;
 import org.apache.pinot.core.segment.index.loader.V3RemoveIndexException;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.memory.BlockCache;
+import org.apache.pinot.core.segment.store.RemoteSegmentUtils;
 import org.apache.pinot.spi.crypt.PinotCrypter;
 import org.apache.pinot.spi.crypt.PinotCrypterFactory;
 import org.apache.pinot.spi.filesystem.PinotFSFactory;
@@ -49,6 +52,10 @@ public class SegmentFetcherAndLoader {
   private static final String ENCODED_SUFFIX = ".enc";
 
   private final InstanceDataManager _instanceDataManager;
+  private final boolean _streamDownloadUntar;
+  // Base URI of the untarred segments in the deep store, null if serving segments remotely is disabled
+  private final String _remoteSegmentDirUri;
+  private final long _remoteSegmentMinAgeMs;
 
   public SegmentFetcherAndLoader(Configuration config, InstanceDataManager instanceDataManager)
       throws Exception {
@@ -62,6 +69,31 @@ public class SegmentFetcherAndLoader {
     PinotFSFactory.init(pinotFSConfig);
     SegmentFetcherFactory.init(segmentFetcherFactoryConfig);
     PinotCrypterFactory.init(pinotCrypterConfig);
+
+    _streamDownloadUntar = config.getBoolean(CommonConstants.Server.CONFIG_OF_SEGMENT_STREAM_DOWNLOAD_UNTAR,
+        CommonConstants.Server.DEFAULT_SEGMENT_STREAM_DOWNLOAD_UNTAR);
+
+    String remoteSegmentDirUri = config.getString(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_DIR_URI, null);
+    long remoteSegmentMinAgeMs = config.getLong(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_MIN_AGE_MS,
+        CommonConstants.Server.DEFAULT_REMOTE_SEGMENT_MIN_AGE_MS);
+    if (remoteSegmentDirUri != null && remoteSegmentMinAgeMs > 0) {
+      BlockCache.init(config.getInt(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_BLOCK_SIZE_BYTES,
+          CommonConstants.Server.DEFAULT_REMOTE_SEGMENT_BLOCK_SIZE_BYTES),
+          config.getLong(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_CACHE_MEMORY_BYTES,
+              CommonConstants.Server.DEFAULT_REMOTE_SEGMENT_CACHE_MEMORY_BYTES),
+          new File(config.getString(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_CACHE_DIR,
+              CommonConstants.Server.DEFAULT_REMOTE_SEGMENT_CACHE_DIR)),
+          config.getLong(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_CACHE_DISK_BYTES,
+              CommonConstants.Server.DEFAULT_REMOTE_SEGMENT_CACHE_DISK_BYTES),
+          config.getInt(CommonConstants.Server.CONFIG_OF_REMOTE_SEGMENT_READ_AHEAD_BLOCKS,
+              CommonConstants.Server.DEFAULT_REMOTE_SEGMENT_READ_AHEAD_BLOCKS));
+      LOGGER.info("Serving segments older than {}ms from: {}", remoteSegmentMinAgeMs, remoteSegmentDirUri);
+      _remoteSegmentDirUri = remoteSegmentDirUri;
+      _remoteSegmentMinAgeMs = remoteSegmentMinAgeMs;
+    } else {
+      _remoteSegmentDirUri = null;
+      _remoteSegmentMinAgeMs = -1L;
+    }
   }
 
   public void addOrReplaceOfflineSegment(String tableNameWithType, String segmentName) {
@@ -139,6 +171,20 @@ public class SegmentFetcherAndLoader {
         } else {
           LOGGER.info("Trying to refresh segment {} of table {} with new data.", segmentName, tableNameWithType);
         }
+        if (isColdSegment(newSegmentZKMetadata)) {
+          File indexDir = new File(getSegmentLocalDirectory(tableNameWithType, segmentName));
+          URI remoteIndexDirUri = URI.create(_remoteSegmentDirUri + "/" + tableNameWithType + "/" + segmentName);
+          try {
+            RemoteSegmentUtils.setUpRemoteSegment(remoteIndexDirUri, indexDir);
+            _instanceDataManager.addOfflineSegment(tableNameWithType, segmentName, indexDir);
+            LOGGER.info("Serving segment {} of table {} from: {}", segmentName, tableNameWithType, remoteIndexDirUri);
+            return;
+          } catch (Exception e) {
+            LOGGER.warn("Failed to serve segment {} of table {} from: {}, downloading it", segmentName,
+                tableNameWithType, remoteIndexDirUri, e);
+            FileUtils.deleteQuietly(indexDir);
+          }
+        }
         String uri = newSegmentZKMetadata.getDownloadUrl();
         String crypterName = newSegmentZKMetadata.getCrypterName();
         PinotCrypter crypter = (crypterName != null) ? PinotCrypterFactory.create(crypterName) : null;
@@ -178,8 +224,26 @@ public class SegmentFetcherAndLoader {
     return newCrc != existedCrc;
   }
 
+  /**
+   * Returns whether the segment should be served directly from the deep store based on its end time.
+   */
+  private boolean isColdSegment(OfflineSegmentZKMetadata segmentZKMetadata) {
+    if (_remoteSegmentDirUri == null) {
+      return false;
+    }
+    long endTime = segmentZKMetadata.getEndTime();
+    if (endTime < 0 || segmentZKMetadata.getTimeUnit() == null) {
+      return false;
+    }
+    return segmentZKMetadata.getTimeUnit().toMillis(endTime) < System.currentTimeMillis() - _remoteSegmentMinAgeMs;
+  }
+
   private String downloadSegmentToLocal(String uri, PinotCrypter crypter, String tableName, String segmentName)
       throws Exception {
+    // Encrypted segment needs to be decrypted as a whole before untarring
+    if (_streamDownloadUntar && crypter == null) {
+      return downloadUntarSegmentToLocalStreamed(uri, tableName, segmentName);
+    }
     File tempDir = new File(new File(_instanceDataManager.getSegmentFileDirectory(), tableName),
         "tmp_" + segmentName + "_" + System.nanoTime());
     FileUtils.forceMkdir(tempDir);
@@ -219,6 +283,35 @@ public class SegmentFetcherAndLoader {
     }
   }
 
+  /**
+   * Downloads the segment and untars it on the fly into a temporary directory under the table data directory, then
+   * moves (renames) it to the index directory. This avoids writing and reading back the tar.gz file.
+   */
+  private String downloadUntarSegmentToLocalStreamed(String uri, String tableName, String segmentName)
+      throws Exception {
+    File tableDataDir = new File(_instanceDataManager.getSegmentDataDirectory(), tableName);
+    File tempSegmentDir = new File(tableDataDir, "tmp_" + segmentName + "_" + System.nanoTime());
+    try {
+      SegmentFetcherFactory.fetchUntarSegmentToLocalStreamed(uri, tempSegmentDir);
+
+      File[] files = tempSegmentDir.listFiles();
+      Preconditions.checkState(files != null && files.length == 1);
+      File tempIndexDir = files[0];
+
+      File indexDir = new File(tableDataDir, segmentName);
+      if (indexDir.exists()) {
+        LOGGER.info("Deleting existing index directory for segment: {} for table: {}", segmentName, tableName);
+        FileUtils.deleteDirectory(indexDir);
+      }
+      FileUtils.moveDirectory(tempIndexDir, indexDir);
+      LOGGER.info("Successfully downloaded and untarred segment: {} for table: {} to: {}", segmentName, tableName,
+          indexDir);
+      return indexDir.getAbsolutePath();
+    } finally {
+      FileUtils.deleteQuietly(tempSegmentDir);
+    }
+  }
+
   public String getSegmentLocalDirectory(String tableName, String segmentId) {
     return _instanceDataManager.getSegmentDataDirectory() + "/" + tableName + "/" + segmentId;
   }
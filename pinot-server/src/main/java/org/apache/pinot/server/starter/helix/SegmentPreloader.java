@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SegmentPreloader} loads the OFFLINE segments that are assigned to this instance and already present on
+ * the local disk with a bounded number of threads, before the server starts receiving state transitions.
+ * <p>The segments are loaded in the order of recency (most recently modified index directory first) so that the
+ * newest data, which is usually the most queried, becomes available first. Once a segment is preloaded, the
+ * OFFLINE -> ONLINE state transition for it becomes a no-op because the segment is already loaded with the same CRC.
+ * <p>Failures are logged and skipped, and the state transition will retry loading (or downloading) the segment.
+ * <p>The preload is bounded by a timeout. After the timeout, the segments not yet started are skipped and left to the
+ * state transitions, and only the segments being loaded are waited for.
+ */
+public class SegmentPreloader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreloader.class);
+  private static final String THREAD_NAME_PREFIX = "segment-preloader";
+
+  private final String _instanceId;
+  private final HelixManager _helixManager;
+  private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final int _numThreads;
+  private final long _timeoutMs;
+
+  public SegmentPreloader(String instanceId, HelixManager helixManager, SegmentFetcherAndLoader fetcherAndLoader,
+      int numThreads, long timeoutMs) {
+    _instanceId = instanceId;
+    _helixManager = helixManager;
+    _fetcherAndLoader = fetcherAndLoader;
+    _numThreads = numThreads;
+    _timeoutMs = timeoutMs;
+  }
+
+  /**
+   * Loads the local segments in parallel and blocks until all of them are processed or the timeout is reached.
+   */
+  public void preload() {
+    long startTimeMs = System.currentTimeMillis();
+    List<SegmentToLoad> segmentsToLoad = getSegmentsToLoad();
+    int numSegments = segmentsToLoad.size();
+    if (numSegments == 0) {
+      LOGGER.info("No local segment to preload");
+      return;
+    }
+    // Most recent segments first
+    segmentsToLoad.sort(Comparator.comparingLong((SegmentToLoad segment) -> segment._lastModified).reversed());
+
+    int numThreads = Math.min(_numThreads, numSegments);
+    LOGGER.info("Preloading {} local segments with {} threads", numSegments, numThreads);
+    AtomicInteger numFailedSegments = new AtomicInteger();
+    AtomicInteger numSkippedSegments = new AtomicInteger();
+    AtomicBoolean timedOut = new AtomicBoolean();
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(numThreads, new NamedThreadFactory(THREAD_NAME_PREFIX));
+    for (SegmentToLoad segment : segmentsToLoad) {
+      executorService.submit(() -> {
+        if (timedOut.get()) {
+          numSkippedSegments.getAndIncrement();
+          return;
+        }
+        try {
+          _fetcherAndLoader.addOrReplaceOfflineSegment(segment._tableNameWithType, segment._segmentName);
+        } catch (Exception e) {
+          numFailedSegments.getAndIncrement();
+          LOGGER.error("Caught exception while preloading segment: {} of table: {}", segment._segmentName,
+              segment._tableNameWithType, e);
+        }
+      });
+    }
+    executorService.shutdown();
+    try {
+      if (!executorService.awaitTermination(_timeoutMs, TimeUnit.MILLISECONDS)) {
+        LOGGER.warn("Timed out preloading local segments after {}ms, skipping the segments not yet started",
+            _timeoutMs);
+        timedOut.set(true);
+        // Wait for the segments being loaded, which takes at most one segment load per thread
+        while (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+          LOGGER.info("Still waiting for the segments being preloaded after {}ms",
+              System.currentTimeMillis() - startTimeMs);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted while preloading local segments, skipping the remaining segments");
+      executorService.shutdownNow();
+      Thread.currentThread().interrupt();
+      return;
+    }
+    LOGGER.info("Finished preloading {} local segments ({} failed, {} skipped) in {}ms", numSegments,
+        numFailedSegments.get(), numSkippedSegments.get(), System.currentTimeMillis() - startTimeMs);
+  }
+
+  /**
+   * Returns the ONLINE segments of the enabled OFFLINE tables assigned to this instance in the ideal state whose index
+   * directory exists on the local disk.
+   */
+  private List<SegmentToLoad> getSegmentsToLoad() {
+    HelixDataAccessor helixDataAccessor = _helixManager.getHelixDataAccessor();
+    PropertyKey.Builder keyBuilder = helixDataAccessor.keyBuilder();
+    List<SegmentToLoad> segmentsToLoad = new ArrayList<>();
+    for (String resourceName : helixDataAccessor.getChildNames(keyBuilder.idealStates())) {
+      if (!TableNameBuilder.isOfflineTableResource(resourceName)) {
+        continue;
+      }
+      IdealState idealState = helixDataAccessor.getProperty(keyBuilder.idealStates(resourceName));
+      if (idealState == null || !idealState.isEnabled()) {
+        continue;
+      }
+      for (String segmentName : idealState.getPartitionSet()) {
+        String state = idealState.getInstanceStateMap(segmentName).get(_instanceId);
+        if (!SegmentOnlineOfflineStateModel.ONLINE.equals(state)) {
+          continue;
+        }
+        File indexDir = new File(_fetcherAndLoader.getSegmentLocalDirectory(resourceName, segmentName));
+        if (indexDir.isDirectory()) {
+          segmentsToLoad.add(new SegmentToLoad(resourceName, segmentName, indexDir.lastModified()));
+        }
+      }
+    }
+    return segmentsToLoad;
+  }
+
+  private static class SegmentToLoad {
+    final String _tableNameWithType;
+    final String _segmentName;
+    final long _lastModified;
+
+    SegmentToLoad(String tableNameWithType, String segmentName, long lastModified) {
+      _tableNameWithType = tableNameWithType;
+      _segmentName = segmentName;
+      _lastModified = lastModified;
+    }
+  }
+}
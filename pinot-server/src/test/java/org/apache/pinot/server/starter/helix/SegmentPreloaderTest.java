@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import java.io.File;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.apache.helix.HelixDataAccessor;
+import org.apache.helix.HelixManager;
+import org.apache.helix.PropertyKey;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel;
+import org.mockito.InOrder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests that the {@link SegmentPreloader} only preloads the local ONLINE segments of the enabled OFFLINE tables, in
+ * the order of recency, and keeps preloading when some segments fail or stops when timed out.
+ */
+public class SegmentPreloaderTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SegmentPreloaderTest");
+  private static final String INSTANCE_ID = "Server_localhost_8098";
+  private static final String OTHER_INSTANCE_ID = "Server_localhost_8099";
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final String REALTIME_TABLE_NAME = "testTable_REALTIME";
+  private static final String DISABLED_TABLE_NAME = "disabledTable_OFFLINE";
+  private static final String BROKER_RESOURCE = "brokerResource";
+  private static final String ONLINE = SegmentOnlineOfflineStateModel.ONLINE;
+  private static final String OFFLINE = SegmentOnlineOfflineStateModel.OFFLINE;
+
+  // Expected segments to preload, ordered from the most recent to the least recent
+  private static final String NEWEST_SEGMENT = "segment1";
+  private static final String MIDDLE_SEGMENT = "segment2";
+  private static final String OLDEST_SEGMENT = "segment0";
+
+  private HelixManager _helixManager;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+
+    long currentTimeMs = System.currentTimeMillis();
+    IdealState offlineIdealState = new IdealState(OFFLINE_TABLE_NAME);
+    addSegment(offlineIdealState, OLDEST_SEGMENT, INSTANCE_ID, ONLINE, currentTimeMs - 300_000L);
+    addSegment(offlineIdealState, NEWEST_SEGMENT, INSTANCE_ID, ONLINE, currentTimeMs - 100_000L);
+    addSegment(offlineIdealState, MIDDLE_SEGMENT, INSTANCE_ID, ONLINE, currentTimeMs - 200_000L);
+    // Not ONLINE on this instance
+    addSegment(offlineIdealState, "segment3", INSTANCE_ID, OFFLINE, currentTimeMs);
+    addSegment(offlineIdealState, "segment4", OTHER_INSTANCE_ID, ONLINE, currentTimeMs);
+    // Not on the local disk
+    offlineIdealState.setPartitionState("segment5", INSTANCE_ID, ONLINE);
+
+    // REALTIME table
+    IdealState realtimeIdealState = new IdealState(REALTIME_TABLE_NAME);
+    addSegment(realtimeIdealState, "segment6", INSTANCE_ID, ONLINE, currentTimeMs);
+
+    // Disabled table
+    IdealState disabledIdealState = new IdealState(DISABLED_TABLE_NAME);
+    addSegment(disabledIdealState, "segment7", INSTANCE_ID, ONLINE, currentTimeMs);
+    disabledIdealState.enable(false);
+
+    // Non-table resource
+    IdealState brokerIdealState = new IdealState(BROKER_RESOURCE);
+    brokerIdealState.setPartitionState(OFFLINE_TABLE_NAME, INSTANCE_ID, ONLINE);
+
+    _helixManager = mock(HelixManager.class);
+    HelixDataAccessor helixDataAccessor = mock(HelixDataAccessor.class);
+    when(_helixManager.getHelixDataAccessor()).thenReturn(helixDataAccessor);
+    PropertyKey.Builder keyBuilder = mock(PropertyKey.Builder.class);
+    when(helixDataAccessor.keyBuilder()).thenReturn(keyBuilder);
+    PropertyKey idealStatesKey = mock(PropertyKey.class);
+    when(keyBuilder.idealStates()).thenReturn(idealStatesKey);
+    when(helixDataAccessor.getChildNames(idealStatesKey)).thenReturn(
+        Arrays.asList(OFFLINE_TABLE_NAME, REALTIME_TABLE_NAME, DISABLED_TABLE_NAME, BROKER_RESOURCE));
+    for (IdealState idealState : Arrays
+        .asList(offlineIdealState, realtimeIdealState, disabledIdealState, brokerIdealState)) {
+      PropertyKey idealStateKey = mock(PropertyKey.class);
+      when(keyBuilder.idealStates(idealState.getResourceName())).thenReturn(idealStateKey);
+      when(helixDataAccessor.getProperty(idealStateKey)).thenReturn(idealState);
+    }
+  }
+
+  private static void addSegment(IdealState idealState, String segmentName, String instanceId, String state,
+      long lastModified)
+      throws Exception {
+    idealState.setPartitionState(segmentName, instanceId, state);
+    File indexDir = getIndexDir(idealState.getResourceName(), segmentName);
+    FileUtils.forceMkdir(indexDir);
+    indexDir.setLastModified(lastModified);
+  }
+
+  private static File getIndexDir(String tableNameWithType, String segmentName) {
+    return new File(new File(TEMP_DIR, tableNameWithType), segmentName);
+  }
+
+  private static SegmentFetcherAndLoader createFetcherAndLoader() {
+    SegmentFetcherAndLoader fetcherAndLoader = mock(SegmentFetcherAndLoader.class);
+    when(fetcherAndLoader.getSegmentLocalDirectory(anyString(), anyString())).thenAnswer(
+        invocation -> getIndexDir(invocation.getArgument(0), invocation.getArgument(1)).getAbsolutePath());
+    return fetcherAndLoader;
+  }
+
+  @Test
+  public void testPreload() {
+    SegmentFetcherAndLoader fetcherAndLoader = createFetcherAndLoader();
+    // Use single thread to check the order
+    new SegmentPreloader(INSTANCE_ID, _helixManager, fetcherAndLoader, 1, 60_000L).preload();
+
+    InOrder inOrder = inOrder(fetcherAndLoader);
+    inOrder.verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, NEWEST_SEGMENT);
+    inOrder.verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, MIDDLE_SEGMENT);
+    inOrder.verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, OLDEST_SEGMENT);
+    verify(fetcherAndLoader, times(3)).addOrReplaceOfflineSegment(anyString(), anyString());
+  }
+
+  @Test
+  public void testPreloadInParallel() {
+    SegmentFetcherAndLoader fetcherAndLoader = createFetcherAndLoader();
+    new SegmentPreloader(INSTANCE_ID, _helixManager, fetcherAndLoader, 4, 60_000L).preload();
+
+    for (String segmentName : Arrays.asList(NEWEST_SEGMENT, MIDDLE_SEGMENT, OLDEST_SEGMENT)) {
+      verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, segmentName);
+    }
+    verify(fetcherAndLoader, times(3)).addOrReplaceOfflineSegment(anyString(), anyString());
+  }
+
+  @Test
+  public void testPreloadWithFailure() {
+    SegmentFetcherAndLoader fetcherAndLoader = createFetcherAndLoader();
+    doThrow(new RuntimeException()).when(fetcherAndLoader)
+        .addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, NEWEST_SEGMENT);
+    new SegmentPreloader(INSTANCE_ID, _helixManager, fetcherAndLoader, 1, 60_000L).preload();
+
+    // Should keep preloading the other segments
+    InOrder inOrder = inOrder(fetcherAndLoader);
+    inOrder.verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, NEWEST_SEGMENT);
+    inOrder.verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, MIDDLE_SEGMENT);
+    inOrder.verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, OLDEST_SEGMENT);
+  }
+
+  @Test
+  public void testPreloadWithTimeout() {
+    SegmentFetcherAndLoader fetcherAndLoader = createFetcherAndLoader();
+    doAnswer(invocation -> {
+      Thread.sleep(1000L);
+      return null;
+    }).when(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, NEWEST_SEGMENT);
+    new SegmentPreloader(INSTANCE_ID, _helixManager, fetcherAndLoader, 1, 100L).preload();
+
+    // Should wait for the segment being loaded, and skip the remaining segments
+    verify(fetcherAndLoader).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, NEWEST_SEGMENT);
+    verify(fetcherAndLoader, never()).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, MIDDLE_SEGMENT);
+    verify(fetcherAndLoader, never()).addOrReplaceOfflineSegment(OFFLINE_TABLE_NAME, OLDEST_SEGMENT);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
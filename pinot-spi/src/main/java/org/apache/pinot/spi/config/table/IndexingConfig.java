@@ -31,6 +31,7 @@ public class IndexingConfig extends BaseJsonConfig {
   private boolean _createInvertedIndexDuringSegmentGeneration;
   private List<String> _sortedColumn;
   private List<String> _bloomFilterColumns;
+  private List<String> _rangeIndexColumns;
   private String _loadMode;
   private Map<String, String> _streamConfigs;
   private String _segmentFormatVersion;
@@ -41,6 +42,9 @@ public class IndexingConfig extends BaseJsonConfig {
   private List<StarTreeIndexConfig> _starTreeIndexConfigs;
   private SegmentPartitionConfig _segmentPartitionConfig;
   private boolean _aggregateMetrics;
+  // Map from metric column to the aggregation function (SUM, MIN or MAX) applied when aggregating metrics, SUM if not
+  // configured
+  private Map<String, String> _metricAggregationFunctions;
   private boolean _nullHandlingEnabled;
 
   /**
@@ -93,6 +97,15 @@ public class IndexingConfig extends BaseJsonConfig {
     _bloomFilterColumns = bloomFilterColumns;
   }
 
+  @Nullable
+  public List<String> getRangeIndexColumns() {
+    return _rangeIndexColumns;
+  }
+
+  public void setRangeIndexColumns(List<String> rangeIndexColumns) {
+    _rangeIndexColumns = rangeIndexColumns;
+  }
+
   @Nullable
   public String getLoadMode() {
     return _loadMode;
@@ -191,6 +204,15 @@ public class IndexingConfig extends BaseJsonConfig {
     _aggregateMetrics = value;
   }
 
+  @Nullable
+  public Map<String, String> getMetricAggregationFunctions() {
+    return _metricAggregationFunctions;
+  }
+
+  public void setMetricAggregationFunctions(Map<String, String> metricAggregationFunctions) {
+    _metricAggregationFunctions = metricAggregationFunctions;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
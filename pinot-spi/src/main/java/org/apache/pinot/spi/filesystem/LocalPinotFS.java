@@ -153,6 +153,19 @@ public class LocalPinotFS extends PinotFS {
     return new BufferedInputStream(new FileInputStream(toFile(uri)));
   }
 
+  @Override
+  public InputStream open(URI uri, long offset, long length)
+      throws IOException {
+    FileInputStream fileInputStream = new FileInputStream(toFile(uri));
+    try {
+      fileInputStream.getChannel().position(offset);
+    } catch (IOException e) {
+      fileInputStream.close();
+      throw e;
+    }
+    return new BufferedInputStream(fileInputStream);
+  }
+
   private static File toFile(URI uri) {
     // NOTE: Do not use new File(uri) because scheme might not exist and it does not decode '+' to ' '
     //       Do not use uri.getPath() because it does not decode '+' to ' '
@@ -230,6 +230,40 @@ public abstract class PinotFS implements Closeable, Serializable {
   public abstract InputStream open(URI uri)
       throws IOException;
 
+  /**
+   * Opens a file in the underlying filesystem and returns an InputStream to read at least {@code length} bytes starting
+   * from {@code offset}. Reading beyond {@code offset + length} is undefined.
+   * By default, this method opens the whole file and skips to the offset. Filesystems supporting range reads should
+   * override this method to avoid reading the skipped bytes.
+   * @param uri location of the file to open
+   * @param offset offset of the first byte to read
+   * @param length number of bytes to read
+   * @return a new InputStream
+   * @throws IOException on any IO error - missing file, not a file, offset out of range etc
+   */
+  public InputStream open(URI uri, long offset, long length)
+      throws IOException {
+    InputStream inputStream = open(uri);
+    try {
+      long remaining = offset;
+      while (remaining > 0) {
+        long skipped = inputStream.skip(remaining);
+        if (skipped <= 0) {
+          // skip() may skip less bytes without reaching the end of the stream, use read() to detect the end
+          if (inputStream.read() == -1) {
+            throw new IOException("Offset: " + offset + " is out of range for file: " + uri);
+          }
+          skipped = 1;
+        }
+        remaining -= skipped;
+      }
+    } catch (IOException e) {
+      inputStream.close();
+      throw e;
+    }
+    return inputStream;
+  }
+
   /**
    * For certain filesystems, we may need to close the filesystem and do relevant operations to prevent leaks.
    * By default, this method does nothing.
@@ -104,6 +104,12 @@ public class SegmentGenerationJobSpec implements Serializable {
    */
   private PushJobSpec _pushJobSpec;
 
+  /**
+   * Number of threads used to build the dictionaries and indexes of the columns in parallel within one segment. Not
+   * set (0) or 1 means building the columns sequentially.
+   */
+  private int _numIndexCreationThreads;
+
   public ExecutionFrameworkSpec getExecutionFrameworkSpec() {
     return _executionFrameworkSpec;
   }
@@ -232,6 +238,12 @@ public class SegmentGenerationJobSpec implements Serializable {
   public void setPushJobSpec(PushJobSpec pushJobSpec) {
     _pushJobSpec = pushJobSpec;
   }
-}
 
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
 
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
+}
@@ -64,6 +64,12 @@ public class SegmentGenerationTaskSpec implements Serializable {
    */
   private int _sequenceId;
 
+  /**
+   * Number of threads used to build the dictionaries and indexes of the columns in parallel within one segment. Not
+   * set (0) or 1 means building the columns sequentially.
+   */
+  private int _numIndexCreationThreads;
+
   public JsonNode getTableConfig() {
     return _tableConfig;
   }
@@ -119,4 +125,12 @@ public class SegmentGenerationTaskSpec implements Serializable {
   public void setSequenceId(int sequenceId) {
     _sequenceId = sequenceId;
   }
+
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
 }
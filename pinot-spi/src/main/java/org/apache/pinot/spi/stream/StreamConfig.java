@@ -54,6 +54,7 @@ public class StreamConfig {
 
   public static final long DEFAULT_STREAM_CONNECTION_TIMEOUT_MILLIS = 30_000;
   public static final int DEFAULT_STREAM_FETCH_TIMEOUT_MILLIS = 5_000;
+  public static final int DEFAULT_DECODER_NUM_THREADS = 1;
 
   private static final String SIMPLE_CONSUMER_TYPE_STRING = "simple";
 
@@ -65,6 +66,7 @@ public class StreamConfig {
   private final OffsetCriteria _offsetCriteria;
   private final String _decoderClass;
   private final Map<String, String> _decoderProperties = new HashMap<>();
+  private final int _decoderNumThreads;
 
   private final long _connectionTimeoutMillis;
   private final int _fetchTimeoutMillis;
@@ -133,6 +135,20 @@ public class StreamConfig {
       }
     }
 
+    int decoderNumThreads = DEFAULT_DECODER_NUM_THREADS;
+    String decoderNumThreadsValue = streamConfigMap.get(StreamConfigProperties.DECODER_NUM_THREADS);
+    if (decoderNumThreadsValue != null) {
+      try {
+        decoderNumThreads = Integer.parseInt(decoderNumThreadsValue);
+        Preconditions.checkState(decoderNumThreads > 0);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid config {}: {}, defaulting to: {}", StreamConfigProperties.DECODER_NUM_THREADS,
+            decoderNumThreadsValue, DEFAULT_DECODER_NUM_THREADS);
+        decoderNumThreads = DEFAULT_DECODER_NUM_THREADS;
+      }
+    }
+    _decoderNumThreads = decoderNumThreads;
+
     long connectionTimeoutMillis = DEFAULT_STREAM_CONNECTION_TIMEOUT_MILLIS;
     String connectionTimeoutKey =
         StreamConfigProperties.constructStreamProperty(_type, StreamConfigProperties.STREAM_CONNECTION_TIMEOUT_MILLIS);
@@ -273,6 +289,10 @@ public class StreamConfig {
     return _decoderProperties;
   }
 
+  public int getDecoderNumThreads() {
+    return _decoderNumThreads;
+  }
+
   public long getConnectionTimeoutMillis() {
     return _connectionTimeoutMillis;
   }
@@ -317,8 +337,8 @@ public class StreamConfig {
         + _fetchTimeoutMillis + ", _flushThresholdRows=" + _flushThresholdRows + ", _flushThresholdTimeMillis="
         + _flushThresholdTimeMillis + ", _flushSegmentDesiredSizeBytes=" + _flushSegmentDesiredSizeBytes
         + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _decoderClass='" + _decoderClass + '\''
-        + ", _decoderProperties=" + _decoderProperties + ", _groupId='" + _groupId + ", _tableNameWithType='"
-        + _tableNameWithType + '}';
+        + ", _decoderProperties=" + _decoderProperties + ", _decoderNumThreads=" + _decoderNumThreads + ", _groupId='"
+        + _groupId + ", _tableNameWithType='" + _tableNameWithType + '}';
   }
 
   @Override
@@ -344,6 +364,7 @@ public class StreamConfig {
         .isEqual(_consumerFactoryClassName, that._consumerFactoryClassName) && EqualityUtils
         .isEqual(_offsetCriteria, that._offsetCriteria) && EqualityUtils.isEqual(_decoderClass, that._decoderClass)
         && EqualityUtils.isEqual(_decoderProperties, that._decoderProperties) && EqualityUtils
+        .isEqual(_decoderNumThreads, that._decoderNumThreads) && EqualityUtils
         .isEqual(_groupId, that._groupId) && EqualityUtils.isEqual(_tableNameWithType, that._tableNameWithType)
         && EqualityUtils.isEqual(_streamConfigMap, that._streamConfigMap);
   }
@@ -363,6 +384,7 @@ public class StreamConfig {
     result = EqualityUtils.hashCodeOf(result, _flushAutotuneInitialRows);
     result = EqualityUtils.hashCodeOf(result, _decoderClass);
     result = EqualityUtils.hashCodeOf(result, _decoderProperties);
+    result = EqualityUtils.hashCodeOf(result, _decoderNumThreads);
     result = EqualityUtils.hashCodeOf(result, _groupId);
     result = EqualityUtils.hashCodeOf(result, _streamConfigMap);
     result = EqualityUtils.hashCodeOf(result, _tableNameWithType);
@@ -97,6 +97,14 @@ public class StreamConfigProperties {
   // Time threshold that controller will wait for the segment to be built by the server
   public static final String SEGMENT_COMMIT_TIMEOUT_SECONDS = "realtime.segment.commit.timeoutSeconds";
 
+  /**
+   * Number of threads used to decode and transform the consumed messages for a stream partition. With more than one
+   * thread, the messages are decoded and transformed in parallel (in a pipeline ahead of the indexing), which helps
+   * when decoding is the bottleneck of the consumption. By default 1 is used, where the messages are decoded by the
+   * consumer thread.
+   */
+  public static final String DECODER_NUM_THREADS = "realtime.decoder.numThreads";
+
   /**
    * Helper method to create a stream specific property
    */
@@ -38,6 +38,10 @@ public class IndexingConfigTest {
     IndexingConfig indexingConfig = new IndexingConfig();
     indexingConfig.setLoadMode("MMAP");
     indexingConfig.setAggregateMetrics(true);
+    Map<String, String> metricAggregationFunctions = new HashMap<>();
+    metricAggregationFunctions.put("m1", "MAX");
+    metricAggregationFunctions.put("m2", "MIN");
+    indexingConfig.setMetricAggregationFunctions(metricAggregationFunctions);
     List<String> invertedIndexColumns = Arrays.asList("a", "b", "c");
     indexingConfig.setInvertedIndexColumns(invertedIndexColumns);
     List<String> sortedColumn = Arrays.asList("d", "e", "f");
@@ -57,6 +61,7 @@ public class IndexingConfigTest {
 
     assertEquals(indexingConfig.getLoadMode(), "MMAP");
     assertTrue(indexingConfig.isAggregateMetrics());
+    assertEquals(indexingConfig.getMetricAggregationFunctions(), metricAggregationFunctions);
     assertEquals(indexingConfig.getInvertedIndexColumns(), invertedIndexColumns);
     assertEquals(indexingConfig.getSortedColumn(), sortedColumn);
     assertEquals(indexingConfig.getOnHeapDictionaryColumns(), onHeapDictionaryColumns);